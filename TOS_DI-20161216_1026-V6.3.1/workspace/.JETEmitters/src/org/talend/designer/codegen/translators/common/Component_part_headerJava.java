@@ -151,6 +151,7 @@ public class Component_part_headerJava
   protected final String TEXT_122 = NL + "\t\t\t\t\t\tresourceMap.remove(\"inIterateVComp\");" + NL + "\t\t\t\t\t";
   protected final String TEXT_123 = NL + "\t\t\t\t\t\tresourceMap.put(\"inIterateVComp\", true);" + NL + "\t\t\t\t\t";
   protected final String TEXT_124 = NL;
+  protected final String TEXT_125 = ", true";
 
   public String generate(Object argument)
   {
@@ -484,6 +485,9 @@ LogUtil log = null;
     stringBuffer.append(iterateConn.getTarget().getUniqueName() );
     stringBuffer.append(TEXT_49);
     stringBuffer.append(ElementParameterParser.getValue(iterateConn,"__NUMBER_PARALLEL__") );
+    if ("true".equals(ElementParameterParser.getValue(iterateConn,"__VIRTUAL_THREADS__"))) {
+    stringBuffer.append(TEXT_125);
+    }
     stringBuffer.append(TEXT_50);
     stringBuffer.append(iterateNodeName);
     stringBuffer.append(TEXT_51);
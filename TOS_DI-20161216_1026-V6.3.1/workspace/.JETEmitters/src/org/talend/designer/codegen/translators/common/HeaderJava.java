@@ -197,6 +197,19 @@ public class HeaderJava
   protected final String TEXT_161 = NL + "\t\t\t\t} catch (Exception e) {" + NL + "\t\t\t\t\te.printStackTrace();" + NL + "\t\t\t\t}";
   protected final String TEXT_162 = NL + "\t\t\t}";
   protected final String TEXT_163 = NL;
+  protected final String TEXT_164 = NL + "\t\tprivate final routines.system.JobVariableStore jobVariables = new routines.system.JobVariableStore(globalMap);" + NL + "\t";
+  protected final String TEXT_165 = " = new LogCatcherUtils(";
+  protected final String TEXT_166 = ", \"";
+  protected final String TEXT_167 = "\");";
+  protected final String TEXT_168 = "\", ";
+  protected final String TEXT_169 = ", \"";
+  protected final String TEXT_170 = "\");";
+  protected final String TEXT_171 = "\", ";
+  protected final String TEXT_172 = ", \"";
+  protected final String TEXT_173 = "\");";
+  protected final String TEXT_174 = NL + "\t\tprivate final java.util.Map<String, Object> globalMap = java.util.Collections.synchronizedMap(new java.util.HashMap<String, Object>());" + NL + "        private final static java.util.Map<String, Object> junitGlobalMap = new java.util.HashMap<String, Object>();" + NL + "\t";
+  protected final String TEXT_175 = NL + "\t\tprivate final java.util.Map<String, Long> start_Hash = new java.util.HashMap<String, Long>();" + NL + "\t\tprivate final java.util.Map<String, Long> end_Hash = new java.util.HashMap<String, Long>();" + NL + "\t\tprivate final java.util.Map<String, Boolean> ok_Hash = new java.util.HashMap<String, Boolean>();" + NL + "\t\tpublic  final routines.system.TypedRowBuffer globalBuffer = new routines.system.TypedRowBuffer();" + NL + "\t";
+  protected final String TEXT_176 = NL + "\t\tprivate final java.util.Map<String, Long> start_Hash = java.util.Collections.synchronizedMap(new java.util.HashMap<String, Long>());" + NL + "\t\tprivate final java.util.Map<String, Long> end_Hash = java.util.Collections.synchronizedMap(new java.util.HashMap<String, Long>());" + NL + "\t\tprivate final java.util.Map<String, Boolean> ok_Hash = java.util.Collections.synchronizedMap(new java.util.HashMap<String, Boolean>());" + NL + "\t\tpublic  final routines.system.TypedRowBuffer globalBuffer = new routines.system.TypedRowBuffer();" + NL + "\t";
 
   public String generate(Object argument)
   {
@@ -211,6 +224,15 @@ public class HeaderJava
 	boolean stats = codeGenArgument.isStatistics();
 	boolean trace = codeGenArgument.isTrace();
 	boolean isRunInMultiThread = codeGenArgument.getIsRunInMultiThread();
+	// the catchers delivered by a background thread, their subjobs run beside the job
+	List<INode> asyncCatchers = new ArrayList<INode>();
+	for (String catcherType : new String[] {"tLogCatcher", "tStatCatcher", "tFlowMeterCatcher"}) {
+		for (INode catcher : process.getNodesOfType(catcherType)) {
+			if (("true").equals(ElementParameterParser.getValue(catcher, "__ASYNC_DELIVERY__"))) {
+				asyncCatchers.add(catcher);
+			}
+		}
+	}
 	List<IContextParameter> params = new ArrayList<IContextParameter>();
 	params=process.getContextManager().getDefaultContext().getContextParameterList();
 	String className = process.getName();
@@ -470,24 +492,49 @@ if(isRunInMultiThread){
 	
     stringBuffer.append(TEXT_83);
     
+	} else if (!asyncCatchers.isEmpty()) {
+	
+    stringBuffer.append(TEXT_174);
+    
 	} else {
 	
     stringBuffer.append(TEXT_84);
     
 	}
+	
+    stringBuffer.append(TEXT_164);
+    
 	boolean exist_tParallelize = false;
     List<? extends INode> tParallelizeList = process.getNodesOfType("tParallelize");
     if(tParallelizeList != null && tParallelizeList.size() > 0){
         exist_tParallelize = true;
     }
-	if(!isRunInMultiThread && !exist_tParallelize){
+	// the rows of the tBufferOutputs are kept by column when they all ask for it
+	boolean typedBuffer = !process.getNodesOfType("tBufferOutput").isEmpty();
+	for (INode bufferOutput : process.getNodesOfType("tBufferOutput")) {
+		typedBuffer = typedBuffer && ("true").equals(ElementParameterParser.getValue(bufferOutput, "__TYPED_BUFFER__"));
+	}
+	// the asynchronous catchers run their subjobs in the delivery thread, which sets the hashes too
+	if(!isRunInMultiThread && !exist_tParallelize && asyncCatchers.isEmpty()){
+		if (typedBuffer) {
+	
+    stringBuffer.append(TEXT_175);
+    
+		} else {
 	
     stringBuffer.append(TEXT_85);
     
+		}
 	}else{
+		if (typedBuffer) {
+	
+    stringBuffer.append(TEXT_176);
+    
+		} else {
 	
     stringBuffer.append(TEXT_86);
     
+		}
 	}
 	
     stringBuffer.append(TEXT_87);
@@ -511,8 +558,22 @@ if(isRunInMultiThread){
 
     stringBuffer.append(TEXT_91);
     stringBuffer.append(logCatcher.getUniqueName() );
+    
+		if (asyncCatchers.contains(logCatcher)) {
+			String queueSize = ElementParameterParser.getValue(logCatcher, "__QUEUE_SIZE__");
+			String queuePolicy = ElementParameterParser.getValue(logCatcher, "__QUEUE_FULL_POLICY__");
+
+    stringBuffer.append(TEXT_165);
+    stringBuffer.append(queueSize == null || ("").equals(queueSize.trim()) ? "0" : queueSize );
+    stringBuffer.append(TEXT_166);
+    stringBuffer.append(("DROP").equals(queuePolicy) ? "DROP" : "BLOCK" );
+    stringBuffer.append(TEXT_167);
+    
+		} else {
+
     stringBuffer.append(TEXT_92);
     
+		}
 	}
 
 	for (INode statCatcher : process.getNodesOfType("tStatCatcher")) {
@@ -523,8 +584,22 @@ if(isRunInMultiThread){
     stringBuffer.append(process.getId() );
     stringBuffer.append(TEXT_95);
     stringBuffer.append(process.getVersion() );
+    
+		if (asyncCatchers.contains(statCatcher)) {
+			String queueSize = ElementParameterParser.getValue(statCatcher, "__QUEUE_SIZE__");
+			String queuePolicy = ElementParameterParser.getValue(statCatcher, "__QUEUE_FULL_POLICY__");
+
+    stringBuffer.append(TEXT_168);
+    stringBuffer.append(queueSize == null || ("").equals(queueSize.trim()) ? "0" : queueSize );
+    stringBuffer.append(TEXT_169);
+    stringBuffer.append(("DROP").equals(queuePolicy) ? "DROP" : "BLOCK" );
+    stringBuffer.append(TEXT_170);
+    
+		} else {
+
     stringBuffer.append(TEXT_96);
     
+		}
 	}
 
 	for (INode metterCatcher : process.getNodesOfType("tFlowMeterCatcher")) {
@@ -535,8 +610,22 @@ if(isRunInMultiThread){
     stringBuffer.append(process.getId() );
     stringBuffer.append(TEXT_99);
     stringBuffer.append(process.getVersion() );
+    
+		if (asyncCatchers.contains(metterCatcher)) {
+			String queueSize = ElementParameterParser.getValue(metterCatcher, "__QUEUE_SIZE__");
+			String queuePolicy = ElementParameterParser.getValue(metterCatcher, "__QUEUE_FULL_POLICY__");
+
+    stringBuffer.append(TEXT_171);
+    stringBuffer.append(queueSize == null || ("").equals(queueSize.trim()) ? "0" : queueSize );
+    stringBuffer.append(TEXT_172);
+    stringBuffer.append(("DROP").equals(queuePolicy) ? "DROP" : "BLOCK" );
+    stringBuffer.append(TEXT_173);
+    
+		} else {
+
     stringBuffer.append(TEXT_100);
     
+		}
 	}
 
 	for (INode assertCatcher : process.getNodesOfType("tAssertCatcher")) {
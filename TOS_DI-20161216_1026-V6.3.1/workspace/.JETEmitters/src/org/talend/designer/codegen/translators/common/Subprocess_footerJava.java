@@ -87,6 +87,7 @@ public class Subprocess_footerJava
   protected final String TEXT_60 = NL + "\t\t/**" + NL + "\t\t * End of Function: ";
   protected final String TEXT_61 = "Process " + NL + "\t\t\t */" + NL + " \t\t";
   protected final String TEXT_62 = NL;
+  protected final String TEXT_63 = NL + NL + "\t\tjobVariables.publish();";
 
   public String generate(Object argument)
   {
@@ -371,6 +372,7 @@ public class Subprocess_footerJava
     
 		}//isParallelize
 		
+    stringBuffer.append(TEXT_63);
     stringBuffer.append(TEXT_58);
     stringBuffer.append(subTree.getName() );
     stringBuffer.append(TEXT_59);
@@ -280,6 +280,8 @@ public class Subprocess_headerJava
   protected final String TEXT_246 = NL + "\t\t\t";
   protected final String TEXT_247 = NL;
   protected final String TEXT_248 = NL;
+  protected final String TEXT_249 = "Process(final java.util.Map<String, Object> globalMap) throws TalendException {" + NL + "\tif (";
+  protected final String TEXT_250 = ".isDeferred()) {" + NL + "\t\t// run by the delivery thread of the catcher" + NL + "\t\treturn;" + NL + "\t}" + NL + "\tglobalMap.put(\"";
 
     // add the list of the connection names to avoid to declare two times the same name.
     public String createPrivateClassInstance(INode node, String parentLastRoot, boolean force) {
@@ -375,6 +377,33 @@ public class Subprocess_headerJava
         return toReturn;
     }
 		 
+	/**
+	 * @return true if the subjob only loads a lookup of a tMap in ELT_PUSHDOWN mode: the tMap joins it in the database,
+	 * or runs the subjob itself if it can not.
+	 */
+	public boolean isEltPushdownLookup(String startNodeName, List<? extends INode> nodes) {
+		INode current = null;
+		for (INode node : nodes) {
+			if (node.getUniqueName().equals(startNodeName)) {
+				current = node;
+			}
+		}
+		while (current != null) {
+			INode next = null;
+			for (IConnection connection : current.getOutgoingConnections()) {
+				if (connection.getLineStyle() == EConnectionType.FLOW_REF) {
+					INode target = connection.getTarget();
+					return "tMap".equals(target.getComponent().getName())
+							&& "true".equals(ElementParameterParser.getValue(target, "__ELT_PUSHDOWN__"));
+				} else if (connection.getLineStyle() == EConnectionType.FLOW_MAIN) {
+					next = connection.getTarget();
+				}
+			}
+			current = next;
+		}
+		return false;
+	}
+
     public String generate(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
@@ -1296,9 +1325,27 @@ public class Subprocess_headerJava
     stringBuffer.append(subTree.getName() );
     stringBuffer.append(TEXT_216);
      } 
+    
+	// a catcher subjob delivered by a background thread is only run there
+	INode asyncCatcher = null;
+	for (String catcherType : new String[] {"tLogCatcher", "tStatCatcher", "tFlowMeterCatcher"}) {
+		for (INode catcher : subTree.getRootNode().getProcess().getNodesOfType(catcherType)) {
+			if (("true").equals(ElementParameterParser.getValue(catcher, "__ASYNC_DELIVERY__"))
+					&& catcher.getDesignSubjobStartNode().getUniqueName().equals(subTree.getName())) {
+				asyncCatcher = catcher;
+			}
+		}
+	}
+
     stringBuffer.append(TEXT_217);
     stringBuffer.append(subTree.getName() );
+    if (asyncCatcher != null) {
+    stringBuffer.append(TEXT_249);
+    stringBuffer.append(asyncCatcher.getUniqueName() );
+    stringBuffer.append(TEXT_250);
+    } else {
     stringBuffer.append(TEXT_218);
+    }
     stringBuffer.append(subTree.getName() );
     stringBuffer.append(TEXT_219);
     
@@ -1397,6 +1444,9 @@ public class Subprocess_headerJava
     
 	// Call for RUN AFTER links
 	for (String after : subTree.getAfterSubProcesses()) {
+		if (isEltPushdownLookup(after, subTree.getRootNode().getProcess().getGeneratingNodes())) {
+			continue;
+		}
 
     stringBuffer.append(TEXT_241);
     stringBuffer.append(after );
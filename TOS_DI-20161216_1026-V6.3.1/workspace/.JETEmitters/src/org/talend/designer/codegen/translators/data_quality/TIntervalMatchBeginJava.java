@@ -166,6 +166,96 @@ public class TIntervalMatchBeginJava
   protected final String TEXT_141 = " = new Util_";
   protected final String TEXT_142 = "();" + NL;
   protected final String TEXT_143 = NL;
+  protected final String TEXT_144 = " " + NL + "" + NL + "        int nb_line_";
+  protected final String TEXT_145 = " = 0;" + NL + "        final ";
+  protected final String TEXT_146 = "Struct[] array_";
+  protected final String TEXT_147 = " = ((java.util.Map<";
+  protected final String TEXT_148 = "Struct, ";
+  protected final String TEXT_149 = "Struct>) globalMap.get(\"tHash_";
+  protected final String TEXT_150 = "\")).keySet().toArray(new ";
+  protected final String TEXT_151 = "Struct[0]);" + NL + "        long[] mins_";
+  protected final String TEXT_152 = " = new long[array_";
+  protected final String TEXT_153 = ".length];" + NL + "        long[] maxs_";
+  protected final String TEXT_154 = " = new long[array_";
+  protected final String TEXT_155 = ".length];" + NL + "        boolean[] noMins_";
+  protected final String TEXT_156 = " = new boolean[array_";
+  protected final String TEXT_157 = ".length];" + NL + "        boolean[] noMaxs_";
+  protected final String TEXT_158 = " = new boolean[array_";
+  protected final String TEXT_159 = ".length];" + NL + "        for (int i_";
+  protected final String TEXT_160 = " = 0; i_";
+  protected final String TEXT_161 = " < array_";
+  protected final String TEXT_162 = ".length; i_";
+  protected final String TEXT_163 = "++) {" + NL + "            ";
+  protected final String TEXT_164 = "Struct lookupRow_";
+  protected final String TEXT_165 = " = array_";
+  protected final String TEXT_166 = "[i_";
+  protected final String TEXT_167 = "];";
+  protected final String TEXT_168 = NL + "            ";
+  protected final String TEXT_169 = "_";
+  protected final String TEXT_170 = "[i_";
+  protected final String TEXT_171 = "] = lookupRow_";
+  protected final String TEXT_172 = ".";
+  protected final String TEXT_173 = " == null;" + NL + "            if (!";
+  protected final String TEXT_174 = "_";
+  protected final String TEXT_175 = "[i_";
+  protected final String TEXT_176 = "]) {" + NL + "                ";
+  protected final String TEXT_177 = "_";
+  protected final String TEXT_178 = "[i_";
+  protected final String TEXT_179 = "] = ";
+  protected final String TEXT_180 = ";" + NL + "            }";
+  protected final String TEXT_181 = NL + "            ";
+  protected final String TEXT_182 = "_";
+  protected final String TEXT_183 = "[i_";
+  protected final String TEXT_184 = "] = ";
+  protected final String TEXT_185 = ";";
+  protected final String TEXT_186 = NL + "        }" + NL + "        final routines.system.IntervalIndex index_";
+  protected final String TEXT_187 = " = new routines.system.IntervalIndex(mins_";
+  protected final String TEXT_188 = ", noMins_";
+  protected final String TEXT_189 = ", maxs_";
+  protected final String TEXT_190 = ", noMaxs_";
+  protected final String TEXT_191 = ", ";
+  protected final String TEXT_192 = ", ";
+  protected final String TEXT_193 = ");" + NL + "" + NL + "        class Util_";
+  protected final String TEXT_194 = " {" + NL + "        " + NL + "            public ";
+  protected final String TEXT_195 = " getLookup(";
+  protected final String TEXT_196 = "Struct row_Main) {";
+  protected final String TEXT_197 = NL + "                if(row_Main.";
+  protected final String TEXT_198 = " == null) {" + NL + "                    return ";
+  protected final String TEXT_199 = ";" + NL + "                }";
+  protected final String TEXT_200 = NL + "                int index = index_";
+  protected final String TEXT_201 = ".find(";
+  protected final String TEXT_202 = ");" + NL + "                if(index < 0) {" + NL + "                    return ";
+  protected final String TEXT_203 = ";" + NL + "                }" + NL + "                return array_";
+  protected final String TEXT_204 = "[index].";
+  protected final String TEXT_205 = ";" + NL + "            }" + NL + "        }" + NL + "        " + NL + "        Util_";
+  protected final String TEXT_206 = " util_";
+  protected final String TEXT_207 = " = new Util_";
+  protected final String TEXT_208 = "();" + NL;
+
+    /**
+     * Long key of a bound or of the main value, see routines.system.IntervalIndex. When one of the main and bound
+     * columns is floating, all of them are keyed as doubles, each converted from its own type.
+     */
+    private String toKey(JavaType javaType, String value, boolean floating) {
+        if (javaType == JavaTypesManager.DATE) {
+            return value + ".getTime()";
+        } else if (floating) {
+            return "routines.system.IntervalIndex.key(" + value + ")";
+        }
+        return value;
+    }
+
+    private boolean isNumber(JavaType javaType) {
+        return javaType == JavaTypesManager.BYTE || 
+                javaType == JavaTypesManager.SHORT || 
+                javaType == JavaTypesManager.INTEGER ||
+                javaType == JavaTypesManager.LONG ||
+                isFloating(javaType);
+    }
+
+    private boolean isFloating(JavaType javaType) {
+        return javaType == JavaTypesManager.FLOAT || javaType == JavaTypesManager.DOUBLE;
+    }
 
   public String generate(Object argument)
   {
@@ -210,6 +300,7 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {//1
 
         String returnClassName = "Object";
         JavaType mainjavaType = JavaTypesManager.STRING;
+        boolean mainPrimitive = false;
         String mainTypeName = null;
         String mainCanonicalTypeName = null;
         List<IMetadataColumn> columns = metadata.getListColumns();
@@ -226,8 +317,182 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {//1
         	{
             	mainjavaType = JavaTypesManager.getJavaTypeFromId(column.getTalendType());
             	mainTypeName = JavaTypesManager.getTypeToGenerate(column.getTalendType(), column.isNullable());
+            	mainPrimitive = JavaTypesManager.isJavaPrimitiveType(column.getTalendType(), column.isNullable());
         	}
         }//5	
+
+        JavaType minjavaType = null;
+        JavaType maxjavaType = null;
+        for (IMetadataColumn lookupColumn : inRefCon.getMetadataTable().getListColumns()) {
+            if (lookupColumn.getLabel().equals(minName)) {
+                minjavaType = JavaTypesManager.getJavaTypeFromId(lookupColumn.getTalendType());
+            }
+            if (lookupColumn.getLabel().equals(maxName)) {
+                maxjavaType = JavaTypesManager.getJavaTypeFromId(lookupColumn.getTalendType());
+            }
+        }
+
+        // dates and numbers are matched on primitive long bounds by routines.system.IntervalIndex, when the main and
+        // bound columns are all dates or all numbers, else by the generic code
+        boolean intervalIndex = (mainjavaType == JavaTypesManager.DATE && minjavaType == JavaTypesManager.DATE
+                && maxjavaType == JavaTypesManager.DATE)
+                || (isNumber(mainjavaType) && isNumber(minjavaType) && isNumber(maxjavaType));
+        boolean floating = isFloating(mainjavaType) || isFloating(minjavaType) || isFloating(maxjavaType);
+        if (intervalIndex) {
+            String[][] bounds = {{"mins", "noMins", minName}, {"maxs", "noMaxs", maxName}};
+            JavaType[] boundjavaTypes = {minjavaType, maxjavaType};
+            String defaultLookup = JavaTypesManager.getDefaultValueFromJavaType(returnClassName);
+
+    stringBuffer.append(TEXT_144);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_145);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_146);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_147);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_148);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_149);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_150);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_151);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_152);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_153);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_154);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_155);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_156);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_157);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_158);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_159);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_160);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_161);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_162);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_163);
+    stringBuffer.append(lookupConName );
+    stringBuffer.append(TEXT_164);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_165);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_166);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_167);
+    
+            for (int b = 0; b < bounds.length; b++) {
+                String[] bound = bounds[b];
+                boolean boundPrimitive = false;
+                for (IMetadataColumn lookupColumn : inRefCon.getMetadataTable().getListColumns()) {
+                    if (lookupColumn.getLabel().equals(bound[2])) {
+                        boundPrimitive = JavaTypesManager.isJavaPrimitiveType(lookupColumn.getTalendType(), lookupColumn.isNullable());
+                    }
+                }
+                if (!boundPrimitive) {
+
+    stringBuffer.append(TEXT_168);
+    stringBuffer.append(bound[1] );
+    stringBuffer.append(TEXT_169);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_170);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_171);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_172);
+    stringBuffer.append(bound[2] );
+    stringBuffer.append(TEXT_173);
+    stringBuffer.append(bound[1] );
+    stringBuffer.append(TEXT_174);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_175);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_176);
+    stringBuffer.append(bound[0] );
+    stringBuffer.append(TEXT_177);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_178);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_179);
+    stringBuffer.append(toKey(boundjavaTypes[b], "lookupRow_" + cid + "." + bound[2], floating) );
+    stringBuffer.append(TEXT_180);
+    
+                } else {
+
+    stringBuffer.append(TEXT_181);
+    stringBuffer.append(bound[0] );
+    stringBuffer.append(TEXT_182);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_183);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_184);
+    stringBuffer.append(toKey(boundjavaTypes[b], "lookupRow_" + cid + "." + bound[2], floating) );
+    stringBuffer.append(TEXT_185);
+    
+                }
+            }
+
+    stringBuffer.append(TEXT_186);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_187);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_188);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_189);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_190);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_191);
+    stringBuffer.append(minBounds );
+    stringBuffer.append(TEXT_192);
+    stringBuffer.append(maxBounds );
+    stringBuffer.append(TEXT_193);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_194);
+    stringBuffer.append(returnClassName);
+    stringBuffer.append(TEXT_195);
+    stringBuffer.append(mainConName );
+    stringBuffer.append(TEXT_196);
+    
+            if (!mainPrimitive) {
+
+    stringBuffer.append(TEXT_197);
+    stringBuffer.append(mainName);
+    stringBuffer.append(TEXT_198);
+    stringBuffer.append(defaultLookup);
+    stringBuffer.append(TEXT_199);
+    
+            }
+
+    stringBuffer.append(TEXT_200);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_201);
+    stringBuffer.append(toKey(mainjavaType, "row_Main." + mainName, floating) );
+    stringBuffer.append(TEXT_202);
+    stringBuffer.append(defaultLookup);
+    stringBuffer.append(TEXT_203);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_204);
+    stringBuffer.append(lookupName );
+    stringBuffer.append(TEXT_205);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_206);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_207);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_208);
+    
+        } else {
         
     stringBuffer.append(TEXT_1);
     stringBuffer.append( cid );
@@ -613,6 +878,7 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {//1
     stringBuffer.append( cid );
     stringBuffer.append(TEXT_142);
     
+        }
     }//2
 }//1
 
@@ -80,6 +80,32 @@ public class TUniqRowBeginJava
   protected final String TEXT_56 = ">();";
   protected final String TEXT_57 = " ";
   protected final String TEXT_58 = NL;
+  protected final String TEXT_59 = " implements routines.system.IPersistableKey";
+  protected final String TEXT_60 = NL + "\t\t\tpublic void writeKeyData(java.io.ObjectOutputStream out) throws java.io.IOException {" + NL + "\t\t\t\t";
+  protected final String TEXT_61 = NL + "\t\t\t\tout.writeUnshared(this.";
+  protected final String TEXT_62 = " == null ? null : this.";
+  protected final String TEXT_63 = ".stripTrailingZeros());";
+  protected final String TEXT_64 = NL + "\t\t\t\tout.writeUnshared(this.";
+  protected final String TEXT_65 = ");";
+  protected final String TEXT_66 = NL + "\t\t\t}" + NL + "\t\t\t" + NL + "\t\t}" + NL + "" + NL + "\t";
+  protected final String TEXT_67 = NL + "KeyStruct_";
+  protected final String TEXT_68 = " finder_";
+  protected final String TEXT_69 = " = new KeyStruct_";
+  protected final String TEXT_70 = "();" + NL + "routines.system.SpillableKeySet<KeyStruct_";
+  protected final String TEXT_71 = "> keys";
+  protected final String TEXT_72 = " = new routines.system.SpillableKeySet<KeyStruct_";
+  protected final String TEXT_73 = ">(";
+  protected final String TEXT_74 = ", ";
+  protected final String TEXT_75 = ", ";
+  protected final String TEXT_76 = ", ";
+  protected final String TEXT_77 = ");";
+  protected final String TEXT_78 = NL + "routines.system.SpillableKeySet<KeyStruct_";
+  protected final String TEXT_79 = "> keysForDuplicated";
+  protected final String TEXT_80 = " = new routines.system.SpillableKeySet<KeyStruct_";
+  protected final String TEXT_81 = ">(";
+  protected final String TEXT_82 = ", ";
+  protected final String TEXT_83 = ");";
+  protected final String TEXT_84 = NL + "\t\t\t\t" + NL + "\t\t\t\treturn true;" + NL + "\t\t\t}" + NL + "\t  " + NL + "\t        ";
 
   public String generate(Object argument)
   {
@@ -93,6 +119,24 @@ String onlyOnceEachDuplicatedKey = ElementParameterParser.getValue(node, "__ONLY
 List<Map<String, String>> keyColumns = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node, "__UNIQUE_KEY__");
 boolean changeHashAndEqualsForBigDecimal = "true".equals(ElementParameterParser.getValue(node, "__CHANGE_HASH_AND_EQUALS_FOR_BIGDECIMAL__"));
 final boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(node.getProcess(), "__LOG4J_ACTIVATE__"));
+boolean boundedMemory = "true".equals(ElementParameterParser.getValue(node, "__BOUNDED_MEMORY__"));
+String maxKeysInMemory = ElementParameterParser.getValue(node, "__MAX_KEYS_IN_MEMORY__");
+if (maxKeysInMemory == null || "".equals(maxKeysInMemory.trim())) {
+	maxKeysInMemory = "1000000";
+}
+String tempDirectory = ElementParameterParser.getValue(node, "__TEMP_DIRECTORY__");
+if (tempDirectory == null || "".equals(tempDirectory.trim())) {
+	tempDirectory = "null";
+}
+boolean useBloomFilter = "true".equals(ElementParameterParser.getValue(node, "__USE_BLOOM_FILTER__"));
+String bloomExpectedKeys = ElementParameterParser.getValue(node, "__BLOOM_EXPECTED_KEYS__");
+if (!useBloomFilter || bloomExpectedKeys == null || "".equals(bloomExpectedKeys.trim())) {
+	bloomExpectedKeys = "0";
+}
+String bloomFalsePositiveRate = ElementParameterParser.getValue(node, "__BLOOM_FALSE_POSITIVE_RATE__");
+if (bloomFalsePositiveRate == null || "".equals(bloomFalsePositiveRate.trim())) {
+	bloomFalsePositiveRate = "0.01";
+}
 
 boolean hasKey = false;
 for(Map<String, String> keyColumn:keyColumns){
@@ -115,6 +159,9 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 	
     stringBuffer.append(TEXT_2);
     stringBuffer.append(cid );
+    if(boundedMemory) {
+    stringBuffer.append(TEXT_59);
+    }
     stringBuffer.append(TEXT_3);
     
 	        
@@ -244,7 +291,37 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 						}
 					}
 				
+    if(boundedMemory) {
+    stringBuffer.append(TEXT_84);
+    stringBuffer.append(TEXT_60);
+    
+					for (int i=0; i<columns.size();i++) {
+						IMetadataColumn column = columns.get(i);
+						Map<String,String> keyColumn = keyColumns.get(i);
+						if(("true").equals(keyColumn.get("KEY_ATTRIBUTE"))){
+							JavaType javaType = JavaTypesManager.getJavaTypeFromId(column.getTalendType());
+							if((javaType == JavaTypesManager.BIGDECIMAL) && changeHashAndEqualsForBigDecimal) {
+								
+    stringBuffer.append(TEXT_61);
+    stringBuffer.append(column.getLabel() );
+    stringBuffer.append(TEXT_62);
+    stringBuffer.append(column.getLabel() );
+    stringBuffer.append(TEXT_63);
+    
+							} else {
+								
+    stringBuffer.append(TEXT_64);
+    stringBuffer.append(column.getLabel() );
+    stringBuffer.append(TEXT_65);
+    
+							}
+						}
+					}
+				
+    stringBuffer.append(TEXT_66);
+    } else {
     stringBuffer.append(TEXT_40);
+    }
     
 	}
 
@@ -261,7 +338,45 @@ if (isLog4jEnabled) {
     stringBuffer.append(TEXT_45);
     
 }
-if(hasKey){
+if(hasKey && boundedMemory){
+    stringBuffer.append(TEXT_67);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_68);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_69);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_70);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_71);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_72);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_73);
+    stringBuffer.append(maxKeysInMemory );
+    stringBuffer.append(TEXT_74);
+    stringBuffer.append(tempDirectory );
+    stringBuffer.append(TEXT_75);
+    stringBuffer.append(bloomExpectedKeys );
+    stringBuffer.append(TEXT_76);
+    stringBuffer.append(bloomFalsePositiveRate );
+    stringBuffer.append(TEXT_77);
+    
+	if(("true").equals(onlyOnceEachDuplicatedKey)){
+
+    stringBuffer.append(TEXT_78);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_79);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_80);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_81);
+    stringBuffer.append(maxKeysInMemory );
+    stringBuffer.append(TEXT_82);
+    stringBuffer.append(tempDirectory );
+    stringBuffer.append(TEXT_83);
+    
+	}
+} else if(hasKey){
     stringBuffer.append(TEXT_46);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_47);
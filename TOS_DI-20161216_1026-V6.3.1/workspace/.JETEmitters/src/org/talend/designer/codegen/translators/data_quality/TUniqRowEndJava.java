@@ -3,6 +3,8 @@ package org.talend.designer.codegen.translators.data_quality;
 import org.talend.core.model.process.INode;
 import org.talend.designer.codegen.config.CodeGeneratorArgument;
 import org.talend.core.model.process.ElementParameterParser;
+import java.util.List;
+import java.util.Map;
 
 public class TUniqRowEndJava
 {
@@ -28,6 +30,10 @@ public class TUniqRowEndJava
   protected final String TEXT_10 = " - Duplicate records count: \" + (nb_duplicates_";
   protected final String TEXT_11 = ")+\" .\");";
   protected final String TEXT_12 = NL;
+  protected final String TEXT_13 = NL + "keys";
+  protected final String TEXT_14 = ".close();";
+  protected final String TEXT_15 = NL + "keysForDuplicated";
+  protected final String TEXT_16 = ".close();";
 
   public String generate(Object argument)
   {
@@ -38,6 +44,17 @@ CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
 INode node = (INode)codeGenArgument.getArgument();
 String cid = node.getUniqueName();
 final boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(node.getProcess(), "__LOG4J_ACTIVATE__"));
+boolean boundedMemory = "true".equals(ElementParameterParser.getValue(node, "__BOUNDED_MEMORY__"));
+String onlyOnceEachDuplicatedKey = ElementParameterParser.getValue(node, "__ONLY_ONCE_EACH_DUPLICATED_KEY__");
+List<Map<String, String>> keyColumns = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node, "__UNIQUE_KEY__");
+
+boolean hasKey = false;
+for(Map<String, String> keyColumn:keyColumns){
+	if(("true").equals(keyColumn.get("KEY_ATTRIBUTE"))){
+		hasKey = true;
+		break;
+	}
+}
 
 
     stringBuffer.append(TEXT_2);
@@ -50,6 +67,20 @@ final boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(n
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_6);
     
+if(hasKey && boundedMemory){
+
+    stringBuffer.append(TEXT_13);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_14);
+    
+	if(("true").equals(onlyOnceEachDuplicatedKey)){
+
+    stringBuffer.append(TEXT_15);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_16);
+    
+	}
+}
 if(isLog4jEnabled){
 
     stringBuffer.append(TEXT_7);
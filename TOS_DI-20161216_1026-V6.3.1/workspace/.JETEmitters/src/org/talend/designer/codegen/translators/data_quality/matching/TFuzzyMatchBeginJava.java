@@ -34,6 +34,21 @@ public class TFuzzyMatchBeginJava
   protected final String TEXT_13 = " = new org.apache.commons.codec.language.DoubleMetaphone();" + NL + "\t";
   protected final String TEXT_14 = NL + "            ";
   protected final String TEXT_15 = NL;
+  protected final String TEXT_16 = NL + "routines.system.FuzzyIndex fuzzyIndex_";
+  protected final String TEXT_17 = " = routines.system.FuzzyIndex.levenshtein(";
+  protected final String TEXT_18 = ");";
+  protected final String TEXT_19 = NL + "routines.system.FuzzyIndex fuzzyIndex_";
+  protected final String TEXT_20 = " = routines.system.FuzzyIndex.phonetic(new routines.system.FuzzyIndex.Encoder() {" + NL + "\tprivate final org.apache.commons.codec.language.Metaphone metaphone = new org.apache.commons.codec.language.Metaphone();" + NL + "" + NL + "\tpublic String encode(String value) {" + NL + "\t\treturn metaphone.metaphone(value);" + NL + "\t}" + NL + "});";
+  protected final String TEXT_21 = NL + "routines.system.FuzzyIndex fuzzyIndex_";
+  protected final String TEXT_22 = " = routines.system.FuzzyIndex.phonetic(new routines.system.FuzzyIndex.Encoder() {" + NL + "\tprivate final org.apache.commons.codec.language.DoubleMetaphone doublemetaphone = new org.apache.commons.codec.language.DoubleMetaphone();" + NL + "" + NL + "\tpublic String encode(String value) {" + NL + "\t\treturn doublemetaphone.doubleMetaphone(value);" + NL + "\t}" + NL + "});";
+  protected final String TEXT_23 = NL + "for (";
+  protected final String TEXT_24 = "Struct lookupRow_";
+  protected final String TEXT_25 = " : tSet_";
+  protected final String TEXT_26 = "_";
+  protected final String TEXT_27 = ") {" + NL + "\tfuzzyIndex_";
+  protected final String TEXT_28 = ".add(\"\" + lookupRow_";
+  protected final String TEXT_29 = ".";
+  protected final String TEXT_30 = ");" + NL + "}";
 
   public String generate(Object argument)
   {
@@ -44,6 +59,10 @@ CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
 INode node = (INode)codeGenArgument.getArgument();
 String cid = node.getUniqueName();
 String matchingType = ElementParameterParser.getValue(node, "__MATCHING_TYPE__");
+// index the lookup values once instead of scanning them for each main row
+boolean useIndex = ("true").equals(ElementParameterParser.getValue(node, "__USE_INDEX__"));
+boolean caseSens = ("true").equals(ElementParameterParser.getValue(node, "__CASE_SENSITIVE__"));
+String lookUpColumn = ElementParameterParser.getValue(node, "__LOOKUP_COLUMN__");
 
 List<IConnection> inputConnections;
 inputConnections = (List<IConnection>) node.getIncomingConnections();
@@ -89,6 +108,47 @@ for (IConnection connection : inputConnections) {
     
 		}
 
+		if(useIndex){
+			if(("matchMetaphone").equals(matchingType)){
+
+    stringBuffer.append(TEXT_19);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_20);
+    
+			}else if(("matchDoubleMetaphone").equals(matchingType)){
+
+    stringBuffer.append(TEXT_21);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_22);
+    
+			}else{
+
+    stringBuffer.append(TEXT_16);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_17);
+    stringBuffer.append(caseSens );
+    stringBuffer.append(TEXT_18);
+    
+			}
+
+    stringBuffer.append(TEXT_23);
+    stringBuffer.append(connectionName );
+    stringBuffer.append(TEXT_24);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_25);
+    stringBuffer.append(connectionName );
+    stringBuffer.append(TEXT_26);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_27);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_28);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_29);
+    stringBuffer.append(lookUpColumn );
+    stringBuffer.append(TEXT_30);
+    
+		}
+
     stringBuffer.append(TEXT_14);
     
 	}
@@ -202,6 +202,42 @@ public class TFuzzyMatchMainJava
   protected final String TEXT_176 = ".";
   protected final String TEXT_177 = ";    \t\t\t\t";
   protected final String TEXT_178 = NL;
+  protected final String TEXT_179 = ";" + NL;
+  protected final String TEXT_180 = NL + "                \t\troutines.system.FuzzyIndex.Match match_";
+  protected final String TEXT_181 = " = fuzzyIndex_";
+  protected final String TEXT_182 = ".closest(tomatch_";
+  protected final String TEXT_183 = ", ";
+  protected final String TEXT_184 = ", ";
+  protected final String TEXT_185 = ");" + NL + "                        if(match_";
+  protected final String TEXT_186 = " != null){" + NL + "                        \t";
+  protected final String TEXT_187 = ".VALUE = match_";
+  protected final String TEXT_188 = ".getDistance()";
+  protected final String TEXT_189 = " + \"\"";
+  protected final String TEXT_190 = ";" + NL + "                        \t";
+  protected final String TEXT_191 = ".MATCHING = match_";
+  protected final String TEXT_192 = ".getValue();" + NL + "                        }" + NL + "                ";
+  protected final String TEXT_193 = NL + "                \t\tjava.util.List<routines.system.FuzzyIndex.Match> matches_";
+  protected final String TEXT_194 = " = fuzzyIndex_";
+  protected final String TEXT_195 = ".matches(tomatch_";
+  protected final String TEXT_196 = ", ";
+  protected final String TEXT_197 = ", ";
+  protected final String TEXT_198 = ");" + NL + "                        if(!matches_";
+  protected final String TEXT_199 = ".isEmpty()){" + NL + "                        \t";
+  protected final String TEXT_200 = ".VALUE = routines.system.FuzzyIndex.joinDistances(matches_";
+  protected final String TEXT_201 = ", String.valueOf(";
+  protected final String TEXT_202 = "));" + NL + "                        \t";
+  protected final String TEXT_203 = ".MATCHING = routines.system.FuzzyIndex.joinValues(matches_";
+  protected final String TEXT_204 = ", String.valueOf(";
+  protected final String TEXT_205 = "));" + NL + "                        }" + NL + "                ";
+  protected final String TEXT_206 = NL + "                        String matching_";
+  protected final String TEXT_207 = " = fuzzyIndex_";
+  protected final String TEXT_208 = ".sameCode(";
+  protected final String TEXT_209 = ".VALUE, String.valueOf(";
+  protected final String TEXT_210 = "), ";
+  protected final String TEXT_211 = ");" + NL + "                        if(matching_";
+  protected final String TEXT_212 = " != null){" + NL + "                        \t";
+  protected final String TEXT_213 = ".MATCHING = matching_";
+  protected final String TEXT_214 = ";" + NL + "                        }" + NL + "                ";
 
   public String generate(Object argument)
   {
@@ -233,6 +269,7 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 	boolean caseSens = ("true").equals(caseS);
 	String separator = ElementParameterParser.getValue(node, "__ITEMSEPARATOR__");
 	String lookUpColumn = ElementParameterParser.getValue(node, "__LOOKUP_COLUMN__");
+	boolean useIndex = ("true").equals(ElementParameterParser.getValue(node, "__USE_INDEX__"));
 
     List< ? extends IConnection> conns = node.getIncomingConnections();
     IConnection inRefCon = null;
@@ -326,6 +363,9 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(conn.getName() );
     stringBuffer.append(TEXT_19);
     stringBuffer.append(defaultValue_MATCHING );
+    if(useIndex){
+    stringBuffer.append(TEXT_179);
+    }else{
     stringBuffer.append(TEXT_20);
     stringBuffer.append(inRefCon.getName() );
     stringBuffer.append(TEXT_21);
@@ -337,6 +377,7 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(TEXT_24);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_25);
+    }
     
                 if(("matchLevenshteinDistance").equals(matchingType)){
                 
@@ -352,7 +393,63 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     }
     stringBuffer.append(TEXT_31);
     
-                	if(unique){
+                	if(useIndex && unique){
+                
+    stringBuffer.append(TEXT_180);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_181);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_182);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_183);
+    stringBuffer.append(min);
+    stringBuffer.append(TEXT_184);
+    stringBuffer.append(max);
+    stringBuffer.append(TEXT_185);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_186);
+    stringBuffer.append(conn.getName() );
+    stringBuffer.append(TEXT_187);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_188);
+    if(!isIntType){
+    stringBuffer.append(TEXT_189);
+    }
+    stringBuffer.append(TEXT_190);
+    stringBuffer.append(conn.getName() );
+    stringBuffer.append(TEXT_191);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_192);
+    
+                	}else if(useIndex){
+                
+    stringBuffer.append(TEXT_193);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_194);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_195);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_196);
+    stringBuffer.append(min);
+    stringBuffer.append(TEXT_197);
+    stringBuffer.append(max);
+    stringBuffer.append(TEXT_198);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_199);
+    stringBuffer.append(conn.getName() );
+    stringBuffer.append(TEXT_200);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_201);
+    stringBuffer.append(separator);
+    stringBuffer.append(TEXT_202);
+    stringBuffer.append(conn.getName() );
+    stringBuffer.append(TEXT_203);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_204);
+    stringBuffer.append(separator);
+    stringBuffer.append(TEXT_205);
+    
+                	}else if(unique){
                 
     stringBuffer.append(TEXT_32);
     stringBuffer.append(cid );
@@ -501,7 +598,27 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(colName);
     stringBuffer.append(TEXT_101);
     
-                	if(unique){
+                	if(useIndex){
+                
+    stringBuffer.append(TEXT_206);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_207);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_208);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_209);
+    stringBuffer.append(separator);
+    stringBuffer.append(TEXT_210);
+    stringBuffer.append(unique);
+    stringBuffer.append(TEXT_211);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_212);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_213);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_214);
+    
+                	}else if(unique){
                 
     stringBuffer.append(TEXT_102);
     stringBuffer.append(inRefCon.getName() );
@@ -581,7 +698,27 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(colName );
     stringBuffer.append(TEXT_138);
     
-                	if(unique){
+                	if(useIndex){
+                
+    stringBuffer.append(TEXT_206);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_207);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_208);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_209);
+    stringBuffer.append(separator);
+    stringBuffer.append(TEXT_210);
+    stringBuffer.append(unique);
+    stringBuffer.append(TEXT_211);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_212);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_213);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_214);
+    
+                	}else if(unique){
                 
     stringBuffer.append(TEXT_139);
     stringBuffer.append(inRefCon.getName() );
@@ -463,6 +463,37 @@ public class TMysqlInputBeginJava
   protected final String TEXT_438 = ".";
   protected final String TEXT_439 = ";" + NL + "\t\t                            ";
   protected final String TEXT_440 = NL;
+  protected final String TEXT_441 = NL + "\t        ";
+  protected final String TEXT_442 = ".";
+  protected final String TEXT_443 = " = routines.system.JDBCUtil.getMysqlDate(rs_";
+  protected final String TEXT_444 = ", ";
+  protected final String TEXT_445 = "column_index_";
+  protected final String TEXT_446 = ", year0_";
+  protected final String TEXT_447 = ");";
+  protected final String TEXT_448 = NL + "            ";
+  protected final String TEXT_449 = ".";
+  protected final String TEXT_450 = " = rs_";
+  protected final String TEXT_451 = ".get";
+  protected final String TEXT_452 = "(";
+  protected final String TEXT_453 = "column_index_";
+  protected final String TEXT_454 = ");" + NL + "            if(rs_";
+  protected final String TEXT_455 = ".wasNull()) {";
+  protected final String TEXT_456 = NL + "\t\t    routines.system.JDBCUtil.setMysqlFetchMode(stmt_";
+  protected final String TEXT_457 = ", ";
+  protected final String TEXT_458 = ", dbquery_";
+  protected final String TEXT_459 = ");";
+  protected final String TEXT_460 = NL + "\t\t    routines.system.ParallelRangeReader parallelReader_";
+  protected final String TEXT_461 = " = new routines.system.ParallelRangeReader(url_";
+  protected final String TEXT_462 = ", dbUser_";
+  protected final String TEXT_463 = ", dbPwd_";
+  protected final String TEXT_464 = ", dbquery_";
+  protected final String TEXT_465 = ", ";
+  protected final String TEXT_466 = ", ";
+  protected final String TEXT_467 = ");";
+  protected final String TEXT_468 = " = parallelReader_";
+  protected final String TEXT_469 = ".isSplittable() ? parallelReader_";
+  protected final String TEXT_470 = ".executeQuery(conn_";
+  protected final String TEXT_471 = ") : stmt_";
 
   public String generate(Object argument)
   {
@@ -1289,9 +1320,13 @@ public class TMysqlInputBeginJava
 
 	class DBInputBeginUtil extends DefaultDBInputUtil{
 	
+		// fetch mode chosen at runtime and columns read without their String form, unless disabled
+		protected boolean autoFetchMode;
+	
 		public void beforeComponentProcess(INode node){
 			super.beforeComponentProcess(node);
 			cid = node.getUniqueName();
+			autoFetchMode = !("false").equals(ElementParameterParser.getValue(node, "__AUTO_FETCH_MODE__"));
 
     stringBuffer.append(TEXT_179);
     stringBuffer.append(cid);
@@ -1367,6 +1402,27 @@ public class TMysqlInputBeginJava
 		
 		//-----------according schema type to generate ResultSet
 	    public void generateTimestampResultSet(String firstConnName, IMetadataColumn column, int currentColNo) {
+	    	if(autoFetchMode) {
+
+    stringBuffer.append(TEXT_441);
+    stringBuffer.append(firstConnName);
+    stringBuffer.append(TEXT_442);
+    stringBuffer.append(column.getLabel());
+    stringBuffer.append(TEXT_443);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_444);
+    if(isDynamic){
+    stringBuffer.append(TEXT_445);
+    stringBuffer.append(cid);
+    }else{
+    stringBuffer.append(currentColNo);
+    }
+    stringBuffer.append(TEXT_446);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_447);
+    
+	    		return;
+	    	}
 
     stringBuffer.append(TEXT_199);
     stringBuffer.append(cid );
@@ -1419,6 +1475,49 @@ public class TMysqlInputBeginJava
     
 	    }
 	    
+	    public void generateOthersResultSet(String firstConnName, IMetadataColumn column, int currentColNo, String typeToGenerate) {
+	    	if(!autoFetchMode) {
+	    		super.generateOthersResultSet(firstConnName, column, currentColNo, typeToGenerate);
+	    		return;
+	    	}
+
+    stringBuffer.append(TEXT_448);
+    stringBuffer.append(firstConnName);
+    stringBuffer.append(TEXT_449);
+    stringBuffer.append(column.getLabel());
+    stringBuffer.append(TEXT_450);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_451);
+    stringBuffer.append(typeToGenerate);
+    stringBuffer.append(TEXT_452);
+    if(isDynamic){
+    stringBuffer.append(TEXT_453);
+    stringBuffer.append(cid);
+    }else{
+    stringBuffer.append(currentColNo);
+    }
+    stringBuffer.append(TEXT_454);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_455);
+    
+                if(column.isNullable()) {
+                    
+    stringBuffer.append(TEXT_174);
+    stringBuffer.append(firstConnName);
+    stringBuffer.append(TEXT_175);
+    stringBuffer.append(column.getLabel());
+    stringBuffer.append(TEXT_176);
+    
+                } else {
+                    
+    stringBuffer.append(TEXT_177);
+        
+                }
+                
+    stringBuffer.append(TEXT_178);
+    
+	    }
+	    
 	    //---------end according schema type to generate ResultSet
 	}//end class
 	
@@ -1539,6 +1638,38 @@ public class TMysqlInputBeginJava
     stringBuffer.append(TEXT_244);
     stringBuffer.append(dbInputBeginUtil.getQueryString(node));
     stringBuffer.append(TEXT_245);
+    if(!("false").equals(ElementParameterParser.getValue(node, "__AUTO_FETCH_MODE__")) && !("true").equals(enableStream)) {
+    stringBuffer.append(TEXT_456);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_457);
+    stringBuffer.append(!("true").equals(ElementParameterParser.getValue(node,"__USE_EXISTING_CONNECTION__")));
+    stringBuffer.append(TEXT_458);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_459);
+    }
+    // range reads on their own connections, which need the url, user and password of the component
+    boolean parallelRead = ("true").equals(ElementParameterParser.getValue(node, "__PARALLEL_READ__"))
+            && !("true").equals(ElementParameterParser.getValue(node,"__USE_EXISTING_CONNECTION__"))
+            && !("true").equals(ElementParameterParser.getValue(node, "__SPECIFY_DATASOURCE_ALIAS__"));
+    if(parallelRead) {
+        String parallelKey = ElementParameterParser.getValue(node, "__PARALLEL_KEY__");
+        String parallelCount = ElementParameterParser.getValue(node, "__PARALLEL_READ_COUNT__");
+    stringBuffer.append(TEXT_460);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_461);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_462);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_463);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_464);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_465);
+    stringBuffer.append((parallelKey == null || "".equals(parallelKey.trim())) ? "null" : parallelKey);
+    stringBuffer.append(TEXT_466);
+    stringBuffer.append((parallelCount == null || "".equals(parallelCount.trim())) ? "4" : parallelCount);
+    stringBuffer.append(TEXT_467);
+    }
     if(isLog4jEnabled){
     stringBuffer.append(TEXT_246);
     stringBuffer.append(cid);
@@ -1571,7 +1702,17 @@ public class TMysqlInputBeginJava
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_257);
     stringBuffer.append(cid );
+    if(parallelRead) {
+    stringBuffer.append(TEXT_468);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_469);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_470);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_471);
+    } else {
     stringBuffer.append(TEXT_258);
+    }
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_259);
     stringBuffer.append(cid);
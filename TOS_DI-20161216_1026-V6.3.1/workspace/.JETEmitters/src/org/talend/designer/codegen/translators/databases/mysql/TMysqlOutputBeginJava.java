@@ -866,6 +866,15 @@ public class TMysqlOutputBeginJava {
   protected final String TEXT_837 = NL + "\t\t \tString[] insertSQLSplits_";
   protected final String TEXT_838 = " = null;";
   protected final String TEXT_839 = NL;
+  protected final String TEXT_840 = NL + "    routines.system.RowCheckpoint rowCheckpoint_";
+  protected final String TEXT_841 = " = routines.system.RowCheckpoint.open(";
+  protected final String TEXT_842 = ", jobName, \"";
+  protected final String TEXT_843 = "\");";
+  protected final String TEXT_844 = NL + "    if (!rowCheckpoint_";
+  protected final String TEXT_845 = ".isResuming()) {";
+  protected final String TEXT_846 = NL + "    }";
+  protected final String TEXT_847 = NL + "    routines.system.RowCheckpoint.unsupported(\"";
+  protected final String TEXT_848 = "\", \"extended insert\");";
 
     public static final String INSERT_COLUMN_NAME = "insertColName";
     public static final String INSERT_VALUE_STMT = "insertValueStmt";
@@ -6112,6 +6121,29 @@ if(columnList != null && columnList.size() > 0) {
     
     stringBuffer.append(TEXT_152);
     
+// the table is kept as it is when the load resumes from a row checkpoint
+boolean rowCheckpoint = ("true").equals(ElementParameterParser.getValue(node, "__ROW_CHECKPOINT__"))
+        && !useExistingConnection && !("").equals(commitEvery) && !("0").equals(commitEvery);
+if (rowCheckpoint && extendedInsert) {
+	// the rows of a pending extended insert are not executed at each commit, they would be saved as committed
+	rowCheckpoint = false;
+
+    stringBuffer.append(TEXT_847);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_848);
+    
+}
+if (rowCheckpoint) {
+
+    stringBuffer.append(TEXT_840);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_841);
+    stringBuffer.append(ElementParameterParser.getValue(node, "__CHECKPOINT_DIRECTORY__"));
+    stringBuffer.append(TEXT_842);
+    stringBuffer.append(node.getDesignSubjobStartNode().getUniqueName());
+    stringBuffer.append(TEXT_843);
+    
+}
 //issue 0010346 Parallelization crash with "Drop table if exists and create"
 Boolean isParallelize ="true".equalsIgnoreCase(ElementParameterParser.getValue(node, "__PARALLELIZE__"));
 String dbms=ElementParameterParser.getValue(node, "__MAPPING__");
@@ -6135,6 +6167,13 @@ if (!isParallelize) {
     }
 
     if(!("NONE").equals(tableAction)) {
+        if (rowCheckpoint) {
+        
+    stringBuffer.append(TEXT_844);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_845);
+    
+        }
         if(("DROP_CREATE").equals(tableAction)) {
         
     stringBuffer.append(TEXT_153);
@@ -6990,6 +7029,11 @@ if (!isParallelize) {
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_498);
     
+        }
+        if (rowCheckpoint) {
+        
+    stringBuffer.append(TEXT_846);
+    
         }
     }
 //issue 0010346 Parallelization crash with "Drop table if exists and create"
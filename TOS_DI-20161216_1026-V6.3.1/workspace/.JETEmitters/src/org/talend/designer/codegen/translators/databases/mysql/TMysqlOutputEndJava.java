@@ -369,6 +369,11 @@ public class TMysqlOutputEndJava {
   protected final String TEXT_340 = "_NB_LINE_REJECTED\", nb_line_rejected_";
   protected final String TEXT_341 = ");" + NL + "    " + NL + "\t";
   protected final String TEXT_342 = NL;
+  protected final String TEXT_343 = NL + "    \t\trowCheckpoint_";
+  protected final String TEXT_344 = ".commit(nb_line_";
+  protected final String TEXT_345 = ");";
+  protected final String TEXT_346 = NL + "    \trowCheckpoint_";
+  protected final String TEXT_347 = ".complete();";
 
     public static final String INSERT_COLUMN_NAME = "insertColName";
     public static final String INSERT_VALUE_STMT = "insertValueStmt";
@@ -5225,6 +5230,9 @@ DBLogUtil dbLog = null;
 
 	String useExistingConn = ElementParameterParser.getValue(node,"__USE_EXISTING_CONNECTION__");
 
+	boolean rowCheckpoint = ("true").equals(ElementParameterParser.getValue(node, "__ROW_CHECKPOINT__"))
+	        && !("true").equals(useExistingConn) && !("").equals(commitEvery) && !("0").equals(commitEvery);
+
 	boolean extendedInsert = false;
 
 	boolean supportDuplicateUpdate = "true".equalsIgnoreCase(ElementParameterParser.getValue(node,"__ON_DUPLICATE_KEY_UPDATE__"));
@@ -5253,6 +5261,9 @@ DBLogUtil dbLog = null;
 		extendedInsert = false;
 	}
 
+	// refused with an extended insert, see the begin part
+	rowCheckpoint = rowCheckpoint && !extendedInsert;
+
 	String tableName = ElementParameterParser.getValue(node,"__TABLE__");
 
 	String numPerInsert = ElementParameterParser.getValue(node, "__NB_ROWS_PER_INSERT__");
@@ -5935,6 +5946,13 @@ DBLogUtil dbLog = null;
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_279);
     dbLog.commit().commitDone(null);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_343);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_344);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_345);
+    }
     stringBuffer.append(TEXT_280);
     
 		}
@@ -5950,6 +5968,11 @@ DBLogUtil dbLog = null;
     stringBuffer.append(TEXT_284);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_285);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_346);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_347);
+    }
     
 	}
 
@@ -1629,6 +1629,9 @@ public class TMysqlOutputMainJava {
   protected final String TEXT_1599 = NL + "                    commitCounter_";
   protected final String TEXT_1600 = "=0;" + NL + "" + NL + "                }" + NL;
   protected final String TEXT_1601 = NL;
+  protected final String TEXT_1602 = NL + "                    rowCheckpoint_";
+  protected final String TEXT_1603 = ".commit(nb_line_";
+  protected final String TEXT_1604 = ");";
 
     public static final String INSERT_COLUMN_NAME = "insertColName";
     public static final String INSERT_VALUE_STMT = "insertValueStmt";
@@ -6489,6 +6492,8 @@ DBLogUtil dbLog = null;
 
     String useExistingConn = ElementParameterParser.getValue(node,"__USE_EXISTING_CONNECTION__");
 
+    boolean rowCheckpoint = ("true").equals(ElementParameterParser.getValue(node, "__ROW_CHECKPOINT__"));
+
     boolean extendedInsert = ("true").equals(ElementParameterParser.getValue(node, "__EXTENDINSERT__"));
 
         //to fixed: bug8422
@@ -6496,6 +6501,9 @@ DBLogUtil dbLog = null;
             extendedInsert = false;
         }
 
+    // refused with an extended insert, see the begin part
+    rowCheckpoint = rowCheckpoint && !extendedInsert;
+
     String numPerInsert = ElementParameterParser.getValue(node, "__NB_ROWS_PER_INSERT__");
     boolean isEnableDebug = ("true").equals(ElementParameterParser.getValue(node,"__ENABLE_DEBUG_MODE__"));
 
@@ -10929,6 +10937,13 @@ if (useHintOptions && hintsValues.get("INSERT") != null){
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_1598);
     dbLog.commit().commitDone(null);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_1602);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1603);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1604);
+    }
     stringBuffer.append(TEXT_1599);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_1600);
@@ -301,6 +301,46 @@ public class TMysqlSCDBeginJava {
   protected final String TEXT_270 = " lookUpValue_";
   protected final String TEXT_271 = " = null;";
   protected final String TEXT_272 = NL;
+  protected final String TEXT_273 = NL + "    String stagingTable_";
+  protected final String TEXT_274 = " = tableName_";
+  protected final String TEXT_275 = " + \"_scd_stage\";";
+  protected final String TEXT_276 = NL + "    String endDateTimeDetail_";
+  protected final String TEXT_277 = " = ";
+  protected final String TEXT_278 = ";" + NL + "    String endDate_";
+  protected final String TEXT_279 = " = ";
+  protected final String TEXT_280 = " + \"-01-01\" + (endDateTimeDetail_";
+  protected final String TEXT_281 = ".length() > 0 ? \" \" + endDateTimeDetail_";
+  protected final String TEXT_282 = " : \"\");";
+  protected final String TEXT_283 = NL + "    routines.system.SCDMerge scdMerge_";
+  protected final String TEXT_284 = " = new routines.system.SCDMerge(connection_";
+  protected final String TEXT_285 = ", \"`\" + stagingTable_";
+  protected final String TEXT_286 = " + \"`\", ";
+  protected final String TEXT_287 = ", ";
+  protected final String TEXT_288 = ");" + NL + "    scdMerge_";
+  protected final String TEXT_289 = ".setKeys(new int[] { ";
+  protected final String TEXT_290 = " });";
+  protected final String TEXT_291 = NL + "    scdMerge_";
+  protected final String TEXT_292 = ".setType1(new int[] { ";
+  protected final String TEXT_293 = " });";
+  protected final String TEXT_294 = NL + "    scdMerge_";
+  protected final String TEXT_295 = ".setType2(new int[] { ";
+  protected final String TEXT_296 = " });";
+  protected final String TEXT_297 = NL + "    scdMerge_";
+  protected final String TEXT_298 = ".setVersion(";
+  protected final String TEXT_299 = ");";
+  protected final String TEXT_300 = NL + "    scdMerge_";
+  protected final String TEXT_301 = ".setSurrogateKey(";
+  protected final String TEXT_302 = ", \"SELECT MAX(`";
+  protected final String TEXT_303 = "`) FROM `\" + tableName_";
+  protected final String TEXT_304 = " + \"`\");";
+  protected final String TEXT_305 = NL + "    scdMerge_";
+  protected final String TEXT_306 = ".load(\"";
+  protected final String TEXT_307 = "\");" + NL + "    scdMerge_";
+  protected final String TEXT_308 = ".open(\"";
+  protected final String TEXT_309 = "\");";
+  protected final String TEXT_310 = NL + "    scdMerge_";
+  protected final String TEXT_311 = ".addMergeStatement(\"";
+  protected final String TEXT_312 = "\");";
 
     public static final String DB2 = "DB2";
     public static final String INGRES = "INGRES";    
@@ -1047,6 +1087,47 @@ public class TMysqlSCDBeginJava {
         }
         return insertionColumnList;
     }
+    /**
+     * Set based merge through a staging table, the type 3 changes and the save memory mode stay row by row. Also used
+     * by the main and end parts, with {@link #getStagingColumnList(SCDConfiger)}.
+     */
+    public boolean isSetBased(INode node) {
+        return ("true").equals(ElementParameterParser.getValue(node, "__SET_BASED__"))
+                && !("true").equals(ElementParameterParser.getValue(node, "__USE_SAVE_MEM_MODE__"))
+                && !getSCDConfiger(node).isEnableType3();
+    }
+    public List<Column> getStagingColumnList(SCDConfiger scdConfiger) {
+        List<Column> stagingColumnList = new ArrayList<Column>();
+        for(Column column : getInsertionColumnList(scdConfiger)) {
+            if(!scdConfiger.isEnableType2() || !column.getColumnName().equals(scdConfiger.getDimensionType2Configer().getEndDateField())) {
+                stagingColumnList.add(column);
+            }
+        }
+        return stagingColumnList;
+    }
+    public int[] getStagingPositions(List<Column> columns, List<Column> stagingColumnList) {
+        int[] positions = new int[columns.size()];
+        for(int i = 0; i < columns.size(); i++) {
+            positions[i] = -1;
+            for(int j = 0; j < stagingColumnList.size(); j++) {
+                if(stagingColumnList.get(j).getColumnName().equals(columns.get(i).getColumnName())) {
+                    positions[i] = j;
+                    break;
+                }
+            }
+        }
+        return positions;
+    }
+    public String joinPositions(int[] positions) {
+        StringBuilder joined = new StringBuilder();
+        for(int i = 0; i < positions.length; i++) {
+            if(i > 0) {
+                joined.append(", ");
+            }
+            joined.append(positions[i]);
+        }
+        return joined.toString();
+    }
     public List<Column> getSearchingColumnList(SCDConfiger scdConfiger) {
         List<Column> columnList = new ArrayList<Column>();
         if(scdConfiger.isEnableType1()) {
@@ -2322,6 +2403,100 @@ public class TMysqlSCDBeginJava {
             }
             return setStatement.toString();
         }
+        public String createStagingSQL(SCDConfiger scdConfiger, List<Column> stagingColumnList) {
+            StringBuilder stagingSQL = new StringBuilder();
+            stagingSQL.append("CREATE TEMPORARY TABLE " + getLProtectedChar() + "\" + stagingTable_" + cid + " + \"" + getRProtectedChar() + " SELECT ");
+            for(Column column : stagingColumnList) {
+                stagingSQL.append(getLProtectedChar() + column.getColumnName() + getRProtectedChar() + ", ");
+            }
+            stagingSQL.append("0 AS scd_action FROM " + getLProtectedChar() + "\" + tableName_" + cid + " + \"" + getRProtectedChar() + " WHERE 1 = 0");
+            return stagingSQL.toString();
+        }
+        private String getStagingJoin(SCDConfiger scdConfiger, boolean isSourceKeyEnableNull) {
+            StringBuilder join = new StringBuilder();
+            join.append(getLProtectedChar() + "\" + tableName_" + cid + " + \"" + getRProtectedChar() + " d JOIN ");
+            join.append(getLProtectedChar() + "\" + stagingTable_" + cid + " + \"" + getRProtectedChar() + " s ON ");
+            boolean firstKeyColumn = true;
+            for(Column keyColumn : scdConfiger.getSourceKeys()) {
+                if(firstKeyColumn) {
+                    firstKeyColumn = false;
+                } else {
+                    join.append(" AND ");
+                }
+                String keyName = getLProtectedChar() + keyColumn.getColumnName() + getRProtectedChar();
+                join.append("d." + keyName + (isSourceKeyEnableNull ? " <=> " : " = ") + "s." + keyName);
+            }
+            return join.toString();
+        }
+        private String getCurrentCondition(SCDConfiger scdConfiger) {
+            String endDateField = scdConfiger.getDimensionType2Configer().getEndDateField();
+            if(scdConfiger.getDimensionType2Configer().getEndDateValueType().equals("NULL_VALUE")) {
+                return "d." + getLProtectedChar() + endDateField + getRProtectedChar() + " IS NULL";
+            } else {
+                return "YEAR(d." + getLProtectedChar() + endDateField + getRProtectedChar() + ") = \" + " + scdConfiger.getDimensionType2Configer().getEndDateValue() + " + \"";
+            }
+        }
+        /**
+         * Statements merging a batch of the staging table into the dimension, in the order they have to run: type 1
+         * updates, then the current versions closed by a type 2 change, then the new rows and versions.
+         */
+        public List<String> createMergeSQLs(SCDConfiger scdConfiger, List<Column> stagingColumnList, boolean isSourceKeyEnableNull) {
+            List<String> mergeSQLs = new ArrayList<String>();
+            String separator = ", ";
+            if(scdConfiger.isEnableType1()) {
+                StringBuilder updateSQL = new StringBuilder();
+                updateSQL.append("UPDATE " + getStagingJoin(scdConfiger, isSourceKeyEnableNull) + " SET ");
+                boolean firstColumn = true;
+                for(Column dimensionAttribute : scdConfiger.getDimensionType1Configer().getDimensionAttributes()) {
+                    if(firstColumn) {
+                        firstColumn = false;
+                    } else {
+                        updateSQL.append(separator);
+                    }
+                    String columnName = getLProtectedChar() + dimensionAttribute.getColumnName() + getRProtectedChar();
+                    updateSQL.append("d." + columnName + " = s." + columnName);
+                }
+                updateSQL.append(" WHERE (s.scd_action & 2) <> 0");
+                if(scdConfiger.isEnableType2() && scdConfiger.getDimensionType1Configer().isOnlyUpdateActive()) {
+                    updateSQL.append(" AND " + getCurrentCondition(scdConfiger));
+                }
+                mergeSQLs.add(updateSQL.toString());
+            }
+            if(scdConfiger.isEnableType2()) {
+                DimensionType2Configer type2Configer = scdConfiger.getDimensionType2Configer();
+                StringBuilder updateSQL = new StringBuilder();
+                updateSQL.append("UPDATE " + getStagingJoin(scdConfiger, isSourceKeyEnableNull));
+                updateSQL.append(" SET d." + getLProtectedChar() + type2Configer.getEndDateField() + getRProtectedChar() + " = s." + getLProtectedChar() + type2Configer.getStartDateField() + getRProtectedChar());
+                if(type2Configer.isEnableActive()) {
+                    updateSQL.append(separator + "d." + getLProtectedChar() + type2Configer.getActiveField() + getRProtectedChar() + " = " + getActiveFieldFalseValue(type2Configer.getActiveFieldType()));
+                }
+                updateSQL.append(" WHERE (s.scd_action & 4) <> 0 AND " + getCurrentCondition(scdConfiger));
+                mergeSQLs.add(updateSQL.toString());
+            }
+            String insertColumns = "";
+            String insertValues = "";
+            for(Column column : stagingColumnList) {
+                String columnName = getLProtectedChar() + column.getColumnName() + getRProtectedChar();
+                insertColumns += (insertColumns.length() == 0 ? "" : separator) + columnName;
+                insertValues += (insertValues.length() == 0 ? "" : separator) + "s." + columnName;
+            }
+            if(scdConfiger.isEnableType2()) {
+                DimensionType2Configer type2Configer = scdConfiger.getDimensionType2Configer();
+                insertColumns += separator + getLProtectedChar() + type2Configer.getEndDateField() + getRProtectedChar();
+                if(type2Configer.getEndDateValueType().equals("NULL_VALUE")) {
+                    insertValues += separator + "NULL";
+                } else {
+                    insertValues += separator + "'\" + endDate_" + cid + " + \"'";
+                }
+                if(type2Configer.isEnableActive()) {
+                    insertColumns += separator + getLProtectedChar() + type2Configer.getActiveField() + getRProtectedChar();
+                    insertValues += separator + getActiveFieldTrueValue(type2Configer.getActiveFieldType());
+                }
+            }
+            mergeSQLs.add("INSERT INTO " + getLProtectedChar() + "\" + tableName_" + cid + " + \"" + getRProtectedChar() + "(" + insertColumns + ") SELECT " + insertValues
+                    + " FROM " + getLProtectedChar() + "\" + stagingTable_" + cid + " + \"" + getRProtectedChar() + " s WHERE (s.scd_action & 5) <> 0");
+            return mergeSQLs;
+        }
     }
     
     public class NetezzaSCDManager extends SCDManager {
@@ -2984,6 +3159,7 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     String dbType = MYSQL;
     SCDConfiger scdConfiger = getSCDConfiger(node);
     SCDManager scdManager = getSCDManager(cid, dbType);
+    boolean isSetBased = isSetBased(node);
     
     
     if(!isEnableSaveMemMode) {    
@@ -3236,6 +3412,116 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_105);
     
+    if(isSetBased) {
+        List<Column> stagingColumnList = getStagingColumnList(scdConfiger);
+        String batchSize = ElementParameterParser.getValue(node, "__SET_BASED_BATCH_SIZE__");
+        
+    stringBuffer.append(TEXT_273);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_274);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_275);
+    
+        if(scdConfiger.isEnableType2() && !("NULL_VALUE").equals(scdConfiger.getDimensionType2Configer().getEndDateValueType())) {
+            String endDateTimeString = ElementParameterParser.getValue(node, "__L2_ENDDATE_TIME_DETAILS__");
+            
+    stringBuffer.append(TEXT_276);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_277);
+    stringBuffer.append(endDateTimeString.length()>0?endDateTimeString:"\"\"");
+    stringBuffer.append(TEXT_278);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_279);
+    stringBuffer.append(scdConfiger.getDimensionType2Configer().getEndDateValue());
+    stringBuffer.append(TEXT_280);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_281);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_282);
+    
+        }
+        
+    stringBuffer.append(TEXT_283);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_284);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_285);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_286);
+    stringBuffer.append(stagingColumnList.size());
+    stringBuffer.append(TEXT_287);
+    stringBuffer.append(batchSize != null && batchSize.trim().length() > 0 ? batchSize : "10000");
+    stringBuffer.append(TEXT_288);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_289);
+    stringBuffer.append(joinPositions(getStagingPositions(scdConfiger.getSourceKeys(), stagingColumnList)));
+    stringBuffer.append(TEXT_290);
+    
+        if(scdConfiger.isEnableType1()) {
+            
+    stringBuffer.append(TEXT_291);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_292);
+    stringBuffer.append(joinPositions(getStagingPositions(scdConfiger.getDimensionType1Configer().getDimensionAttributes(), stagingColumnList)));
+    stringBuffer.append(TEXT_293);
+    
+        }
+        if(scdConfiger.isEnableType2()) {
+            
+    stringBuffer.append(TEXT_294);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_295);
+    stringBuffer.append(joinPositions(getStagingPositions(scdConfiger.getDimensionType2Configer().getDimensionAttributes(), stagingColumnList)));
+    stringBuffer.append(TEXT_296);
+    
+            if(scdConfiger.getDimensionType2Configer().isEnableVersion()) {
+                List<Column> versionColumns = new ArrayList<Column>();
+                versionColumns.add(getColumn(scdConfiger.getDimensionType2Configer().getVersionField(), scdConfiger.getDimensionType2Configer().getVersionFieldType()));
+                
+    stringBuffer.append(TEXT_297);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_298);
+    stringBuffer.append(joinPositions(getStagingPositions(versionColumns, stagingColumnList)));
+    stringBuffer.append(TEXT_299);
+    
+            }
+        }
+        if(("TABLE_MAX").equals(scdConfiger.getSurrogateKeyValueType())) {
+            List<Column> surrogateKeyColumns = new ArrayList<Column>();
+            surrogateKeyColumns.add(getColumn(scdConfiger.getSurrogateKeyField(), scdConfiger.getSurrogateKeyFieldType()));
+            
+    stringBuffer.append(TEXT_300);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_301);
+    stringBuffer.append(joinPositions(getStagingPositions(surrogateKeyColumns, stagingColumnList)));
+    stringBuffer.append(TEXT_302);
+    stringBuffer.append(scdConfiger.getSurrogateKeyField());
+    stringBuffer.append(TEXT_303);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_304);
+    
+        }
+        
+    stringBuffer.append(TEXT_305);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_306);
+    stringBuffer.append(scdManager.createSelectionSQL(scdConfiger));
+    stringBuffer.append(TEXT_307);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_308);
+    stringBuffer.append(((MysqlSCDManager) scdManager).createStagingSQL(scdConfiger, stagingColumnList));
+    stringBuffer.append(TEXT_309);
+    
+        for(String mergeSQL : ((MysqlSCDManager) scdManager).createMergeSQLs(scdConfiger, stagingColumnList, isSourceKeyIncNull)) {
+            
+    stringBuffer.append(TEXT_310);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_311);
+    stringBuffer.append(mergeSQL);
+    stringBuffer.append(TEXT_312);
+    
+        }
+    } else {
     if(isEnableSaveMemMode) {
         
     stringBuffer.append(TEXT_106);
@@ -3639,6 +3925,7 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_264);
     
+    }
     }
     
     stringBuffer.append(TEXT_265);
@@ -52,6 +52,8 @@ public class TMysqlSCDEndJava {
   protected final String TEXT_21 = "_NB_LINE_REJECTED\",nb_line_rejected_";
   protected final String TEXT_22 = ");";
   protected final String TEXT_23 = NL;
+  protected final String TEXT_24 = NL + "    scdMerge_";
+  protected final String TEXT_25 = ".close();";
 
     public static final String DB2 = "DB2";
     public static final String INGRES = "INGRES";    
@@ -2719,6 +2721,14 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     
     }
     SCDConfiger scdConfiger = getSCDConfiger(node);
+    boolean isSetBased = TMysqlSCDBeginJava.create(NL).isSetBased(node);
+    if(isSetBased) {
+        
+    stringBuffer.append(TEXT_24);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_25);
+    
+    } else {
     
     stringBuffer.append(TEXT_4);
     stringBuffer.append(cid);
@@ -2744,6 +2754,7 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_11);
     
+    }
     }
     if (!useExistingConnection) {
         
@@ -236,6 +236,16 @@ public class TMysqlSCDMainJava {
   protected final String TEXT_205 = ", lookUpValue_";
   protected final String TEXT_206 = ");";
   protected final String TEXT_207 = NL;
+  protected final String TEXT_208 = NL + "    Object[] scdRow_";
+  protected final String TEXT_209 = " = new Object[] { ";
+  protected final String TEXT_210 = " };" + NL + "    int scdAction_";
+  protected final String TEXT_211 = " = scdMerge_";
+  protected final String TEXT_212 = ".add(scdRow_";
+  protected final String TEXT_213 = ");" + NL + "    if((scdAction_";
+  protected final String TEXT_214 = " & routines.system.SCDMerge.INSERTED) != 0) {" + NL + "        nb_line_inserted_";
+  protected final String TEXT_215 = "++;" + NL + "    }" + NL + "    if((scdAction_";
+  protected final String TEXT_216 = " & routines.system.SCDMerge.UPDATED) != 0) {" + NL + "        nb_line_update_";
+  protected final String TEXT_217 = "++;" + NL + "    }";
 
     public static final String DB2 = "DB2";
     public static final String INGRES = "INGRES";    
@@ -2930,6 +2940,57 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     List<Column> sourceKeys = scdConfiger.getSourceKeys();
     List<Column> insertionColumnList = getInsertionColumnList(scdConfiger);
     String surrogateKeyField = scdConfiger.getSurrogateKeyField();
+    TMysqlSCDBeginJava scdBegin = TMysqlSCDBeginJava.create(NL);
+    boolean isSetBased = scdBegin.isSetBased(node);
+    if(isSetBased) {
+        // staged row, the surrogate key of TABLE_MAX and the version are set by SCDMerge
+        StringBuilder stagingValues = new StringBuilder();
+        for(TMysqlSCDBeginJava.Column stagingColumn : scdBegin.getStagingColumnList(scdBegin.getSCDConfiger(node))) {
+            if(stagingValues.length() > 0) {
+                stagingValues.append(", ");
+            }
+            if(stagingColumn.getColumnName().equals(surrogateKeyField)) {
+                if(("INPUT_FIELD").equals(scdConfiger.getSurrogateKeyValueType())) {
+                    stagingValues.append(inConnectionName + "." + scdConfiger.getSurrogateKeyInputField());
+                } else if(("ROUTINE").equals(scdConfiger.getSurrogateKeyValueType())) {
+                    stagingValues.append(scdConfiger.getSurrogateKeyRoutine());
+                } else {
+                    stagingValues.append("null");
+                }
+            } else if(scdConfiger.isEnableType2() && stagingColumn.getColumnName().equals(scdConfiger.getDimensionType2Configer().getStartDateField())) {
+                if(("INPUT_FIELD").equals(scdConfiger.getDimensionType2Configer().getStartDateValueType())) {
+                    stagingValues.append(inConnectionName + "." + scdConfiger.getDimensionType2Configer().getStartDateValue());
+                } else {
+                    stagingValues.append("new java.sql.Timestamp(start_Hash.get(\"" + cid + "\"))");
+                }
+            } else if(scdConfiger.isEnableType2() && stagingColumn.getColumnName().equals(scdConfiger.getDimensionType2Configer().getVersionField())) {
+                stagingValues.append("null");
+            } else {
+                stagingValues.append(inConnectionName + "." + stagingColumn.getLabelName());
+            }
+        }
+        
+    stringBuffer.append(TEXT_208);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_209);
+    stringBuffer.append(stagingValues.toString());
+    stringBuffer.append(TEXT_210);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_211);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_212);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_213);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_214);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_215);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_216);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_217);
+    
+    } else {
     if(isEnableSaveMemMode) {
         
     stringBuffer.append(TEXT_4);
@@ -3659,6 +3720,7 @@ if(inputSchema != null && inputSchema.size() > 0 && outputSchema != null && outp
     stringBuffer.append(TEXT_206);
     
     }
+    }
 }
 
     stringBuffer.append(TEXT_207);
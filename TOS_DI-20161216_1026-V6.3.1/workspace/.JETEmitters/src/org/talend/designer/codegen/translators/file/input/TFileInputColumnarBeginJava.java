@@ -0,0 +1,163 @@
+package org.talend.designer.codegen.translators.file.input;
+
+import org.talend.core.model.process.IConnection;
+import org.talend.core.model.process.INode;
+import org.talend.core.model.process.ElementParameterParser;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.IMetadataColumn;
+import org.talend.core.model.metadata.types.JavaTypesManager;
+import org.talend.core.model.process.IConnectionCategory;
+import java.util.List;
+import java.util.Map;
+
+public class TFileInputColumnarBeginJava
+{
+  protected static String nl;
+  public static synchronized TFileInputColumnarBeginJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TFileInputColumnarBeginJava result = new TFileInputColumnarBeginJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "";
+  protected final String TEXT_2 = NL + "int nb_line_";
+  protected final String TEXT_3 = " = 0;" + NL + "routines.system.ColumnarFile.Reader columnarReader_";
+  protected final String TEXT_4 = " = new routines.system.ColumnarFile.Reader(";
+  protected final String TEXT_5 = "," + NL + "\tnew String[] { ";
+  protected final String TEXT_6 = ", ";
+  protected final String TEXT_7 = "\"";
+  protected final String TEXT_8 = "\"";
+  protected final String TEXT_9 = " });";
+  protected final String TEXT_10 = NL + "columnarReader_";
+  protected final String TEXT_11 = ".addRange(\"";
+  protected final String TEXT_12 = "\", ";
+  protected final String TEXT_13 = ", ";
+  protected final String TEXT_14 = ");";
+  protected final String TEXT_15 = NL + "Object columnarValue_";
+  protected final String TEXT_16 = " = null;" + NL + "while (columnarReader_";
+  protected final String TEXT_17 = ".next()) {" + NL + "\tnb_line_";
+  protected final String TEXT_18 = "++;";
+  protected final String TEXT_19 = NL + "\tcolumnarValue_";
+  protected final String TEXT_20 = " = columnarReader_";
+  protected final String TEXT_21 = ".get(";
+  protected final String TEXT_22 = ");" + NL + "\t";
+  protected final String TEXT_23 = ".";
+  protected final String TEXT_24 = " = columnarValue_";
+  protected final String TEXT_25 = " == null ? ";
+  protected final String TEXT_26 = " : (";
+  protected final String TEXT_27 = ") columnarValue_";
+  protected final String TEXT_28 = ";";
+  protected final String TEXT_29 = NL;
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+    stringBuffer.append(TEXT_1);
+
+CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+INode node = (INode)codeGenArgument.getArgument();
+String cid = node.getUniqueName();
+
+String filename = ElementParameterParser.getValue(node,"__FILENAME__");
+// ranges of values of the rows read, the blocks out of them are skipped
+List<Map<String, String>> ranges = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node,"__RANGES__");
+
+List<IMetadataTable> metadatas = node.getMetadataList();
+if ((metadatas!=null)&&(metadatas.size()>0)) {
+    IMetadataTable metadata = metadatas.get(0);
+    List<IMetadataColumn> columns = metadata.getListColumns();
+
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_4);
+    stringBuffer.append(filename);
+    stringBuffer.append(TEXT_5);
+
+    // only the columns of the schema are read from the file
+    for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+
+    stringBuffer.append(TEXT_6);
+
+        }
+
+    stringBuffer.append(TEXT_7);
+    stringBuffer.append(columns.get(i).getLabel());
+    stringBuffer.append(TEXT_8);
+
+    }
+
+    stringBuffer.append(TEXT_9);
+
+    if (ranges != null) {
+        for (Map<String, String> range : ranges) {
+            String min = range.get("MIN");
+            String max = range.get("MAX");
+
+    stringBuffer.append(TEXT_10);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_11);
+    stringBuffer.append(range.get("COLUMN"));
+    stringBuffer.append(TEXT_12);
+    stringBuffer.append(min == null || "".equals(min.trim()) ? "null" : min);
+    stringBuffer.append(TEXT_13);
+    stringBuffer.append(max == null || "".equals(max.trim()) ? "null" : max);
+    stringBuffer.append(TEXT_14);
+
+        }
+    }
+
+    stringBuffer.append(TEXT_15);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_16);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_17);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_18);
+
+    List<? extends IConnection> conns = node.getOutgoingSortedConnections();
+    if (conns != null) {
+        for (IConnection conn : conns) {
+            if (!conn.getLineStyle().hasConnectionCategory(IConnectionCategory.DATA)) {
+                continue;
+            }
+            for (int i = 0; i < columns.size(); i++) {
+                IMetadataColumn column = columns.get(i);
+                String objectType = JavaTypesManager.getTypeToGenerate(column.getTalendType(), true);
+                String defaultValue = JavaTypesManager.getDefaultValueFromJavaIdType(column.getTalendType(), column.isNullable());
+
+    stringBuffer.append(TEXT_19);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_20);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_21);
+    stringBuffer.append(i);
+    stringBuffer.append(TEXT_22);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_23);
+    stringBuffer.append(column.getLabel());
+    stringBuffer.append(TEXT_24);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_25);
+    stringBuffer.append(defaultValue);
+    stringBuffer.append(TEXT_26);
+    stringBuffer.append(objectType);
+    stringBuffer.append(TEXT_27);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_28);
+
+            }
+        }
+    }
+}
+
+    stringBuffer.append(TEXT_29);
+    return stringBuffer.toString();
+  }
+}
@@ -855,6 +855,20 @@ public class TFileInputDelimitedBeginJava
   protected final String TEXT_828 = " - Retrieving the record \" + (nb_line_";
   protected final String TEXT_829 = "+1) + \".\");" + NL + "\t\t";
   protected final String TEXT_830 = NL;
+  protected final String TEXT_831 = ";\t" + NL + "\t\t\t\t\t\troutines.system.ParallelArchiveInputStream zis_";
+  protected final String TEXT_832 = " = new routines.system.ParallelArchiveInputStream((java.io.InputStream)filename_";
+  protected final String TEXT_833 = ", ";
+  protected final String TEXT_834 = ");" + NL + "\t\t\t\t\t\t\t}else{" + NL + "\t\t\t\t\t\t\t\tzis_";
+  protected final String TEXT_835 = " = new routines.system.ParallelArchiveInputStream(new java.io.File(String.valueOf(filename_";
+  protected final String TEXT_836 = ")), ";
+  protected final String TEXT_837 = ");" + NL + "\t\t\t\t\t\t\t}" + NL + "\t\t\t\t\t\t} catch(java.lang.Exception e) {" + NL + "\t\t\t\t\t\t\t";
+  protected final String TEXT_838 = NL + "\t        \t\t\troutines.system.ParallelArchiveInputStream zis_";
+  protected final String TEXT_839 = " = new routines.system.ParallelArchiveInputStream((java.io.InputStream)filename_";
+  protected final String TEXT_840 = ", ";
+  protected final String TEXT_841 = ");" + NL + "\t\t        \t\t\t}else{" + NL + "\t\t        \t\t\t\tzis_";
+  protected final String TEXT_842 = " = new routines.system.ParallelArchiveInputStream(new java.io.File(String.valueOf(filename_";
+  protected final String TEXT_843 = ")), ";
+  protected final String TEXT_844 = ");" + NL + "\t\t        \t\t\t}" + NL + "\t        \t\t\t} catch(java.lang.Exception e) {" + NL + "\t        \t\t\t\t";
 
   public String generate(Object argument)
   {
@@ -1895,6 +1909,12 @@ public class TFileInputDelimitedBeginJava
 				}
 		    	String footer = ElementParameterParser.getValue(node, "__FOOTER__");
 				boolean uncompress = ("true").equals(ElementParameterParser.getValue(node,"__UNCOMPRESS__"));
+				// inflates on background threads, the entries of a zip file concurrently
+				boolean parallelUncompress = uncompress && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_UNCOMPRESS__"));
+				String uncompressThreads = ElementParameterParser.getValue(node,"__UNCOMPRESS_THREADS__");
+				if(uncompressThreads == null || ("").equals(uncompressThreads.trim())){
+					uncompressThreads = "0";
+				}
 		    	if(("").equals(footer) || uncompress){
 		    		footer="0";
 		    	}
@@ -1975,6 +1995,25 @@ public class TFileInputDelimitedBeginJava
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_285);
     stringBuffer.append(filename );
+     if(parallelUncompress) {
+    stringBuffer.append(TEXT_831);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_287);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_288);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_832);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_833);
+    stringBuffer.append(uncompressThreads );
+    stringBuffer.append(TEXT_834);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_835);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_836);
+    stringBuffer.append(uncompressThreads );
+    stringBuffer.append(TEXT_837);
+     } else { 
     stringBuffer.append(TEXT_286);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_287);
@@ -1988,6 +2027,7 @@ public class TFileInputDelimitedBeginJava
     stringBuffer.append(TEXT_291);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_292);
+     } 
      if(dieOnError) {
     stringBuffer.append(TEXT_293);
      } else { 
@@ -2794,6 +2834,12 @@ public class TFileInputDelimitedBeginJava
 				boolean dieOnError = (dieOnErrorStr!=null&&!("").equals(dieOnErrorStr))?("true").equals(dieOnErrorStr):false;
 				
 				boolean uncompress = ("true").equals(ElementParameterParser.getValue(node,"__UNCOMPRESS__"));
+				// inflates on background threads, the entries of a zip file concurrently
+				boolean parallelUncompress = uncompress && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_UNCOMPRESS__"));
+				String uncompressThreads = ElementParameterParser.getValue(node,"__UNCOMPRESS_THREADS__");
+				if(uncompressThreads == null || ("").equals(uncompressThreads.trim())){
+					uncompressThreads = "0";
+				}
 				if(uncompress){
 					footer = "0";
 				}
@@ -2882,6 +2928,25 @@ public class TFileInputDelimitedBeginJava
     
 					if(uncompress){
 					
+     if(parallelUncompress) {
+    stringBuffer.append(TEXT_838);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_592);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_593);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_839);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_840);
+    stringBuffer.append(uncompressThreads );
+    stringBuffer.append(TEXT_841);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_842);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_843);
+    stringBuffer.append(uncompressThreads );
+    stringBuffer.append(TEXT_844);
+     } else { 
     stringBuffer.append(TEXT_591);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_592);
@@ -2895,6 +2960,7 @@ public class TFileInputDelimitedBeginJava
     stringBuffer.append(TEXT_596);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_597);
+     } 
      if(dieOnError) {
     stringBuffer.append(TEXT_598);
      } else { 
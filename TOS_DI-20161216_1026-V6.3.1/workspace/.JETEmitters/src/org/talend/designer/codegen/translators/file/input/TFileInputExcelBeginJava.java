@@ -276,8 +276,8 @@ public class TFileInputExcelBeginJava
   protected final String TEXT_250 = ");" + NL + "            }else{" + NL + "            \tcontinue;" + NL + "            }";
   protected final String TEXT_251 = NL + "\t\t\tisFirstRow_";
   protected final String TEXT_252 = " = false;" + NL + "\t\t";
-  protected final String TEXT_253 = NL + "        \tglobalMap.put(\"";
-  protected final String TEXT_254 = "_CURRENT_SHEET\",sheet_";
+  protected final String TEXT_253 = NL + "        \tcurrentSheet_";
+  protected final String TEXT_254 = ".put(sheet_";
   protected final String TEXT_255 = ".getName());";
   protected final String TEXT_256 = NL + "    \t\t";
   protected final String TEXT_257 = " = null;";
@@ -581,8 +581,8 @@ public class TFileInputExcelBeginJava
   protected final String TEXT_555 = ".get(++sheetIndex_";
   protected final String TEXT_556 = ");" + NL + "                currentRows_";
   protected final String TEXT_557 = " = (sheet_";
-  protected final String TEXT_558 = ".getLastRowNum()+1);" + NL + "            }" + NL + "            globalMap.put(\"";
-  protected final String TEXT_559 = "_CURRENT_SHEET\",sheet_";
+  protected final String TEXT_558 = ".getLastRowNum()+1);" + NL + "            }" + NL + "            currentSheet_";
+  protected final String TEXT_559 = ".put(sheet_";
   protected final String TEXT_560 = ".getSheetName());";
   protected final String TEXT_561 = NL + "            if (rowCount_";
   protected final String TEXT_562 = " <= i_";
@@ -1160,8 +1160,246 @@ public class TFileInputExcelBeginJava
   protected final String TEXT_1134 = NL;
   protected final String TEXT_1135 = NL;
   protected final String TEXT_1136 = NL;
+  protected final String TEXT_1137 = NL + "        routines.system.JobVariableStore.Slot<String> currentSheet_";
+  protected final String TEXT_1138 = " = jobVariables.slot(\"";
+  protected final String TEXT_1139 = "_CURRENT_SHEET\");";
+  protected final String TEXT_1140 = NL + "        routines.system.RowCheckpoint rowCheckpoint_";
+  protected final String TEXT_1141 = " = routines.system.RowCheckpoint.get(jobName, \"";
+  protected final String TEXT_1142 = "\");";
+  protected final String TEXT_1143 = NL + "            if (rowCheckpoint_";
+  protected final String TEXT_1144 = " != null) {" + NL + "                if (rowCheckpoint_";
+  protected final String TEXT_1145 = ".isCommitted(i_";
+  protected final String TEXT_1146 = ")) {" + NL + "                    continue;" + NL + "                }" + NL + "                rowCheckpoint_";
+  protected final String TEXT_1147 = ".setPosition(sheetIndex_";
+  protected final String TEXT_1148 = ", i_";
+  protected final String TEXT_1149 = " - rowCount_";
+  protected final String TEXT_1150 = ", i_";
+  protected final String TEXT_1151 = ");" + NL + "            }";
+  protected final String TEXT_1152 = NL + "routines.system.SharedSourceCache sharedSource_";
+  protected final String TEXT_1153 = " = routines.system.SharedSourceCache.get(";
+  protected final String TEXT_1154 = ", ";
+  protected final String TEXT_1155 = "," + NL + "\t";
+  protected final String TEXT_1156 = ");" + NL + "if (!sharedSource_";
+  protected final String TEXT_1157 = ".isCached()) {" + NL + "routines.system.ColumnarFile.Writer sharedWriter_";
+  protected final String TEXT_1158 = " = sharedSource_";
+  protected final String TEXT_1159 = ".create(" + NL + "\tnew String[] { ";
+  protected final String TEXT_1160 = " }," + NL + "\tnew int[] { ";
+  protected final String TEXT_1161 = " });" + NL + "boolean sharedComplete_";
+  protected final String TEXT_1162 = " = false;" + NL + "try {";
+  protected final String TEXT_1163 = NL + "if (";
+  protected final String TEXT_1164 = " != null) {" + NL + "\tsharedWriter_";
+  protected final String TEXT_1165 = ".write(new Object[] { ";
+  protected final String TEXT_1166 = " });" + NL + "}";
+  protected final String TEXT_1167 = NL + "sharedComplete_";
+  protected final String TEXT_1168 = " = true;" + NL + "} finally {" + NL + "\tsharedSource_";
+  protected final String TEXT_1169 = ".commit(sharedComplete_";
+  protected final String TEXT_1170 = ");" + NL + "}" + NL + "}" + NL + "routines.system.ColumnarFile.Reader sharedReader_";
+  protected final String TEXT_1171 = ".open(new String[] { ";
+  protected final String TEXT_1172 = " });" + NL + "int nb_line_";
+  protected final String TEXT_1173 = " = 0;" + NL + "Object sharedValue_";
+  protected final String TEXT_1174 = " = null;" + NL + "while (sharedReader_";
+  protected final String TEXT_1175 = ".next()) {" + NL + "\t";
+  protected final String TEXT_1176 = " = new ";
+  protected final String TEXT_1177 = "Struct();";
+  protected final String TEXT_1178 = NL + "\tsharedValue_";
+  protected final String TEXT_1179 = " = sharedReader_";
+  protected final String TEXT_1180 = ".get(";
+  protected final String TEXT_1181 = ");" + NL + "\t";
+  protected final String TEXT_1182 = ".";
+  protected final String TEXT_1183 = " = sharedValue_";
+  protected final String TEXT_1184 = " == null ? ";
+  protected final String TEXT_1185 = " : (";
+  protected final String TEXT_1186 = ") sharedValue_";
+  protected final String TEXT_1187 = ";";
+  protected final String TEXT_1188 = NL + "\tnb_line_";
+  protected final String TEXT_1189 = "++;" + NL;
+
+
+    /**
+     * Type of the values of the column in the cache.
+     */
+    private String columnarType(IMetadataColumn column) {
+        String talendType = column.getTalendType();
+        if ("id_String".equals(talendType)) {
+            return "STRING";
+        } else if ("id_Integer".equals(talendType)) {
+            return "INT";
+        } else if ("id_Long".equals(talendType)) {
+            return "LONG";
+        } else if ("id_Short".equals(talendType)) {
+            return "SHORT";
+        } else if ("id_Byte".equals(talendType)) {
+            return "BYTE";
+        } else if ("id_Double".equals(talendType)) {
+            return "DOUBLE";
+        } else if ("id_Float".equals(talendType)) {
+            return "FLOAT";
+        } else if ("id_Boolean".equals(talendType)) {
+            return "BOOLEAN";
+        } else if ("id_Character".equals(talendType)) {
+            return "CHAR";
+        } else if ("id_Date".equals(talendType)) {
+            return "DATE";
+        } else if ("id_BigDecimal".equals(talendType)) {
+            return "DECIMAL";
+        } else if ("id_byte[]".equals(talendType)) {
+            return "BYTES";
+        }
+        return "OBJECT";
+    }
+
+    /**
+     * The schema and the options changing the rows read, the rows of the same file read differently are cached apart.
+     * The header, footer and limit are taken at runtime, they are often context variables.
+     */
+    private String signature(INode node, List<IMetadataColumn> columns) {
+        StringBuilder signature = new StringBuilder();
+        for (IMetadataColumn column : columns) {
+            signature.append(column.getLabel()).append(':').append(column.getTalendType()).append(':').append(column.getPattern()).append(';');
+        }
+        String[] options = { "__VERSION_2007__", "__ALL_SHEETS__", "__FIRST_COLUMN__", "__LAST_COLUMN__", "__ADVANCED_SEPARATOR__",
+                "__THOUSANDS_SEPARATOR__", "__DECIMAL_SEPARATOR__", "__STOPREAD_ON_EMPTYROW__", "__TRIMALL__", "__READ_REAL_VALUE__",
+                "__CONVERTDATETOSTRING__", "__GENERATION_MODE__" };
+        for (String option : options) {
+            signature.append(option).append('=').append(ElementParameterParser.getValue(node, option)).append(';');
+        }
+        List<Map<String, String>> sheets = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node, "__SHEETLIST__");
+        if (sheets != null) {
+            for (Map<String, String> sheet : sheets) {
+                signature.append("sheet=").append(sheet.get("SHEETNAME")).append(';');
+            }
+        }
+        StringBuilder expression = new StringBuilder("\"");
+        String text = signature.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                expression.append('\\');
+            }
+            expression.append(c);
+        }
+        expression.append('"');
+        String[] runtimeOptions = { "__HEADER__", "__FOOTER__", "__LIMIT__" };
+        for (String option : runtimeOptions) {
+            String value = ElementParameterParser.getValue(node, option);
+            if (value != null && !"".equals(value.trim())) {
+                expression.append(" + \"").append(option).append("=\" + (").append(value).append(")");
+            }
+        }
+        return expression.toString();
+    }
 
   public String generate(Object argument)
+  {
+    CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+    INode node = (INode)codeGenArgument.getArgument();
+    if (!TFileInputExcelEndJava.sharedCache(node)) {
+        return generateExcel(argument);
+    }
+    String cid = node.getUniqueName();
+    final StringBuffer stringBuffer = new StringBuffer();
+
+    // the first job reading the file parses it into the cache, then all of them stream the typed rows of the cache
+    List<IMetadataColumn> columns = node.getMetadataList().get(0).getListColumns();
+    String connName = node.getOutgoingSortedConnections().get(0).getName();
+    String cacheDirectory = ElementParameterParser.getValue(node,"__SHARED_CACHE_DIRECTORY__");
+    StringBuilder names = new StringBuilder();
+    StringBuilder types = new StringBuilder();
+    StringBuilder values = new StringBuilder();
+    for (int i = 0; i < columns.size(); i++) {
+        String separator = i == 0 ? "" : ", ";
+        names.append(separator).append('"').append(columns.get(i).getLabel()).append('"');
+        types.append(separator).append("routines.system.ColumnarFile.").append(columnarType(columns.get(i)));
+        values.append(separator).append(connName).append('.').append(columns.get(i).getLabel());
+    }
+
+    stringBuffer.append(TEXT_1152);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1153);
+    stringBuffer.append(ElementParameterParser.getValue(node,"__FILENAME__"));
+    stringBuffer.append(TEXT_1154);
+    stringBuffer.append(cacheDirectory == null || "".equals(cacheDirectory.trim()) ? "null" : cacheDirectory);
+    stringBuffer.append(TEXT_1155);
+    stringBuffer.append(signature(node, columns));
+    stringBuffer.append(TEXT_1156);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1157);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1158);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1159);
+    stringBuffer.append(names);
+    stringBuffer.append(TEXT_1160);
+    stringBuffer.append(types);
+    stringBuffer.append(TEXT_1161);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1162);
+    stringBuffer.append(generateExcel(argument));
+    stringBuffer.append(TEXT_1163);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_1164);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1165);
+    stringBuffer.append(values);
+    stringBuffer.append(TEXT_1166);
+    stringBuffer.append(TFileInputExcelEndJava.create(NL).generateExcel(argument));
+    stringBuffer.append(TEXT_1167);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1168);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1169);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1170);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1158);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1171);
+    stringBuffer.append(names);
+    stringBuffer.append(TEXT_1172);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1173);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1174);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1175);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_1176);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_1177);
+    for (int i = 0; i < columns.size(); i++) {
+        IMetadataColumn column = columns.get(i);
+
+    stringBuffer.append(TEXT_1178);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1179);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1180);
+    stringBuffer.append(i);
+    stringBuffer.append(TEXT_1181);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_1182);
+    stringBuffer.append(column.getLabel());
+    stringBuffer.append(TEXT_1183);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1184);
+    stringBuffer.append(JavaTypesManager.getDefaultValueFromJavaIdType(column.getTalendType(), column.isNullable()));
+    stringBuffer.append(TEXT_1185);
+    stringBuffer.append(JavaTypesManager.getTypeToGenerate(column.getTalendType(), true));
+    stringBuffer.append(TEXT_1186);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1187);
+
+    }
+    stringBuffer.append(TEXT_1188);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1189);
+    return stringBuffer.toString();
+  }
+
+  /**
+   * Parsing of the Excel file, also used to fill the shared cache.
+   */
+  public String generateExcel(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
     
@@ -1326,6 +1564,8 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 	IMetadataTable metadata = metadatas.get(0);
 	if (metadata!=null) {
 		final boolean version07 = ("true").equals(ElementParameterParser.getValue(node,"__VERSION_2007__"));
+		// rows already committed by the output of the subjob are skipped when the load resumes
+		final boolean rowCheckpoint = ("true").equals(ElementParameterParser.getValue(node,"__ROW_CHECKPOINT__"));
 
 		String fileName = ElementParameterParser.getValue(node,"__FILENAME__");
 
@@ -1660,6 +1900,18 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 			}
 		}
 
+    stringBuffer.append(TEXT_1137);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1138);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1139);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_1140);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1141);
+    stringBuffer.append(node.getDesignSubjobStartNode().getUniqueName());
+    stringBuffer.append(TEXT_1142);
+    }
     stringBuffer.append(TEXT_148);
     stringBuffer.append( cid );
     stringBuffer.append(TEXT_149);
@@ -1896,6 +2148,25 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(TEXT_254);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_255);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_1143);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1144);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1145);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1146);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1147);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1148);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1149);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1150);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1151);
+    }
     
 //begin
 //
@@ -2505,6 +2776,18 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 			}
 		}
 
+    stringBuffer.append(TEXT_1137);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1138);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1139);
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_1140);
+    stringBuffer.append( cid );
+    stringBuffer.append(TEXT_1141);
+    stringBuffer.append(node.getDesignSubjobStartNode().getUniqueName());
+    stringBuffer.append(TEXT_1142);
+    }
     stringBuffer.append(TEXT_481);
     stringBuffer.append( cid );
     stringBuffer.append(TEXT_482);
@@ -2741,6 +3024,25 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(TEXT_588);
     
 		}
+    if (rowCheckpoint) {
+    stringBuffer.append(TEXT_1143);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1144);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1145);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1146);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1147);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1148);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1149);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1150);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_1151);
+    }
 		List< ? extends IConnection> conns = node.getOutgoingSortedConnections();
 		String rejectConnName = "";
 		List<? extends IConnection> rejectConns = node.getOutgoingConnections("REJECT");
@@ -3,6 +3,11 @@ package org.talend.designer.codegen.translators.file.input;
 import org.talend.core.model.process.INode;
 import org.talend.designer.codegen.config.CodeGeneratorArgument;
 import org.talend.core.model.process.ElementParameterParser;
+import org.talend.core.model.process.IConnection;
+import org.talend.core.model.process.IConnectionCategory;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.IMetadataColumn;
+import java.util.List;
 
 public class TFileInputExcelEndJava
 {
@@ -72,8 +77,71 @@ public class TFileInputExcelEndJava
   protected final String TEXT_54 = " instanceof java.io.InputStream)){" + NL + "  \t\t\t\t\tworkbook_";
   protected final String TEXT_55 = ".getPackage().revert();" + NL + "  \t\t\t\t}" + NL + "\t\t\t\t";
   protected final String TEXT_56 = NL + "\t\t}\t" + NL + "\t\t";
+  protected final String TEXT_57 = NL + "}" + NL + "sharedSource_";
+  protected final String TEXT_58 = ".close();" + NL + "globalMap.put(\"";
+  protected final String TEXT_59 = "_NB_LINE\",nb_line_";
+  protected final String TEXT_60 = ");";
+
+    /**
+     * The rows are shared through a cache only when they all go to the main flow, as they are read from a file.
+     * A row checkpoint needs the position of each row delivered, and a stream is read once anyway.
+     * Also decides the begin part of the component.
+     */
+    static boolean sharedCache(INode node) {
+        if (!("true").equals(ElementParameterParser.getValue(node,"__SHARED_CACHE__"))) {
+            return false;
+        }
+        if (("true").equals(ElementParameterParser.getValue(node,"__ROW_CHECKPOINT__"))) {
+            return false;
+        }
+        String fileName = ElementParameterParser.getValue(node,"__FILENAME__");
+        if (fileName == null || fileName.indexOf("InputStream") >= 0 || fileName.indexOf("INPUT_STREAM") >= 0) {
+            return false;
+        }
+        List<? extends IConnection> rejectConns = node.getOutgoingConnections("REJECT");
+        if (rejectConns != null && rejectConns.size() > 0) {
+            return false;
+        }
+        List<? extends IConnection> conns = node.getOutgoingSortedConnections();
+        if (conns == null || conns.size() == 0 || !conns.get(0).getLineStyle().hasConnectionCategory(IConnectionCategory.DATA)) {
+            return false;
+        }
+        List<IMetadataTable> metadatas = node.getMetadataList();
+        if (metadatas == null || metadatas.size() == 0 || metadatas.get(0) == null) {
+            return false;
+        }
+        for (IMetadataColumn column : metadatas.get(0).getListColumns()) {
+            if ("id_Dynamic".equals(column.getTalendType())) {
+                return false;
+            }
+        }
+        return true;
+    }
 
   public String generate(Object argument)
+  {
+    CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+    INode node = (INode)codeGenArgument.getArgument();
+    if (!sharedCache(node)) {
+        return generateExcel(argument);
+    }
+    String cid = node.getUniqueName();
+    final StringBuffer stringBuffer = new StringBuffer();
+    // the Excel file was parsed into the cache by the begin part, this closes the loop on the cached rows
+    stringBuffer.append(TEXT_57);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_58);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_59);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_60);
+    return stringBuffer.toString();
+  }
+
+  /**
+   * End of the parsing of the Excel file, also used in the begin part to fill the shared cache.
+   */
+  public String generateExcel(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
     
@@ -757,6 +757,39 @@ public class TFileInputJSONBeginJava
   protected final String TEXT_730 = ";";
   protected final String TEXT_731 = NL + "                    }";
   protected final String TEXT_732 = NL;
+  protected final String TEXT_733 = NL + "int nb_line_";
+  protected final String TEXT_734 = " = 0;" + NL + "" + NL + "String loopPath_";
+  protected final String TEXT_735 = " = ";
+  protected final String TEXT_736 = ";" + NL + "routines.system.JsonPathStream resultset_";
+  protected final String TEXT_737 = " = new routines.system.JsonPathStream(loopPath_";
+  protected final String TEXT_738 = ", new String[] {";
+  protected final String TEXT_739 = NL + "\t";
+  protected final String TEXT_740 = ",";
+  protected final String TEXT_741 = NL + "});" + NL + "" + NL + "java.io.InputStream is_";
+  protected final String TEXT_742 = " = null;" + NL + "try {" + NL + "\t";
+  protected final String TEXT_743 = NL + "\tresultset_";
+  protected final String TEXT_744 = ".open(new java.io.InputStreamReader(is_";
+  protected final String TEXT_745 = ", ";
+  protected final String TEXT_746 = "));" + NL + "} catch (java.lang.Exception e_";
+  protected final String TEXT_747 = ") {" + NL + "\tif(is_";
+  protected final String TEXT_748 = " != null) {" + NL + "\t\tis_";
+  protected final String TEXT_749 = ".close();" + NL + "\t}";
+  protected final String TEXT_750 = NL + "}" + NL + "" + NL + "String jsonPath_";
+  protected final String TEXT_751 = " = null;" + NL + "" + NL + "Object value_";
+  protected final String TEXT_752 = " = null;";
+  protected final String TEXT_753 = NL + "for(routines.system.JsonPathStream.Row row_";
+  protected final String TEXT_754 = " : resultset_";
+  protected final String TEXT_755 = ") {" + NL + "\tnb_line_";
+  protected final String TEXT_756 = ";" + NL + "\t\t\t\t" + NL + "\t\t\t\ttry {" + NL + "\t\t\t\t\tif(!row_";
+  protected final String TEXT_757 = ".has(";
+  protected final String TEXT_758 = ")) {" + NL + "\t\t\t\t\t\tthrow new com.jayway.jsonpath.PathNotFoundException(\"No results for path: \" + jsonPath_";
+  protected final String TEXT_759 = ");" + NL + "\t\t\t\t\t}" + NL + "\t\t\t\t\tvalue_";
+  protected final String TEXT_760 = " = row_";
+  protected final String TEXT_761 = ".get(";
+  protected final String TEXT_762 = ");";
+  protected final String TEXT_763 = NL + "try {";
+  protected final String TEXT_764 = NL + "\t\t// the document is malformed after the previous row" + NL + "\t\tresultset_";
+  protected final String TEXT_765 = ".checkError();";
 
   public String generate(Object argument)
   {
@@ -1835,6 +1868,120 @@ String firstConnName = "";
 List<IMetadataTable> metadatas = node.getMetadataList();
 
 String loopPath = ElementParameterParser.getValue(node, "__JSON_LOOP_QUERY__");
+boolean streaming = ("true").equals(ElementParameterParser.getValue(node, "__STREAMING_JSONPATH__"));
+
+if (streaming) {
+	//the document is read row by row, the queries of the fields are given in the order of the columns
+	List<String> fieldQueries = new java.util.ArrayList<String>();
+	if (metadatas != null && !metadatas.isEmpty() && metadatas.get(0) != null) {
+		for (int i=0;i<mapping.size();i++) {
+			for (IMetadataColumn column : metadatas.get(0).getListColumns()) {
+				String schemaColumn = mapping.get(i).get("SCHEMA_COLUMN");
+				if (schemaColumn != null && column.getLabel().equals(schemaColumn)) {
+					fieldQueries.add(mapping.get(i).get("QUERY"));
+				}
+			}
+		}
+	}
+
+    stringBuffer.append(TEXT_733);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_734);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_735);
+    stringBuffer.append(loopPath);
+    stringBuffer.append(TEXT_736);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_737);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_738);
+    
+	for (String fieldQuery : fieldQueries) {
+
+    stringBuffer.append(TEXT_739);
+    stringBuffer.append(fieldQuery);
+    stringBuffer.append(TEXT_740);
+    
+	}
+
+    stringBuffer.append(TEXT_741);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_742);
+    if(!isUseUrl){//read from a file
+    stringBuffer.append(TEXT_388);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_389);
+    stringBuffer.append(filename );
+    stringBuffer.append(TEXT_390);
+    }else{ //read from internet
+    stringBuffer.append(TEXT_391);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_392);
+    stringBuffer.append(urlpath );
+    stringBuffer.append(TEXT_393);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_394);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_395);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_396);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_397);
+    }
+    stringBuffer.append(TEXT_743);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_744);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_745);
+    stringBuffer.append(encoding );
+    stringBuffer.append(TEXT_746);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_747);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_748);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_749);
+    
+if(dieOnError){
+
+    stringBuffer.append(TEXT_415);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_416);
+    
+} else {
+	if(isLog4jEnabled){
+    stringBuffer.append(TEXT_417);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_418);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_419);
+    }
+    stringBuffer.append(TEXT_420);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_421);
+    
+}
+
+    stringBuffer.append(TEXT_750);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_751);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_752);
+    if(isLog4jEnabled){
+    stringBuffer.append(TEXT_428);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_429);
+    }
+    stringBuffer.append(TEXT_763);
+    stringBuffer.append(TEXT_753);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_754);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_755);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_433);
+    
+} else {
 
     stringBuffer.append(TEXT_377);
     stringBuffer.append(cid);
@@ -1956,6 +2103,7 @@ if(dieOnError){
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_433);
     
+}
 	log4jFileUtil.debugRetriveData(node);
 	
 	if ((metadatas==null) || (metadatas.isEmpty())) {
@@ -2010,7 +2158,13 @@ if(dieOnError){
     stringBuffer.append(TEXT_438);
     stringBuffer.append(conn.getName() );
     stringBuffer.append(TEXT_439);
+    if (streaming) {
+    stringBuffer.append(TEXT_764);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_765);
+    }
     
+		int fieldIndex = 0;
 		for (int i=0;i<mapping.size();i++) {
 			for(IMetadataColumn column:columns) {
 				String schemaColumn = mapping.get(i).get("SCHEMA_COLUMN");
@@ -2031,6 +2185,21 @@ if(dieOnError){
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_441);
     stringBuffer.append(jsonPath);
+    if (streaming) {
+    stringBuffer.append(TEXT_756);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_757);
+    stringBuffer.append(fieldIndex);
+    stringBuffer.append(TEXT_758);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_759);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_760);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_761);
+    stringBuffer.append(fieldIndex++);
+    stringBuffer.append(TEXT_762);
+    } else {
     stringBuffer.append(TEXT_442);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_443);
@@ -2044,6 +2213,7 @@ if(dieOnError){
     stringBuffer.append(TEXT_447);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_448);
+    }
     
         			if(javaType == JavaTypesManager.STRING){
 
@@ -48,6 +48,8 @@ public class TFileInputJSONEndJava
   protected final String TEXT_30 = NL + "\t}" + NL + "\tglobalMap.put(\"";
   protected final String TEXT_31 = "_NB_LINE\",nb_line_";
   protected final String TEXT_32 = ");";
+  protected final String TEXT_33 = NL + "} finally {" + NL + "\tresultset_";
+  protected final String TEXT_34 = ".close();" + NL + "}";
 
   public String generate(Object argument)
   {
@@ -222,6 +224,14 @@ String cid = node.getUniqueName();
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_32);
     
+        if("JSONPATH".equals(readBy) && ("true").equals(ElementParameterParser.getValue(node, "__STREAMING_JSONPATH__"))){
+
+    stringBuffer.append(TEXT_33);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_34);
+    
+        }
+
 	log4jFileUtil.retrievedDataNumberInfo(node);
 
     return stringBuffer.toString();
@@ -0,0 +1,134 @@
+package org.talend.designer.codegen.translators.file.output;
+
+import org.talend.core.model.process.INode;
+import org.talend.core.model.process.ElementParameterParser;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.IMetadataColumn;
+import java.util.List;
+
+public class TFileOutputColumnarBeginJava
+{
+  protected static String nl;
+  public static synchronized TFileOutputColumnarBeginJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TFileOutputColumnarBeginJava result = new TFileOutputColumnarBeginJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "";
+  protected final String TEXT_2 = NL + "int nb_line_";
+  protected final String TEXT_3 = " = 0;" + NL + "routines.system.ColumnarFile.Writer columnarWriter_";
+  protected final String TEXT_4 = " = new routines.system.ColumnarFile.Writer(";
+  protected final String TEXT_5 = "," + NL + "\tnew String[] { ";
+  protected final String TEXT_6 = ", ";
+  protected final String TEXT_7 = "\"";
+  protected final String TEXT_8 = "\"";
+  protected final String TEXT_9 = " }," + NL + "\tnew int[] { ";
+  protected final String TEXT_10 = ", ";
+  protected final String TEXT_11 = "routines.system.ColumnarFile.";
+  protected final String TEXT_12 = " }, ";
+  protected final String TEXT_13 = ");";
+  protected final String TEXT_14 = NL;
+
+    /**
+     * Type of the values of the column in the file.
+     */
+    private String columnarType(IMetadataColumn column) {
+        String talendType = column.getTalendType();
+        if ("id_String".equals(talendType)) {
+            return "STRING";
+        } else if ("id_Integer".equals(talendType)) {
+            return "INT";
+        } else if ("id_Long".equals(talendType)) {
+            return "LONG";
+        } else if ("id_Short".equals(talendType)) {
+            return "SHORT";
+        } else if ("id_Byte".equals(talendType)) {
+            return "BYTE";
+        } else if ("id_Double".equals(talendType)) {
+            return "DOUBLE";
+        } else if ("id_Float".equals(talendType)) {
+            return "FLOAT";
+        } else if ("id_Boolean".equals(talendType)) {
+            return "BOOLEAN";
+        } else if ("id_Character".equals(talendType)) {
+            return "CHAR";
+        } else if ("id_Date".equals(talendType)) {
+            return "DATE";
+        } else if ("id_BigDecimal".equals(talendType)) {
+            return "DECIMAL";
+        } else if ("id_byte[]".equals(talendType)) {
+            return "BYTES";
+        }
+        return "OBJECT";
+    }
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+    stringBuffer.append(TEXT_1);
+
+CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+INode node = (INode)codeGenArgument.getArgument();
+String cid = node.getUniqueName();
+
+String filename = ElementParameterParser.getValue(node,"__FILENAME__");
+String blockRows = ElementParameterParser.getValue(node,"__BLOCK_ROWS__");
+if (blockRows == null || "".equals(blockRows.trim())) {
+    blockRows = "65536";
+}
+
+List<IMetadataTable> metadatas = node.getMetadataList();
+if ((metadatas!=null)&&(metadatas.size()>0)) {
+    IMetadataTable metadata = metadatas.get(0);
+    List<IMetadataColumn> columns = metadata.getListColumns();
+
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_4);
+    stringBuffer.append(filename);
+    stringBuffer.append(TEXT_5);
+
+    for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+
+    stringBuffer.append(TEXT_6);
+
+        }
+
+    stringBuffer.append(TEXT_7);
+    stringBuffer.append(columns.get(i).getLabel());
+    stringBuffer.append(TEXT_8);
+
+    }
+
+    stringBuffer.append(TEXT_9);
+
+    for (int i = 0; i < columns.size(); i++) {
+        if (i > 0) {
+
+    stringBuffer.append(TEXT_10);
+
+        }
+
+    stringBuffer.append(TEXT_11);
+    stringBuffer.append(columnarType(columns.get(i)));
+
+    }
+
+    stringBuffer.append(TEXT_12);
+    stringBuffer.append(blockRows);
+    stringBuffer.append(TEXT_13);
+
+}
+
+    stringBuffer.append(TEXT_14);
+    return stringBuffer.toString();
+  }
+}
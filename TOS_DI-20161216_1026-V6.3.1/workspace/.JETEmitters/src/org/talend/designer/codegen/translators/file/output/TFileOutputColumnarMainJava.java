@@ -0,0 +1,77 @@
+package org.talend.designer.codegen.translators.file.output;
+
+import org.talend.core.model.process.IConnection;
+import org.talend.core.model.process.INode;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.IMetadataColumn;
+import org.talend.core.model.process.IConnectionCategory;
+import java.util.List;
+
+public class TFileOutputColumnarMainJava
+{
+  protected static String nl;
+  public static synchronized TFileOutputColumnarMainJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TFileOutputColumnarMainJava result = new TFileOutputColumnarMainJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "";
+  protected final String TEXT_2 = NL + "columnarWriter_";
+  protected final String TEXT_3 = ".write(new Object[] { ";
+  protected final String TEXT_4 = ", ";
+  protected final String TEXT_5 = ".";
+  protected final String TEXT_6 = " });" + NL + "nb_line_";
+  protected final String TEXT_7 = "++;";
+  protected final String TEXT_8 = NL;
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+    stringBuffer.append(TEXT_1);
+
+CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+INode node = (INode)codeGenArgument.getArgument();
+String cid = node.getUniqueName();
+
+List<IMetadataTable> metadatas = node.getMetadataList();
+if ((metadatas!=null)&&(metadatas.size()>0) && node.getIncomingConnections()!=null) {
+    List<IMetadataColumn> columns = metadatas.get(0).getListColumns();
+    for (IConnection conn : node.getIncomingConnections()) {
+        if (!conn.getLineStyle().hasConnectionCategory(IConnectionCategory.DATA)) {
+            continue;
+        }
+
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_3);
+
+        // values in the order of the columns given to the writer
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+
+    stringBuffer.append(TEXT_4);
+
+            }
+
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_5);
+    stringBuffer.append(columns.get(i).getLabel());
+
+        }
+
+    stringBuffer.append(TEXT_6);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_7);
+
+    }
+}
+
+    stringBuffer.append(TEXT_8);
+    return stringBuffer.toString();
+  }
+}
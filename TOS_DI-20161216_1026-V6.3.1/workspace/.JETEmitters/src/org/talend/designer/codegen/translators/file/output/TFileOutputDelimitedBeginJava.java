@@ -729,6 +729,26 @@ public class TFileOutputDelimitedBeginJava
   protected final String TEXT_700 = "\", file";
   protected final String TEXT_701 = ");";
   protected final String TEXT_702 = NL;
+  protected final String TEXT_703 = NL + "                routines.system.ParallelSplitWriter parallelWriter_";
+  protected final String TEXT_704 = " = new routines.system.ParallelSplitWriter(";
+  protected final String TEXT_705 = ", \"";
+  protected final String TEXT_706 = "\");" + NL + "                resourceMap.put(\"parallelWriter_";
+  protected final String TEXT_707 = "\", parallelWriter_";
+  protected final String TEXT_708 = ");";
+  protected final String TEXT_709 = NL + "                        out";
+  protected final String TEXT_710 = " = parallelWriter_";
+  protected final String TEXT_711 = ".open(fileName_";
+  protected final String TEXT_712 = ", ";
+  protected final String TEXT_713 = ", ";
+  protected final String TEXT_714 = ");";
+  protected final String TEXT_715 = NL + "                    out";
+  protected final String TEXT_716 = " = parallelWriter_";
+  protected final String TEXT_717 = ".open(fullName_";
+  protected final String TEXT_718 = " + splitedFileNo_";
+  protected final String TEXT_719 = " + extension_";
+  protected final String TEXT_720 = ", ";
+  protected final String TEXT_721 = ", ";
+  protected final String TEXT_722 = ");";
 
   public String generate(Object argument)
   {
@@ -917,6 +937,19 @@ boolean isInRowMode = ("true").equals(ElementParameterParser.getValue(node,"__RO
 
 boolean compress = ("true").equals(ElementParameterParser.getValue(node,"__COMPRESS__"));
 
+// encoded, compressed and written by background threads, not for the row mode nor the zip of a single file
+boolean parallelWrite = !useStream && !isInRowMode && !(compress && !isAppend && !split)
+                        && ("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))
+                        && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_WRITE__"));
+String parallelWriteThreads = ElementParameterParser.getValue(node,"__PARALLEL_WRITE_THREADS__");
+if(parallelWriteThreads == null || ("").equals(parallelWriteThreads.trim())){
+    parallelWriteThreads = "0";
+}
+String parallelCompression = ElementParameterParser.getValue(node,"__PARALLEL_COMPRESSION__");
+if(parallelCompression == null || ("").equals(parallelCompression) || (isAppend && ("ZIP").equals(parallelCompression))){
+    parallelCompression = "NONE";
+}
+
 String parallelize = ElementParameterParser.getValue(node,"__PARALLELIZE__");
 boolean isParallelize = (parallelize!=null&&!("").equals(parallelize))?("true").equals(parallelize):false;
 IProcess process = node.getProcess();
@@ -1572,6 +1605,21 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
                 
     stringBuffer.append(TEXT_250);
     
+                if(parallelWrite){
+                
+    stringBuffer.append(TEXT_703);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_704);
+    stringBuffer.append(parallelWriteThreads);
+    stringBuffer.append(TEXT_705);
+    stringBuffer.append(parallelCompression);
+    stringBuffer.append(TEXT_706);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_707);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_708);
+    
+                }
                 String writerClass = null;
                 if(isInRowMode){
                     writerClass = "routines.system.BufferedOutput";
@@ -1635,6 +1683,19 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_276);
     }
+    if(parallelWrite){
+    stringBuffer.append(TEXT_709);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_710);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_711);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_712);
+    stringBuffer.append(isAppend);
+    stringBuffer.append(TEXT_713);
+    stringBuffer.append(encoding);
+    stringBuffer.append(TEXT_714);
+    }else{
     stringBuffer.append(TEXT_277);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_278);
@@ -1646,6 +1707,7 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(TEXT_281);
     stringBuffer.append(encoding);
     stringBuffer.append(TEXT_282);
+    }
     
                     }
                 } else {
@@ -1668,6 +1730,23 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_291);
     }
+    if(parallelWrite){
+    stringBuffer.append(TEXT_715);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_716);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_717);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_718);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_719);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_720);
+    stringBuffer.append(isAppend);
+    stringBuffer.append(TEXT_721);
+    stringBuffer.append(encoding);
+    stringBuffer.append(TEXT_722);
+    }else{
     stringBuffer.append(TEXT_292);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_293);
@@ -1683,6 +1762,7 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(TEXT_298);
     stringBuffer.append(encoding);
     stringBuffer.append(TEXT_299);
+    }
     
                 }
 
@@ -113,6 +113,8 @@ public class TFileOutputDelimitedEndJava
   protected final String TEXT_90 = NL + "\t\tresourceMap.put(\"finish_";
   protected final String TEXT_91 = "\", true);" + NL + "\t";
   protected final String TEXT_92 = NL;
+  protected final String TEXT_93 = "parallelWriter_";
+  protected final String TEXT_94 = ".close();" + NL + "\t\t\t\t";
 
   public String generate(Object argument)
   {
@@ -287,6 +289,8 @@ public class TFileOutputDelimitedEndJava
 	boolean isParallelize = (parallelize!=null&&!("").equals(parallelize))?("true").equals(parallelize):false;
 	
 	boolean split = ("true").equals(ElementParameterParser.getValue(node, "__SPLIT__"));
+	boolean parallelWrite = !useStream && !isInRowMode && !(compress && !isAppend && !split)
+	                        && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_WRITE__"));
 	IProcess process = node.getProcess();
 	boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(process, "__LOG4J_ACTIVATE__"));
 
@@ -331,6 +335,11 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(TEXT_39);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_40);
+    if(parallelWrite){
+    stringBuffer.append(TEXT_93);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_94);
+    }
     
 				}else{
 				
@@ -95,6 +95,11 @@ public class TFileOutputDelimitedFinallyJava
   protected final String TEXT_72 = NL + "\t\t\t\t}\t\t" + NL + "\t\t\t";
   protected final String TEXT_73 = NL + "\t\t}" + NL + "\t";
   protected final String TEXT_74 = NL;
+  protected final String TEXT_75 = NL + "\t\t\t\t\t\troutines.system.ParallelSplitWriter parallelWriter_";
+  protected final String TEXT_76 = " = (routines.system.ParallelSplitWriter)resourceMap.get(\"parallelWriter_";
+  protected final String TEXT_77 = "\");" + NL + "\t\t\t\t\t\tif(parallelWriter_";
+  protected final String TEXT_78 = "!=null) {" + NL + "\t\t\t\t\t\t\tparallelWriter_";
+  protected final String TEXT_79 = ".close();" + NL + "\t\t\t\t\t\t}" + NL + "\t\t\t\t\t";
 
   public String generate(Object argument)
   {
@@ -117,6 +122,8 @@ public class TFileOutputDelimitedFinallyJava
 	boolean isParallelize = (parallelize!=null&&!("").equals(parallelize))?("true").equals(parallelize):false;
 	
 	boolean split = ("true").equals(ElementParameterParser.getValue(node, "__SPLIT__"));
+	boolean parallelWrite = !useStream && !isInRowMode && !(compress && !isAppend && !split)
+	                        && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_WRITE__"));
 	IProcess process = node.getProcess();
 
     stringBuffer.append(TEXT_2);
@@ -166,6 +173,17 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(TEXT_14);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_15);
+    if(parallelWrite){
+    stringBuffer.append(TEXT_75);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_76);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_77);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_78);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_79);
+    }
     
 					}else{
 					
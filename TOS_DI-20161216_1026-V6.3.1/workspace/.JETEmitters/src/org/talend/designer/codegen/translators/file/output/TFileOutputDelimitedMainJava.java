@@ -471,6 +471,14 @@ public class TFileOutputDelimitedMainJava
   protected final String TEXT_444 = NL;
   protected final String TEXT_445 = NL;
   protected final String TEXT_446 = NL;
+  protected final String TEXT_447 = NL + "                            out";
+  protected final String TEXT_448 = " = parallelWriter_";
+  protected final String TEXT_449 = ".open(fullName_";
+  protected final String TEXT_450 = " + splitedFileNo_";
+  protected final String TEXT_451 = " + extension_";
+  protected final String TEXT_452 = ", ";
+  protected final String TEXT_453 = ", ";
+  protected final String TEXT_454 = ");";
 
   public String generate(Object argument)
   {
@@ -533,6 +541,9 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
 
             boolean compress = ("true").equals(ElementParameterParser.getValue(node,"__COMPRESS__"));
 
+            boolean parallelWrite = !useStream && !isInRowMode && !(compress && !isAppend && !split)
+                                    && ("true").equals(ElementParameterParser.getValue(node,"__PARALLEL_WRITE__"));
+
             boolean hasDynamic = metadata.isDynamicSchema();
 
             List< ? extends IConnection> conns = node.getIncomingConnections();
@@ -855,6 +866,23 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_108);
     }
+    if(parallelWrite){
+    stringBuffer.append(TEXT_447);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_448);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_449);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_450);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_451);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_452);
+    stringBuffer.append( isAppend);
+    stringBuffer.append(TEXT_453);
+    stringBuffer.append( encoding);
+    stringBuffer.append(TEXT_454);
+    }else{
     stringBuffer.append(TEXT_109);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_110);
@@ -870,6 +898,7 @@ if(("false").equals(ElementParameterParser.getValue(node,"__CSV_OPTION__"))) {
     stringBuffer.append(TEXT_115);
     stringBuffer.append( encoding);
     stringBuffer.append(TEXT_116);
+    }
     
                             if(isIncludeHeader){
                                 
@@ -73,6 +73,16 @@ public class TBufferInputBeginJava
   protected final String TEXT_48 = NL + "\telse{" + NL + "\t\t";
   protected final String TEXT_49 = ".";
   protected final String TEXT_50 = " = null;" + NL + "\t}";
+  protected final String TEXT_51 = NL + "routines.system.TypedRowBuffer.Cursor cursor_";
+  protected final String TEXT_52 = " = globalBuffer.cursor();" + NL + "while (cursor_";
+  protected final String TEXT_53 = ".next())" + NL + "{";
+  protected final String TEXT_54 = "\t" + NL + "\tif(";
+  protected final String TEXT_55 = " < cursor_";
+  protected final String TEXT_56 = ".length()){" + NL + "\t";
+  protected final String TEXT_57 = NL + "\t\t";
+  protected final String TEXT_58 = ".";
+  protected final String TEXT_59 = " = ";
+  protected final String TEXT_60 = ";\t" + NL + "\t";
 
   public String generate(Object argument)
   {
@@ -113,6 +123,76 @@ if ((metadatas!=null) && (metadatas.size() > 0)) {
 		
 					List<IMetadataColumn> columns = metadata.getListColumns();
 					int nbColumns = columns.size();
+					boolean typedBuffer = !node.getProcess().getNodesOfType("tBufferOutput").isEmpty();
+					for (INode bufferOutput : node.getProcess().getNodesOfType("tBufferOutput")) {
+						typedBuffer = typedBuffer && ("true").equals(ElementParameterParser.getValue(bufferOutput, "__TYPED_BUFFER__"));
+					}
+					if (typedBuffer) {
+					//the typed columns are read without parsing their strings
+//-----------
+
+    stringBuffer.append(TEXT_51);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_52);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_53);
+    
+//-----------
+					for ( int i = 0; i < nbColumns; i++ ){
+					
+						IMetadataColumn column = columns.get(i);
+						String typeToGenerate = JavaTypesManager.getTypeToGenerate(column.getTalendType(), column.isNullable());
+						JavaType javaType = JavaTypesManager.getJavaTypeFromId(column.getTalendType());
+						String patternValue = column.getPattern() == null || column.getPattern().trim().length() == 0 ? null : column.getPattern();
+						String columnName = column.getLabel();
+						String cursor = "cursor_" + cid;
+						String stringValue = cursor + ".getString(" + i + ")";
+						String value = null;
+						if(javaType == JavaTypesManager.STRING || javaType == JavaTypesManager.OBJECT){
+							value = stringValue;
+						}else if(javaType == JavaTypesManager.BYTE_ARRAY){
+							value = stringValue + ".getBytes(" + encoding + ")";
+						}else if(javaType == JavaTypesManager.DATE){
+							value = "ParserUtils.parseTo_Date(" + stringValue + ", " + patternValue + ")";
+						}else if(advancedSeparator && JavaTypesManager.isNumberType(javaType)) {
+							value = "ParserUtils.parseTo_" + typeToGenerate + "(ParserUtils.parseTo_Number(" + stringValue + ", " + thousandsSeparator + ", " + decimalSeparator + "))";
+						}else if(javaType == JavaTypesManager.LIST) {
+							value = "ParserUtils.parseTo_" + typeToGenerate + "(" + stringValue + ", \",\")";
+						}else if(javaType == JavaTypesManager.INTEGER || javaType == JavaTypesManager.LONG || javaType == JavaTypesManager.DOUBLE
+								|| javaType == JavaTypesManager.FLOAT || javaType == JavaTypesManager.BOOLEAN) {
+							String typeName = javaType == JavaTypesManager.INTEGER ? "Int" : typeToGenerate.substring(0, 1).toUpperCase() + typeToGenerate.substring(1);
+							value = cursor + ".get" + typeName + "(" + i + ")";
+							if(!JavaTypesManager.isJavaPrimitiveType(column.getTalendType(), column.isNullable())) {
+								value = cursor + ".isNull(" + i + ") ? null : " + value;
+							}
+						} else {
+							value = "ParserUtils.parseTo_" + typeToGenerate + "(" + stringValue + ")";
+						}
+//-----------
+
+    stringBuffer.append(TEXT_54);
+    stringBuffer.append(i);
+    stringBuffer.append(TEXT_55);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_56);
+    stringBuffer.append(TEXT_57);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_58);
+    stringBuffer.append(columnName);
+    stringBuffer.append(TEXT_59);
+    stringBuffer.append(value);
+    stringBuffer.append(TEXT_60);
+    stringBuffer.append(TEXT_47);
+    if(JavaTypesManager.isJavaPrimitiveType(javaType,false)==false){
+    stringBuffer.append(TEXT_48);
+    stringBuffer.append(connName);
+    stringBuffer.append(TEXT_49);
+    stringBuffer.append(columnName);
+    stringBuffer.append(TEXT_50);
+    	}
+//-----------
+					}
+					} else {
 //-----------
 
     stringBuffer.append(TEXT_3);
@@ -237,6 +317,7 @@ if ((metadatas!=null) && (metadatas.size() > 0)) {
     	}
 //-----------
 					}
+					}
 				}		
 			}
 		}			 
@@ -5,6 +5,7 @@ import org.talend.core.model.metadata.IMetadataTable;
 import org.talend.core.model.metadata.types.JavaType;
 import org.talend.core.model.metadata.types.JavaTypesManager;
 import org.talend.core.model.process.EConnectionType;
+import org.talend.core.model.process.ElementParameterParser;
 import org.talend.core.model.process.IConnection;
 import org.talend.core.model.process.INode;
 import org.talend.designer.codegen.config.CodeGeneratorArgument;
@@ -71,6 +72,15 @@ public class TBufferOutputMainJava
   protected final String TEXT_47 = "] = null;" + NL + "\t    }";
   protected final String TEXT_48 = NL + "\tglobalBuffer.add(row_";
   protected final String TEXT_49 = ");\t" + NL + "\t";
+  protected final String TEXT_50 = NL + NL + "routines.system.TypedRowBuffer.Writer buffer_";
+  protected final String TEXT_51 = " = globalBuffer.writer();";
+  protected final String TEXT_52 = NL + "\tbuffer_";
+  protected final String TEXT_53 = ".put(";
+  protected final String TEXT_54 = ", ";
+  protected final String TEXT_55 = ");";
+  protected final String TEXT_56 = NL + "\tbuffer_";
+  protected final String TEXT_57 = ".endRow(";
+  protected final String TEXT_58 = ");" + NL + "\t";
 
   public String generate(Object argument)
   {
@@ -103,6 +113,53 @@ public class TBufferOutputMainJava
 	List<IMetadataColumn> columns = metadata.getListColumns();
 	int columnSize = columns.size();
 
+	boolean typedBuffer = true;
+	for (INode bufferOutput : node.getProcess().getNodesOfType("tBufferOutput")) {
+		typedBuffer = typedBuffer && ("true").equals(ElementParameterParser.getValue(bufferOutput, "__TYPED_BUFFER__"));
+	}
+	if (typedBuffer) {
+		//the values are put by type, the other ones as the strings of the String[] row
+
+    stringBuffer.append(TEXT_50);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_51);
+    
+		for (int i = 0; i < columnSize; i++) {
+			IMetadataColumn column = columns.get(i);
+			String value = incomingName + "." + column.getLabel();
+			JavaType javaType = JavaTypesManager.getJavaTypeFromId(column.getTalendType());
+			String pattern = column.getPattern() == null || column.getPattern().trim().length() == 0 ? null : column.getPattern();
+			if (!JavaTypesManager.isJavaPrimitiveType(column.getTalendType(), column.isNullable())) {
+				if (javaType == JavaTypesManager.DATE && pattern != null) {
+					value = value + " == null ? null : FormatterUtils.format_Date(" + value + ", " + pattern + ")";
+				} else if (javaType == JavaTypesManager.BIGDECIMAL && column.getPrecision() != null) {
+					value = value + " == null ? null : String.valueOf(" + value + ".setScale(" + column.getPrecision() + ", java.math.RoundingMode.HALF_UP))";
+				} else if (javaType == JavaTypesManager.BYTE_ARRAY) {
+					value = value + " == null ? null : java.nio.charset.Charset.defaultCharset().decode(java.nio.ByteBuffer.wrap(" + value + ")).toString()";
+				} else if (javaType == JavaTypesManager.LIST) {
+					value = value + " == null ? null : ParserUtils.parseTo_String(" + value + ",\",\")";
+				}
+			}
+
+    stringBuffer.append(TEXT_52);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_53);
+    stringBuffer.append(i );
+    stringBuffer.append(TEXT_54);
+    stringBuffer.append(value );
+    stringBuffer.append(TEXT_55);
+    
+		}
+
+    stringBuffer.append(TEXT_56);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_57);
+    stringBuffer.append(columnSize );
+    stringBuffer.append(TEXT_58);
+    
+		return stringBuffer.toString();
+	}
+
     stringBuffer.append(TEXT_3);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_4);
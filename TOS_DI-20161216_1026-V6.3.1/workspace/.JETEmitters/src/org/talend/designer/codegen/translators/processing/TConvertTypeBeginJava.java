@@ -1,5 +1,14 @@
 package org.talend.designer.codegen.translators.processing;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.talend.core.model.metadata.IMetadataColumn;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.types.JavaTypesManager;
+import org.talend.core.model.process.EConnectionType;
+import org.talend.core.model.process.ElementParameterParser;
+import org.talend.core.model.process.IConnection;
 import org.talend.core.model.process.INode;
 import org.talend.designer.codegen.config.CodeGeneratorArgument;
 
@@ -17,11 +26,18 @@ public class TConvertTypeBeginJava
   public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
   protected final String TEXT_1 = "\tint nb_line_";
   protected final String TEXT_2 = " = 0;  ";
+  protected final String TEXT_3 = NL + "\tfinal routines.system.TypeConverter[] converters_";
+  protected final String TEXT_4 = " = new routines.system.TypeConverter[] {";
+  protected final String TEXT_5 = NL + "\t\troutines.system.TypeConverter.get(\"";
+  protected final String TEXT_6 = "\", \"";
+  protected final String TEXT_7 = "\", ";
+  protected final String TEXT_8 = "),";
+  protected final String TEXT_9 = NL + "\t};";
 
   public String generate(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
-    
+
 	CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
 	INode node = (INode)codeGenArgument.getArgument();
 	String cid = node.getUniqueName();
@@ -29,6 +45,75 @@ public class TConvertTypeBeginJava
     stringBuffer.append(TEXT_1);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_2);
+
+	boolean precompiled = ("true").equals(ElementParameterParser.getValue(node, "__PRECOMPILED_CONVERTERS__"));
+	List<? extends IConnection> connsIn = node.getIncomingConnections(EConnectionType.FLOW_MAIN);
+	if (precompiled && connsIn != null && connsIn.size() > 0 && node.getMetadataList() != null && node.getMetadataList().size() > 0) {
+		// {inType, outType, pattern} of the columns converted between dates and strings, in the order of tConvertType's main part
+		List<String[]> converters = new ArrayList<String[]>();
+		List<IMetadataColumn> preColumns = connsIn.get(0).getMetadataTable().getListColumns();
+		IMetadataTable metadata = node.getMetadataList().get(0);
+		if (("true").equals(ElementParameterParser.getValue(node, "__AUTOCAST__"))) {
+			for (IMetadataColumn col : metadata.getListColumns()) {
+				for (IMetadataColumn preCol : preColumns) {
+					if (preCol.getLabel().equals(col.getLabel())) {
+						String[] converter = dateConverter(preCol, col, true);
+						if (converter != null) {
+							converters.add(converter);
+						}
+					}
+				}
+			}
+		} else {
+			List<Map<String, String>> manualtable = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node, "__MANUALTABLE__");
+			for (Map<String, String> manualColumn : manualtable) {
+				String[] converter = dateConverter(connsIn.get(0).getMetadataTable().getColumn(manualColumn.get("INPUT_COLUMN")),
+						metadata.getColumn(manualColumn.get("OUTPUT_COLUMN")), false);
+				if (converter != null) {
+					converters.add(converter);
+				}
+			}
+		}
+		if (converters.size() > 0) {
+
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_4);
+
+			for (String[] converter : converters) {
+
+    stringBuffer.append(TEXT_5);
+    stringBuffer.append(converter[0]);
+    stringBuffer.append(TEXT_6);
+    stringBuffer.append(converter[1]);
+    stringBuffer.append(TEXT_7);
+    stringBuffer.append(converter[2]);
+    stringBuffer.append(TEXT_8);
+
+			}
+
+    stringBuffer.append(TEXT_9);
+
+		}
+	}
+
     return stringBuffer.toString();
   }
+
+	/**
+	 * @return {inType, outType, pattern} if tConvertType's main part converts the column with a routines.system.TypeConverter, null otherwise.
+	 */
+	private static String[] dateConverter(IMetadataColumn in, IMetadataColumn out, boolean autoCast) {
+		String inTypeWhole = JavaTypesManager.getTypeToGenerate(in.getTalendType(), in.isNullable());
+		String inType = inTypeWhole.contains(".") ? inTypeWhole.substring(inTypeWhole.lastIndexOf(".") + 1) : inTypeWhole;
+		String outTypeWhole = JavaTypesManager.getTypeToGenerate(out.getTalendType(), out.isNullable());
+		String outType = outTypeWhole.contains(".") ? outTypeWhole.substring(outTypeWhole.lastIndexOf(".") + 1) : outTypeWhole;
+		if ("Date".equals(outType) && ("String".equals(inType) || ("Object".equals(inType)))) {
+			// the manual conversion of an Object has no pattern
+			return new String[] {inType, outType, autoCast || "String".equals(inType) ? out.getPattern() : null};
+		} else if ("String".equals(outType) && "Date".equals(inType)) {
+			return new String[] {inType, outType, in.getPattern()};
+		}
+		return null;
+	}
 }
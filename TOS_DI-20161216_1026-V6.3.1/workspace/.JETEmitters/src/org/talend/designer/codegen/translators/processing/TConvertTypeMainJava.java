@@ -178,6 +178,15 @@ public class TConvertTypeMainJava
   protected final String TEXT_152 = " = \"\";";
   protected final String TEXT_153 = NL + "  nb_line_";
   protected final String TEXT_154 = " ++ ;";
+  protected final String TEXT_155 = NL + "              ";
+  protected final String TEXT_156 = ".";
+  protected final String TEXT_157 = " = (";
+  protected final String TEXT_158 = ") converters_";
+  protected final String TEXT_159 = "[";
+  protected final String TEXT_160 = "].convert(";
+  protected final String TEXT_161 = ".";
+  protected final String TEXT_162 = ");";
+  protected final String TEXT_163 = NL + "          ";
 
   public String generate(Object argument)
   {
@@ -190,6 +199,9 @@ public class TConvertTypeMainJava
   List<Map<String, String>> manualtable = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node, "__MANUALTABLE__");
   boolean bEmptyToNull = "true".equals(ElementParameterParser.getValue(node, "__EMPTYTONULL__"));
   boolean bDieOnError = "true".equals(ElementParameterParser.getValue(node, "__DIEONERROR__"));
+  // the conversions between dates and strings use the converters built by the begin part, in the same order
+  boolean precompiled = ("true").equals(ElementParameterParser.getValue(node, "__PRECOMPILED_CONVERTERS__"));
+  int converterIndex = 0;
   IConnection inMainCon = null;
   List<? extends IConnection> connsIn = node.getIncomingConnections(EConnectionType.FLOW_MAIN);
   
@@ -316,7 +328,24 @@ public class TConvertTypeMainJava
     
             }
             
-            if ("Date".equals(outType) && ("String".equals(inType)||"Object".equals(inType))) {
+            if (precompiled && (("Date".equals(outType) && ("String".equals(inType)||"Object".equals(inType)))
+                || ("String".equals(outType) && "Date".equals(inType)))) {
+    stringBuffer.append(TEXT_155);
+    stringBuffer.append(outconnName );
+    stringBuffer.append(TEXT_156);
+    stringBuffer.append(outLabel );
+    stringBuffer.append(TEXT_157);
+    stringBuffer.append(outTypeWhole );
+    stringBuffer.append(TEXT_158);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_159);
+    stringBuffer.append(converterIndex++ );
+    stringBuffer.append(TEXT_160);
+    stringBuffer.append(preconnName );
+    stringBuffer.append(TEXT_161);
+    stringBuffer.append(preLabel );
+    stringBuffer.append(TEXT_162);
+    } else if ("Date".equals(outType) && ("String".equals(inType)||"Object".equals(inType))) {
     stringBuffer.append(TEXT_19);
     stringBuffer.append(outconnName );
     stringBuffer.append(TEXT_20);
@@ -482,7 +511,24 @@ public class TConvertTypeMainJava
     
         }
         
-        if ("Date".equals(outType) && "String".equals(inType)) {
+        if (precompiled && (("Date".equals(outType) && ("String".equals(inType)||"Object".equals(inType)))
+            || ("String".equals(outType) && "Date".equals(inType)))) {
+    stringBuffer.append(TEXT_163);
+    stringBuffer.append(outconnName );
+    stringBuffer.append(TEXT_156);
+    stringBuffer.append(outLabel );
+    stringBuffer.append(TEXT_157);
+    stringBuffer.append(outTypeWhole );
+    stringBuffer.append(TEXT_158);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_159);
+    stringBuffer.append(converterIndex++ );
+    stringBuffer.append(TEXT_160);
+    stringBuffer.append(preconnName );
+    stringBuffer.append(TEXT_161);
+    stringBuffer.append(preLabel );
+    stringBuffer.append(TEXT_162);
+    } else if ("Date".equals(outType) && "String".equals(inType)) {
     stringBuffer.append(TEXT_82);
     stringBuffer.append(outconnName );
     stringBuffer.append(TEXT_83);
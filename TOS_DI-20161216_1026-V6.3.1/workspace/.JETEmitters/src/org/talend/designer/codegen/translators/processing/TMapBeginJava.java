@@ -363,6 +363,22 @@ public class TMapBeginJava {
   protected final String TEXT_323 = ".initPut();" + NL + "" + NL + "\t\t" + NL + "\t\t";
   protected final String TEXT_324 = "        " + NL + "        " + NL + "" + NL + "" + NL + "" + NL + "        " + NL + NL + NL + NL + NL + NL + NL + NL;
   protected final String TEXT_325 = NL;
+  protected final String TEXT_326 = NL + "\t\troutines.system.StagedJoinLoad eltLoad_";
+  protected final String TEXT_327 = " = new routines.system.StagedJoinLoad(conn_";
+  protected final String TEXT_328 = ", ";
+  protected final String TEXT_329 = ", ";
+  protected final String TEXT_330 = ", ";
+  protected final String TEXT_331 = ");" + NL + "\t\teltLoad_";
+  protected final String TEXT_332 = ".open(";
+  protected final String TEXT_333 = ");" + NL;
+  protected final String TEXT_334 = NL + "\t\t// lookups joined in memory, no ELT pushdown: ";
+  protected final String TEXT_335 = NL + "\t\t";
+  protected final String TEXT_336 = "Process(globalMap);";
+  protected final String TEXT_337 = NL + "\tfinal routines.system.TypeConverter ";
+  protected final String TEXT_338 = " = routines.system.TypeConverter.get(\"";
+  protected final String TEXT_339 = "\", \"";
+  protected final String TEXT_340 = "\", ";
+  protected final String TEXT_341 = ");";
 
 	public boolean hasConcurrencyContext(List<IConnection> inputConnections, List<? extends INode> graphicalNodes) {
 
@@ -616,6 +632,438 @@ public class TMapBeginJava {
 		return strbuilder.toString();
 	}
 
+	/**
+	 * Converters between dates and strings of the auto-conversion of the types (PRECOMPILED_CONVERTERS), declared by
+	 * the begin part for each date pattern of the columns of the tMap and used by the main part in place of the
+	 * TypeConvert calls. An expression whose pattern has no converter keeps its TypeConvert call.
+	 */
+	static class DateConverters {
+
+		static final String[][] CONVERSIONS = {{"String", "Date"}, {"Object", "Date"}, {"Date", "String"}};
+
+		static final String DEFAULT_PATTERN = "\"dd-MM-yyyy\"";
+
+		final boolean enabled;
+
+		final List<String> patterns = new ArrayList<String>();
+
+		private final String cid;
+
+		DateConverters(INode node) {
+			cid = node.getUniqueName();
+			enabled = "true".equals(ElementParameterParser.getValue(node, "__ENABLE_AUTO_CONVERT_TYPE__"))
+					&& "true".equals(ElementParameterParser.getValue(node, "__PRECOMPILED_CONVERTERS__"))
+					&& !cid.endsWith("TMAP_IN") && !cid.endsWith("TMAP_OUT");
+			if (!enabled) {
+				return;
+			}
+			patterns.add(DEFAULT_PATTERN);
+			List<IConnection> connections = new ArrayList<IConnection>();
+			connections.addAll(node.getIncomingConnections());
+			connections.addAll(node.getOutgoingConnections());
+			for (IConnection connection : connections) {
+				IMetadataTable metadata = connection.getMetadataTable();
+				if (metadata == null) {
+					continue;
+				}
+				for (IMetadataColumn column : metadata.getListColumns()) {
+					String pattern = column.getPattern();
+					if (JavaTypesManager.DATE.getId().equals(column.getTalendType()) && pattern != null && !pattern.isEmpty()
+							&& !patterns.contains(pattern)) {
+						patterns.add(pattern);
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the name of the converter, null if none is declared for the pattern.
+		 */
+		String get(String inType, String outType, String pattern) {
+			int index = patterns.indexOf(pattern);
+			return index < 0 ? null : "converter_" + cid + "_" + inType + "2" + outType + "_" + index;
+		}
+	}
+
+	/**
+	 * Pushdown of the tMap into its MySQL target (ELT_PUSHDOWN): the main flow is staged into a temporary table of the
+	 * target connection and joined with the lookups by one INSERT ... SELECT. Possible if the lookups are tMysqlInput
+	 * reading the database of the target, the only output a tMysqlOutput inserting into it and all the expressions are
+	 * columns of the inputs; reason tells why not otherwise. Only the lookups returning all their matches are joined
+	 * in the database, a join gives one row by match. Shared with the main and end parts of the tMap.
+	 */
+	static class EltPushdownPlan {
+
+		boolean requested;
+
+		// null if the pushdown is possible
+		String reason;
+
+		String mainName;
+
+		List<IMetadataColumn> mainColumns;
+
+		String outputName;
+
+		String targetCid;
+
+		boolean targetCommits;
+
+		// subjobs loading the lookups, not run by the subjob of the tMap
+		List<String> lookupSubjobs = new ArrayList<String>();
+
+		java.util.Set<String> usedMainColumns = new java.util.HashSet<String>();
+
+		// Java expressions
+		String stagingTable;
+
+		String createStaging;
+
+		String insertSelect;
+
+		EltPushdownPlan(MapperComponent node) {
+			requested = "true".equals(ElementParameterParser.getValue(node, "__ELT_PUSHDOWN__"));
+			if (!requested) {
+				return;
+			}
+			ExternalMapperData data = (ExternalMapperData) node.getExternalData();
+			Map<String, IConnection> inputs = new HashMap<String, IConnection>();
+			for (IConnection connection : node.getIncomingConnections()) {
+				inputs.put(connection.getName(), connection);
+			}
+			List<ExternalMapperTable> inputTables = new ArrayList<ExternalMapperTable>();
+			for (ExternalMapperTable table : data.getInputTables()) {
+				if (inputs.get(table.getName()) != null) {
+					inputTables.add(table);
+				}
+			}
+			for (int i = 1; i < inputTables.size(); i++) {
+				INode start = inputs.get(inputTables.get(i).getName()).getSource();
+				while (true) {
+					INode previous = null;
+					for (IConnection connection : start.getIncomingConnections()) {
+						if (connection.getLineStyle() == EConnectionType.FLOW_MAIN || connection.getLineStyle() == EConnectionType.FLOW_MERGE) {
+							previous = connection.getSource();
+						}
+					}
+					if (previous == null) {
+						break;
+					}
+					start = previous;
+				}
+				lookupSubjobs.add(start.getUniqueName());
+			}
+			reason = plan(node, data, inputs, inputTables);
+		}
+
+		private String plan(MapperComponent node, ExternalMapperData data, Map<String, IConnection> inputs, List<ExternalMapperTable> inputTables) {
+			String cid = node.getUniqueName();
+			if (cid.endsWith("TMAP_IN") || cid.endsWith("TMAP_OUT")) {
+				return "the tMap is split for a parallel execution";
+			}
+			for (ExternalMapperTable table : data.getVarsTables()) {
+				if (table.getMetadataTableEntries() != null && !table.getMetadataTableEntries().isEmpty()) {
+					return "the tMap has variables";
+				}
+			}
+			if (inputTables.size() < 2) {
+				return "the tMap has no lookup";
+			}
+			ExternalMapperTable mainTable = inputTables.get(0);
+			if (hasFilter(mainTable)) {
+				return "the main input is filtered";
+			}
+			mainName = mainTable.getName();
+			mainColumns = inputs.get(mainName).getMetadataTable().getListColumns();
+
+			ExternalMapperTable outputTable = null;
+			IConnection output = null;
+			for (ExternalMapperTable table : data.getOutputTables()) {
+				for (IConnection connection : node.getOutgoingConnections()) {
+					if (connection.getName().equals(table.getName())) {
+						if (output != null) {
+							return "the tMap has several outputs";
+						}
+						outputTable = table;
+						output = connection;
+					}
+				}
+			}
+			if (output == null) {
+				return "the tMap has no output";
+			}
+			if (outputTable.isReject() || outputTable.isRejectInnerJoin() || outputTable.isErrorRejectTable() || hasFilter(outputTable)) {
+				return "the output is a reject or is filtered";
+			}
+			INode target = output.getTarget();
+			if (!"tMysqlOutput".equals(target.getComponent().getName())) {
+				return "the output is not a tMysqlOutput";
+			}
+			if (!"INSERT".equals(ElementParameterParser.getValue(target, "__DATA_ACTION__"))) {
+				return "the tMysqlOutput does not only insert";
+			}
+			for (IConnection connection : target.getOutgoingConnections()) {
+				if (connection.getLineStyle() == EConnectionType.FLOW_MAIN || connection.getLineStyle() == EConnectionType.FLOW_REF) {
+					return "the rows of the tMysqlOutput are used";
+				}
+			}
+			String database = database(target);
+			outputName = outputTable.getName();
+			targetCid = target.getUniqueName();
+			String commitEvery = ElementParameterParser.getValue(target, "__COMMIT_EVERY__");
+			targetCommits = !"true".equals(ElementParameterParser.getValue(target, "__USE_EXISTING_CONNECTION__"))
+					&& !"".equals(commitEvery) && !"0".equals(commitEvery);
+
+			// input -> its columns, as named in the SELECT
+			Map<String, List<IMetadataColumn>> joined = new HashMap<String, List<IMetadataColumn>>();
+			joined.put(mainName, mainColumns);
+			StringBuilder from = new StringBuilder();
+			Map<String, Boolean> outer = new HashMap<String, Boolean>();
+			for (int i = 1; i < inputTables.size(); i++) {
+				ExternalMapperTable lookup = inputTables.get(i);
+				String name = lookup.getName();
+				String lookupMode = lookup.getLookupMode();
+				if (lookupMode != null && !"LOAD_ONCE".equals(lookupMode)) {
+					return "the lookup " + name + " is reloaded";
+				}
+				if (lookup.isPersistent() || hasFilter(lookup)) {
+					return "the lookup " + name + " is stored on disk or filtered";
+				}
+				if (!"ALL_MATCHES".equals(lookup.getMatchingMode()) && !"ALL_ROWS".equals(lookup.getMatchingMode())) {
+					// a duplicate key of a unique, first or last match lookup would multiply the main rows
+					return "the lookup " + name + " keeps one row by key";
+				}
+				IConnection connection = inputs.get(name);
+				INode source = connection.getSource();
+				if ("tAdvancedHash".equals(source.getComponent().getName()) && source.getIncomingConnections().size() == 1) {
+					source = source.getIncomingConnections().get(0).getSource();
+				}
+				if (!"tMysqlInput".equals(source.getComponent().getName()) || !source.getIncomingConnections().isEmpty()
+						|| source.getOutgoingConnections().size() != 1 || !database.equals(database(source))) {
+					return "the lookup " + name + " is not only a tMysqlInput of the target database";
+				}
+				String query = unquote(ElementParameterParser.getValue(source, "__QUERY__"));
+				List<IMetadataColumn> columns = connection.getMetadataTable().getListColumns();
+				List<String> items = query == null ? null : selectItems(query);
+				if (items == null || items.size() != columns.size() + 1) {
+					return "the query of the lookup " + name + " is not a plain SELECT of its columns";
+				}
+				StringBuilder select = new StringBuilder("SELECT ");
+				for (int j = 0; j < columns.size(); j++) {
+					String item = items.get(j).replaceAll("(?is)\\s+AS\\s+[`\\w]+$", "");
+					select.append(j > 0 ? ", " : "").append(item).append(" AS `").append(columns.get(j).getLabel()).append("`");
+				}
+				select.append(" ").append(items.get(columns.size()));
+				StringBuilder on = new StringBuilder();
+				for (ExternalMapperTableEntry entry : lookup.getMetadataTableEntries()) {
+					String expression = entry.getExpression();
+					if (expression == null || expression.trim().length() == 0) {
+						continue;
+					}
+					String column = column(expression, joined);
+					if (column == null) {
+						return "the key " + name + "." + entry.getName() + " is not a column of a previous input";
+					}
+					// null keys match as in the lookup hash, strings are compared as String.equals does, not by collation
+					String talendType = null;
+					for (IMetadataColumn keyColumn : columns) {
+						if (keyColumn.getLabel().equals(entry.getName())) {
+							talendType = keyColumn.getTalendType();
+						}
+					}
+					boolean binary = "id_String".equals(talendType) || "id_Character".equals(talendType);
+					on.append(on.length() > 0 ? " AND " : "").append(binary ? "BINARY `" : "`").append(name).append("`.`")
+							.append(entry.getName()).append("` <=> ").append(column);
+				}
+				from.append(lookup.isInnerJoin() ? " JOIN (" : " LEFT JOIN (").append(select).append(") AS `").append(name)
+						.append("` ON ").append(on.length() > 0 ? on.toString() : "1 = 1");
+				joined.put(name, columns);
+				outer.put(name, !lookup.isInnerJoin());
+			}
+
+			StringBuilder targetColumns = new StringBuilder();
+			StringBuilder values = new StringBuilder();
+			List<IMetadataColumn> outputColumns = output.getMetadataTable().getListColumns();
+			for (ExternalMapperTableEntry entry : outputTable.getMetadataTableEntries()) {
+				IMetadataColumn outputColumn = null;
+				for (IMetadataColumn column : outputColumns) {
+					if (column.getLabel().equals(entry.getName())) {
+						outputColumn = column;
+					}
+				}
+				String expression = entry.getExpression();
+				String column = (expression == null || expression.trim().length() == 0) ? "NULL" : column(expression, joined);
+				if (outputColumn == null || column == null) {
+					return "the output column " + entry.getName() + " is not a column of an input";
+				}
+				String input = expression == null ? null : expression.trim().split("\\.")[0];
+				if (Boolean.TRUE.equals(outer.get(input))
+						&& JavaTypesManager.isJavaPrimitiveType(outputColumn.getTalendType(), outputColumn.isNullable())) {
+					// default of the primitive type when the lookup does not match, as the tMap
+					column = "COALESCE(" + column + ", 0)";
+				}
+				String dbName = outputColumn.getOriginalDbColumnName() == null || outputColumn.getOriginalDbColumnName().length() == 0
+						? outputColumn.getLabel() : outputColumn.getOriginalDbColumnName();
+				targetColumns.append(targetColumns.length() > 0 ? ", " : "").append("`").append(dbName).append("`");
+				values.append(values.length() > 0 ? ", " : "").append(column);
+			}
+
+			List<IMetadataColumn> staged = new ArrayList<IMetadataColumn>();
+			for (IMetadataColumn column : mainColumns) {
+				if (usedMainColumns.contains(column.getLabel())) {
+					staged.add(column);
+				}
+			}
+			if (!staged.isEmpty()) {
+				mainColumns = staged;
+			}
+			StringBuilder staging = new StringBuilder();
+			for (IMetadataColumn column : mainColumns) {
+				String type = stagingType(column.getTalendType());
+				if (type == null) {
+					return "the main column " + column.getLabel() + " can not be staged";
+				}
+				staging.append(staging.length() > 0 ? ", " : "").append("`").append(column.getLabel()).append("` ").append(type);
+			}
+			String table = "`" + cid + "_stage`";
+			stagingTable = javaString(table);
+			createStaging = javaString("CREATE TEMPORARY TABLE " + table + " (" + staging + ")");
+			insertSelect = javaString("INSERT INTO `") + " + " + ElementParameterParser.getValue(target, "__TABLE__") + " + "
+					+ javaString("` (" + targetColumns + ") SELECT " + values + " FROM " + table + " AS `" + mainName + "`" + from);
+			return null;
+		}
+
+		private boolean hasFilter(ExternalMapperTable table) {
+			return table.isActivateExpressionFilter() && table.getExpressionFilter() != null
+					&& table.getExpressionFilter().trim().length() > 0;
+		}
+
+		private String database(INode node) {
+			if ("true".equals(ElementParameterParser.getValue(node, "__USE_EXISTING_CONNECTION__"))) {
+				return "connection " + ElementParameterParser.getValue(node, "__CONNECTION__");
+			}
+			return ElementParameterParser.getValue(node, "__HOST__") + " " + ElementParameterParser.getValue(node, "__PORT__")
+					+ " " + ElementParameterParser.getValue(node, "__DBNAME__");
+		}
+
+		/**
+		 * rowN.column of an input already joined, as a column of the SELECT.
+		 */
+		private String column(String expression, Map<String, List<IMetadataColumn>> joined) {
+			java.util.regex.Matcher matcher = java.util.regex.Pattern.compile("\\s*(\\w+)\\.(\\w+)\\s*").matcher(expression);
+			if (!matcher.matches() || joined.get(matcher.group(1)) == null) {
+				return null;
+			}
+			for (IMetadataColumn column : joined.get(matcher.group(1))) {
+				if (column.getLabel().equals(matcher.group(2))) {
+					if (matcher.group(1).equals(mainName)) {
+						usedMainColumns.add(column.getLabel());
+					}
+					return "`" + matcher.group(1) + "`.`" + matcher.group(2) + "`";
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Items of the select list of the query, then the rest of the query from its FROM.
+		 */
+		private List<String> selectItems(String query) {
+			query = query.trim().replaceAll(";\\s*$", "");
+			if (!query.toUpperCase().startsWith("SELECT") || query.length() < 7 || Character.isLetterOrDigit(query.charAt(6))) {
+				return null;
+			}
+			List<String> items = new ArrayList<String>();
+			int start = 6;
+			int depth = 0;
+			char quote = 0;
+			for (int i = start; i < query.length(); i++) {
+				char c = query.charAt(i);
+				if (quote != 0) {
+					if (c == quote) {
+						quote = 0;
+					} else if (c == '\\' && quote != '`') {
+						i++;
+					}
+				} else if (c == '\'' || c == '"' || c == '`') {
+					quote = c;
+				} else if (c == '(') {
+					depth++;
+				} else if (c == ')') {
+					depth--;
+				} else if (depth == 0 && c == ',') {
+					items.add(query.substring(start, i).trim());
+					start = i + 1;
+				} else if (depth == 0 && query.regionMatches(true, i, "FROM", 0, 4) && !Character.isLetterOrDigit(query.charAt(i - 1))
+						&& query.charAt(i - 1) != '_' && (i + 4 == query.length() || !Character.isLetterOrDigit(query.charAt(i + 4)))) {
+					String item = query.substring(start, i).trim();
+					if (item.length() == 0 || item.equals("*")) {
+						return null;
+					}
+					items.add(item);
+					items.add(query.substring(i));
+					return items;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Value of a Java string literal, null if the expression is not a single literal.
+		 */
+		private String unquote(String expression) {
+			String literal = expression == null ? "" : expression.trim();
+			if (literal.length() < 2 || literal.charAt(0) != '"' || literal.charAt(literal.length() - 1) != '"') {
+				return null;
+			}
+			StringBuilder value = new StringBuilder();
+			for (int i = 1; i < literal.length() - 1; i++) {
+				char c = literal.charAt(i);
+				if (c == '"') {
+					return null;
+				} else if (c == '\\') {
+					char next = literal.charAt(++i);
+					value.append(next == 'n' ? '\n' : next == 't' ? '\t' : next == 'r' ? '\r' : next);
+				} else {
+					value.append(c);
+				}
+			}
+			return value.toString();
+		}
+
+		private String javaString(String value) {
+			return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t") + "\"";
+		}
+
+		private String stagingType(String talendType) {
+			if ("id_String".equals(talendType)) {
+				return "TEXT";
+			} else if ("id_Character".equals(talendType)) {
+				return "CHAR(1)";
+			} else if ("id_Integer".equals(talendType)) {
+				return "INT";
+			} else if ("id_Long".equals(talendType)) {
+				return "BIGINT";
+			} else if ("id_Short".equals(talendType)) {
+				return "SMALLINT";
+			} else if ("id_Byte".equals(talendType)) {
+				return "TINYINT";
+			} else if ("id_Float".equals(talendType)) {
+				// as the FLOAT columns compared to it
+				return "FLOAT";
+			} else if ("id_Double".equals(talendType)) {
+				return "DOUBLE";
+			} else if ("id_Boolean".equals(talendType)) {
+				return "BOOLEAN";
+			} else if ("id_Date".equals(talendType)) {
+				return "DATETIME";
+			} else if ("id_BigDecimal".equals(talendType)) {
+				return "DECIMAL(65,30)";
+			}
+			return null;
+		}
+	}
+
     public String generate(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
@@ -650,10 +1098,63 @@ public class TMapBeginJava {
 		
 		boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(node.getProcess(), "__LOG4J_ACTIVATE__"));
 		
-		
+		EltPushdownPlan eltPlan = new EltPushdownPlan(node);
+		if(eltPlan.requested && eltPlan.reason == null) {
+			String eltBatchSize = ElementParameterParser.getValue(node, "__ELT_PUSHDOWN_BATCH_SIZE__");
+
+    stringBuffer.append(TEXT_326);
+    stringBuffer.append(componentName);
+    stringBuffer.append(TEXT_327);
+    stringBuffer.append(eltPlan.targetCid);
+    stringBuffer.append(TEXT_328);
+    stringBuffer.append(eltPlan.stagingTable);
+    stringBuffer.append(TEXT_329);
+    stringBuffer.append(eltPlan.mainColumns.size());
+    stringBuffer.append(TEXT_330);
+    stringBuffer.append((eltBatchSize == null || "".equals(eltBatchSize.trim())) ? "1000" : eltBatchSize);
+    stringBuffer.append(TEXT_331);
+    stringBuffer.append(componentName);
+    stringBuffer.append(TEXT_332);
+    stringBuffer.append(eltPlan.createStaging);
+    stringBuffer.append(TEXT_333);
+    stringBuffer.append(TEXT_325);
+    return stringBuffer.toString();
+    
+		} else if(eltPlan.requested && !componentName.endsWith("TMAP_OUT")) {
+			// the subjob of the tMap did not load the lookups
+
+    stringBuffer.append(TEXT_334);
+    stringBuffer.append(eltPlan.reason);
+    
+			for(String subjob : eltPlan.lookupSubjobs) {
+
+    stringBuffer.append(TEXT_335);
+    stringBuffer.append(subjob);
+    stringBuffer.append(TEXT_336);
+    
+			}
+		}
 
     stringBuffer.append(TEXT_3);
     
+		DateConverters dateConverters = new DateConverters(node);
+		if(dateConverters.enabled) {
+			for(String pattern : dateConverters.patterns) {
+				for(String[] conversion : DateConverters.CONVERSIONS) {
+
+    stringBuffer.append(TEXT_337);
+    stringBuffer.append(dateConverters.get(conversion[0], conversion[1], pattern));
+    stringBuffer.append(TEXT_338);
+    stringBuffer.append(conversion[0]);
+    stringBuffer.append(TEXT_339);
+    stringBuffer.append(conversion[1]);
+    stringBuffer.append(TEXT_340);
+    stringBuffer.append(pattern);
+    stringBuffer.append(TEXT_341);
+    
+				}
+			}
+		}
 
 List<IConnection> inputConnections = (List<IConnection>) node.getIncomingConnections();
 
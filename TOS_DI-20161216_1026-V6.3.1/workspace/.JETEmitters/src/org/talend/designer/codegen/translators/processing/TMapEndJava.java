@@ -55,6 +55,16 @@ public class TMapEndJava {
   protected final String TEXT_21 = " + \".\");";
   protected final String TEXT_22 = NL + NL + NL + NL;
   protected final String TEXT_23 = NL;
+  protected final String TEXT_24 = NL + "\t\tint eltInserted_";
+  protected final String TEXT_25 = " = eltLoad_";
+  protected final String TEXT_26 = ".finish(";
+  protected final String TEXT_27 = ");" + NL + "\t\tnb_line_";
+  protected final String TEXT_28 = " += eltInserted_";
+  protected final String TEXT_29 = ";" + NL + "\t\tinsertedCount_";
+  protected final String TEXT_30 = " += eltInserted_";
+  protected final String TEXT_31 = ";";
+  protected final String TEXT_32 = NL + "\t\t// commits the transaction of the output even if it got no row" + NL + "\t\tcommitCounter_";
+  protected final String TEXT_33 = "++;";
 
 	public boolean hasConcurrencyContext(List<IConnection> inputConnections, List<? extends INode> graphicalNodes) {
 
@@ -319,6 +329,39 @@ public class TMapEndJava {
 	MapperComponent node = (MapperComponent) codeGenArgument.getArgument();
 	boolean stats = codeGenArgument.isStatistics();
 	
+	TMapBeginJava.EltPushdownPlan eltPlan = new TMapBeginJava.EltPushdownPlan(node);
+	if(eltPlan.requested && eltPlan.reason == null) {
+		String cid = node.getUniqueName();
+
+    stringBuffer.append(TEXT_24);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_25);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_26);
+    stringBuffer.append(eltPlan.insertSelect);
+    stringBuffer.append(TEXT_27);
+    stringBuffer.append(eltPlan.targetCid);
+    stringBuffer.append(TEXT_28);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_29);
+    stringBuffer.append(eltPlan.targetCid);
+    stringBuffer.append(TEXT_30);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_31);
+    
+		if(eltPlan.targetCommits) {
+
+    stringBuffer.append(TEXT_32);
+    stringBuffer.append(eltPlan.targetCid);
+    stringBuffer.append(TEXT_33);
+    
+		}
+
+    stringBuffer.append(TEXT_23);
+    return stringBuffer.toString();
+    
+	}
+
 /////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     ExternalMapperData data = (ExternalMapperData) node.getExternalData();
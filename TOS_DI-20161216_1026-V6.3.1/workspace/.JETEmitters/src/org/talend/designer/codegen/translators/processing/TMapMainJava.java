@@ -432,6 +432,12 @@ public class TMapMainJava {
   protected final String TEXT_386 = NL + "\t\t}//EE  \t\t\t" + NL + "\t}//end catch";
   protected final String TEXT_387 = NL + NL + NL + NL + NL + NL + NL;
   protected final String TEXT_388 = NL;
+  protected final String TEXT_389 = NL + "\t\teltLoad_";
+  protected final String TEXT_390 = ".add(new Object[] { ";
+  protected final String TEXT_391 = ", ";
+  protected final String TEXT_392 = ".";
+  protected final String TEXT_393 = " });" + NL + "\t\t";
+  protected final String TEXT_394 = " = null;" + NL;
 
 	public boolean hasConcurrencyContext(List<IConnection> inputConnections, List<? extends INode> graphicalNodes) {
 
@@ -625,6 +631,7 @@ public class TMapMainJava {
 	      		strbuilder.append("(((").append(expression).append(") == null) ? null : (");
 	        }
         
+        	String value = expression;
         	expression = convertFunction.replace("${0}", expression);
         	
         	String pattern = null;
@@ -653,6 +660,16 @@ public class TMapMainJava {
         		expression = expression.replace("${1}", pattern);
         	}
         	
+        	// the converter declared by the begin part, unless a project setting replaced the TypeConvert call
+        	if(pattern != null && dateConverters != null && dateConverters.enabled && convertFunction.startsWith("routines.system.TypeConvert.")) {
+        		String inType = source_talend_type.substring("id_".length());
+        		String outType = target_talend_type.substring("id_".length());
+        		String converter = dateConverters.get(inType, outType, pattern);
+        		if(converter != null) {
+        			expression = contact("((", "Date".equals(outType) ? "java.util.Date" : "String", ") ", converter, ".convert(", value, "))");
+        		}
+        	}
+        	
         	strbuilder.append(expression);
         	
         	if(uniqueSourceEntry.isNullable()) {
@@ -665,6 +682,8 @@ public class TMapMainJava {
         return expression;
 	}
 	
+	TMapBeginJava.DateConverters dateConverters;
+	
 	java.util.regex.Pattern locationPattern = java.util.regex.Pattern.compile(LanguageProvider.getJavaLanguage().getLocationPattern());
 	
 	private TableEntryLocation getUniqueEntryLocation(String expression) {
@@ -695,6 +714,35 @@ public class TMapMainJava {
 	
 	boolean stats = codeGenArgument.isStatistics(); 
 
+	TMapBeginJava.EltPushdownPlan eltPlan = new TMapBeginJava.EltPushdownPlan(node);
+	if(eltPlan.requested && eltPlan.reason == null) {
+		// the row is staged, the output gets no row
+
+    stringBuffer.append(TEXT_389);
+    stringBuffer.append(node.getUniqueName());
+    stringBuffer.append(TEXT_390);
+    
+		for(int i = 0; i < eltPlan.mainColumns.size(); i++) {
+			if(i > 0) {
+
+    stringBuffer.append(TEXT_391);
+    
+			}
+
+    stringBuffer.append(eltPlan.mainName);
+    stringBuffer.append(TEXT_392);
+    stringBuffer.append(eltPlan.mainColumns.get(i).getLabel());
+    
+		}
+
+    stringBuffer.append(TEXT_393);
+    stringBuffer.append(eltPlan.outputName);
+    stringBuffer.append(TEXT_394);
+    stringBuffer.append(TEXT_388);
+    return stringBuffer.toString();
+    
+	}
+
 	String tMapInName = "TMAP_IN";
 	String tMapOutName = "TMAP_OUT";
 
@@ -789,6 +837,7 @@ public class TMapMainJava {
     	Map<TableEntryLocation, IMetadataColumn> locationMap4Column = new HashMap<TableEntryLocation, IMetadataColumn>();
     	
     	boolean enable_auto_convert_type = "true".equals(ElementParameterParser.getValue(node, "__ENABLE_AUTO_CONVERT_TYPE__"));
+    	dateConverters = new TMapBeginJava.DateConverters(node);
     	
     	if(enable_auto_convert_type) {
 
@@ -0,0 +1,68 @@
+package org.talend.designer.codegen.translators.processing;
+
+import org.talend.core.model.process.INode;
+import org.talend.core.model.process.ElementParameterParser;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+import java.util.List;
+import java.util.Map;
+
+public class TSpatialLookupBeginJava
+{
+  protected static String nl;
+  public static synchronized TSpatialLookupBeginJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TSpatialLookupBeginJava result = new TSpatialLookupBeginJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "";
+  protected final String TEXT_2 = NL + "int nb_line_";
+  protected final String TEXT_3 = " = 0;" + NL + "int nb_line_unmatched_";
+  protected final String TEXT_4 = " = 0;";
+  protected final String TEXT_5 = NL + "routines.system.SpatialIndex spatialIndex_";
+  protected final String TEXT_6 = "_";
+  protected final String TEXT_7 = " = routines.system.SpatialIndex.get(";
+  protected final String TEXT_8 = ", ";
+  protected final String TEXT_9 = ");";
+  protected final String TEXT_10 = NL;
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+    stringBuffer.append(TEXT_1);
+
+CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+INode node = (INode)codeGenArgument.getArgument();
+String cid = node.getUniqueName();
+
+// one index per shapefile layer, shared with the other components looking up the same shapefile
+List<Map<String, String>> layers = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node,"__LAYERS__");
+
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_4);
+
+for (int i = 0; i < layers.size(); i++) {
+    Map<String, String> layer = layers.get(i);
+
+    stringBuffer.append(TEXT_5);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_6);
+    stringBuffer.append(i);
+    stringBuffer.append(TEXT_7);
+    stringBuffer.append(layer.get("SHAPEFILE"));
+    stringBuffer.append(TEXT_8);
+    stringBuffer.append(layer.get("ATTRIBUTE"));
+    stringBuffer.append(TEXT_9);
+
+}
+
+    stringBuffer.append(TEXT_10);
+    return stringBuffer.toString();
+  }
+}
@@ -0,0 +1,43 @@
+package org.talend.designer.codegen.translators.processing;
+
+import org.talend.core.model.process.INode;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+
+public class TSpatialLookupEndJava
+{
+  protected static String nl;
+  public static synchronized TSpatialLookupEndJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TSpatialLookupEndJava result = new TSpatialLookupEndJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = NL + "globalMap.put(\"";
+  protected final String TEXT_2 = "_NB_LINE\",nb_line_";
+  protected final String TEXT_3 = ");" + NL + "globalMap.put(\"";
+  protected final String TEXT_4 = "_NB_LINE_UNMATCHED\",nb_line_unmatched_";
+  protected final String TEXT_5 = ");";
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+
+	CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+	INode node = (INode)codeGenArgument.getArgument();
+	String cid = node.getUniqueName();
+
+    stringBuffer.append(TEXT_1);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_4);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_5);
+    return stringBuffer.toString();
+  }
+}
@@ -0,0 +1,305 @@
+package org.talend.designer.codegen.translators.processing;
+
+import org.talend.core.model.process.IConnection;
+import org.talend.core.model.process.INode;
+import org.talend.core.model.process.ElementParameterParser;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+import org.talend.core.model.metadata.IMetadataTable;
+import org.talend.core.model.metadata.IMetadataColumn;
+import org.talend.core.model.metadata.types.JavaTypesManager;
+import org.talend.core.model.process.IConnectionCategory;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+
+public class TSpatialLookupMainJava
+{
+  protected static String nl;
+  public static synchronized TSpatialLookupMainJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    TSpatialLookupMainJava result = new TSpatialLookupMainJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "\t" + NL;
+  protected final String TEXT_2 = NL + "\t";
+  protected final String TEXT_3 = ".";
+  protected final String TEXT_4 = " = ";
+  protected final String TEXT_5 = ".";
+  protected final String TEXT_6 = ";";
+  protected final String TEXT_7 = NL + "\tnb_line_";
+  protected final String TEXT_8 = "++;" + NL + "\tif (";
+  protected final String TEXT_9 = " && ";
+  protected final String TEXT_10 = ") {" + NL + "\t\tdouble longitude_";
+  protected final String TEXT_11 = " = ";
+  protected final String TEXT_12 = ";" + NL + "\t\tdouble latitude_";
+  protected final String TEXT_13 = " = ";
+  protected final String TEXT_14 = ";" + NL + "\t\tString spatialValue_";
+  protected final String TEXT_15 = ";" + NL + "\t\tboolean unmatched_";
+  protected final String TEXT_16 = " = false;";
+  protected final String TEXT_17 = NL + "\t\tspatialValue_";
+  protected final String TEXT_18 = " = spatialIndex_";
+  protected final String TEXT_19 = "_";
+  protected final String TEXT_20 = ".lookup(longitude_";
+  protected final String TEXT_21 = ", latitude_";
+  protected final String TEXT_22 = ");" + NL + "\t\tunmatched_";
+  protected final String TEXT_23 = " |= spatialValue_";
+  protected final String TEXT_24 = " == null;";
+  protected final String TEXT_25 = NL + "\t\t";
+  protected final String TEXT_26 = ".";
+  protected final String TEXT_27 = " = spatialValue_";
+  protected final String TEXT_28 = ";";
+  protected final String TEXT_29 = NL + "\t\tif (spatialValue_";
+  protected final String TEXT_30 = " != null) {" + NL + "\t\t\t";
+  protected final String TEXT_31 = ".";
+  protected final String TEXT_32 = " = routines.system.ParserUtils.parseTo_";
+  protected final String TEXT_33 = "(spatialValue_";
+  protected final String TEXT_34 = ");" + NL + "\t\t} else {" + NL + "\t\t\t";
+  protected final String TEXT_35 = NL + "\t\t";
+  protected final String TEXT_36 = ".";
+  protected final String TEXT_37 = " = spatialValue_";
+  protected final String TEXT_38 = " == null ? null : routines.system.ParserUtils.parseTo_";
+  protected final String TEXT_39 = "(spatialValue_";
+  protected final String TEXT_40 = ");";
+  protected final String TEXT_41 = NL + "\t\tif (unmatched_";
+  protected final String TEXT_42 = ") {" + NL + "\t\t\tnb_line_unmatched_";
+  protected final String TEXT_43 = "++;" + NL + "\t\t}" + NL + "\t} else {" + NL + "\t\tnb_line_unmatched_";
+  protected final String TEXT_44 = "++;";
+  protected final String TEXT_45 = NL + "\t\t";
+  protected final String TEXT_46 = ".";
+  protected final String TEXT_47 = " = null;";
+  protected final String TEXT_48 = NL + "\t}";
+  protected final String TEXT_49 = NL;
+  protected final String TEXT_50 = ".";
+  protected final String TEXT_51 = " = ";
+  protected final String TEXT_52 = ";" + NL + "\t\t}";
+  protected final String TEXT_53 = " = ";
+  protected final String TEXT_54 = ";";
+
+    /**
+     * Expression checking that a coordinate column has a value.
+     */
+    private String hasValue(IMetadataColumn column, String connName) {
+        String type = JavaTypesManager.getTypeToGenerate(column.getTalendType(), column.isNullable());
+        String value = connName + "." + column.getLabel();
+        if ("String".equals(type)) {
+            return "(" + value + " != null && " + value + ".trim().length() > 0)";
+        } else if (JavaTypesManager.isJavaPrimitiveType(column.getTalendType(), column.isNullable())) {
+            return "true";
+        }
+        return value + " != null";
+    }
+
+    /**
+     * Expression reading a coordinate column as a double, without boxing for the primitive types.
+     */
+    private String toDouble(IMetadataColumn column, String connName) {
+        String type = JavaTypesManager.getTypeToGenerate(column.getTalendType(), column.isNullable());
+        String value = connName + "." + column.getLabel();
+        if ("String".equals(type)) {
+            return "Double.parseDouble(" + value + ".trim())";
+        } else if (JavaTypesManager.isJavaPrimitiveType(column.getTalendType(), column.isNullable())) {
+            return value;
+        }
+        return value + ".doubleValue()";
+    }
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+
+	CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+	INode node = (INode)codeGenArgument.getArgument();
+	String cid = node.getUniqueName();
+
+	String longitude = ElementParameterParser.getValue(node, "__LONGITUDE__");
+	String latitude = ElementParameterParser.getValue(node, "__LATITUDE__");
+	List<Map<String, String>> layers = (List<Map<String,String>>)ElementParameterParser.getObjectValue(node,"__LAYERS__");
+
+	String inputConnName = null;
+	Map<String, IMetadataColumn> inputCols = new HashMap<String, IMetadataColumn>();
+	if (node.getIncomingConnections()!=null) {
+		for (IConnection incomingConn : node.getIncomingConnections()) {
+			if (incomingConn.getLineStyle().hasConnectionCategory(IConnectionCategory.DATA)) {
+				inputConnName = incomingConn.getName();
+				IMetadataTable inputMetadataTable = incomingConn.getMetadataTable();
+				for (IMetadataColumn inputCol : inputMetadataTable.getListColumns()) {
+					inputCols.put(inputCol.getLabel(), inputCol);
+				}
+				break;
+			}
+		}
+	}
+	IMetadataColumn longitudeCol = inputCols.get(longitude);
+	IMetadataColumn latitudeCol = inputCols.get(latitude);
+
+    stringBuffer.append(TEXT_1);
+
+	if (inputConnName != null && longitudeCol != null && latitudeCol != null) {
+	for (IConnection conn : node.getOutgoingConnections()) {
+		if (conn.getLineStyle().hasConnectionCategory(IConnectionCategory.DATA)) {
+			IMetadataTable outputMetadataTable = conn.getMetadataTable();
+			Map<String, IMetadataColumn> outputCols = new HashMap<String, IMetadataColumn>();
+			for (IMetadataColumn outputCol : outputMetadataTable.getListColumns()) {
+				outputCols.put(outputCol.getLabel(), outputCol);
+			}
+			java.util.Set<String> layerCols = new java.util.HashSet<String>();
+			for (Map<String, String> layer : layers) {
+				layerCols.add(layer.get("OUTPUT_COLUMN"));
+			}
+			for (IMetadataColumn outputCol : outputMetadataTable.getListColumns()) {
+				if (inputCols.containsKey(outputCol.getLabel()) && !layerCols.contains(outputCol.getLabel())) {
+
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(conn.getName() );
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(outputCol.getLabel() );
+    stringBuffer.append(TEXT_4);
+    stringBuffer.append(inputConnName );
+    stringBuffer.append(TEXT_5);
+    stringBuffer.append(outputCol.getLabel() );
+    stringBuffer.append(TEXT_6);
+
+				}
+			}
+
+    stringBuffer.append(TEXT_7);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_8);
+    stringBuffer.append(hasValue(longitudeCol, inputConnName));
+    stringBuffer.append(TEXT_9);
+    stringBuffer.append(hasValue(latitudeCol, inputConnName));
+    stringBuffer.append(TEXT_10);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_11);
+    stringBuffer.append(toDouble(longitudeCol, inputConnName));
+    stringBuffer.append(TEXT_12);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_13);
+    stringBuffer.append(toDouble(latitudeCol, inputConnName));
+    stringBuffer.append(TEXT_14);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_15);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_16);
+
+			for (int i = 0; i < layers.size(); i++) {
+				IMetadataColumn outputCol = outputCols.get(layers.get(i).get("OUTPUT_COLUMN"));
+				if (outputCol == null) {
+					continue;
+				}
+				String typeToGenerate = JavaTypesManager.getTypeToGenerate(outputCol.getTalendType(), outputCol.isNullable());
+
+    stringBuffer.append(TEXT_17);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_18);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_19);
+    stringBuffer.append(i);
+    stringBuffer.append(TEXT_20);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_21);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_22);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_23);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_24);
+
+				if ("String".equals(typeToGenerate) || "Object".equals(typeToGenerate)) {
+
+    stringBuffer.append(TEXT_25);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_26);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_27);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_28);
+
+				} else if (JavaTypesManager.isJavaPrimitiveType(outputCol.getTalendType(), outputCol.isNullable())) {
+
+    stringBuffer.append(TEXT_29);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_30);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_31);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_32);
+    stringBuffer.append(typeToGenerate);
+    stringBuffer.append(TEXT_33);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_34);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_50);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_51);
+    stringBuffer.append(JavaTypesManager.getDefaultValueFromJavaType(typeToGenerate));
+    stringBuffer.append(TEXT_52);
+
+				} else {
+
+    stringBuffer.append(TEXT_35);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_36);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_37);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_38);
+    stringBuffer.append(typeToGenerate);
+    stringBuffer.append(TEXT_39);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_40);
+
+				}
+			}
+
+    stringBuffer.append(TEXT_41);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_42);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_43);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_44);
+
+			// the output row is reused, the columns of the previous row are reset
+			for (Map<String, String> layer : layers) {
+				IMetadataColumn outputCol = outputCols.get(layer.get("OUTPUT_COLUMN"));
+				if (outputCol == null) {
+					continue;
+				}
+				if (!JavaTypesManager.isJavaPrimitiveType(outputCol.getTalendType(), outputCol.isNullable())) {
+
+    stringBuffer.append(TEXT_45);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_46);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_47);
+
+				} else {
+					String typeToGenerate = JavaTypesManager.getTypeToGenerate(outputCol.getTalendType(), outputCol.isNullable());
+
+    stringBuffer.append(TEXT_45);
+    stringBuffer.append(conn.getName());
+    stringBuffer.append(TEXT_46);
+    stringBuffer.append(outputCol.getLabel());
+    stringBuffer.append(TEXT_53);
+    stringBuffer.append(JavaTypesManager.getDefaultValueFromJavaType(typeToGenerate));
+    stringBuffer.append(TEXT_54);
+
+				}
+			}
+
+    stringBuffer.append(TEXT_48);
+
+			break;
+		}
+	}
+	}
+
+    stringBuffer.append(TEXT_49);
+    return stringBuffer.toString();
+  }
+}
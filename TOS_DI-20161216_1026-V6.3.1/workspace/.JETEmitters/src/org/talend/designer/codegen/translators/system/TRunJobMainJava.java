@@ -343,6 +343,36 @@ public class TRunJobMainJava
   protected final String TEXT_309 = ".toString());" + NL + "\t\t\t\t";
   protected final String TEXT_310 = NL + "  \t\t\t\tSystem.err.println(\"when tRunJob runs in an independent process, it can't extract datas from tBufferOutput of child job.\"); " + NL + "\t\t\t";
   protected final String TEXT_311 = NL;
+  protected final String TEXT_312 = NL + "\t\tchildJob_";
+  protected final String TEXT_313 = ".setJob(";
+  protected final String TEXT_314 = ", \"";
+  protected final String TEXT_315 = "\");";
+  protected final String TEXT_316 = NL + "\t\troutines.system.SubjobScheduler scheduler_";
+  protected final String TEXT_317 = " = (routines.system.SubjobScheduler) globalMap.get(\"SubjobScheduler\");" + NL + "\t\tif (scheduler_";
+  protected final String TEXT_318 = " == null) {" + NL + "\t\t\tscheduler_";
+  protected final String TEXT_319 = " = new routines.system.SubjobScheduler();" + NL + "\t\t\tglobalMap.put(\"SubjobScheduler\", scheduler_";
+  protected final String TEXT_320 = ");" + NL + "\t\t}" + NL + "\t\t// run by the scheduler, after the child jobs it depends on" + NL + "\t\tscheduler_";
+  protected final String TEXT_321 = ".addJob(\"";
+  protected final String TEXT_322 = "\", childJob_";
+  protected final String TEXT_323 = ", (String[]) paraList_";
+  protected final String TEXT_324 = ".toArray(new String[paraList_";
+  protected final String TEXT_325 = ".size()])";
+  protected final String TEXT_326 = ", \"";
+  protected final String TEXT_327 = "\"";
+  protected final String TEXT_328 = ");";
+  protected final String TEXT_329 = NL + "\t\tglobalMap.remove(\"SubjobScheduler\");" + NL + "\t\tscheduler_";
+  protected final String TEXT_330 = ".run(";
+  protected final String TEXT_331 = ");" + NL + "\t\tInteger schedulerErrorCode_";
+  protected final String TEXT_332 = " = scheduler_";
+  protected final String TEXT_333 = ".getTalendThreadResult().getErrorCode();" + NL + "\t\tglobalMap.put(\"";
+  protected final String TEXT_334 = "_CHILD_RETURN_CODE\", schedulerErrorCode_";
+  protected final String TEXT_335 = " != null ? schedulerErrorCode_";
+  protected final String TEXT_336 = " : (scheduler_";
+  protected final String TEXT_337 = ".getFailedNodes().isEmpty() ? 0 : 1));";
+  protected final String TEXT_338 = NL + "\t\tif (!scheduler_";
+  protected final String TEXT_339 = ".getFailedNodes().isEmpty()) {" + NL + "\t\t\tthrow new RuntimeException(\"Child jobs failed: \" + scheduler_";
+  protected final String TEXT_340 = ".getFailedNodes() + \", not run: \" + scheduler_";
+  protected final String TEXT_341 = ".getSkippedNodes());" + NL + "\t\t}";
 
   public String generate(Object argument)
   {
@@ -387,6 +417,33 @@ boolean isPropagateChildResult = ("true").equals(ElementParameterParser.getValue
 
 boolean useDynamicJob = ("true").equals(ElementParameterParser.getValue(node, "__USE_DYNAMIC_JOB__"));
 String dynamicJobName = ElementParameterParser.getValue(node,"__CONTEXT_JOB__");
+// the child job is submitted to a warm JobRunner, with the arguments of a run in the same process
+boolean useJobRunner = ("true").equals(ElementParameterParser.getValue(node, "__USE_JOB_RUNNER__")) && !useDynamicJob;
+String jobRunnerPort = ElementParameterParser.getValue(node, "__JOB_RUNNER_PORT__");
+if (jobRunnerPort == null || "".equals(jobRunnerPort.trim())) {
+	jobRunnerPort = "routines.system.JobRunner.DEFAULT_PORT";
+}
+if (useJobRunner) {
+	useIndependentProcess = false;
+}
+// the child job is added to the SubjobScheduler of the job, which runs it after the child jobs of the tRunJobs it
+// depends on; the tRunJob running the scheduled jobs adds its own child job first
+boolean runSchedule = ("true").equals(ElementParameterParser.getValue(node, "__RUN_SCHEDULE__"));
+boolean scheduled = (runSchedule || ("true").equals(ElementParameterParser.getValue(node, "__SCHEDULED__")))
+		&& !useIndependentProcess && !useJobRunner;
+String scheduleMaxJobs = ElementParameterParser.getValue(node, "__SCHEDULE_MAX_JOBS__");
+if (scheduleMaxJobs == null || "".equals(scheduleMaxJobs.trim())) {
+	scheduleMaxJobs = "Runtime.getRuntime().availableProcessors()";
+}
+List<String> scheduleAfter = new java.util.ArrayList<String>();
+String scheduleAfterValue = ElementParameterParser.getValue(node, "__SCHEDULE_AFTER__");
+if (scheduleAfterValue != null) {
+	for (String dependency : scheduleAfterValue.replace("\"", "").split(",")) {
+		if (dependency.trim().length() > 0) {
+			scheduleAfter.add(dependency.trim());
+		}
+	}
+}
 boolean isLog4jEnabled = ("true").equals(ElementParameterParser.getValue(node.getProcess(), "__LOG4J_ACTIVATE__"));
 boolean propagateData = false;
 Set<String> inputCols = new HashSet<String>();
@@ -889,12 +946,13 @@ String inputConnName = null;
 ///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////  
 	if (!useIndependentProcess){//AAAAAAAAAAAA
 	
+    String childJobType = useJobRunner ? "routines.system.JobRunner.RemoteJob" : childJob;
     stringBuffer.append(TEXT_148);
-    stringBuffer.append(childJob );
+    stringBuffer.append(childJobType );
     stringBuffer.append(TEXT_149);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_150);
-    stringBuffer.append(childJob );
+    stringBuffer.append(childJobType );
     stringBuffer.append(TEXT_151);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_152);
@@ -916,6 +974,15 @@ String inputConnName = null;
     stringBuffer.append(TEXT_160);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_161);
+    if(useJobRunner){
+    stringBuffer.append(TEXT_312);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_313);
+    stringBuffer.append(jobRunnerPort );
+    stringBuffer.append(TEXT_314);
+    stringBuffer.append(childJob );
+    stringBuffer.append(TEXT_315);
+    }
     if(originalContext){
     stringBuffer.append(TEXT_162);
     stringBuffer.append(cid );
@@ -941,6 +1008,61 @@ String inputConnName = null;
     stringBuffer.append(context);
     stringBuffer.append(TEXT_172);
     }
+    if (scheduled) {
+    stringBuffer.append(TEXT_316);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_317);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_318);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_319);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_320);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_321);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_322);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_323);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_324);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_325);
+    for (String dependency : scheduleAfter) {
+    stringBuffer.append(TEXT_326);
+    stringBuffer.append(dependency );
+    stringBuffer.append(TEXT_327);
+    }
+    stringBuffer.append(TEXT_328);
+    if (runSchedule) {
+    stringBuffer.append(TEXT_329);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_330);
+    stringBuffer.append(scheduleMaxJobs );
+    stringBuffer.append(TEXT_331);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_332);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_333);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_334);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_335);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_336);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_337);
+    if (dieOnError) {
+    stringBuffer.append(TEXT_338);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_339);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_340);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_341);
+    }
+    }
+    } else {
     stringBuffer.append(TEXT_173);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_174);
@@ -1004,6 +1126,7 @@ String inputConnName = null;
     }
 		}
     stringBuffer.append(TEXT_201);
+    }
     
 
 		String firstConnName = null; 
@@ -1019,7 +1142,8 @@ String inputConnName = null;
 		if(inConns == null || inConns.size() == 0) {
 			inConnNull = true; 
 		}
-		if(firstConnName != null && (isPropagateChildResult || inConnNull)) {//b
+		// a scheduled child job has not run yet, it has no rows to return
+		if(firstConnName != null && (isPropagateChildResult || inConnNull) && !scheduled) {//b
 			List<BlockCode> blockCodes = new java.util.ArrayList<BlockCode>(1);
 			blockCodes.add(new BlockCode("C_01"));
 			((org.talend.core.model.process.AbstractNode) node).setBlocksCodeToClose(blockCodes);
@@ -49,6 +49,11 @@ public class THashInputBeginJava
   protected final String TEXT_24 = " = next_";
   protected final String TEXT_25 = ".";
   protected final String TEXT_26 = ";";
+  protected final String TEXT_27 = "\t" + NL + "routines.system.ConcurrentRowTable<";
+  protected final String TEXT_28 = "Struct> tHashFile_";
+  protected final String TEXT_29 = " = routines.system.ConcurrentRowTable.get(\"tHashFile_";
+  protected final String TEXT_30 = "_\" + pid +\"_";
+  protected final String TEXT_31 = "\");" + NL + "java.util.Iterator<";
 
   public String generate(Object argument)
   {
@@ -187,7 +192,21 @@ public class THashInputBeginJava
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_5);
     
- if(outputDataConnName != null && tHashOutput_incommingDataConnName != null){
+ //the rows of a ConcurrentRowTable are read while the tHashOutput writes them
+ boolean isConcurrent = tHashOutputNode != null && "true".equals(ElementParameterParser.getValue(tHashOutputNode, "__CONCURRENT_TABLE__"));
+ if(outputDataConnName != null && tHashOutput_incommingDataConnName != null && isConcurrent){
+
+    stringBuffer.append(TEXT_27);
+    stringBuffer.append(tHashOutput_incommingDataConnName );
+    stringBuffer.append(TEXT_28);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_29);
+    stringBuffer.append(jobName );
+    stringBuffer.append(TEXT_30);
+    stringBuffer.append(tHashOutputNode.getUniqueName() );
+    stringBuffer.append(TEXT_31);
+    
+ }else if(outputDataConnName != null && tHashOutput_incommingDataConnName != null){
 //fix bug 21630,use method getAdvancedMemoryHashFile to get a exist AdvancedMemoryHashFile
 
     stringBuffer.append(TEXT_6);
@@ -205,6 +224,10 @@ public class THashInputBeginJava
     stringBuffer.append(TEXT_12);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_13);
+    
+ }
+ if(outputDataConnName != null && tHashOutput_incommingDataConnName != null){
+
     stringBuffer.append(tHashOutput_incommingDataConnName );
     stringBuffer.append(TEXT_14);
     stringBuffer.append(cid );
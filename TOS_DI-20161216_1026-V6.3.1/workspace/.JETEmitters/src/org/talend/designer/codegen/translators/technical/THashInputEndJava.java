@@ -40,6 +40,9 @@ public class THashInputEndJava
   protected final String TEXT_16 = "_NB_LINE\", nb_line_";
   protected final String TEXT_17 = ");       ";
   protected final String TEXT_18 = NL;
+  protected final String TEXT_19 = "\t" + NL + "    \t\troutines.system.ConcurrentRowTable.remove(\"tHashFile_";
+  protected final String TEXT_20 = "_\" + pid +\"_";
+  protected final String TEXT_21 = "\");" + NL + "    \t";
 
   public String generate(Object argument)
   {
@@ -183,7 +186,16 @@ public class THashInputEndJava
     
      	boolean release_cache = "true".equals(ElementParameterParser.getValue(node, "__RELEASE_CACHE__"));
 		String jobName = codeGenArgument.getJobName();
-    	if(release_cache){
+		boolean isConcurrent = tHashOutputNode != null && "true".equals(ElementParameterParser.getValue(tHashOutputNode, "__CONCURRENT_TABLE__"));
+    	if(release_cache && isConcurrent){
+		
+    stringBuffer.append(TEXT_19);
+    stringBuffer.append(jobName );
+    stringBuffer.append(TEXT_20);
+    stringBuffer.append(tHashOutputNode.getUniqueName() );
+    stringBuffer.append(TEXT_21);
+    	
+    	}else if(release_cache){
 		
     stringBuffer.append(TEXT_7);
     stringBuffer.append(cid );
@@ -67,6 +67,15 @@ public class THashOutputBeginJava
   protected final String TEXT_43 = "\");";
   protected final String TEXT_44 = NL + "        int nb_line_";
   protected final String TEXT_45 = " = 0;";
+  protected final String TEXT_46 = NL + "\t\troutines.system.ConcurrentRowTable<";
+  protected final String TEXT_47 = "Struct> tHashFile_";
+  protected final String TEXT_48 = " = routines.system.ConcurrentRowTable.open(\"tHashFile_";
+  protected final String TEXT_49 = "_\" + pid + \"_";
+  protected final String TEXT_50 = "\", ";
+  protected final String TEXT_51 = ", ";
+  protected final String TEXT_52 = ");" + NL + "\t\tresourceMap.put(\"tHashFile_";
+  protected final String TEXT_53 = "\", tHashFile_";
+  protected final String TEXT_54 = ");";
 
   public String generate(Object argument)
   {
@@ -205,6 +214,11 @@ public class THashOutputBeginJava
     	
 	String matchingMode = ElementParameterParser.getValue(node,"__KEYS_MANAGEMENT__");
 	
+	//8. the rows go to a ConcurrentRowTable, read by the tHashInputs while they are written
+	INode tableNode = isLinked ? tHashOutputNode : node;
+	boolean isConcurrent = tableNode != null && "true".equals(ElementParameterParser.getValue(tableNode, "__CONCURRENT_TABLE__"));
+	boolean isIndexed = isConcurrent && "true".equals(ElementParameterParser.getValue(tableNode, "__INDEX_KEYS__"));
+	
 	//7. get input data connection	
 	IConnection incommingDataConn = null;
     List< ? extends IConnection> connections = node.getIncomingConnections();
@@ -230,7 +244,28 @@ if(!isLinked){//111
 	
 	boolean isAppend = "true".equals(ElementParameterParser.getValue(node, "__APPEND__"));
 	
-	if(incommingDataConn != null){//222
+	if(incommingDataConn != null && isConcurrent){
+		String connectionName = incommingDataConn.getName();
+
+    stringBuffer.append(TEXT_46);
+    stringBuffer.append(connectionName );
+    stringBuffer.append(TEXT_47);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_48);
+    stringBuffer.append(jobName);
+    stringBuffer.append(TEXT_49);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_50);
+    stringBuffer.append(isAppend);
+    stringBuffer.append(TEXT_51);
+    stringBuffer.append(isIndexed);
+    stringBuffer.append(TEXT_52);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_53);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_54);
+    
+	}else if(incommingDataConn != null){//222
 		String connectionName = incommingDataConn.getName();
 
     stringBuffer.append(TEXT_7);
@@ -300,6 +335,27 @@ if(!isLinked){//111
 }else{//111
 	//////////////////////////////////////////////////////////////
 	//it link to another tHashOutput, it works in append model.
+	if(isConcurrent){
+
+    stringBuffer.append(TEXT_46);
+    stringBuffer.append(tHashOutput_incommingDataConnName );
+    stringBuffer.append(TEXT_47);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_48);
+    stringBuffer.append(jobName);
+    stringBuffer.append(TEXT_49);
+    stringBuffer.append(tHashOutputNode.getUniqueName());
+    stringBuffer.append(TEXT_50);
+    stringBuffer.append(true);
+    stringBuffer.append(TEXT_51);
+    stringBuffer.append(isIndexed);
+    stringBuffer.append(TEXT_52);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_53);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_54);
+    
+	}else{
 
     stringBuffer.append(TEXT_36);
     stringBuffer.append(tHashOutput_incommingDataConnName );
@@ -317,6 +373,7 @@ if(!isLinked){//111
     stringBuffer.append(tHashOutputName );
     stringBuffer.append(TEXT_43);
     
+	}
 }//111
 
     stringBuffer.append(TEXT_44);
@@ -1,5 +1,9 @@
 package org.talend.designer.codegen.translators.technical;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.talend.core.model.process.ElementParameterParser;
 import org.talend.core.model.process.INode;
 import org.talend.designer.codegen.config.CodeGeneratorArgument;
 
@@ -18,20 +22,107 @@ public class THashOutputEndJava
   protected final String TEXT_1 = "globalMap.put(\"";
   protected final String TEXT_2 = "_NB_LINE\", nb_line_";
   protected final String TEXT_3 = ");";
+  protected final String TEXT_4 = NL + "tHashFile_";
+  protected final String TEXT_5 = ".close();" + NL + "resourceMap.put(\"finish_";
+  protected final String TEXT_6 = "\", true);";
 
   public String generate(Object argument)
   {
     final StringBuffer stringBuffer = new StringBuffer();
     
+	class Util{
+		//keep the tHashOutput Name when on the searching patch, in order to avoid the cycle reference problem.
+		Set<String> nodeNames = new HashSet<String>();
+		List<? extends INode> nodes = null;
+		//the parameter node is tHashInput/tHashOutput
+		public INode getOriginaltHashOutputNode(INode node) throws java.lang.Exception{	
+			//initial it only once.
+			if(nodes == null){
+				nodes = node.getProcess().getGeneratingNodes();
+			}
+			
+			String uniqueName = node.getUniqueName();
+			if(nodeNames.contains(uniqueName)){
+				//happen the cycle problem!!!
+				//return null;
+				throw new java.lang.Exception("Problem with " + uniqueName + " caused by cross-linking two tHashOutput components to each other.");
+			}else{
+				nodeNames.add(uniqueName);
+				//1. get the tHashOuput node
+				boolean isLinked = "true".equals(ElementParameterParser.getValue(node, "__LINK_WITH__"));
+				String tHashOutputName = ElementParameterParser.getValue(node, "__LIST__");
+				if(isLinked){
+				
+					//System.out.println("Node:" + uniqueName);
+					//System.out.println("__LINK_WITH__:" + isLinked);
+					//System.out.println("__LIST__:" + tHashOutputName);
+					
+					if(tHashOutputName != null && !tHashOutputName.trim().equals("")){
+						INode tHashOutput = getNodeFromProcess(tHashOutputName);
+						if(tHashOutput != null){
+							//recursive call it!!!
+							return getOriginaltHashOutputNode(tHashOutput);
+						}else{
+							//if go here, it means that user delete the original tHashOutput 
+							//return null;
+							throw new java.lang.Exception("if go here, it means that user delete the original tHashOutput.");
+						}
+					}else{
+						//if go here, it means there should link to a tHashOutput, but user doesn't it.
+						//return null;
+						throw new java.lang.Exception("if go here, it means there should link to a tHashOutput, but user doesn't it.");
+					}
+				}else{
+					//get it!!! it can be a 1).tHashInput(read file directly), 2). tHashOuput (the original one)  
+					return node;
+				}				
+			}			
+		}
+		
+		private INode getNodeFromProcess(String nodeName){			
+	    	for (INode nd : nodes) {
+	     	   if (nd.getUniqueName().equals(nodeName)) {
+	     	      return nd;
+	     	   }
+	     	}			
+			return null;
+		}	
+		
+	}
+
 CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
 INode node = (INode)codeGenArgument.getArgument();
 String cid = node.getUniqueName();
 
+//the ConcurrentRowTable of the original tHashOutput, complete once all its writers closed it
+boolean isLinked = "true".equals(ElementParameterParser.getValue(node, "__LINK_WITH__"));
+INode tableNode = node;
+if(isLinked){
+	try{
+		tableNode = new Util().getOriginaltHashOutputNode(node);
+	}catch(java.lang.Exception e){
+		tableNode = null;
+	}
+}
+boolean isConcurrent = tableNode != null && "true".equals(ElementParameterParser.getValue(tableNode, "__CONCURRENT_TABLE__"))
+	&& (isLinked || (node.getIncomingConnections() != null && !node.getIncomingConnections().isEmpty()));
+
     stringBuffer.append(TEXT_1);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_2);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_3);
+    
+if(isConcurrent){
+
+    stringBuffer.append(TEXT_4);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_5);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_6);
+    
+}
+
     return stringBuffer.toString();
   }
 }
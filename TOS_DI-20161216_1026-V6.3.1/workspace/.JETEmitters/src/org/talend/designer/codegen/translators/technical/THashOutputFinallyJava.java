@@ -0,0 +1,40 @@
+package org.talend.designer.codegen.translators.technical;
+
+import org.talend.core.model.process.INode;
+import org.talend.designer.codegen.config.CodeGeneratorArgument;
+
+public class THashOutputFinallyJava
+{
+  protected static String nl;
+  public static synchronized THashOutputFinallyJava create(String lineSeparator)
+  {
+    nl = lineSeparator;
+    THashOutputFinallyJava result = new THashOutputFinallyJava();
+    nl = null;
+    return result;
+  }
+
+  public final String NL = nl == null ? (System.getProperties().getProperty("line.separator")) : nl;
+  protected final String TEXT_1 = "\tif(resourceMap.get(\"finish_";
+  protected final String TEXT_2 = "\") == null){" + NL + "\t\tif(resourceMap.get(\"tHashFile_";
+  protected final String TEXT_3 = "\") != null) {" + NL + "\t\t\t((routines.system.ConcurrentRowTable<?>)resourceMap.get(\"tHashFile_";
+  protected final String TEXT_4 = "\")).abort(null);" + NL + "\t\t}" + NL + "\t}";
+
+  public String generate(Object argument)
+  {
+    final StringBuffer stringBuffer = new StringBuffer();
+    
+	CodeGeneratorArgument codeGenArgument = (CodeGeneratorArgument) argument;
+	INode node = (INode)codeGenArgument.getArgument();
+	String cid = node.getUniqueName();
+
+    stringBuffer.append(TEXT_1);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_2);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_3);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_4);
+    return stringBuffer.toString();
+  }
+}
@@ -73,6 +73,7 @@ public class THashOutputMainJava
   protected final String TEXT_48 = ".put(oneRow_";
   protected final String TEXT_49 = ");" + NL + "        nb_line_";
   protected final String TEXT_50 = " ++;\t";
+  protected final String TEXT_51 = NL + "\t\t";
 
   public String generate(Object argument)
   {
@@ -287,6 +288,13 @@ if(!isLinked){//111
 		String connectionName = incommingDataConn.getName();	
         List<IMetadataColumn> columns = metadata.getListColumns();
         List<IMetadataColumn>  tHashOutputcolumns = tHashOutput_metadata.getListColumns();
+		//the ConcurrentRowTable is opened by the tHashOutput_begin
+		boolean isConcurrent = "true".equals(ElementParameterParser.getValue(tHashOutputNode, "__CONCURRENT_TABLE__"));
+		if(isConcurrent){
+
+    stringBuffer.append(TEXT_51);
+    
+		}else{
 //fix bug 21630,use method getAdvancedMemoryHashFile to get a exist AdvancedMemoryHashFile
 
     stringBuffer.append(TEXT_24);
@@ -308,6 +316,9 @@ if(!isLinked){//111
     stringBuffer.append(TEXT_32);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_33);
+    
+		}
+
     stringBuffer.append(tHashOutput_incommingDataConnName );
     stringBuffer.append(TEXT_34);
     stringBuffer.append(cid );
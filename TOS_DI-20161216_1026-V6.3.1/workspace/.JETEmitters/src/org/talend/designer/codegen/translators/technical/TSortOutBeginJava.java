@@ -414,6 +414,15 @@ public class TSortOutBeginJava
   protected final String TEXT_389 = " _\" + Thread.currentThread().getId() + \"_\" + pid;" + NL + "iterator_";
   protected final String TEXT_390 = ".initPut(\"\");" + NL;
   protected final String TEXT_391 = NL;
+  protected final String TEXT_392 = "Struct implements routines.system.NormalizedKeySorter.Keyed, Comparable<Comparable";
+  protected final String TEXT_393 = NL + "\t\treturn 0;" + NL + "\t}" + NL + "" + NL + "\tpublic void sortKey(routines.system.NormalizedKeySorter.Keys keys) {";
+  protected final String TEXT_394 = NL + "\t\tkeys.put(";
+  protected final String TEXT_395 = ", ";
+  protected final String TEXT_396 = ");";
+  protected final String TEXT_397 = NL + "\t}" + NL + "}" + NL + "" + NL + "java.util.List<Comparable";
+  protected final String TEXT_398 = "final int sortKeyWords_";
+  protected final String TEXT_399 = " = ";
+  protected final String TEXT_400 = ";" + NL;
 
   public String generate(Object argument)
   {
@@ -513,12 +522,64 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     
 		if(("false").equals(isExternalSort)){
 		//sort in memory begin
+			boolean normalizedKeys = ("true").equals(ElementParameterParser.getValue(node, "__NORMALIZED_KEYS__"));
+			// the columns written in the normalized keys, up to the first one which only writes a prefix
+			List<String> keyExpressions = new ArrayList<String>();
+			List<Boolean> keyDescs = new ArrayList<Boolean>();
+			int keyBits = 0;
+			if(normalizedKeys){
+				for (int i = 0 ; i < listCols.size() ; i++) {
+					String colname = listCols.get(i);
+					JavaType columnType = listColumnTypes.get(i);
+					Integer criteriaType = listCriteriaTypes.get(i);
+					if("id_Dynamic".equals(columnType.getId())){
+						continue;//not compared
+					}
+					String expression = "this." + colname;
+					int width = 0;
+					if(criteriaType == SORT_ALPHA){
+						if(columnType == JavaTypesManager.BYTE_ARRAY){
+							expression = "this." + colname + " == null ? \"null\" : new String(this." + colname + ")";
+						}else if(columnType == JavaTypesManager.DATE){
+							expression = "this." + colname + " == null ? \"null\" : FormatterUtils.format_Date(this." + colname + ", " + listPatterns.get(i) + ")";
+						}else if(columnType != JavaTypesManager.STRING){
+							expression = "String.valueOf(this." + colname + ")";
+						}
+					}else if(columnType == JavaTypesManager.BOOLEAN){
+						width = 1;
+					}else if(columnType == JavaTypesManager.BYTE){
+						width = 8;
+					}else if(columnType == JavaTypesManager.SHORT || columnType == JavaTypesManager.CHARACTER){
+						width = 16;
+					}else if(columnType == JavaTypesManager.INTEGER || columnType == JavaTypesManager.FLOAT){
+						width = 32;
+					}else if(columnType == JavaTypesManager.LONG || columnType == JavaTypesManager.DOUBLE || columnType == JavaTypesManager.DATE){
+						width = 64;
+					}else if(columnType != JavaTypesManager.BIGDECIMAL){
+						keyExpressions.clear();//no key for this column, the rows are compared
+						break;
+					}
+					keyExpressions.add(expression);
+					keyDescs.add(listCriterias.get(i) == SORT_DESC);
+					if(width == 0){
+						//a string or a decimal prefix ends the key
+						keyBits += 65;
+						break;
+					}
+					keyBits += width + (listNullables.get(i) ? 1 : 0);
+				}
+			}
+			int keyWords = keyExpressions.isEmpty() ? 0 : Math.max(1, Math.min(4, (keyBits + 63) / 64));
 
     stringBuffer.append(TEXT_7);
     stringBuffer.append(rowName );
     stringBuffer.append(TEXT_8);
     stringBuffer.append(rowName );
+    if(keyWords > 0){
+    stringBuffer.append(TEXT_392);
+    }else{
     stringBuffer.append(TEXT_9);
+    }
     stringBuffer.append(rowName );
     stringBuffer.append(TEXT_10);
     stringBuffer.append(rowName );
@@ -945,7 +1006,29 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
 				}//end of if(criteriaType == SORT_NUM)
 			}
 
+    
+			if(keyWords > 0){
+
+    stringBuffer.append(TEXT_393);
+    
+				for (int i = 0 ; i < keyExpressions.size() ; i++) {
+
+    stringBuffer.append(TEXT_394);
+    stringBuffer.append(keyExpressions.get(i) );
+    stringBuffer.append(TEXT_395);
+    stringBuffer.append(keyDescs.get(i) );
+    stringBuffer.append(TEXT_396);
+    
+				}
+
+    stringBuffer.append(TEXT_397);
+    
+			}else{
+
     stringBuffer.append(TEXT_160);
+    
+			}
+
     stringBuffer.append(rowName );
     stringBuffer.append(TEXT_161);
     stringBuffer.append(cid );
@@ -953,6 +1036,17 @@ if ((metadatas!=null)&&(metadatas.size()>0)) {
     stringBuffer.append(rowName );
     stringBuffer.append(TEXT_163);
     
+			if(normalizedKeys){
+
+    stringBuffer.append(TEXT_398);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_399);
+    stringBuffer.append(keyWords );
+    stringBuffer.append(TEXT_400);
+    
+			}
+
+    
 		//sort in memory end
 		}else{
 		//sort out of memory begin
@@ -30,6 +30,8 @@ public class TSortOutEndJava
   protected final String TEXT_12 = "\", iterator_";
   protected final String TEXT_13 = ");";
   protected final String TEXT_14 = NL;
+  protected final String TEXT_15 = "Struct[0]);" + NL + "" + NL + "routines.system.NormalizedKeySorter.sort(array_";
+  protected final String TEXT_16 = ", sortKeyWords_";
 
   public String generate(Object argument)
   {
@@ -47,6 +49,7 @@ if ((node.getIncomingConnections()!=null)&&(node.getIncomingConnections().size()
 }
 
 String isExternalSort = ElementParameterParser.getValue(node, "__EXTERNAL__");
+boolean normalizedKeys = ("true").equals(ElementParameterParser.getValue(node, "__NORMALIZED_KEYS__"));
 
 
     stringBuffer.append(TEXT_1);
@@ -61,8 +64,15 @@ if(("false").equals(isExternalSort)){
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_5);
     stringBuffer.append(rowName );
+    if(normalizedKeys){
+    stringBuffer.append(TEXT_15);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_16);
+    stringBuffer.append(cid );
+    }else{
     stringBuffer.append(TEXT_6);
     stringBuffer.append(cid );
+    }
     stringBuffer.append(TEXT_7);
     stringBuffer.append(destination );
     stringBuffer.append(TEXT_8);
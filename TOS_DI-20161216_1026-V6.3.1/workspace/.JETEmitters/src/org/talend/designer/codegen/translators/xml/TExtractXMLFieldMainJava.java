@@ -393,6 +393,26 @@ public class TExtractXMLFieldMainJava
   protected final String TEXT_367 = "_NB_LINE\", nb_line_";
   protected final String TEXT_368 = ");";
   protected final String TEXT_369 = NL;
+  protected final String TEXT_370 = NL + "\troutines.system.XMLLoopStream loopStream_";
+  protected final String TEXT_371 = " = new routines.system.XMLLoopStream(loopQuery_";
+  protected final String TEXT_372 = ", new String[] {";
+  protected final String TEXT_373 = NL + "\t\t";
+  protected final String TEXT_374 = ",";
+  protected final String TEXT_375 = NL + "\t});";
+  protected final String TEXT_376 = NL + "\t    \tloopStream_";
+  protected final String TEXT_377 = ".open(new java.io.StringReader(xmlStr_";
+  protected final String TEXT_378 = "));" + NL + "\t    \tif(loopStream_";
+  protected final String TEXT_379 = ".getRootElement() != null) {" + NL + "\t    \t\tnsTool_";
+  protected final String TEXT_380 = ".countNSMap(loopStream_";
+  protected final String TEXT_381 = ".getRootElement());" + NL + "\t    \t}" + NL + "\t    \txmlNameSpaceMap_";
+  protected final String TEXT_382 = " = nsTool_";
+  protected final String TEXT_383 = ".xmlNameSpaceMap;" + NL + "    \t" + NL + "    \tisStructError_";
+  protected final String TEXT_384 = " || loopStream_";
+  protected final String TEXT_385 = ".hasNext();i_";
+  protected final String TEXT_386 = " = loopStream_";
+  protected final String TEXT_387 = ".next(";
+  protected final String TEXT_388 = NL + "\t\t\t\t// the document is malformed after the previous loop element" + NL + "\t\t\t\tloopStream_";
+  protected final String TEXT_389 = ".checkError();";
 
   public String generate(Object argument)
   {
@@ -793,10 +813,51 @@ if (outConn!=null) {
     stringBuffer.append(TEXT_85);
     
 	}
+}
+//the loop elements are read one by one, the XPath of the fields are evaluated on each of them
+boolean streaming = ("true").equals(ElementParameterParser.getValue(node, "__STREAMING_XPATH__")) && !ignore_NS_Str && !isDocumentType;
+if(streaming){
+
+    stringBuffer.append(TEXT_370);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_371);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_372);
+    
+	for (int i=0;i<mapping.size();i++) {
+		String query = mapping.get(i).get("QUERY");
+		if(query!=null && query.trim().length()>0){
+
+    stringBuffer.append(TEXT_373);
+    stringBuffer.append(query);
+    stringBuffer.append(TEXT_374);
+    
+		}
+	}
+
+    stringBuffer.append(TEXT_375);
+    
 }
     stringBuffer.append(TEXT_86);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_87);
+    if(streaming){
+    stringBuffer.append(TEXT_376);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_377);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_378);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_379);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_380);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_381);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_382);
+    stringBuffer.append(cid);
+    stringBuffer.append(TEXT_383);
+    } else {
     if(!ignore_NS_Str){
 			if(isDocumentType) {
 		
@@ -864,6 +925,7 @@ if (outConn!=null) {
     stringBuffer.append(TEXT_115);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_116);
+    }
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_117);
     stringBuffer.append(cid );
@@ -981,6 +1043,11 @@ if (outConn!=null) {
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_154);
     stringBuffer.append(cid );
+    if(streaming){
+    stringBuffer.append(TEXT_384);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_385);
+    } else {
     stringBuffer.append(TEXT_155);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_156);
@@ -988,6 +1055,7 @@ if (outConn!=null) {
     stringBuffer.append(TEXT_157);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_158);
+    }
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_159);
     stringBuffer.append(cid );
@@ -1011,10 +1079,16 @@ if(outConns!=null){
     stringBuffer.append(firstConnName );
     stringBuffer.append(TEXT_165);
     stringBuffer.append(cid );
+    if(streaming){
+    stringBuffer.append(TEXT_386);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_387);
+    } else {
     stringBuffer.append(TEXT_166);
     stringBuffer.append(cid );
     stringBuffer.append(TEXT_167);
     stringBuffer.append(cid );
+    }
     stringBuffer.append(TEXT_168);
     stringBuffer.append(cid);
     stringBuffer.append(TEXT_169);
@@ -1032,6 +1106,11 @@ if(outConns!=null){
 		}
 
     stringBuffer.append(TEXT_173);
+    if(streaming){
+    stringBuffer.append(TEXT_388);
+    stringBuffer.append(cid );
+    stringBuffer.append(TEXT_389);
+    }
     
 		if(inConn!=null){
 			int unExtractColNo=0;
@@ -0,0 +1,693 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Columnar file of typed rows, used by tFileOutputColumnar and tFileInputColumnar to hand data over between jobs
+ * without parsing it again.
+ *
+ * The rows are stored by blocks of rows. In a block, each column is a deflated chunk: a null bitmap, then the values
+ * either plain or, for the low cardinality columns, as a dictionary and runs of dictionary ids. The block starts with
+ * the min and max of each column, so that a reader skips the blocks out of its ranges, and each chunk with its length,
+ * so that a reader skips the columns it does not read.
+ */
+public class ColumnarFile {
+
+    public static final int STRING = 1;
+
+    public static final int INT = 2;
+
+    public static final int LONG = 3;
+
+    public static final int SHORT = 4;
+
+    public static final int BYTE = 5;
+
+    public static final int DOUBLE = 6;
+
+    public static final int FLOAT = 7;
+
+    public static final int BOOLEAN = 8;
+
+    public static final int CHAR = 9;
+
+    public static final int DATE = 10;
+
+    public static final int DECIMAL = 11;
+
+    public static final int BYTES = 12;
+
+    /**
+     * Any other value, serialized.
+     */
+    public static final int OBJECT = 13;
+
+    private static final int MAGIC = 0x54434F4C; // TCOL
+
+    private static final int VERSION = 1;
+
+    private static final int DEFAULT_BLOCK_ROWS = 65536;
+
+    private static final int PLAIN = 0;
+
+    private static final int DICTIONARY = 1;
+
+    private ColumnarFile() {
+    }
+
+    /**
+     * Writes the rows of a flow.
+     */
+    public static class Writer {
+
+        private final DataOutputStream out;
+
+        private final int[] types;
+
+        private final int blockRows;
+
+        private final Object[][] block;
+
+        private int rowCount;
+
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        public Writer(String fileName, String[] names, int[] types) throws IOException {
+            this(fileName, names, types, DEFAULT_BLOCK_ROWS);
+        }
+
+        public Writer(String fileName, String[] names, int[] types, int blockRows) throws IOException {
+            File file = new File(fileName);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            this.types = types;
+            this.blockRows = blockRows > 0 ? blockRows : DEFAULT_BLOCK_ROWS;
+            this.block = new Object[types.length][this.blockRows];
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.writeUTF(names[i]);
+                out.writeByte(types[i]);
+            }
+        }
+
+        /**
+         * @param row the values of the columns, in the order of the names.
+         */
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < types.length; i++) {
+                block[i][rowCount] = row[i];
+            }
+            if (++rowCount == blockRows) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (rowCount == 0) {
+                return;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            // stats of all the columns first, a reader decides from them to read the block or not
+            for (int i = 0; i < types.length; i++) {
+                writeStats(data, types[i], block[i], rowCount);
+            }
+            for (int i = 0; i < types.length; i++) {
+                byte[] chunk = deflate(encode(types[i], block[i], rowCount));
+                writeVarInt(data, chunk.length);
+                data.write(chunk);
+            }
+            data.flush();
+            out.writeInt(rowCount);
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+            for (Object[] values : block) {
+                java.util.Arrays.fill(values, 0, rowCount, null);
+            }
+            rowCount = 0;
+        }
+
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+
+        private byte[] deflate(byte[] chunk) {
+            deflater.reset();
+            deflater.setInput(chunk);
+            deflater.finish();
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(chunk.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                deflated.write(buffer, 0, length);
+            }
+            ByteArrayOutputStream chunkOut = new ByteArrayOutputStream(deflated.size() + 5);
+            DataOutputStream data = new DataOutputStream(chunkOut);
+            try {
+                writeVarInt(data, chunk.length);
+                deflated.writeTo(data);
+            } catch (IOException e) {
+                // not thrown by a ByteArrayOutputStream
+                throw new IllegalStateException(e);
+            }
+            return chunkOut.toByteArray();
+        }
+
+        private static void writeStats(DataOutputStream data, int type, Object[] values, int count) throws IOException {
+            Comparable<Object> min = null;
+            Comparable<Object> max = null;
+            if (isComparable(type)) {
+                for (int i = 0; i < count; i++) {
+                    Object value = values[i];
+                    if (value != null) {
+                        Comparable<Object> comparable = comparable(value);
+                        if (min == null || comparable.compareTo(min) < 0) {
+                            min = comparable;
+                        }
+                        if (max == null || comparable.compareTo(max) > 0) {
+                            max = comparable;
+                        }
+                    }
+                }
+            }
+            data.writeBoolean(min != null);
+            if (min != null) {
+                writeValue(data, type, min);
+                writeValue(data, type, max);
+            }
+        }
+
+        private static byte[] encode(int type, Object[] values, int count) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            byte[] nulls = new byte[(count + 7) / 8];
+            int nonNull = 0;
+            Map<Object, Integer> dictionary = new HashMap<Object, Integer>();
+            boolean dictionaryEncoded = type != BYTES && type != OBJECT && type != BOOLEAN;
+            for (int i = 0; i < count; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    nulls[i >> 3] |= 1 << (i & 7);
+                    continue;
+                }
+                nonNull++;
+                if (dictionaryEncoded && !dictionary.containsKey(value)) {
+                    dictionary.put(value, dictionary.size());
+                    dictionaryEncoded = dictionary.size() <= Math.max(16, count / 8);
+                }
+            }
+            // the dictionary only pays for the values repeated often
+            dictionaryEncoded &= dictionary.size() * 2 <= nonNull;
+            data.writeByte(dictionaryEncoded ? DICTIONARY : PLAIN);
+            data.write(nulls);
+            if (dictionaryEncoded) {
+                Object[] entries = new Object[dictionary.size()];
+                for (Map.Entry<Object, Integer> entry : dictionary.entrySet()) {
+                    entries[entry.getValue()] = entry.getKey();
+                }
+                writeVarInt(data, entries.length);
+                for (Object entry : entries) {
+                    writeValue(data, type, entry);
+                }
+                // runs of ids of the non null values
+                int run = 0;
+                int runId = -1;
+                for (int i = 0; i < count; i++) {
+                    if (values[i] == null) {
+                        continue;
+                    }
+                    int id = dictionary.get(values[i]);
+                    if (id != runId && run > 0) {
+                        writeVarInt(data, runId);
+                        writeVarInt(data, run);
+                        run = 0;
+                    }
+                    runId = id;
+                    run++;
+                }
+                if (run > 0) {
+                    writeVarInt(data, runId);
+                    writeVarInt(data, run);
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    if (values[i] != null) {
+                        writeValue(data, type, values[i]);
+                    }
+                }
+            }
+            data.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the rows of a file, only the columns asked for and only the rows in the ranges.
+     */
+    public static class Reader {
+
+        private final DataInputStream in;
+
+        private final String[] fileNames;
+
+        private final int[] fileTypes;
+
+        // position in the file of the columns read
+        private final int[] projection;
+
+        private final List<Range> ranges = new ArrayList<Range>();
+
+        // decoded values of the current block, by column of the file, null for the columns not read
+        private final Object[][] values;
+
+        private final boolean[] read;
+
+        private int blockRowCount;
+
+        private int row = -1;
+
+        private long skippedBlocks;
+
+        private final Inflater inflater = new Inflater();
+
+        /**
+         * @param columns the names of the columns to read, a column missing from the file is read as null.
+         */
+        public Reader(String fileName, String[] columns) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName), 1 << 16));
+            if (in.readInt() != MAGIC) {
+                in.close();
+                throw new IOException(fileName + " is not a columnar file");
+            }
+            int version = in.readInt();
+            if (version > VERSION) {
+                in.close();
+                throw new IOException(fileName + ": unsupported version " + version);
+            }
+            int count = in.readInt();
+            fileNames = new String[count];
+            fileTypes = new int[count];
+            for (int i = 0; i < count; i++) {
+                fileNames[i] = in.readUTF();
+                fileTypes[i] = in.readByte();
+            }
+            projection = new int[columns.length];
+            read = new boolean[count];
+            for (int i = 0; i < columns.length; i++) {
+                projection[i] = indexOf(columns[i]);
+                if (projection[i] >= 0) {
+                    read[projection[i]] = true;
+                }
+            }
+            values = new Object[count][];
+        }
+
+        private int indexOf(String column) {
+            for (int i = 0; i < fileNames.length; i++) {
+                if (fileNames[i].equals(column)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Only reads the rows whose column is in [min, max], a null bound is not checked. The blocks out of the range
+         * are not decoded.
+         */
+        public void addRange(String column, Object min, Object max) throws IOException {
+            int index = indexOf(column);
+            if (index < 0) {
+                throw new IOException("Unknown column " + column);
+            }
+            if (!isComparable(fileTypes[index])) {
+                throw new IOException("The column " + column + " can not be compared");
+            }
+            int type = fileTypes[index];
+            ranges.add(new Range(index, min == null ? null : comparable(coerce(min, type)),
+                    max == null ? null : comparable(coerce(max, type))));
+            read[index] = true;
+        }
+
+        public boolean next() throws IOException {
+            while (true) {
+                while (++row < blockRowCount) {
+                    if (inRanges(row)) {
+                        return true;
+                    }
+                }
+                if (!readBlock()) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * @return the value of the current row for the column at this position of the columns read.
+         */
+        public Object get(int column) {
+            int index = projection[column];
+            return index < 0 ? null : values[index][row];
+        }
+
+        /**
+         * @return the number of blocks skipped thanks to the ranges.
+         */
+        public long getSkippedBlocks() {
+            return skippedBlocks;
+        }
+
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+
+        private boolean inRanges(int row) {
+            for (Range range : ranges) {
+                Object value = values[range.column][row];
+                if (value == null || !range.contains(comparable(value))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean readBlock() throws IOException {
+            while (true) {
+                int rowCount;
+                try {
+                    rowCount = in.readInt();
+                } catch (EOFException e) {
+                    blockRowCount = 0;
+                    return false;
+                }
+                int length = in.readInt();
+                byte[] blockBytes = new byte[length];
+                in.readFully(blockBytes);
+                DataInputStream block = new DataInputStream(new ByteArrayInputStream(blockBytes));
+                boolean skipped = false;
+                Object[][] stats = new Object[fileTypes.length][];
+                for (int i = 0; i < fileTypes.length; i++) {
+                    if (block.readBoolean()) {
+                        stats[i] = new Object[] { readValue(block, fileTypes[i]), readValue(block, fileTypes[i]) };
+                    }
+                }
+                for (Range range : ranges) {
+                    Object[] minMax = stats[range.column];
+                    // no stats: only nulls in the block, out of any range
+                    if (minMax == null || !range.overlaps(comparable(minMax[0]), comparable(minMax[1]))) {
+                        skipped = true;
+                    }
+                }
+                if (skipped) {
+                    skippedBlocks++;
+                    continue;
+                }
+                for (int i = 0; i < fileTypes.length; i++) {
+                    int chunkLength = readVarInt(block);
+                    if (!read[i]) {
+                        block.skipBytes(chunkLength);
+                        continue;
+                    }
+                    byte[] chunk = new byte[chunkLength];
+                    block.readFully(chunk);
+                    values[i] = decode(fileTypes[i], inflate(chunk), rowCount);
+                }
+                blockRowCount = rowCount;
+                row = -1;
+                return true;
+            }
+        }
+
+        private byte[] inflate(byte[] chunk) throws IOException {
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(chunk));
+            int length = readVarInt(data);
+            int offset = chunk.length - data.available();
+            byte[] inflated = new byte[length];
+            inflater.reset();
+            inflater.setInput(chunk, offset, chunk.length - offset);
+            try {
+                int done = 0;
+                while (done < length) {
+                    int n = inflater.inflate(inflated, done, length - done);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IOException("Truncated column chunk");
+                    }
+                    done += n;
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(e);
+            }
+            return inflated;
+        }
+
+        private static Object[] decode(int type, byte[] chunk, int count) throws IOException {
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(chunk));
+            int encoding = data.readByte();
+            byte[] nulls = new byte[(count + 7) / 8];
+            data.readFully(nulls);
+            Object[] values = new Object[count];
+            if (encoding == DICTIONARY) {
+                Object[] entries = new Object[readVarInt(data)];
+                for (int i = 0; i < entries.length; i++) {
+                    entries[i] = readValue(data, type);
+                }
+                int run = 0;
+                Object value = null;
+                for (int i = 0; i < count; i++) {
+                    if ((nulls[i >> 3] & (1 << (i & 7))) != 0) {
+                        continue;
+                    }
+                    if (run == 0) {
+                        value = entries[readVarInt(data)];
+                        run = readVarInt(data);
+                    }
+                    values[i] = value;
+                    run--;
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    if ((nulls[i >> 3] & (1 << (i & 7))) == 0) {
+                        values[i] = readValue(data, type);
+                    }
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class Range {
+
+        private final int column;
+
+        private final Comparable<Object> min;
+
+        private final Comparable<Object> max;
+
+        Range(int column, Comparable<Object> min, Comparable<Object> max) {
+            this.column = column;
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean contains(Comparable<Object> value) {
+            return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+        }
+
+        boolean overlaps(Comparable<Object> blockMin, Comparable<Object> blockMax) {
+            return (min == null || blockMax.compareTo(min) >= 0) && (max == null || blockMin.compareTo(max) <= 0);
+        }
+    }
+
+    private static boolean isComparable(int type) {
+        return type != BYTES && type != OBJECT;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Object value) {
+        return (Comparable<Object>) value;
+    }
+
+    /**
+     * A bound of a range as a value of the column, so that a range can be given as an int for a long column.
+     */
+    private static Object coerce(Object value, int type) {
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            switch (type) {
+            case INT:
+                return number.intValue();
+            case LONG:
+                return number.longValue();
+            case SHORT:
+                return number.shortValue();
+            case BYTE:
+                return number.byteValue();
+            case DOUBLE:
+                return number.doubleValue();
+            case FLOAT:
+                return number.floatValue();
+            case DECIMAL:
+                return value instanceof BigDecimal ? value : new BigDecimal(value.toString());
+            default:
+            }
+        } else if (value instanceof java.util.Date && type == DATE) {
+            // a java.sql.Timestamp is not comparable to the java.util.Date read
+            return new java.util.Date(((java.util.Date) value).getTime());
+        }
+        return value;
+    }
+
+    private static void writeValue(DataOutputStream data, int type, Object value) throws IOException {
+        switch (type) {
+        case STRING:
+            byte[] bytes = ((String) value).getBytes("UTF-8");
+            writeVarInt(data, bytes.length);
+            data.write(bytes);
+            break;
+        case INT:
+            data.writeInt((Integer) value);
+            break;
+        case LONG:
+            data.writeLong((Long) value);
+            break;
+        case SHORT:
+            data.writeShort((Short) value);
+            break;
+        case BYTE:
+            data.writeByte((Byte) value);
+            break;
+        case DOUBLE:
+            data.writeDouble((Double) value);
+            break;
+        case FLOAT:
+            data.writeFloat((Float) value);
+            break;
+        case BOOLEAN:
+            data.writeBoolean((Boolean) value);
+            break;
+        case CHAR:
+            data.writeChar((Character) value);
+            break;
+        case DATE:
+            data.writeLong(((java.util.Date) value).getTime());
+            break;
+        case DECIMAL:
+            writeValue(data, STRING, value.toString());
+            break;
+        case BYTES:
+            writeVarInt(data, ((byte[]) value).length);
+            data.write((byte[]) value);
+            break;
+        default:
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            ObjectOutputStream objectOut = new ObjectOutputStream(serialized);
+            objectOut.writeObject(value);
+            objectOut.close();
+            writeValue(data, BYTES, serialized.toByteArray());
+        }
+    }
+
+    private static Object readValue(DataInputStream data, int type) throws IOException {
+        switch (type) {
+        case STRING:
+            byte[] bytes = new byte[readVarInt(data)];
+            data.readFully(bytes);
+            return new String(bytes, "UTF-8");
+        case INT:
+            return data.readInt();
+        case LONG:
+            return data.readLong();
+        case SHORT:
+            return data.readShort();
+        case BYTE:
+            return data.readByte();
+        case DOUBLE:
+            return data.readDouble();
+        case FLOAT:
+            return data.readFloat();
+        case BOOLEAN:
+            return data.readBoolean();
+        case CHAR:
+            return data.readChar();
+        case DATE:
+            return new java.util.Date(data.readLong());
+        case DECIMAL:
+            return new BigDecimal((String) readValue(data, STRING));
+        case BYTES:
+            byte[] value = new byte[readVarInt(data)];
+            data.readFully(value);
+            return value;
+        default:
+            ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream((byte[]) readValue(data, BYTES)));
+            try {
+                return objectIn.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            } finally {
+                objectIn.close();
+            }
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+}
@@ -0,0 +1,272 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In memory table of the rows of a tHashOutput, read by the tHashInputs while it is still written: several subjobs of
+ * the same job can consume a flow at the same time instead of waiting for its end.
+ *
+ * The rows are appended into chunks of {@link #CHUNK_SIZE} rows and published by a volatile row count, the readers
+ * never lock to read them. A reader only waits when it has read all the rows published, until the next chunk is full or
+ * the last writer closes the table. An aborted table makes its readers fail, and so does a table no writer has opened
+ * yet: like the hash of a tHashOutput, it must exist before it is read.
+ *
+ * With an index, {@link #lookup(Object)} returns the rows added so far which are equal to a given row, i.e. which
+ * have the same key columns.
+ */
+public class ConcurrentRowTable<T> implements Iterable<T> {
+
+    public static final int CHUNK_SIZE = 4096;
+
+    private static final int CHUNK_BITS = 12;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final ConcurrentMap<String, ConcurrentRowTable<?>> tables = new ConcurrentHashMap<String, ConcurrentRowTable<?>>();
+
+    private final Object lock = new Object();
+
+    private volatile ConcurrentMap<T, Queue<T>> index;
+
+    private volatile Object[][] chunks = new Object[16][];
+
+    private volatile int size;
+
+    private int writers;
+
+    private boolean opened;
+
+    private volatile boolean complete;
+
+    private volatile Throwable error;
+
+    /**
+     * Opens the table for writing, {@link #close()} it once all its rows are added.
+     *
+     * @param append adds the rows to the existing table, otherwise a new table replaces it. The readers which got a
+     * table not opened yet and have not started to read it read this one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ConcurrentRowTable<T> open(String key, boolean append, boolean indexed) {
+        while (true) {
+            ConcurrentRowTable<T> table = (ConcurrentRowTable<T>) tables.get(key);
+            if (table == null) {
+                table = new ConcurrentRowTable<T>();
+                if (tables.putIfAbsent(key, table) != null) {
+                    continue;
+                }
+            } else if (!append && !table.isPending()) {
+                ConcurrentRowTable<T> created = new ConcurrentRowTable<T>();
+                if (!tables.replace(key, table, created)) {
+                    continue;
+                }
+                table = created;
+            }
+            if (table.addWriter(indexed)) {
+                return table;
+            }
+            // aborted, not appended to
+            tables.replace(key, table, new ConcurrentRowTable<T>());
+        }
+    }
+
+    /**
+     * @return the table to read, created empty if no writer opened it yet: reading it fails unless a writer opens it
+     * first.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ConcurrentRowTable<T> get(String key) {
+        ConcurrentRowTable<T> table = (ConcurrentRowTable<T>) tables.get(key);
+        if (table == null) {
+            table = new ConcurrentRowTable<T>();
+            ConcurrentRowTable<T> existing = (ConcurrentRowTable<T>) tables.putIfAbsent(key, table);
+            if (existing != null) {
+                table = existing;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Releases the table, its current readers can still read it.
+     */
+    public static void remove(String key) {
+        tables.remove(key);
+    }
+
+    /**
+     * Adds a row, only the writers lock.
+     */
+    public void put(T row) {
+        synchronized (this) {
+            if (complete) {
+                throw new IllegalStateException("The table is closed");
+            }
+            int n = size;
+            int chunk = n >>> CHUNK_BITS;
+            Object[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                chunks = current;
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new Object[CHUNK_SIZE];
+            }
+            current[chunk][n & CHUNK_MASK] = row;
+            if (index != null) {
+                Queue<T> rows = index.get(row);
+                if (rows == null) {
+                    rows = new ConcurrentLinkedQueue<T>();
+                    index.put(row, rows);
+                }
+                rows.add(row);
+            }
+            size = n + 1;
+        }
+        if ((size & CHUNK_MASK) == 0) {
+            signal();
+        }
+    }
+
+    /**
+     * Ends the rows of a writer, the table is complete once all its writers closed it.
+     */
+    public void close() {
+        synchronized (this) {
+            if (writers > 0 && --writers == 0) {
+                complete = true;
+            }
+        }
+        signal();
+    }
+
+    /**
+     * Ends the table on a failure of a writer, the readers fail.
+     */
+    public void abort(Throwable cause) {
+        error = cause == null ? new IllegalStateException("The writer failed") : cause;
+        synchronized (this) {
+            writers = 0;
+            complete = true;
+        }
+        signal();
+    }
+
+    /**
+     * @return the number of rows added so far.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the rows added so far with the same key as <code>key</code>, empty if the table is not indexed.
+     */
+    public Collection<T> lookup(T key) {
+        ConcurrentMap<T, Queue<T>> rowsByKey = index;
+        Queue<T> rows = rowsByKey == null ? null : rowsByKey.get(key);
+        return rows == null ? Collections.<T> emptyList() : Collections.unmodifiableCollection(rows);
+    }
+
+    /**
+     * @return the rows of the table, waiting for the rows not added yet until the table is complete.
+     */
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private int position;
+
+            public boolean hasNext() {
+                if (position < size) {
+                    return true;
+                }
+                await(position);
+                return position < size;
+            }
+
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                // size is read before chunks, the chunk of a published row is visible
+                T row = (T) chunks[position >>> CHUNK_BITS][position & CHUNK_MASK];
+                position++;
+                return row;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private synchronized boolean addWriter(boolean indexed) {
+        if (error != null) {
+            return false;
+        }
+        if (indexed && index == null && size == 0) {
+            index = new ConcurrentHashMap<T, Queue<T>>();
+        }
+        // appended to once complete, the new rows are read by the next readers
+        complete = false;
+        writers++;
+        opened = true;
+        return true;
+    }
+
+    // created by a reader, no writer yet
+    private synchronized boolean isPending() {
+        return !opened;
+    }
+
+    private void await(int position) {
+        if (isPending()) {
+            // no writer to wait for, it would block forever when the tHashOutput runs after the reader
+            throw new RuntimeException("The hash is not initialized : The hash must exist before you read from it");
+        }
+        synchronized (lock) {
+            while (position >= size && !complete) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while waiting for the rows of the table", e);
+                }
+            }
+        }
+        if (error != null && position >= size) {
+            throw new RuntimeException("The writer of the table failed", error);
+        }
+    }
+
+    private void signal() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+}
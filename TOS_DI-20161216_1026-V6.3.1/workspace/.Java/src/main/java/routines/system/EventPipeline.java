@@ -0,0 +1,326 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Events of the catchers and of the statistics, added by any thread of the job and taken by a single consumer.
+ *
+ * The producers claim a slot of a bounded ring buffer with a compare and set and publish their event in it, they
+ * never lock. The events are taken in batches by {@link #drain(int)}, either by the threads of the job or by a
+ * background drainer started with {@link #start(Runnable)}, which runs the delivery each time events are waiting.
+ *
+ * When the buffer is full and a drainer runs, the producer waits for it ({@link #BLOCK}) or the event is dropped and
+ * counted ({@link #DROP}). Without a drainer, the events are moved aside and nothing is dropped.
+ */
+public class EventPipeline<E> {
+
+    public static final String BLOCK = "BLOCK";
+
+    public static final String DROP = "DROP";
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long PARK_NANOS = 100000L;
+
+    /**
+     * Receiver of the batches of a drainer.
+     */
+    public interface Sink<E> {
+
+        void publish(List<E> batch) throws Exception;
+    }
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int mask;
+
+    private final boolean drop;
+
+    // next slot claimed by a producer
+    private final AtomicLong tail = new AtomicLong();
+
+    // next slot taken, written under consumerLock
+    private volatile long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Object consumerLock = new Object();
+
+    // events taken from a full buffer without drainer
+    private final List<E> overflow = new ArrayList<E>();
+
+    private final Object signal = new Object();
+
+    private volatile Thread drainer;
+
+    private volatile boolean drainerWaiting;
+
+    private volatile boolean delivering;
+
+    private volatile boolean closed;
+
+    public EventPipeline() {
+        this(DEFAULT_CAPACITY, BLOCK);
+    }
+
+    /**
+     * @param capacity rounded up to a power of 2, {@link #DEFAULT_CAPACITY} if 0 or less.
+     * @param policy {@link #BLOCK} or {@link #DROP}, {@link #BLOCK} if null or empty.
+     */
+    public EventPipeline(int capacity, String policy) {
+        int size = 2;
+        while (size < (capacity > 0 ? capacity : DEFAULT_CAPACITY)) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<E>(size);
+        this.mask = size - 1;
+        this.drop = DROP.equalsIgnoreCase(policy);
+    }
+
+    /**
+     * Adds an event, without locking unless the buffer is full.
+     *
+     * @return false if the event was dropped.
+     */
+    public boolean offer(E event) {
+        while (true) {
+            long t = tail.get();
+            if (t - head > mask) {
+                if (drainer == null || closed) {
+                    // nobody else takes the events, they are kept aside
+                    synchronized (consumerLock) {
+                        takeAll(overflow);
+                    }
+                    continue;
+                }
+                if (drop) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                wakeDrainer();
+                LockSupport.parkNanos(PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) t & mask, event);
+                if (drainerWaiting) {
+                    wakeDrainer();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return up to <code>max</code> events, in the order they were published.
+     */
+    public List<E> drain(int max) {
+        List<E> batch = new ArrayList<E>();
+        synchronized (consumerLock) {
+            if (!overflow.isEmpty()) {
+                int n = Math.min(max, overflow.size());
+                batch.addAll(overflow.subList(0, n));
+                overflow.subList(0, n).clear();
+            }
+            long h = head;
+            while (batch.size() < max) {
+                int index = (int) h & mask;
+                E event = slots.get(index);
+                if (event == null) {
+                    // empty, or claimed and not published yet
+                    break;
+                }
+                slots.set(index, null);
+                batch.add(event);
+                h++;
+            }
+            head = h;
+        }
+        return batch;
+    }
+
+    public List<E> drain() {
+        return drain(Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head && overflowEmpty();
+    }
+
+    /**
+     * @return the events dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Starts the drainer thread, <code>delivery</code> is expected to {@link #drain(int)} the events.
+     */
+    public synchronized void start(final Runnable delivery) {
+        if (drainer != null) {
+            return;
+        }
+        Thread thread = new Thread(new Runnable() {
+
+            public void run() {
+                while (awaitEvents()) {
+                    long before = head;
+                    boolean failed = false;
+                    delivering = true;
+                    try {
+                        delivery.run();
+                    } catch (RuntimeException e) {
+                        failed = true;
+                        e.printStackTrace();
+                    } finally {
+                        delivering = false;
+                    }
+                    if (head == before && !isEmpty()) {
+                        if (failed) {
+                            // the delivery fails before taking them, dropped rather than failing again
+                            dropped.addAndGet(drain().size());
+                        } else {
+                            // the next slot is claimed and not published yet, the delivery runs again
+                            LockSupport.parkNanos(PARK_NANOS);
+                        }
+                    }
+                    synchronized (signal) {
+                        signal.notifyAll();
+                    }
+                }
+                synchronized (signal) {
+                    signal.notifyAll();
+                }
+            }
+        }, "EventPipeline");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    /**
+     * Starts a drainer publishing batches of up to <code>batchSize</code> events to <code>sink</code>.
+     */
+    public void start(final Sink<E> sink, final int batchSize) {
+        start(new Runnable() {
+
+            public void run() {
+                List<E> batch = drain(batchSize > 0 ? batchSize : Integer.MAX_VALUE);
+                if (!batch.isEmpty()) {
+                    try {
+                        sink.publish(batch);
+                    } catch (Exception e) {
+                        dropped.addAndGet(batch.size());
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    public boolean isStarted() {
+        return drainer != null && !closed;
+    }
+
+    public boolean isDrainerThread() {
+        return Thread.currentThread() == drainer;
+    }
+
+    /**
+     * Waits until the events added so far are delivered by the drainer.
+     */
+    public void flush() {
+        if (drainer == null || isDrainerThread()) {
+            return;
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+            while ((!isEmpty() || delivering) && drainer.isAlive()) {
+                try {
+                    signal.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delivers the events left and stops the drainer, the next events are kept until drained.
+     */
+    public void close() {
+        Thread thread = drainer;
+        closed = true;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        wakeDrainer();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean awaitEvents() {
+        synchronized (signal) {
+            drainerWaiting = true;
+            try {
+                while (isEmpty() && !closed) {
+                    signal.wait();
+                }
+            } catch (InterruptedException e) {
+                return false;
+            } finally {
+                drainerWaiting = false;
+            }
+        }
+        return !isEmpty();
+    }
+
+    private void wakeDrainer() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    private boolean overflowEmpty() {
+        synchronized (consumerLock) {
+            return overflow.isEmpty();
+        }
+    }
+
+    // under consumerLock
+    private void takeAll(List<E> to) {
+        long h = head;
+        while (true) {
+            int index = (int) h & mask;
+            E event = slots.get(index);
+            if (event == null) {
+                break;
+            }
+            slots.set(index, null);
+            to.add(event);
+            h++;
+        }
+        head = h;
+    }
+}
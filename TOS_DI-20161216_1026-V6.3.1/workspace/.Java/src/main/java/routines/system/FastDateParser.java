@@ -66,17 +66,7 @@ public class FastDateParser {
     	localDateFormatKey.get().locale = locale;
         java.text.DateFormat format = localCache.get().get(localDateFormatKey.get());
         if (format == null) {
-            if (pattern.equals("yyyy-MM-dd")) { //$NON-NLS-1$
-                format = new DateParser();
-            } else if (pattern.equals("yyyy-MM-dd HH:mm:ss")) { //$NON-NLS-1$
-                format = new DateTimeParser();
-            } else {
-                if (locale != null) {
-                    format = new java.text.SimpleDateFormat(pattern, locale);
-                } else {
-                    format = new java.text.SimpleDateFormat(pattern);
-                }
-            }
+            format = newInstance(pattern, locale);
             localCache.get().put(getInstance().new DateFormatKey(pattern, locale), format);
         }
         if (format.isLenient() != lenient) {
@@ -85,6 +75,19 @@ public class FastDateParser {
         return format;
     }
 
+    // Warning : a new DateFormat, not cached, to be kept by a single thread
+    public static java.text.DateFormat newInstance(String pattern, Locale locale) {
+        if (pattern.equals("yyyy-MM-dd")) { //$NON-NLS-1$
+            return new DateParser();
+        } else if (pattern.equals("yyyy-MM-dd HH:mm:ss")) { //$NON-NLS-1$
+            return new DateTimeParser();
+        } else if (locale != null) {
+            return new java.text.SimpleDateFormat(pattern, locale);
+        } else {
+            return new java.text.SimpleDateFormat(pattern);
+        }
+    }
+
     // Parse and format dates with yyyy-MM-dd format
     private static class DateParser extends java.text.DateFormat {
 
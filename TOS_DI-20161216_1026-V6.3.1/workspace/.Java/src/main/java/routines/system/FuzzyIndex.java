@@ -0,0 +1,440 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index of the lookup values of tFuzzyMatch, built once when the lookup is loaded so that each main row no longer
+ * scans the whole lookup.
+ *
+ * The Levenshtein index is a BK-tree: the triangle inequality only lets the search go down the children whose edge is
+ * in [d - max, d + max], and the distances are computed with an early exit as soon as they are sure to be over the
+ * bound. Big trees are searched in parallel. The phonetic index is a hash map of the lookup values by code.
+ *
+ * The results are the same as the scan of the lookup values in their iteration order: the values are numbered when
+ * they are added and the matches are returned in that order, the closest match is the first one at the smallest
+ * distance. Once built, the index can be probed by several threads.
+ */
+public class FuzzyIndex {
+
+    /**
+     * Phonetic code of a value, Metaphone or DoubleMetaphone.
+     */
+    public interface Encoder {
+
+        String encode(String value);
+    }
+
+    /**
+     * Subtrees with more values than this are searched in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = 20000;
+
+    private static ForkJoinPool pool;
+
+    private final boolean caseSensitive;
+
+    private final Encoder encoder;
+
+    private final List<String> values = new ArrayList<String>();
+
+    private Node root;
+
+    private Map<String, List<Integer>> buckets;
+
+    private FuzzyIndex(boolean caseSensitive, Encoder encoder) {
+        this.caseSensitive = caseSensitive;
+        this.encoder = encoder;
+        if (encoder != null) {
+            buckets = new HashMap<String, List<Integer>>();
+        }
+    }
+
+    /**
+     * @param caseSensitive false to compare the lower case values, as the matched value must then be.
+     */
+    public static FuzzyIndex levenshtein(boolean caseSensitive) {
+        return new FuzzyIndex(caseSensitive, null);
+    }
+
+    public static FuzzyIndex phonetic(Encoder encoder) {
+        return new FuzzyIndex(true, encoder);
+    }
+
+    /**
+     * Adds the next lookup value, in the iteration order of the lookup.
+     */
+    public void add(String value) {
+        int index = values.size();
+        values.add(value);
+        if (encoder != null) {
+            String code = encoder.encode(value);
+            if (code != null) {
+                List<Integer> bucket = buckets.get(code);
+                if (bucket == null) {
+                    bucket = new ArrayList<Integer>(1);
+                    buckets.put(code, bucket);
+                }
+                bucket.add(index);
+            }
+            return;
+        }
+        String key = caseSensitive ? value : value.toLowerCase();
+        if (root == null) {
+            root = new Node(key, index);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            node.size++;
+            int distance = distance(key, node.key, Integer.MAX_VALUE);
+            if (distance == 0) {
+                node.addIndex(index);
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(key, index));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Closest lookup value at a distance in [min, max], the first added one if several are at the same distance.
+     *
+     * @param tomatch the value to match, already in lower case if the index is not case sensitive.
+     * @return the match, or null.
+     */
+    public Match closest(String tomatch, int min, int max) {
+        Match closest = null;
+        for (Match match : matches(tomatch, min, max)) {
+            if (closest == null || match.distance < closest.distance) {
+                closest = match;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * All the lookup values at a distance in [min, max], in the order they have been added.
+     *
+     * @param tomatch the value to match, already in lower case if the index is not case sensitive.
+     */
+    public List<Match> matches(String tomatch, int min, int max) {
+        List<Match> matches = new ArrayList<Match>();
+        if (root == null || max < min || max < 0) {
+            return matches;
+        }
+        if (root.size > PARALLEL_THRESHOLD) {
+            List<Match> found = Collections.synchronizedList(matches);
+            getPool().invoke(new SearchTask(root, tomatch, min, max, found));
+        } else {
+            search(root, tomatch, min, max, matches);
+        }
+        Collections.sort(matches, ORDER);
+        return matches;
+    }
+
+    /**
+     * Lookup values with the same phonetic code, in the order they have been added.
+     *
+     * @return the values joined by the separator, or null if there is none.
+     */
+    public String sameCode(String code, String separator, boolean first) {
+        List<Integer> bucket = code == null ? null : buckets.get(code);
+        if (bucket == null) {
+            return null;
+        }
+        if (first) {
+            return values.get(bucket.get(0));
+        }
+        StringBuilder matching = new StringBuilder();
+        for (int i = 0; i < bucket.size(); i++) {
+            if (i > 0) {
+                matching.append(separator);
+            }
+            matching.append(values.get(bucket.get(i)));
+        }
+        return matching.toString();
+    }
+
+    public static String joinDistances(List<Match> matches, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) {
+                joined.append(separator);
+            }
+            joined.append(matches.get(i).distance);
+        }
+        return joined.toString();
+    }
+
+    public static String joinValues(List<Match> matches, String separator) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) {
+                joined.append(separator);
+            }
+            joined.append(matches.get(i).value);
+        }
+        return joined.toString();
+    }
+
+    private void search(Node node, String tomatch, int min, int max, List<Match> matches) {
+        // past max + the largest edge, no child can be close enough: the exact distance is not needed
+        int bound = (int) Math.min(Integer.MAX_VALUE - 1, (long) max + node.maxEdge);
+        int distance = distance(tomatch, node.key, bound);
+        if (distance > bound) {
+            return;
+        }
+        collect(node, distance, min, max, matches);
+        for (int i = 0; i < node.childCount; i++) {
+            int edge = node.edges[i];
+            if (edge >= distance - max && edge <= distance + max) {
+                search(node.children[i], tomatch, min, max, matches);
+            }
+        }
+    }
+
+    private void collect(Node node, int distance, int min, int max, List<Match> matches) {
+        if (distance >= min && distance <= max) {
+            for (int i = 0; i < node.indexCount; i++) {
+                int index = node.indexes[i];
+                matches.add(new Match(index, values.get(index), distance));
+            }
+        }
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool();
+        }
+        return pool;
+    }
+
+    /**
+     * Levenshtein distance of a and b, or limit + 1 as soon as it is sure to be over the limit.
+     *
+     * Same distance as StringUtils.getLevenshteinDistance, only the cells of the band |i - j| <= limit are computed.
+     */
+    static int distance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+        if (n > m) {
+            String swap = a;
+            a = b;
+            b = swap;
+            n = m;
+            m = b.length();
+        }
+        // a is the shortest, rows are indexed on b
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        int infinity = Integer.MAX_VALUE - 1;
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i <= limit ? i : infinity;
+        }
+        for (int j = 1; j <= m; j++) {
+            char c = b.charAt(j - 1);
+            int from = Math.max(1, j - limit);
+            int to = (int) Math.min(n, (long) j + limit);
+            current[0] = j <= limit ? j : infinity;
+            if (from > 1) {
+                current[from - 1] = infinity;
+            }
+            int rowMin = current[0];
+            for (int i = from; i <= to; i++) {
+                int cost = a.charAt(i - 1) == c ? 0 : 1;
+                int value = Math.min(Math.min(current[i - 1], previous[i]) + 1, previous[i - 1] + cost);
+                current[i] = value;
+                if (value < rowMin) {
+                    rowMin = value;
+                }
+            }
+            if (to < n) {
+                current[to + 1] = infinity;
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n] > limit ? limit + 1 : previous[n];
+    }
+
+    private static final Comparator<Match> ORDER = new Comparator<Match>() {
+
+        public int compare(Match m1, Match m2) {
+            return m1.index < m2.index ? -1 : (m1.index == m2.index ? 0 : 1);
+        }
+    };
+
+    /**
+     * A lookup value and its distance to the matched value.
+     */
+    public static class Match {
+
+        private final int index;
+
+        private final String value;
+
+        private final int distance;
+
+        Match(int index, String value, int distance) {
+            this.index = index;
+            this.value = value;
+            this.distance = distance;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static class Node {
+
+        private final String key;
+
+        // the lookup values equal to the key, several if the lookup has duplicates
+        private int[] indexes;
+
+        private int indexCount;
+
+        private int[] edges;
+
+        private Node[] children;
+
+        private int childCount;
+
+        private int maxEdge;
+
+        // values in the subtree
+        private int size = 1;
+
+        Node(String key, int index) {
+            this.key = key;
+            this.indexes = new int[] { index };
+            this.indexCount = 1;
+        }
+
+        void addIndex(int index) {
+            if (indexCount == indexes.length) {
+                int[] grown = new int[indexCount * 2];
+                System.arraycopy(indexes, 0, grown, 0, indexCount);
+                indexes = grown;
+            }
+            indexes[indexCount++] = index;
+        }
+
+        Node child(int edge) {
+            for (int i = 0; i < childCount; i++) {
+                if (edges[i] == edge) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int edge, Node child) {
+            if (children == null) {
+                edges = new int[4];
+                children = new Node[4];
+            } else if (childCount == children.length) {
+                int[] grownEdges = new int[childCount * 2];
+                Node[] grownChildren = new Node[childCount * 2];
+                System.arraycopy(edges, 0, grownEdges, 0, childCount);
+                System.arraycopy(children, 0, grownChildren, 0, childCount);
+                edges = grownEdges;
+                children = grownChildren;
+            }
+            edges[childCount] = edge;
+            children[childCount++] = child;
+            maxEdge = Math.max(maxEdge, edge);
+        }
+    }
+
+    private class SearchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Node node;
+
+        private final String tomatch;
+
+        private final int min;
+
+        private final int max;
+
+        private final List<Match> matches;
+
+        SearchTask(Node node, String tomatch, int min, int max, List<Match> matches) {
+            this.node = node;
+            this.tomatch = tomatch;
+            this.min = min;
+            this.max = max;
+            this.matches = matches;
+        }
+
+        @Override
+        protected void compute() {
+            if (node.size <= PARALLEL_THRESHOLD) {
+                List<Match> found = new ArrayList<Match>();
+                search(node, tomatch, min, max, found);
+                matches.addAll(found);
+                return;
+            }
+            int bound = (int) Math.min(Integer.MAX_VALUE - 1, (long) max + node.maxEdge);
+            int distance = distance(tomatch, node.key, bound);
+            if (distance > bound) {
+                return;
+            }
+            List<Match> found = new ArrayList<Match>();
+            collect(node, distance, min, max, found);
+            matches.addAll(found);
+            List<SearchTask> tasks = new ArrayList<SearchTask>();
+            for (int i = 0; i < node.childCount; i++) {
+                int edge = node.edges[i];
+                if (edge >= distance - max && edge <= distance + max) {
+                    tasks.add(new SearchTask(node.children[i], tomatch, min, max, matches));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+}
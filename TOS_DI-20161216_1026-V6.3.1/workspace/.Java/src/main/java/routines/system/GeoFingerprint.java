@@ -0,0 +1,106 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+/**
+ * Compact 64 bits key of a location: the geohash cell of its coordinates and a hash of its descriptive attributes.
+ *
+ * The 40 high bits are the geohash of the point (20 bits of longitude interleaved with 20 bits of latitude, a cell of
+ * about 30m x 20m), the 24 low bits a hash of the descriptors (block, location description, district...).
+ *
+ * The fingerprint is lossy: two locations of the same cell whose descriptors collide on 24 bits get the same one. It is
+ * only a pre-filter, a join must not be done on it alone: {@link GeoFingerprintMap} looks the locations up by their
+ * fingerprint and checks their coordinates and descriptors, and gives them keys which stay unique. Rows without
+ * coordinates all get the cell 0.
+ */
+public class GeoFingerprint {
+
+    public static final int GEOHASH_BITS = 40;
+
+    private static final int DESCRIPTOR_BITS = 64 - GEOHASH_BITS;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoFingerprint() {
+    }
+
+    public static long fingerprint(Number latitude, Number longitude, Object... descriptors) {
+        long cell = (latitude == null || longitude == null) ? 0 : geohash(latitude.doubleValue(), longitude.doubleValue(),
+                GEOHASH_BITS);
+        return (cell << DESCRIPTOR_BITS) | (hash(descriptors) & ((1L << DESCRIPTOR_BITS) - 1));
+    }
+
+    /**
+     * @return the geohash cell of the fingerprint, as returned by {@link #geohash(double, double, int)} with
+     * {@link #GEOHASH_BITS} bits.
+     */
+    public static long cell(long fingerprint) {
+        return fingerprint >>> DESCRIPTOR_BITS;
+    }
+
+    /**
+     * Geohash of a point on <code>bits</code> bits (at most 62), longitude first as in the usual base 32 form.
+     */
+    public static long geohash(double latitude, double longitude, int bits) {
+        int lonBits = (bits + 1) / 2;
+        int latBits = bits / 2;
+        long lon = quantize(longitude, -180, 180, lonBits);
+        long lat = quantize(latitude, -90, 90, latBits);
+        long hash = 0;
+        for (int i = 0; i < bits; i++) {
+            // even bits come from the longitude, odd bits from the latitude, most significant first
+            long bit = (i % 2 == 0) ? (lon >>> (lonBits - 1 - i / 2)) & 1 : (lat >>> (latBits - 1 - i / 2)) & 1;
+            hash = (hash << 1) | bit;
+        }
+        return hash;
+    }
+
+    /**
+     * Usual base 32 form of a geohash, <code>bits</code> must be a multiple of 5.
+     */
+    public static String toBase32(long geohash, int bits) {
+        char[] chars = new char[bits / 5];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = BASE32.charAt((int) (geohash & 31));
+            geohash >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long quantize(double value, double min, double max, int bits) {
+        long cells = 1L << bits;
+        long cell = (long) Math.floor((value - min) / (max - min) * cells);
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+
+    /**
+     * FNV-1a on the string form of the descriptors, with a final mix so that the low bits are usable.
+     */
+    private static long hash(Object[] descriptors) {
+        long h = 0xcbf29ce484222325L;
+        for (Object descriptor : descriptors) {
+            if (descriptor == null) {
+                h = (h ^ 0xFF) * 0x100000001b3L;
+            } else {
+                String value = descriptor.toString();
+                for (int i = 0; i < value.length(); i++) {
+                    h = (h ^ value.charAt(i)) * 0x100000001b3L;
+                }
+            }
+            // separator, ("ab", "c") and ("a", "bc") are different
+            h = (h ^ 0x1F) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,212 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+/**
+ * Lookup of locations by their {@link GeoFingerprint}, which checks the coordinates and the descriptors on a hit: the
+ * fingerprint only selects the candidates, two locations sharing it are kept apart.
+ *
+ * {@link #key(Number, Number, Object...)} also gives each location a key unique in the map, its fingerprint unless
+ * another location already has it, to be used as the Location surrogate key. When fingerprints collide, the key depends
+ * on the order of the locations: a job which did not give the keys loads them back from the Location table with
+ * {@link #putKey(long, Number, Number, Object...)} before looking locations up or giving new keys.
+ *
+ * <pre>
+ * // Location load: the keys already in the table, then once per new location
+ * locations.putKey(row1.Location_ID, row1.Latitude, row1.Longitude, row1.Block, row1.Location_Description, ...);
+ * row3.Location_ID = locations.key(row2.Latitude, row2.Longitude, row2.Block, row2.Location_Description, ...);
+ * // Fact load: the keys of the Location table, then once per row
+ * locations.putKey(row1.Location_ID, row1.Latitude, row1.Longitude, row1.Block, row1.Location_Description, ...);
+ * row5.Location_ID = locations.find(row4.Latitude, row4.Longitude, row4.Block, row4.Location_Description, ...);
+ * </pre>
+ *
+ * The coordinates are compared and fingerprinted as floats, the type of the coordinate columns: a Float and a Double
+ * holding the same column value are the same coordinate.
+ *
+ * Not thread-safe for writes; once loaded it can be read by several threads.
+ */
+public class GeoFingerprintMap<V> {
+
+    // the locations by fingerprint
+    private final LongObjectMap<Entry> entries;
+
+    // the same by key, to keep the keys unique when fingerprints collide
+    private final LongObjectMap<Entry> keys;
+
+    private static class Entry {
+
+        final long key;
+
+        final Float latitude;
+
+        final Float longitude;
+
+        final Object[] descriptors;
+
+        Object value;
+
+        // the other locations with the same fingerprint
+        Entry next;
+
+        Entry(long key, Float latitude, Float longitude, Object[] descriptors) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.descriptors = descriptors.clone();
+        }
+
+        boolean matches(Float latitude, Float longitude, Object[] descriptors) {
+            if (!sameCoordinate(this.latitude, latitude) || !sameCoordinate(this.longitude, longitude)
+                    || this.descriptors.length != descriptors.length) {
+                return false;
+            }
+            for (int i = 0; i < descriptors.length; i++) {
+                Object descriptor = this.descriptors[i];
+                if (descriptor == null ? descriptors[i] != null : !descriptor.equals(descriptors[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean sameCoordinate(Float a, Float b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    public GeoFingerprintMap() {
+        this(1024);
+    }
+
+    public GeoFingerprintMap(int expectedSize) {
+        entries = new LongObjectMap<Entry>(expectedSize);
+        keys = new LongObjectMap<Entry>(expectedSize);
+    }
+
+    /**
+     * @return the key of the location, given to it by the first call: its fingerprint, or if another location already
+     * has it, the next fingerprint of the same cell no location has.
+     */
+    public long key(Number latitude, Number longitude, Object... descriptors) {
+        return entry(coordinate(latitude), coordinate(longitude), descriptors).key;
+    }
+
+    /**
+     * Gives the location the key it already has, read from the Location table.
+     *
+     * @throws IllegalArgumentException if the location or the key is already in the map with another key or location.
+     */
+    public void putKey(long key, Number latitude, Number longitude, Object... descriptors) {
+        Float lat = coordinate(latitude);
+        Float lon = coordinate(longitude);
+        long fingerprint = GeoFingerprint.fingerprint(lat, lon, descriptors);
+        Entry found = find(fingerprint, lat, lon, descriptors);
+        if (found != null) {
+            if (found.key != key) {
+                throw new IllegalArgumentException("The location of the key " + key + " already has the key "
+                        + found.key);
+            }
+            return;
+        }
+        if (keys.containsKey(key)) {
+            throw new IllegalArgumentException("The key " + key + " is already given to another location");
+        }
+        add(fingerprint, new Entry(key, lat, lon, descriptors));
+    }
+
+    /**
+     * @return the key given to the location by {@link #key(Number, Number, Object...)}, or null if it has none.
+     */
+    public Long find(Number latitude, Number longitude, Object... descriptors) {
+        Float lat = coordinate(latitude);
+        Float lon = coordinate(longitude);
+        Entry entry = find(GeoFingerprint.fingerprint(lat, lon, descriptors), lat, lon, descriptors);
+        return entry == null ? null : Long.valueOf(entry.key);
+    }
+
+    /**
+     * @return the previous value of the location, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(Number latitude, Number longitude, Object[] descriptors, V value) {
+        Entry entry = entry(coordinate(latitude), coordinate(longitude), descriptors);
+        V previous = (V) entry.value;
+        entry.value = value;
+        return previous;
+    }
+
+    /**
+     * @return the value of the location, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Number latitude, Number longitude, Object... descriptors) {
+        Float lat = coordinate(latitude);
+        Float lon = coordinate(longitude);
+        Entry entry = find(GeoFingerprint.fingerprint(lat, lon, descriptors), lat, lon, descriptors);
+        return entry == null ? null : (V) entry.value;
+    }
+
+    /**
+     * @return the number of locations.
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    private static Float coordinate(Number value) {
+        if (value == null || value instanceof Float) {
+            return (Float) value;
+        }
+        return Float.valueOf(value.floatValue());
+    }
+
+    // the fingerprint only selects the candidates, the location is the one with the same coordinates and descriptors
+    private Entry find(long fingerprint, Float latitude, Float longitude, Object[] descriptors) {
+        for (Entry entry = entries.get(fingerprint); entry != null; entry = entry.next) {
+            if (entry.matches(latitude, longitude, descriptors)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Entry entry(Float latitude, Float longitude, Object[] descriptors) {
+        long fingerprint = GeoFingerprint.fingerprint(latitude, longitude, descriptors);
+        Entry found = find(fingerprint, latitude, longitude, descriptors);
+        if (found != null) {
+            return found;
+        }
+        long key = fingerprint;
+        long cell = GeoFingerprint.cell(fingerprint);
+        while (keys.containsKey(key)) {
+            key++;
+            if (GeoFingerprint.cell(key) != cell) {
+                // the descriptor hash wraps around inside the cell
+                key = cell << (64 - GeoFingerprint.GEOHASH_BITS);
+            }
+            if (key == fingerprint) {
+                throw new IllegalStateException("No key left for the locations of the geohash cell "
+                        + GeoFingerprint.toBase32(cell, GeoFingerprint.GEOHASH_BITS));
+            }
+        }
+        Entry entry = new Entry(key, latitude, longitude, descriptors);
+        add(fingerprint, entry);
+        return entry;
+    }
+
+    private void add(long fingerprint, Entry entry) {
+        entry.next = entries.get(fingerprint);
+        entries.put(fingerprint, entry);
+        keys.put(entry.key, entry);
+    }
+}
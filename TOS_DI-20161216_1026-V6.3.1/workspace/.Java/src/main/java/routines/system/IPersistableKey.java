@@ -0,0 +1,13 @@
+package routines.system;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+/**
+ * Key that can be written in a canonical binary form: two keys are equal if and only if they write the same bytes.
+ */
+public interface IPersistableKey {
+
+    public void writeKeyData(ObjectOutputStream out) throws IOException;
+
+}
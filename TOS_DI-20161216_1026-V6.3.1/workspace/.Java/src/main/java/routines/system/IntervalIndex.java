@@ -0,0 +1,226 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+/**
+ * Index of the lookup ranges of tIntervalMatch on primitive long bounds: integer values as is, dates as
+ * {@link java.util.Date#getTime()} and floating values through {@link #key(double)}.
+ *
+ * The ranges are sorted once by (min, max). If no two of them overlap, a value is matched by a binary search of the
+ * last range whose min is below the value; otherwise the sorted array is searched as an implicit interval tree, each
+ * node knowing the largest max of its subtree. In both cases the match is the first range in (min, max) order
+ * containing the value, found in O(log n) without allocation.
+ *
+ * A missing min or max (null bound of the lookup) means the range is not bounded on that side.
+ */
+public class IntervalIndex {
+
+    private final boolean minIncluded;
+
+    private final boolean maxIncluded;
+
+    // position of the ranges in the lookup, in (min, max) order
+    private final int[] order;
+
+    private final long[] mins;
+
+    private final long[] maxs;
+
+    private final boolean[] noMins;
+
+    private final boolean[] noMaxs;
+
+    // largest max of the subtree of each node of the implicit tree, if one of the ranges of the subtree is bounded
+    private final long[] subtreeMaxs;
+
+    private final boolean[] subtreeNoMaxs;
+
+    private final boolean overlapping;
+
+    /**
+     * @param noMins true for the ranges without min, mins is then ignored. Can be null if all the ranges have a min.
+     * @param noMaxs true for the ranges without max, maxs is then ignored. Can be null if all the ranges have a max.
+     */
+    public IntervalIndex(long[] mins, boolean[] noMins, long[] maxs, boolean[] noMaxs, boolean minIncluded,
+            boolean maxIncluded) {
+        this.minIncluded = minIncluded;
+        this.maxIncluded = maxIncluded;
+        int size = mins.length;
+        if (noMins == null) {
+            noMins = new boolean[size];
+        }
+        if (noMaxs == null) {
+            noMaxs = new boolean[size];
+        }
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[size], 0, size, mins, noMins, maxs, noMaxs);
+        this.mins = new long[size];
+        this.maxs = new long[size];
+        this.noMins = new boolean[size];
+        this.noMaxs = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            this.mins[i] = mins[order[i]];
+            this.maxs[i] = maxs[order[i]];
+            this.noMins[i] = noMins[order[i]];
+            this.noMaxs[i] = noMaxs[order[i]];
+        }
+        boolean overlap = false;
+        for (int i = 0; i + 1 < size && !overlap; i++) {
+            overlap = this.noMaxs[i] || this.noMins[i + 1] || this.maxs[i] > this.mins[i + 1]
+                    || (this.maxs[i] == this.mins[i + 1] && minIncluded && maxIncluded);
+        }
+        overlapping = overlap;
+        if (overlapping) {
+            subtreeMaxs = new long[size];
+            subtreeNoMaxs = new boolean[size];
+            buildTree(0, size - 1);
+        } else {
+            subtreeMaxs = null;
+            subtreeNoMaxs = null;
+        }
+    }
+
+    /**
+     * Key of a floating value, in the same order as the values.
+     */
+    public static long key(double value) {
+        // -0.0 and 0.0 are the same value
+        long bits = Double.doubleToLongBits(value == 0 ? 0.0 : value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    public boolean isOverlapping() {
+        return overlapping;
+    }
+
+    /**
+     * @return the position in the lookup of the first range containing the value, or -1.
+     */
+    public int find(long value) {
+        int found;
+        if (overlapping) {
+            found = first(value, 0, order.length - 1);
+        } else {
+            // last range whose min is below the value
+            int low = 0;
+            int high = order.length - 1;
+            found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (aboveMin(value, middle)) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            if (found >= 0 && !belowMax(value, found)) {
+                found = -1;
+            }
+        }
+        return found < 0 ? -1 : order[found];
+    }
+
+    private int first(long value, int low, int high) {
+        if (low > high) {
+            return -1;
+        }
+        int middle = (low + high) >>> 1;
+        if (!subtreeNoMaxs[middle] && !(maxIncluded ? value <= subtreeMaxs[middle] : value < subtreeMaxs[middle])) {
+            return -1;
+        }
+        int found = first(value, low, middle - 1);
+        if (found >= 0) {
+            return found;
+        }
+        // the ranges after this one don't have a smaller min
+        if (!aboveMin(value, middle)) {
+            return -1;
+        }
+        if (belowMax(value, middle)) {
+            return middle;
+        }
+        return first(value, middle + 1, high);
+    }
+
+    private boolean aboveMin(long value, int i) {
+        return noMins[i] || (minIncluded ? value >= mins[i] : value > mins[i]);
+    }
+
+    private boolean belowMax(long value, int i) {
+        return noMaxs[i] || (maxIncluded ? value <= maxs[i] : value < maxs[i]);
+    }
+
+    private void buildTree(int low, int high) {
+        if (low > high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        buildTree(low, middle - 1);
+        buildTree(middle + 1, high);
+        boolean noMax = noMaxs[middle];
+        long max = maxs[middle];
+        for (int child : new int[] { (low + middle - 1) >>> 1, (middle + 1 + high) >>> 1 }) {
+            if ((child >= low && child < middle) || (child > middle && child <= high)) {
+                noMax |= subtreeNoMaxs[child];
+                max = Math.max(max, subtreeMaxs[child]);
+            }
+        }
+        subtreeNoMaxs[middle] = noMax;
+        subtreeMaxs[middle] = max;
+    }
+
+    /**
+     * Stable merge sort of the positions by (min, max), the ranges without min or max first as in the previous
+     * comparator of tIntervalMatch.
+     */
+    private static void sort(int[] positions, int[] buffer, int from, int to, long[] mins, boolean[] noMins,
+            long[] maxs, boolean[] noMaxs) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(positions, buffer, from, middle, mins, noMins, maxs, noMaxs);
+        sort(positions, buffer, middle, to, mins, noMins, maxs, noMaxs);
+        System.arraycopy(positions, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to
+                    || (left < middle && compare(buffer[left], buffer[right], mins, noMins, maxs, noMaxs) <= 0)) {
+                positions[i] = buffer[left++];
+            } else {
+                positions[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static int compare(int p1, int p2, long[] mins, boolean[] noMins, long[] maxs, boolean[] noMaxs) {
+        if (noMins[p1] != noMins[p2]) {
+            return noMins[p1] ? -1 : 1;
+        }
+        if (!noMins[p1] && mins[p1] != mins[p2]) {
+            return mins[p1] < mins[p2] ? -1 : 1;
+        }
+        if (noMaxs[p1] != noMaxs[p2]) {
+            return noMaxs[p1] ? -1 : 1;
+        }
+        if (!noMaxs[p1] && maxs[p1] != maxs[p2]) {
+            return maxs[p1] < maxs[p2] ? -1 : 1;
+        }
+        return 0;
+    }
+}
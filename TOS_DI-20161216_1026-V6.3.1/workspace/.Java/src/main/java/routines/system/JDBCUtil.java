@@ -12,11 +12,25 @@
 // ============================================================================
 package routines.system;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class JDBCUtil {
 
+    /**
+     * Size of the rows fetched at once by a cursor fetch.
+     */
+    private static final int MYSQL_FETCH_BYTES = 4 * 1024 * 1024;
+
+    private static final Pattern FROM_TABLE = Pattern
+            .compile("(?i)\\bFROM\\s+(?:(`[^`]+`|\\w+)\\s*\\.\\s*)?(`[^`]+`|\\w+)");
+
     public static String getString(ResultSet rs, int index, boolean trim) throws java.sql.SQLException {
         String result = rs.getString(index);
         if (trim && result != null) {
@@ -64,5 +78,75 @@ public class JDBCUtil {
         
         return null;
     }
-    
+
+    /**
+     * MySQL date read without its String form, the zero dates ("0000-00-00") are returned as year0 as tMysqlInput
+     * always did. The String is only read when the timestamp is null or can't be read.
+     */
+    public static Date getMysqlDate(ResultSet rs, int index, Date year0) throws java.sql.SQLException {
+        java.sql.Timestamp timestamp;
+        try {
+            timestamp = rs.getTimestamp(index);
+        } catch (java.sql.SQLException e) {
+            // zero date with zeroDateTimeBehavior=exception, the default of Connector/J
+            if (isZeroDate(rs.getString(index))) {
+                return (Date) year0.clone();
+            }
+            throw e;
+        }
+        if (timestamp == null && isZeroDate(rs.getString(index))) {
+            // zero date with zeroDateTimeBehavior=convertToNull
+            return (Date) year0.clone();
+        }
+        return timestamp;
+    }
+
+    private static boolean isZeroDate(String value) {
+        return "0000-00-00".equals(value) || "0000-00-00 00:00:00".equals(value);
+    }
+
+    /**
+     * Chooses how a MySQL query fetches its rows instead of buffering the whole result set in the driver: a cursor
+     * fetch sized from the average row length of the table if the connection has useCursorFetch=true, otherwise row by
+     * row streaming if the connection is not shared (no other statement can run on it while the rows are streamed).
+     * Shared connections without cursor fetch keep the buffered result set.
+     */
+    public static void setMysqlFetchMode(Statement stmt, boolean ownConnection, String query) throws SQLException {
+        Connection conn = stmt.getConnection();
+        String url = conn.getMetaData().getURL();
+        if (url != null && url.toLowerCase().indexOf("usecursorfetch=true") >= 0) {
+            stmt.setFetchSize(getMysqlFetchSize(conn, query));
+        } else if (ownConnection) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+        }
+    }
+
+    static int getMysqlFetchSize(Connection conn, String query) {
+        int fetchSize = 1000;
+        Matcher matcher = FROM_TABLE.matcher(query);
+        if (!matcher.find()) {
+            return fetchSize;
+        }
+        String schema = matcher.group(1) == null ? null : matcher.group(1).replace("`", "");
+        String table = matcher.group(2).replace("`", "");
+        try {
+            PreparedStatement statistics = conn.prepareStatement("SELECT AVG_ROW_LENGTH FROM information_schema.TABLES"
+                    + " WHERE TABLE_SCHEMA = IFNULL(?, DATABASE()) AND TABLE_NAME = ?");
+            try {
+                statistics.setString(1, schema);
+                statistics.setString(2, table);
+                ResultSet rs = statistics.executeQuery();
+                if (rs.next() && rs.getLong(1) > 0) {
+                    fetchSize = (int) Math.max(100, Math.min(100000, MYSQL_FETCH_BYTES / rs.getLong(1)));
+                }
+                rs.close();
+            } finally {
+                statistics.close();
+            }
+        } catch (SQLException e) {
+            // no statistics, default size
+        }
+        return fetchSize;
+    }
+
 }
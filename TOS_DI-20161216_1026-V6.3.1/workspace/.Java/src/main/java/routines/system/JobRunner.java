@@ -0,0 +1,583 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import routines.system.api.TalendJob;
+
+/**
+ * Long lived runner of jobs, listening on a local port. The jobs run in its JVM, started once with the classpath of the
+ * jobs: the job classes stay loaded and compiled by the JIT, the JDBC drivers registered, and the static caches
+ * (SharedDBConnection, SpatialIndex, ...) are kept from a run to the next, instead of being rebuilt by a new JVM for
+ * each job.
+ *
+ * <pre>
+ * java -cp &lt;classpath of the jobs&gt; routines.system.JobRunner --port=4790
+ * java -cp &lt;classpath of the jobs&gt; routines.system.JobRunner --submit=chicago_crime.fact_0_1.Fact --context=Default
+ * java -cp &lt;classpath of the jobs&gt; routines.system.JobRunner --stop
+ * </pre>
+ *
+ * A run is submitted with its job class, arguments and context transmitted by the parent job, its outputs are sent back
+ * to the client while it runs, then its result: error code, status, stack trace and rows returned. tRunJob submits its
+ * child job with {@link RemoteJob}. Only the outputs of the thread running the job are sent back: the threads it starts
+ * (multi-thread subjobs, parallel iterations) print to the console of the runner.
+ *
+ * Each request starts with a token the runner draws when it starts and writes to
+ * <code>~/.talend/jobrunner-&lt;port&gt;.token</code>, readable by its user only: the other users of the machine can
+ * reach the port but can neither run nor stop jobs. The requests without the token are closed unanswered, and only the
+ * classes implementing {@link TalendJob} are run.
+ */
+public class JobRunner {
+
+    public static final int DEFAULT_PORT = 4790;
+
+    private static final String RUN = "RUN";
+
+    private static final String STOP = "STOP";
+
+    private static final byte OUT = 1;
+
+    private static final byte ERR = 2;
+
+    private static final byte RESULT = 3;
+
+    // outputs of the run of the current thread, not inherited: the pool threads started during a run outlive it
+    private static final ThreadLocal<DataOutputStream> RUN_OUTPUT = new ThreadLocal<DataOutputStream>();
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ServerSocket serverSocket;
+
+    private final byte[] token;
+
+    private volatile boolean stopped;
+
+    public JobRunner(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : random) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        token = hex.toString().getBytes(UTF8);
+        try {
+            writeToken(tokenFile(port), token);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the file of the token of the runner listening on the port.
+     */
+    public static File tokenFile(int port) {
+        return new File(new File(System.getProperty("user.home"), ".talend"), "jobrunner-" + port + ".token");
+    }
+
+    // a new file, created readable by its owner only, never one left by another user
+    private static void writeToken(File file, byte[] token) throws IOException {
+        Path dir = file.getParentFile().toPath();
+        Path path = file.toPath();
+        boolean posix = dir.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (!Files.isDirectory(dir)) {
+            if (posix) {
+                Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions
+                        .fromString("rwx------")));
+            } else {
+                Files.createDirectories(dir);
+            }
+        }
+        Files.deleteIfExists(path);
+        try {
+            if (posix) {
+                Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } else {
+                Files.createFile(path);
+                file.setReadable(false, false);
+                file.setWritable(false, false);
+                file.setReadable(true, true);
+                file.setWritable(true, true);
+            }
+        } catch (FileAlreadyExistsException e) {
+            throw new IOException("The token file " + file + " has been created by another process", e);
+        }
+        Files.write(path, token);
+    }
+
+    private static String readToken(int port) throws IOException {
+        return new String(Files.readAllBytes(tokenFile(port).toPath()), UTF8).trim();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        String submit = null;
+        boolean stop = false;
+        List<String> jobArgs = new ArrayList<String>();
+        for (String arg : args) {
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(arg.substring("--port=".length()));
+            } else if (arg.startsWith("--submit=")) {
+                submit = arg.substring("--submit=".length());
+            } else if (arg.equals("--stop")) {
+                stop = true;
+            } else {
+                jobArgs.add(arg);
+            }
+        }
+        if (stop) {
+            stop(port);
+        } else if (submit != null) {
+            RemoteJob job = new RemoteJob();
+            job.setJob(port, submit);
+            job.fallback = false;
+            job.runJob(jobArgs.toArray(new String[jobArgs.size()]));
+            if (job.getExceptionStackTrace() != null) {
+                System.err.println(job.getExceptionStackTrace());
+            }
+            System.exit(job.getExitCode());
+        } else {
+            new JobRunner(port).serve();
+        }
+    }
+
+    /**
+     * Serves the runs until stopped, each run on its own thread.
+     */
+    public void serve() throws IOException {
+        System.setOut(new RunPrintStream(System.out, OUT));
+        System.setErr(new RunPrintStream(System.err, ERR));
+        System.out.println("Job runner listening on " + serverSocket.getLocalSocketAddress());
+        while (!stopped) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (stopped) {
+                    break;
+                }
+                throw e;
+            }
+            Thread thread = new Thread("JobRunner-" + socket.getPort()) {
+
+                public void run() {
+                    try {
+                        handle(socket);
+                    } catch (IOException e) {
+                        // client gone, its run is over anyway
+                    } finally {
+                        try {
+                            socket.close();
+                        } catch (IOException e) {
+                            // ignored
+                        }
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public void stop() throws IOException {
+        stopped = true;
+        serverSocket.close();
+        // unless another runner has taken the port since
+        File file = tokenFile(serverSocket.getLocalPort());
+        try {
+            if (MessageDigest.isEqual(token, Files.readAllBytes(file.toPath()))) {
+                file.delete();
+            }
+        } catch (IOException e) {
+            // already deleted
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        // compared in constant time, the request is closed unanswered
+        if (!MessageDigest.isEqual(token, in.readUTF().getBytes(UTF8))) {
+            throw new IOException("Request without the token of the runner");
+        }
+        String command = in.readUTF();
+        if (STOP.equals(command)) {
+            stop();
+            return;
+        }
+        if (!RUN.equals(command)) {
+            throw new IOException("Unknown command " + command);
+        }
+        String jobClass = in.readUTF();
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        byte[] parentContext = new byte[in.readInt()];
+        in.readFully(parentContext);
+        run(jobClass, args, parentContext, out);
+    }
+
+    private void run(String jobClass, String[] args, byte[] parentContext, DataOutputStream out) throws IOException {
+        Integer errorCode = null;
+        String status = "";
+        String stackTrace = null;
+        String[][] rows = new String[0][];
+        boolean bufferOutput = false;
+        RUN_OUTPUT.set(out);
+        try {
+            // a new instance for each run, the class is loaded once
+            TalendJob job = newJob(jobClass);
+            setParentContext(job, readContext(parentContext));
+            rows = job.runJob(args);
+            errorCode = (Integer) invoke(job, "getErrorCode");
+            status = (String) invoke(job, "getStatus");
+            stackTrace = (String) invoke(job, "getExceptionStackTrace");
+            Boolean hasBufferOutput = (Boolean) invoke(job, "hastBufferOutputComponent");
+            bufferOutput = hasBufferOutput != null && hasBufferOutput;
+        } catch (Throwable e) {
+            errorCode = 1;
+            status = "failure";
+            StringWriter trace = new StringWriter();
+            e.printStackTrace(new PrintWriter(trace));
+            stackTrace = trace.toString();
+        } finally {
+            RUN_OUTPUT.remove();
+        }
+        synchronized (out) {
+            out.writeByte(RESULT);
+            out.writeBoolean(errorCode != null);
+            out.writeInt(errorCode == null ? 0 : errorCode);
+            writeString(out, status);
+            writeString(out, stackTrace);
+            out.writeBoolean(bufferOutput);
+            out.writeInt(rows == null ? 0 : rows.length);
+            if (rows != null) {
+                for (String[] row : rows) {
+                    out.writeInt(row.length);
+                    for (String value : row) {
+                        writeString(out, value);
+                    }
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the class is not a job, checked before it is initialized.
+     */
+    private static TalendJob newJob(String jobClass) throws Exception {
+        Class<?> cls = Class.forName(jobClass, false, JobRunner.class.getClassLoader());
+        if (!TalendJob.class.isAssignableFrom(cls)) {
+            throw new IllegalArgumentException(jobClass + " is not a job");
+        }
+        return (TalendJob) cls.getDeclaredConstructor().newInstance();
+    }
+
+    private static void setParentContext(TalendJob job, Map<String, Object> parentContext) throws Exception {
+        if (parentContext == null || parentContext.isEmpty()) {
+            return;
+        }
+        job.getClass().getField("parentContextMap").set(job, parentContext);
+    }
+
+    /**
+     * The context values which can't be serialized are left out, the child job takes them from its own context.
+     */
+    private static byte[] writeContext(Map<String, Object> context) throws IOException {
+        HashMap<String, Object> values = new HashMap<String, Object>();
+        if (context != null) {
+            for (Map.Entry<String, Object> entry : context.entrySet()) {
+                if (entry.getValue() == null || entry.getValue() instanceof Serializable) {
+                    values.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bytes);
+        try {
+            oos.writeObject(values);
+        } finally {
+            oos.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readContext(byte[] context) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(context));
+        try {
+            return (Map<String, Object>) ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private static Object invoke(Object job, String method) {
+        try {
+            Method getter = job.getClass().getMethod(method);
+            return getter.invoke(job);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void stop(int port) throws IOException {
+        String token = readToken(port);
+        Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+        try {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeUTF(token);
+            out.writeUTF(STOP);
+            out.flush();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /**
+     * System.out and System.err of the runner: the outputs of a run are sent to its client, the others written as
+     * usual.
+     */
+    private static class RunPrintStream extends PrintStream {
+
+        RunPrintStream(final PrintStream target, final byte type) {
+            super(new OutputStream() {
+
+                public void write(int b) throws IOException {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                public void write(byte[] b, int off, int len) throws IOException {
+                    DataOutputStream out = RUN_OUTPUT.get();
+                    if (out == null) {
+                        target.write(b, off, len);
+                        return;
+                    }
+                    synchronized (out) {
+                        out.writeByte(type);
+                        out.writeInt(len);
+                        out.write(b, off, len);
+                        out.flush();
+                    }
+                }
+
+                public void flush() {
+                    target.flush();
+                }
+            }, true);
+        }
+    }
+
+    /**
+     * Child job run by a runner, with the methods of a job used by tRunJob. If no runner listens on the port, the job
+     * runs in the current JVM.
+     */
+    public static class RemoteJob {
+
+        // the context transmitted to the child job, sent with the run
+        public java.util.Map<String, Object> parentContextMap = new java.util.HashMap<String, Object>();
+
+        private int port = DEFAULT_PORT;
+
+        private String jobClass;
+
+        private boolean fallback = true;
+
+        private Integer errorCode;
+
+        private String status = "";
+
+        private String stackTrace;
+
+        private boolean bufferOutput;
+
+        public void setJob(int port, String jobClass) {
+            this.port = port;
+            this.jobClass = jobClass;
+        }
+
+        /**
+         * Not sent, the runner opens its own connections.
+         */
+        public void setDataSources(java.util.Map<String, javax.sql.DataSource> dataSources) {
+        }
+
+        public String[][] runJob(String[] args) {
+            String token;
+            Socket socket;
+            try {
+                // no token file, no runner of this user
+                token = readToken(port);
+                socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+            } catch (IOException e) {
+                if (!fallback) {
+                    errorCode = 1;
+                    status = "failure";
+                    stackTrace = "No job runner on port " + port + ": " + e.getMessage();
+                    return new String[0][];
+                }
+                return runInProcess(args);
+            }
+            try {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeUTF(token);
+                out.writeUTF(RUN);
+                out.writeUTF(jobClass);
+                out.writeInt(args.length);
+                for (String arg : args) {
+                    out.writeUTF(arg);
+                }
+                byte[] parentContext = writeContext(parentContextMap);
+                out.writeInt(parentContext.length);
+                out.write(parentContext);
+                out.flush();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == RESULT) {
+                        break;
+                    }
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    (type == ERR ? System.err : System.out).write(bytes);
+                }
+                boolean hasErrorCode = in.readBoolean();
+                int code = in.readInt();
+                errorCode = hasErrorCode ? Integer.valueOf(code) : null;
+                status = readString(in);
+                stackTrace = readString(in);
+                bufferOutput = in.readBoolean();
+                String[][] rows = new String[in.readInt()][];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = new String[in.readInt()];
+                    for (int j = 0; j < rows[i].length; j++) {
+                        rows[i][j] = readString(in);
+                    }
+                }
+                return rows;
+            } catch (IOException e) {
+                errorCode = 1;
+                status = "failure";
+                stackTrace = "Job runner on port " + port + " failed: " + e.getMessage();
+                return new String[0][];
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignored
+                }
+            }
+        }
+
+        private String[][] runInProcess(String[] args) {
+            System.err.println("No job runner on port " + port + ", " + jobClass + " runs in the current JVM.");
+            try {
+                TalendJob job = newJob(jobClass);
+                setParentContext(job, parentContextMap);
+                String[][] rows = job.runJob(args);
+                errorCode = (Integer) invoke(job, "getErrorCode");
+                status = (String) invoke(job, "getStatus");
+                stackTrace = (String) invoke(job, "getExceptionStackTrace");
+                Boolean hasBufferOutput = (Boolean) invoke(job, "hastBufferOutputComponent");
+                bufferOutput = hasBufferOutput != null && hasBufferOutput;
+                return rows;
+            } catch (Exception e) {
+                errorCode = 1;
+                status = "failure";
+                StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                stackTrace = trace.toString();
+                return new String[0][];
+            }
+        }
+
+        public Integer getErrorCode() {
+            return errorCode;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getExceptionStackTrace() {
+            return stackTrace;
+        }
+
+        public boolean hastBufferOutputComponent() {
+            return bufferOutput;
+        }
+
+        /**
+         * @return the exit code of the job run from the command line.
+         */
+        int getExitCode() {
+            if (errorCode != null) {
+                return errorCode;
+            }
+            return "failure".equals(status) ? 1 : 0;
+        }
+    }
+}
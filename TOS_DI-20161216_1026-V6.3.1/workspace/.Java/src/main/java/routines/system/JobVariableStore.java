@@ -0,0 +1,121 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Typed job variables backed by the globalMap.
+ *
+ * A component asks once for the {@link Slot} of each variable it exposes (for example "tFileInputExcel_1_CURRENT_SHEET")
+ * and then writes to the slot from its row loop. A slot only writes to the globalMap when its value really changes
+ * ({@link Slot#put(Object)}), or keeps the value to itself until {@link #publish()} is called at the end of the subjob
+ * ({@link Slot#set(Object)}). Reading and writing a slot takes no lock, so in multi-thread mode the row loop no longer
+ * goes through the synchronized globalMap for every row.
+ */
+public class JobVariableStore {
+
+    private final Map<String, Object> globalMap;
+
+    private final ConcurrentMap<String, Slot<?>> slots = new ConcurrentHashMap<String, Slot<?>>();
+
+    public JobVariableStore(Map<String, Object> globalMap) {
+        this.globalMap = globalMap;
+    }
+
+    /**
+     * Returns the slot of a variable, created on first call. Slots are meant to be looked up once, before the row loop.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Slot<T> slot(String name) {
+        Slot<?> slot = slots.get(name);
+        if (slot == null) {
+            Slot<?> created = new Slot<T>(name, globalMap);
+            slot = slots.putIfAbsent(name, created);
+            if (slot == null) {
+                slot = created;
+            }
+        }
+        return (Slot<T>) slot;
+    }
+
+    /**
+     * Writes every slot which has a value not yet visible in the globalMap.
+     */
+    public void publish() {
+        for (Slot<?> slot : slots.values()) {
+            slot.publish();
+        }
+    }
+
+    public static class Slot<T> {
+
+        private static final Object NOT_SET = new Object();
+
+        private final String name;
+
+        private final Map<String, Object> globalMap;
+
+        private volatile Object value = NOT_SET;
+
+        private volatile Object published = NOT_SET;
+
+        Slot(String name, Map<String, Object> globalMap) {
+            this.name = name;
+            this.globalMap = globalMap;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get() {
+            Object current = value;
+            return current == NOT_SET ? (T) globalMap.get(name) : (T) current;
+        }
+
+        /**
+         * Sets the value and writes it to the globalMap only if it is different from the last published one.
+         *
+         * @return true if the globalMap was updated.
+         */
+        public boolean put(T newValue) {
+            value = newValue;
+            return publish();
+        }
+
+        /**
+         * Sets the value without touching the globalMap, it is written by the next {@link #publish()}.
+         */
+        public void set(T newValue) {
+            value = newValue;
+        }
+
+        boolean publish() {
+            Object current = value;
+            if (current == NOT_SET || same(current, published)) {
+                return false;
+            }
+            globalMap.put(name, current);
+            published = current;
+            return true;
+        }
+
+        private static boolean same(Object a, Object b) {
+            return a == b || (a != null && b != NOT_SET && a.equals(b));
+        }
+    }
+}
@@ -0,0 +1,730 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the rows of a JSON document as a tFileInputJSON does with JSONPath queries, without building the document.
+ *
+ * The loop query and the queries of the fields are compiled once into steps. The document is read token by token:
+ * the values which are not on the way to a row are skipped without being built, and a row only keeps the values of
+ * its fields, so that the memory does not depend on the size of the document.
+ *
+ * The queries are the definite JSONPath ones, made of <code>.name</code>, <code>['name']</code> and <code>[n]</code>
+ * steps, and the loop query can also use <code>[*]</code> and <code>.*</code>. When the loop query is definite and
+ * leads to an array, its elements are the rows. The value of a field is a String, a Boolean, an Integer, a Long, a
+ * BigInteger, a Double, null, or the compact JSON text of an object or an array.
+ */
+public class JsonPathStream implements Iterable<JsonPathStream.Row> {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Object MISSING = new Object();
+
+    /**
+     * The values of the fields of a row, valid until the next row is read.
+     */
+    public static class Row {
+
+        private final Object[] values;
+
+        Row(int fields) {
+            values = new Object[fields];
+        }
+
+        /**
+         * @return false if the query of the field does not lead to a value of the row.
+         */
+        public boolean has(int field) {
+            return values[field] != MISSING;
+        }
+
+        public Object get(int field) {
+            Object value = values[field];
+            return value == MISSING ? null : value;
+        }
+    }
+
+    // a step of a query, a name, an index or any
+    private static class Step {
+
+        final String name;
+
+        final int index;
+
+        Step(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        boolean isAny() {
+            return name == null && index < 0;
+        }
+
+        boolean matches(String key) {
+            return name == null ? index < 0 : name.equals(key);
+        }
+
+        boolean matches(int position) {
+            return name == null && (index < 0 || index == position);
+        }
+    }
+
+    // the queries of the fields, merged by their steps
+    private static class FieldNode {
+
+        int[] fields = new int[0];
+
+        Map<String, FieldNode> names;
+
+        Map<Integer, FieldNode> indexes;
+
+        FieldNode child(String name) {
+            return names == null ? null : names.get(name);
+        }
+
+        FieldNode child(int index) {
+            return indexes == null ? null : indexes.get(index);
+        }
+    }
+
+    // the text of a captured object or array, and of the ones around it
+    private static class Capture {
+
+        final StringBuilder text = new StringBuilder();
+
+        final Capture outer;
+
+        Capture(Capture outer) {
+            this.outer = outer;
+        }
+
+        void append(char c) {
+            for (Capture capture = this; capture != null; capture = capture.outer) {
+                capture.text.append(c);
+            }
+        }
+
+        void append(String s) {
+            for (Capture capture = this; capture != null; capture = capture.outer) {
+                capture.text.append(s);
+            }
+        }
+    }
+
+    // an object or an array on the way to the rows
+    private static class Frame {
+
+        final boolean object;
+
+        // steps of the loop query matched by the container
+        final int depth;
+
+        // the elements are the rows
+        final boolean rows;
+
+        int position;
+
+        boolean first = true;
+
+        Frame(boolean object, int depth, boolean rows) {
+            this.object = object;
+            this.depth = depth;
+            this.rows = rows;
+        }
+    }
+
+    private final Step[] loop;
+
+    private final boolean definiteLoop;
+
+    private final FieldNode fields;
+
+    private final Row row;
+
+    private final List<Frame> frames = new ArrayList<Frame>();
+
+    private Reader reader;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    private long consumed;
+
+    private boolean started;
+
+    private boolean finished;
+
+    private boolean rowRead;
+
+    // the document is malformed after the previous row
+    private RuntimeException error;
+
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * @param loopQuery the query of the rows.
+     * @param fieldQueries the queries of the fields, relative to a row.
+     * @throws IllegalArgumentException if a query is not supported.
+     */
+    public JsonPathStream(String loopQuery, String[] fieldQueries) {
+        List<Step> loopSteps = parse(loopQuery, true);
+        this.loop = loopSteps.toArray(new Step[loopSteps.size()]);
+        boolean definite = true;
+        for (Step step : loop) {
+            definite &= !step.isAny();
+        }
+        this.definiteLoop = definite;
+        this.fields = new FieldNode();
+        for (int i = 0; i < fieldQueries.length; i++) {
+            FieldNode node = fields;
+            for (Step step : parse(fieldQueries[i], false)) {
+                if (step.name != null) {
+                    if (node.names == null) {
+                        node.names = new HashMap<String, FieldNode>();
+                    }
+                    FieldNode child = node.names.get(step.name);
+                    if (child == null) {
+                        child = new FieldNode();
+                        node.names.put(step.name, child);
+                    }
+                    node = child;
+                } else {
+                    if (node.indexes == null) {
+                        node.indexes = new HashMap<Integer, FieldNode>();
+                    }
+                    FieldNode child = node.indexes.get(step.index);
+                    if (child == null) {
+                        child = new FieldNode();
+                        node.indexes.put(step.index, child);
+                    }
+                    node = child;
+                }
+            }
+            node.fields = Arrays.copyOf(node.fields, node.fields.length + 1);
+            node.fields[node.fields.length - 1] = i;
+        }
+        this.row = new Row(fieldQueries.length);
+    }
+
+    /**
+     * Starts reading a document, closed by {@link #close()}.
+     */
+    public void open(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the rows, the same {@link Row} refilled for each of them. When the document is malformed after a row, the
+     * error takes the place of the next row: {@link #checkError()} then throws it.
+     */
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+
+            public boolean hasNext() {
+                if (!rowRead && error == null) {
+                    try {
+                        rowRead = nextRow();
+                    } catch (RuntimeException e) {
+                        finished = true;
+                        error = e;
+                    }
+                }
+                return rowRead || error != null;
+            }
+
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                rowRead = false;
+                return row;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @throws RuntimeException if the document is malformed after the previous row, once.
+     */
+    public void checkError() {
+        RuntimeException e = error;
+        error = null;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    public void close() throws IOException {
+        finished = true;
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    // reads the next row
+    private boolean nextRow() {
+        if (finished || reader == null) {
+            return false;
+        }
+        try {
+            if (!started) {
+                started = true;
+                if (matched(0)) {
+                    return true;
+                }
+            }
+            while (!frames.isEmpty()) {
+                Frame frame = frames.get(frames.size() - 1);
+                char c = peek();
+                if (c == (frame.object ? '}' : ']')) {
+                    position++;
+                    frames.remove(frames.size() - 1);
+                    continue;
+                }
+                if (!frame.first) {
+                    expect(',');
+                }
+                frame.first = false;
+                if (frame.rows) {
+                    frame.position++;
+                    readRow();
+                    return true;
+                }
+                Step step = loop[frame.depth];
+                boolean matches;
+                if (frame.object) {
+                    String key = readString();
+                    expect(':');
+                    matches = step.matches(key);
+                } else {
+                    matches = step.matches(frame.position++);
+                }
+                if (!matches) {
+                    skipValue();
+                } else if (matched(frame.depth + 1)) {
+                    return true;
+                }
+            }
+            finished = true;
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // the next value matches the first steps of the loop query, returns true if it is a row
+    private boolean matched(int depth) throws IOException {
+        char c = peek();
+        if (depth == loop.length) {
+            if (definiteLoop && c == '[') {
+                position++;
+                frames.add(new Frame(false, depth, true));
+                return false;
+            }
+            readRow();
+            return true;
+        }
+        if (c == '{' || c == '[') {
+            position++;
+            frames.add(new Frame(c == '{', depth, false));
+        } else {
+            skipValue();
+        }
+        return false;
+    }
+
+    private void readRow() throws IOException {
+        Arrays.fill(row.values, MISSING);
+        readValue(fields, null);
+    }
+
+    // reads a value of a row, keeping the ones of the fields
+    private void readValue(FieldNode node, Capture outer) throws IOException {
+        if (node == null && outer == null) {
+            skipValue();
+            return;
+        }
+        char c = peek();
+        if (c == '{' || c == '[') {
+            Capture capture = outer;
+            if (node != null && node.fields.length > 0) {
+                capture = new Capture(outer);
+            }
+            position++;
+            if (capture != null) {
+                capture.append(c);
+            }
+            boolean first = true;
+            int index = 0;
+            char end = c == '{' ? '}' : ']';
+            while (peek() != end) {
+                if (!first) {
+                    expect(',');
+                    if (capture != null) {
+                        capture.append(',');
+                    }
+                }
+                first = false;
+                FieldNode child;
+                if (c == '{') {
+                    String key = readString();
+                    expect(':');
+                    if (capture != null) {
+                        appendQuoted(capture, key);
+                        capture.append(':');
+                    }
+                    child = node == null ? null : node.child(key);
+                } else {
+                    child = node == null ? null : node.child(index);
+                }
+                index++;
+                readValue(child, capture);
+            }
+            position++;
+            if (capture != null) {
+                capture.append(end);
+            }
+            if (capture != outer) {
+                set(node, capture.text.toString());
+            }
+            return;
+        }
+        Object value;
+        if (c == '"') {
+            String s = readString();
+            if (outer != null) {
+                appendQuoted(outer, s);
+            }
+            value = s;
+        } else {
+            value = readLiteral();
+            if (outer != null) {
+                outer.append(String.valueOf(value));
+            }
+        }
+        if (node != null) {
+            set(node, value);
+        }
+    }
+
+    private void set(FieldNode node, Object value) {
+        for (int field : node.fields) {
+            row.values[field] = value;
+        }
+    }
+
+    private static void appendQuoted(Capture capture, String s) {
+        StringBuilder quoted = new StringBuilder(s.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                quoted.append("\\\"");
+                break;
+            case '\\':
+                quoted.append("\\\\");
+                break;
+            case '\b':
+                quoted.append("\\b");
+                break;
+            case '\f':
+                quoted.append("\\f");
+                break;
+            case '\n':
+                quoted.append("\\n");
+                break;
+            case '\r':
+                quoted.append("\\r");
+                break;
+            case '\t':
+                quoted.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    String hex = Integer.toHexString(c);
+                    quoted.append("\\u");
+                    for (int k = hex.length(); k < 4; k++) {
+                        quoted.append('0');
+                    }
+                    quoted.append(hex);
+                } else {
+                    quoted.append(c);
+                }
+            }
+        }
+        quoted.append('"');
+        capture.append(quoted.toString());
+    }
+
+    // tokens
+
+    // the next char which is not a white space, not consumed
+    private char peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("Unexpected end of the document");
+            }
+            char c = buffer[position];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private char nextChar() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("Unexpected end of the document");
+        }
+        return buffer[position++];
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        // without escape nor refill, the string is taken from the buffer
+        for (int i = position; i < limit; i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                String s = new String(buffer, position, i - position);
+                position = i + 1;
+                return s;
+            } else if (c == '\\') {
+                break;
+            }
+        }
+        scratch.setLength(0);
+        while (true) {
+            char c = nextChar();
+            if (c == '"') {
+                return scratch.toString();
+            } else if (c != '\\') {
+                scratch.append(c);
+                continue;
+            }
+            c = nextChar();
+            switch (c) {
+            case 'b':
+                scratch.append('\b');
+                break;
+            case 'f':
+                scratch.append('\f');
+                break;
+            case 'n':
+                scratch.append('\n');
+                break;
+            case 'r':
+                scratch.append('\r');
+                break;
+            case 't':
+                scratch.append('\t');
+                break;
+            case 'u':
+                int code = 0;
+                for (int k = 0; k < 4; k++) {
+                    int digit = Character.digit(nextChar(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    code = (code << 4) | digit;
+                }
+                scratch.append((char) code);
+                break;
+            default:
+                scratch.append(c);
+            }
+        }
+    }
+
+    // a number, true, false or null
+    private Object readLiteral() throws IOException {
+        scratch.setLength(0);
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                break;
+            }
+            scratch.append(c);
+            position++;
+        }
+        String literal = scratch.toString();
+        if ("true".equals(literal)) {
+            return Boolean.TRUE;
+        } else if ("false".equals(literal)) {
+            return Boolean.FALSE;
+        } else if ("null".equals(literal)) {
+            return null;
+        }
+        try {
+            if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+                BigInteger value = new BigInteger(literal);
+                if (value.bitLength() < 32) {
+                    return Integer.valueOf(value.intValue());
+                } else if (value.bitLength() < 64) {
+                    return Long.valueOf(value.longValue());
+                }
+                return value;
+            }
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            throw error("Invalid value \"" + literal + "\"");
+        }
+    }
+
+    // skips a value without building it
+    private void skipValue() throws IOException {
+        char c = peek();
+        if (c == '"') {
+            position++;
+            while (true) {
+                char s = nextChar();
+                if (s == '"') {
+                    return;
+                } else if (s == '\\') {
+                    nextChar();
+                }
+            }
+        } else if (c == '{' || c == '[') {
+            int level = 0;
+            while (true) {
+                char s = nextChar();
+                if (s == '"') {
+                    position--;
+                    skipValue();
+                } else if (s == '{' || s == '[') {
+                    level++;
+                } else if (s == '}' || s == ']') {
+                    if (--level == 0) {
+                        return;
+                    }
+                }
+            }
+        } else {
+            readLiteral();
+        }
+    }
+
+    private RuntimeException error(String message) {
+        return new RuntimeException(message + " at character " + (consumed + position) + " of the JSON document");
+    }
+
+    // queries
+
+    private static List<Step> parse(String query, boolean loop) {
+        String q = query == null ? "" : query.trim();
+        List<Step> steps = new ArrayList<Step>();
+        int i = 0;
+        if (q.startsWith("$") || q.startsWith("@")) {
+            i = 1;
+        } else if (q.length() > 0 && q.charAt(0) != '[') {
+            // relative as in JsonPath.compile
+            q = "." + q;
+        }
+        while (i < q.length()) {
+            char c = q.charAt(i);
+            if (c == '.') {
+                if (q.startsWith("..", i)) {
+                    throw unsupported(query);
+                }
+                int end = i + 1;
+                while (end < q.length() && q.charAt(end) != '.' && q.charAt(end) != '[') {
+                    end++;
+                }
+                String name = q.substring(i + 1, end).trim();
+                if (name.length() == 0 || name.indexOf('(') >= 0) {
+                    throw unsupported(query);
+                }
+                steps.add("*".equals(name) ? new Step(null, -1) : new Step(name, -1));
+                i = end;
+            } else if (c == '[') {
+                int end = q.indexOf(']', i);
+                if (end < 0) {
+                    throw unsupported(query);
+                }
+                String inner = q.substring(i + 1, end).trim();
+                if (inner.length() >= 2 && (inner.charAt(0) == '\'' || inner.charAt(0) == '"')
+                        && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+                    steps.add(new Step(inner.substring(1, inner.length() - 1), -1));
+                } else if ("*".equals(inner)) {
+                    steps.add(new Step(null, -1));
+                } else {
+                    try {
+                        int index = Integer.parseInt(inner);
+                        if (index < 0) {
+                            throw unsupported(query);
+                        }
+                        steps.add(new Step(null, index));
+                    } catch (NumberFormatException e) {
+                        throw unsupported(query);
+                    }
+                }
+                i = end + 1;
+            } else {
+                throw unsupported(query);
+            }
+        }
+        if (!loop) {
+            for (Step step : steps) {
+                if (step.isAny()) {
+                    throw unsupported(query);
+                }
+            }
+        }
+        return steps;
+    }
+
+    private static IllegalArgumentException unsupported(String query) {
+        return new IllegalArgumentException("The JSONPath query " + query + " is not supported by the streaming reader");
+    }
+}
@@ -81,26 +81,78 @@ public class LogCatcherUtils {
         }
     }
 
-    java.util.List<LogCatcherMessage> messages = java.util.Collections
-            .synchronizedList(new java.util.ArrayList<LogCatcherMessage>());
+    EventPipeline<LogCatcherMessage> messages;
+
+    // messages taken for the other threads
+    private final java.util.List<LogCatcherMessage> otherThreads = new java.util.ArrayList<LogCatcherMessage>();
+
+    public LogCatcherUtils() {
+        this(EventPipeline.DEFAULT_CAPACITY, EventPipeline.BLOCK);
+    }
+
+    /**
+     * @param capacity the messages waiting for an asynchronous delivery.
+     * @param policy {@link EventPipeline#BLOCK} or {@link EventPipeline#DROP} when they are too many.
+     */
+    public LogCatcherUtils(int capacity, String policy) {
+        this.messages = new EventPipeline<LogCatcherMessage>(capacity, policy);
+    }
 
     public void addMessage(String type, String origin, int priority, String message, int code) {
         LogCatcherMessage lcm = new LogCatcherMessage(type, origin, priority, message, code);
-        messages.add(lcm);
+        messages.offer(lcm);
     }
 
+    /**
+     * @return the messages of the current thread, or all of them from the delivery thread.
+     */
     public java.util.List<LogCatcherMessage> getMessages() {
+        java.util.List<LogCatcherMessage> taken = messages.drain();
+        if (messages.isDrainerThread()) {
+            synchronized (otherThreads) {
+                taken.addAll(0, otherThreads);
+                otherThreads.clear();
+            }
+            return taken;
+        }
         java.util.List<LogCatcherMessage> messagesToSend = new java.util.ArrayList<LogCatcherMessage>();
-        synchronized (messages) {
-            for (int index=0;index < messages.size();index++) {
-            	LogCatcherMessage lcm = messages.get(index);
-            	if(Thread.currentThread().getId() == lcm.getThreadId()){
-            		messagesToSend.add(lcm);
-            		messages.remove(index);
-            	}
+        long threadId = Thread.currentThread().getId();
+        synchronized (otherThreads) {
+            otherThreads.addAll(taken);
+            for (java.util.Iterator<LogCatcherMessage> it = otherThreads.iterator(); it.hasNext();) {
+                LogCatcherMessage lcm = it.next();
+                if (threadId == lcm.getThreadId()) {
+                    messagesToSend.add(lcm);
+                    it.remove();
+                }
             }
         }
-
         return messagesToSend;
     }
+
+    /**
+     * Delivers the messages from a background thread: <code>catcherSubjob</code> runs the subjob of the tLogCatcher
+     * there, and {@link #isDeferred()} tells the other threads not to run it.
+     */
+    public void startDelivery(Runnable catcherSubjob) {
+        messages.start(catcherSubjob);
+    }
+
+    /**
+     * @return true if the subjob of the tLogCatcher is run by the delivery thread, not by the current one.
+     */
+    public boolean isDeferred() {
+        return messages.isStarted() && !messages.isDrainerThread();
+    }
+
+    /**
+     * Waits for the messages to be delivered and stops the delivery thread.
+     */
+    public void stopDelivery() {
+        messages.close();
+    }
+
+    public long getDroppedMessages() {
+        return messages.getDropped();
+    }
 }
@@ -0,0 +1,171 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+/**
+ * Hash map with primitive long keys (open addressing, linear probing), for lookups keyed on a {@link GeoFingerprint} or
+ * any other long: no Long boxing on put/get and two arrays instead of one entry object per key.
+ *
+ * Not thread-safe for writes; once loaded it can be read by several threads.
+ */
+public class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private boolean[] used;
+
+    private int size;
+
+    private int threshold;
+
+    // the null key can't be told apart from a free slot, key 0 is kept aside
+    private boolean hasZeroKey;
+
+    private Object zeroValue;
+
+    public LongObjectMap() {
+        this(1024);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor((int) Math.min(1 << 30, (long) (Math.max(expectedSize, 16) / LOAD_FACTOR) + 1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? (V) zeroValue : null;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the previous value of the key, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Puts the value only if the key has none.
+     *
+     * @return the value already associated to the key, or null if the value has been put.
+     */
+    public V putIfAbsent(long key, V value) {
+        V current = get(key);
+        if (current == null) {
+            put(key, value);
+        }
+        return current;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(used, false);
+        java.util.Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldUsed[j]) {
+                int i = mix(oldKeys[j]) & mask;
+                while (used[i]) {
+                    i = (i + 1) & mask;
+                }
+                used[i] = true;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int n) {
+        int capacity = Integer.highestOneBit(Math.max(n - 1, 1)) << 1;
+        return Math.max(16, capacity);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
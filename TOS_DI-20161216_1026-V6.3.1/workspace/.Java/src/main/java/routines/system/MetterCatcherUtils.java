@@ -24,8 +24,9 @@ package routines.system;
 import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MetterCatcherUtils {
 
@@ -51,10 +52,10 @@ public class MetterCatcherUtils {
 
         public MetterCatcherMessage(String label, Integer count, String referense, String thresholds, String origin,
                 String jobVersion, String jobId) {
-            this.moment = java.util.Calendar.getInstance().getTime();
+            this.moment = new Date();
             this.jobVersion = jobVersion;
             this.jobId = jobId;
-            this.systemPid = MetterCatcherUtils.getPid();
+            this.systemPid = PID;
             this.origin = origin;
 
             this.label = label;
@@ -136,54 +137,87 @@ public class MetterCatcherUtils {
         }
     }
 
-    java.util.List<MetterCatcherMessage> messages = java.util.Collections
-            .synchronizedList(new java.util.ArrayList<MetterCatcherMessage>());
+    private static final Long PID = getPid();
+
+    EventPipeline<MetterCatcherMessage> messages;
 
     String jobId = ""; //$NON-NLS-1$
 
     String jobVersion = ""; //$NON-NLS-1$
 
     public MetterCatcherUtils(String jobId, String jobVersion) {
+        this(jobId, jobVersion, EventPipeline.DEFAULT_CAPACITY, EventPipeline.BLOCK);
+    }
+
+    /**
+     * @param capacity the messages waiting for an asynchronous delivery.
+     * @param policy {@link EventPipeline#BLOCK} or {@link EventPipeline#DROP} when they are too many.
+     */
+    public MetterCatcherUtils(String jobId, String jobVersion, int capacity, String policy) {
         this.jobId = jobId;
         this.jobVersion = jobVersion;
+        this.messages = new EventPipeline<MetterCatcherMessage>(capacity, policy);
     }
 
     public void addMessage(String label, Integer count, String referense, String thresholds, String origin) {
 
         MetterCatcherMessage scm = new MetterCatcherMessage(label, count, referense, thresholds, origin, this.jobVersion,
                 this.jobId);
-        messages.add(scm);
+        messages.offer(scm);
     }
 
     public java.util.List<MetterCatcherMessage> getMessages() {
+        return messages.drain();
+    }
 
-        java.util.List<MetterCatcherMessage> messagesToSend = new java.util.ArrayList<MetterCatcherMessage>();
-        synchronized (messages) {
-            for (MetterCatcherMessage scm : messages) {
-                messagesToSend.add(scm);
-            }
-            messages.clear();
-        }
-        return messagesToSend;
+    /**
+     * Delivers the messages from a background thread: <code>catcherSubjob</code> runs the subjob of the
+     * tFlowMeterCatcher there, and {@link #isDeferred()} tells the other threads not to run it.
+     */
+    public void startDelivery(Runnable catcherSubjob) {
+        messages.start(catcherSubjob);
+    }
+
+    /**
+     * @return true if the subjob of the tFlowMeterCatcher is run by the delivery thread, not by the current one.
+     */
+    public boolean isDeferred() {
+        return messages.isStarted() && !messages.isDrainerThread();
+    }
+
+    /**
+     * Waits for the messages to be delivered and stops the delivery thread.
+     */
+    public void stopDelivery() {
+        messages.close();
     }
 
-    private Map<String, Integer> connCountMap = java.util.Collections.synchronizedMap(new HashMap<String, Integer>());
+    public long getDroppedMessages() {
+        return messages.getDropped();
+    }
+
+    // counted for each row, without locking
+    private ConcurrentMap<String, AtomicInteger> connCountMap = new ConcurrentHashMap<String, AtomicInteger>();
 
     public void clearConnCountMap() {
         connCountMap.clear();
     }
 
     public void addLineToRow(String connName) {
-        if (connCountMap.containsKey(connName)) {
-            Integer count = this.connCountMap.get(connName);
-            this.connCountMap.put(connName, new Integer(count.intValue() + 1));
-        } else {
-            this.connCountMap.put(connName, new Integer(1));
+        AtomicInteger count = connCountMap.get(connName);
+        if (count == null) {
+            AtomicInteger created = new AtomicInteger();
+            count = connCountMap.putIfAbsent(connName, created);
+            if (count == null) {
+                count = created;
+            }
         }
+        count.incrementAndGet();
     }
 
     public Integer getConnLinesCount(String connName) {
-        return this.connCountMap.get(connName);
+        AtomicInteger count = this.connCountMap.get(connName);
+        return count == null ? null : Integer.valueOf(count.get());
     }
 
     public static long getPid() {
@@ -0,0 +1,328 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Sorts the rows of a tSortRow in memory on normalized keys instead of comparing their columns.
+ *
+ * Each row writes its sort columns once into a fixed number of 64 bits words, so that comparing the words as unsigned
+ * numbers gives the order of the rows: the numbers are made unsigned, the nulls come first, a descending column is
+ * complemented. The keys are sorted by a stable least significant digit radix sort, one pass per byte of the keys,
+ * skipping the bytes which are the same for all the rows.
+ *
+ * A column which does not fit in the words, a string or a decimal, only writes a prefix and the following columns are
+ * ignored: the rows with the same key are then sorted again with their own {@link Comparable#compareTo(Object)}.
+ */
+public class NormalizedKeySorter {
+
+    public static final int MAX_WORDS = 4;
+
+    // fewer rows are sorted by Arrays.sort
+    private static final int MIN_RADIX_ROWS = 256;
+
+    /**
+     * A row which writes its sort columns, in the order of the criteria.
+     */
+    public interface Keyed {
+
+        void sortKey(Keys keys);
+    }
+
+    /**
+     * The key of a row, written from the most significant bit.
+     */
+    public static class Keys {
+
+        private final long[] words;
+
+        private final int capacity;
+
+        private int bit;
+
+        private boolean truncated;
+
+        Keys(int words) {
+            this.words = new long[words];
+            this.capacity = words * 64;
+        }
+
+        void reset() {
+            Arrays.fill(words, 0L);
+            bit = 0;
+            truncated = false;
+        }
+
+        public void put(boolean value, boolean desc) {
+            bits(value ? 1L : 0L, 1, desc);
+        }
+
+        public void put(Boolean value, boolean desc) {
+            if (nullBit(value == null, 1, desc)) {
+                put(value.booleanValue(), desc);
+            }
+        }
+
+        public void put(byte value, boolean desc) {
+            bits(value ^ 0x80L, 8, desc);
+        }
+
+        public void put(Byte value, boolean desc) {
+            if (nullBit(value == null, 8, desc)) {
+                put(value.byteValue(), desc);
+            }
+        }
+
+        public void put(short value, boolean desc) {
+            bits(value ^ 0x8000L, 16, desc);
+        }
+
+        public void put(Short value, boolean desc) {
+            if (nullBit(value == null, 16, desc)) {
+                put(value.shortValue(), desc);
+            }
+        }
+
+        public void put(char value, boolean desc) {
+            bits(value, 16, desc);
+        }
+
+        public void put(Character value, boolean desc) {
+            if (nullBit(value == null, 16, desc)) {
+                put(value.charValue(), desc);
+            }
+        }
+
+        public void put(int value, boolean desc) {
+            bits(value ^ 0x80000000L, 32, desc);
+        }
+
+        public void put(Integer value, boolean desc) {
+            if (nullBit(value == null, 32, desc)) {
+                put(value.intValue(), desc);
+            }
+        }
+
+        public void put(long value, boolean desc) {
+            bits(value ^ Long.MIN_VALUE, 64, desc);
+        }
+
+        public void put(Long value, boolean desc) {
+            if (nullBit(value == null, 64, desc)) {
+                put(value.longValue(), desc);
+            }
+        }
+
+        public void put(float value, boolean desc) {
+            // -0.0 and 0.0 are equal for the primitive comparison
+            putFloatBits(Float.floatToIntBits(value + 0.0f), desc);
+        }
+
+        public void put(Float value, boolean desc) {
+            if (nullBit(value == null, 32, desc)) {
+                putFloatBits(Float.floatToIntBits(value.floatValue()), desc);
+            }
+        }
+
+        public void put(double value, boolean desc) {
+            putDoubleBits(Double.doubleToLongBits(value + 0.0d), desc);
+        }
+
+        public void put(Double value, boolean desc) {
+            if (nullBit(value == null, 64, desc)) {
+                putDoubleBits(Double.doubleToLongBits(value.doubleValue()), desc);
+            }
+        }
+
+        public void put(Date value, boolean desc) {
+            if (nullBit(value == null, 64, desc)) {
+                put(value.getTime(), desc);
+            }
+        }
+
+        /**
+         * Writes the value rounded to a double, the rows are sorted again on the decimals.
+         */
+        public void put(BigDecimal value, boolean desc) {
+            if (nullBit(value == null, 64, desc)) {
+                putDoubleBits(Double.doubleToLongBits(value.doubleValue()), desc);
+            }
+            truncated = true;
+        }
+
+        /**
+         * Writes the first chars of the value in the rest of the key, the rows are sorted again on the strings.
+         */
+        public void put(String value, boolean desc) {
+            if (truncated) {
+                return;
+            }
+            int start = bit;
+            if (value != null) {
+                bits(1L, 1, false);
+                for (int i = 0; i < value.length() && bit < capacity; i++) {
+                    bits(value.charAt(i), 16, false);
+                }
+            }
+            if (desc) {
+                // the padding too, a string comes after the longer ones it starts
+                complement(start, capacity);
+            }
+            bit = capacity;
+            truncated = true;
+        }
+
+        private void putFloatBits(int bits, boolean desc) {
+            bits((bits < 0 ? ~bits : bits ^ 0x80000000) & 0xFFFFFFFFL, 32, desc);
+        }
+
+        private void putDoubleBits(long bits, boolean desc) {
+            bits(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE, 64, desc);
+        }
+
+        // returns true if the value follows, a null is followed by zeros
+        private boolean nullBit(boolean isNull, int width, boolean desc) {
+            if (isNull) {
+                bits(0L, 1, desc);
+                bits(0L, width, desc);
+                return false;
+            }
+            bits(1L, 1, desc);
+            return true;
+        }
+
+        private void bits(long value, int width, boolean desc) {
+            if (truncated) {
+                return;
+            }
+            if (desc) {
+                value = ~value;
+            }
+            while (width > 0 && bit < capacity) {
+                int free = 64 - (bit & 63);
+                int n = Math.min(width, free);
+                long chunk = (value >>> (width - n)) & (n == 64 ? -1L : (1L << n) - 1);
+                words[bit >>> 6] |= chunk << (free - n);
+                bit += n;
+                width -= n;
+            }
+            if (width > 0) {
+                truncated = true;
+            }
+        }
+
+        private void complement(int from, int to) {
+            for (int i = from; i < to; i++) {
+                words[i >>> 6] ^= 1L << (63 - (i & 63));
+            }
+        }
+    }
+
+    /**
+     * Sorts <code>rows</code>, all {@link Keyed} and {@link Comparable}, in the order of their compareTo. The sort is
+     * stable.
+     *
+     * @param words the words of the keys, up to {@link #MAX_WORDS}, 0 if the rows have no key.
+     */
+    public static void sort(Object[] rows, int words) {
+        int n = rows.length;
+        if (words <= 0 || n < MIN_RADIX_ROWS) {
+            Arrays.sort(rows);
+            return;
+        }
+        words = Math.min(MAX_WORDS, words);
+        long[] keys = new long[n * words];
+        Keys key = new Keys(words);
+        boolean exact = true;
+        for (int i = 0; i < n; i++) {
+            key.reset();
+            ((Keyed) rows[i]).sortKey(key);
+            System.arraycopy(key.words, 0, keys, i * words, words);
+            exact &= !key.truncated;
+        }
+
+        int digits = words * 8;
+        int[][] counts = new int[digits][256];
+        for (int i = 0; i < n; i++) {
+            int base = i * words;
+            for (int d = 0; d < digits; d++) {
+                counts[d][digit(keys[base + (d >>> 3)], d)]++;
+            }
+        }
+
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        int[] indexTo = new int[n];
+        long[] keysTo = new long[keys.length];
+        for (int d = digits - 1; d >= 0; d--) {
+            int[] count = counts[d];
+            if (count[digit(keys[d >>> 3], d)] == n) {
+                // the same byte for all the rows
+                continue;
+            }
+            int[] offsets = new int[256];
+            for (int b = 1; b < 256; b++) {
+                offsets[b] = offsets[b - 1] + count[b - 1];
+            }
+            int word = d >>> 3;
+            for (int i = 0; i < n; i++) {
+                int to = offsets[digit(keys[i * words + word], d)]++;
+                indexTo[to] = index[i];
+                System.arraycopy(keys, i * words, keysTo, to * words, words);
+            }
+            int[] swapIndex = index;
+            index = indexTo;
+            indexTo = swapIndex;
+            long[] swapKeys = keys;
+            keys = keysTo;
+            keysTo = swapKeys;
+        }
+
+        Object[] sorted = new Object[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = rows[index[i]];
+        }
+        System.arraycopy(sorted, 0, rows, 0, n);
+
+        if (!exact) {
+            // the rows with the same prefix
+            int from = 0;
+            for (int i = 1; i <= n; i++) {
+                if (i == n || !sameKey(keys, from, i, words)) {
+                    if (i - from > 1) {
+                        Arrays.sort(rows, from, i);
+                    }
+                    from = i;
+                }
+            }
+        }
+    }
+
+    private static int digit(long word, int d) {
+        return (int) (word >>> (56 - ((d & 7) << 3))) & 0xFF;
+    }
+
+    private static boolean sameKey(long[] keys, int row1, int row2, int words) {
+        for (int w = 0; w < words; w++) {
+            if (keys[row1 * words + w] != keys[row2 * words + w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,386 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A zip or gzip archive read like a {@link ZipInputStream}: {@link #getNextEntry()} then the bytes of the entry, but
+ * the entries are inflated by background threads into bounded queues of byte blocks, the reader of the flow only
+ * parses.
+ *
+ * The entries of a zip file are inflated concurrently, up to <code>threads</code> at a time, in the order of the
+ * archive, so the next entries are ready when the current one is parsed. A stream or a gzip file has a single
+ * inflater thread. A file which is not compressed is read as a single entry.
+ */
+public class ParallelArchiveInputStream extends InputStream {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    // blocks of an entry inflated ahead of the reader
+    private static final int QUEUE_BLOCKS = 16;
+
+    private static final byte[] END = new byte[0];
+
+    private final List<Entry> entries = new ArrayList<Entry>();
+
+    private final ExecutorService executor;
+
+    private ZipFile zipFile;
+
+    // the entries of a zip stream, known as they are read
+    private BlockingQueue<Entry> streamEntries;
+
+    private int entryIndex = -1;
+
+    private Entry current;
+
+    private byte[] block;
+
+    private int position;
+
+    private volatile boolean closed;
+
+    /**
+     * @param threads the entries inflated at a time, the number of processors if 0 or less.
+     */
+    public ParallelArchiveInputStream(File file, int threads) throws IOException {
+        executor = executor(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        int magic = magic(file);
+        if (magic == 0x504B) {
+            zipFile = new ZipFile(file);
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry zipEntry = zipEntries.nextElement();
+                final Entry entry = new Entry(zipEntry);
+                entries.add(entry);
+                if (!zipEntry.isDirectory()) {
+                    final ZipEntry source = zipEntry;
+                    executor.execute(new Runnable() {
+
+                        public void run() {
+                            try {
+                                inflate(zipFile.getInputStream(source), entry);
+                            } catch (IOException e) {
+                                entry.fail(e);
+                            }
+                        }
+                    });
+                }
+            }
+            executor.shutdown();
+        } else {
+            String name = file.getName();
+            InputStream in = new FileInputStream(file);
+            if (magic == 0x1F8B) {
+                in = new GZIPInputStream(in, BLOCK_SIZE);
+                name = name.toLowerCase().endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+            }
+            single(in, name);
+        }
+    }
+
+    /**
+     * @param in a zip, gzip or plain stream, read by a single inflater thread whatever <code>threads</code>.
+     */
+    public ParallelArchiveInputStream(InputStream in, int threads) throws IOException {
+        executor = executor(1);
+        BufferedInputStream buffered = in instanceof BufferedInputStream ? (BufferedInputStream) in
+                : new BufferedInputStream(in, BLOCK_SIZE);
+        buffered.mark(2);
+        int magic = (buffered.read() << 8) | buffered.read();
+        buffered.reset();
+        if (magic == 0x504B) {
+            final ZipInputStream zis = new ZipInputStream(buffered);
+            final BlockingQueue<Entry> queue = new LinkedBlockingQueue<Entry>();
+            executor.execute(new Runnable() {
+
+                public void run() {
+                    Entry entry = null;
+                    try {
+                        ZipEntry zipEntry;
+                        while ((zipEntry = zis.getNextEntry()) != null) {
+                            entry = new Entry(zipEntry);
+                            queue.offer(entry);
+                            if (!zipEntry.isDirectory()) {
+                                inflate(zis, entry);
+                            }
+                        }
+                        queue.offer(new Entry(null));
+                    } catch (IOException e) {
+                        if (entry != null) {
+                            entry.fail(e);
+                        }
+                        Entry failed = new Entry(null);
+                        failed.fail(e);
+                        queue.offer(failed);
+                    } finally {
+                        try {
+                            zis.close();
+                        } catch (IOException e) {
+                            // nothing to do
+                        }
+                    }
+                }
+            });
+            executor.shutdown();
+            streamEntries = queue;
+        } else {
+            single(magic == 0x1F8B ? new GZIPInputStream(buffered, BLOCK_SIZE) : buffered, "");
+        }
+    }
+
+    /**
+     * Skips the rest of the current entry.
+     *
+     * @return the next entry, null at the end of the archive.
+     */
+    public ZipEntry getNextEntry() throws IOException {
+        ensureOpen();
+        if (current != null) {
+            current.discard();
+        }
+        current = null;
+        block = null;
+        if (streamEntries != null) {
+            try {
+                current = streamEntries.take();
+            } catch (InterruptedException e) {
+                throw new java.io.InterruptedIOException();
+            }
+            if (current.zipEntry == null) {
+                streamEntries.offer(current);
+                current.check();
+                current = null;
+                return null;
+            }
+        } else if (++entryIndex < entries.size()) {
+            current = entries.get(entryIndex);
+        } else {
+            entryIndex = entries.size();
+            return null;
+        }
+        if (current.zipEntry.isDirectory()) {
+            current.finished = true;
+        }
+        return current.zipEntry;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return block[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return block == null ? 0 : block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.shutdownNow();
+        for (Entry entry : entries) {
+            entry.discard();
+        }
+        if (current != null) {
+            current.discard();
+        }
+        if (zipFile != null) {
+            zipFile.close();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        ensureOpen();
+        if (current == null || current.finished) {
+            return false;
+        }
+        while (block == null || position == block.length) {
+            byte[] next = current.take();
+            if (next == END) {
+                current.finished = true;
+                block = null;
+                return false;
+            }
+            block = next;
+            position = 0;
+        }
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void single(final InputStream in, String name) {
+        final Entry entry = new Entry(new ZipEntry(name));
+        entries.add(entry);
+        executor.execute(new Runnable() {
+
+            public void run() {
+                try {
+                    inflate(in, entry);
+                } catch (IOException e) {
+                    entry.fail(e);
+                } finally {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        // nothing to do
+                    }
+                }
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void inflate(InputStream in, Entry entry) throws IOException {
+        byte[] buffer = new byte[BLOCK_SIZE];
+        int length = 0;
+        int n;
+        while (!closed && !entry.discarded && (n = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += n;
+            if (length == buffer.length) {
+                entry.put(buffer);
+                buffer = new byte[BLOCK_SIZE];
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            byte[] last = new byte[length];
+            System.arraycopy(buffer, 0, last, 0, length);
+            entry.put(last);
+        }
+        entry.put(END);
+    }
+
+    private static int magic(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return (in.read() << 8) | in.read();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static ExecutorService executor(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "ParallelArchiveInputStream");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static class Entry {
+
+        private final ZipEntry zipEntry;
+
+        private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<byte[]>(QUEUE_BLOCKS);
+
+        private volatile Exception error;
+
+        private volatile boolean discarded;
+
+        private boolean finished;
+
+        Entry(ZipEntry zipEntry) {
+            this.zipEntry = zipEntry;
+        }
+
+        void put(byte[] block) throws IOException {
+            try {
+                while (!discarded && !blocks.offer(block, 100, java.util.concurrent.TimeUnit.MILLISECONDS)) {
+                    // waits for the reader
+                }
+            } catch (InterruptedException e) {
+                throw new java.io.InterruptedIOException();
+            }
+        }
+
+        void fail(Exception e) {
+            error = e;
+            try {
+                put(END);
+            } catch (IOException interrupted) {
+                // closed
+            }
+        }
+
+        byte[] take() throws IOException {
+            try {
+                byte[] block = blocks.take();
+                if (block == END) {
+                    check();
+                }
+                return block;
+            } catch (InterruptedException e) {
+                throw new java.io.InterruptedIOException();
+            }
+        }
+
+        void check() throws IOException {
+            if (error != null) {
+                throw error instanceof IOException ? (IOException) error : new IOException(error);
+            }
+        }
+
+        void discard() {
+            discarded = true;
+            blocks.clear();
+        }
+    }
+}
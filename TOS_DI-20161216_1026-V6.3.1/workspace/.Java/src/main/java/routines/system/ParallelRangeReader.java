@@ -0,0 +1,509 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parallel read of tMysqlInput: the query is split on a numeric key into ranges computed from the MIN and MAX of the
+ * key, each range is read on its own connection and thread, and the rows of all the ranges are returned through a
+ * single forward only {@link ResultSet}, in no particular order.
+ *
+ * Only a plain <code>SELECT ... FROM ... [WHERE ...]</code> can be split: a query with DISTINCT, aggregates, GROUP BY,
+ * HAVING, ORDER BY, LIMIT or UNION is read as is, see {@link #isSplittable()}. The rows whose key is NULL are read with
+ * the first range.
+ */
+public class ParallelRangeReader {
+
+    private static final int QUEUE_SIZE = 10000;
+
+    private static final Pattern AGGREGATE = Pattern.compile(
+            "(?i)\\b(COUNT|SUM|AVG|MIN|MAX|GROUP_CONCAT|STD|STDDEV|STDDEV_POP|STDDEV_SAMP|VARIANCE|VAR_POP|VAR_SAMP|BIT_AND|BIT_OR|BIT_XOR)\\s*\\(");
+
+    // end of the rows of a range
+    private static final Object[] END = new Object[0];
+
+    private final String url;
+
+    private final String user;
+
+    private final String password;
+
+    private final String key;
+
+    private final int parallelism;
+
+    private String select;
+
+    private String from;
+
+    private String where;
+
+    public ParallelRangeReader(String url, String user, String password, String query, String key, int parallelism) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.key = key;
+        this.parallelism = parallelism;
+        parse(query.trim().replaceAll(";\\s*$", ""));
+    }
+
+    /**
+     * @return true if the query can be split in ranges of the key.
+     */
+    public boolean isSplittable() {
+        return select != null && parallelism > 1 && key != null && key.trim().length() > 0;
+    }
+
+    /**
+     * Computes the ranges on conn and starts to read them.
+     */
+    public ResultSet executeQuery(Connection conn) throws SQLException {
+        long min = 0;
+        long max = 0;
+        boolean empty = true;
+        Statement statement = conn.createStatement();
+        try {
+            ResultSet rs = statement.executeQuery("SELECT MIN(" + key + "), MAX(" + key + ") " + from
+                    + (where == null ? "" : " WHERE " + where));
+            if (rs.next() && rs.getObject(1) != null) {
+                empty = false;
+                min = rs.getLong(1);
+                max = rs.getLong(2);
+            }
+            rs.close();
+        } finally {
+            statement.close();
+        }
+        String[] queries;
+        if (empty || min == max) {
+            queries = new String[] { select + " " + from + (where == null ? "" : " WHERE " + where) };
+        } else {
+            // max - min is negative if it overflows
+            int count = (max - min < 0 || max - min >= parallelism - 1) ? parallelism : (int) (max - min + 1);
+            queries = new String[count];
+            // min + i * width would overflow on the full long range
+            BigDecimal width = new BigDecimal(max).subtract(new BigDecimal(min)).add(BigDecimal.ONE)
+                    .divide(new BigDecimal(count), 0, RoundingMode.CEILING);
+            for (int i = 0; i < count; i++) {
+                String condition;
+                String low = new BigDecimal(min).add(width.multiply(new BigDecimal(i))).toPlainString();
+                String high = new BigDecimal(min).add(width.multiply(new BigDecimal(i + 1))).toPlainString();
+                if (i == 0) {
+                    condition = "(" + key + " < " + high + " OR " + key + " IS NULL)";
+                } else if (i == count - 1) {
+                    condition = key + " >= " + low;
+                } else {
+                    condition = key + " >= " + low + " AND " + key + " < " + high;
+                }
+                queries[i] = select + " " + from + " WHERE " + condition + (where == null ? "" : " AND (" + where + ")");
+            }
+        }
+        return new Rows(queries).start();
+    }
+
+    /**
+     * Splits the query in its select list, its FROM clause and its WHERE condition, if it has nothing else.
+     */
+    private void parse(String query) {
+        int fromIndex = -1;
+        int whereIndex = -1;
+        int depth = 0;
+        char quote = 0;
+        String upper = query.toUpperCase(Locale.ENGLISH);
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote != '`') {
+                    i++;
+                }
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isLetter(c) && (i == 0 || !isWordChar(query.charAt(i - 1)))) {
+                int end = i;
+                while (end < query.length() && isWordChar(query.charAt(end))) {
+                    end++;
+                }
+                String word = upper.substring(i, end);
+                if (word.equals("FROM") && fromIndex < 0) {
+                    fromIndex = i;
+                } else if (word.equals("WHERE") && fromIndex >= 0 && whereIndex < 0) {
+                    whereIndex = i;
+                } else if (word.equals("GROUP") || word.equals("HAVING") || word.equals("ORDER") || word.equals("LIMIT")
+                        || word.equals("UNION") || word.equals("INTO") || word.equals("PROCEDURE") || word.equals("FOR")
+                        || word.equals("DISTINCT") || word.equals("DISTINCTROW") || word.equals("WHERE")) {
+                    return;
+                }
+                i = end - 1;
+            }
+        }
+        if (fromIndex < 0 || !upper.startsWith("SELECT") || AGGREGATE.matcher(query.substring(0, fromIndex)).find()) {
+            return;
+        }
+        select = query.substring(0, fromIndex).trim();
+        if (whereIndex < 0) {
+            from = query.substring(fromIndex).trim();
+        } else {
+            from = query.substring(fromIndex, whereIndex).trim();
+            where = query.substring(whereIndex + "WHERE".length()).trim();
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Rows of the ranges, read by one thread per range into a bounded queue.
+     */
+    private class Rows implements InvocationHandler {
+
+        private final String[] queries;
+
+        private final BlockingQueue<Object[]> queue = new ArrayBlockingQueue<Object[]>(QUEUE_SIZE);
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final Thread[] readers;
+
+        private volatile ResultSetMetaData metaData;
+
+        private volatile SQLException error;
+
+        private volatile boolean closed;
+
+        private int running;
+
+        private Object[] row;
+
+        private boolean wasNull;
+
+        Rows(String[] queries) {
+            this.queries = queries;
+            this.readers = new Thread[queries.length];
+            this.running = queries.length;
+        }
+
+        ResultSet start() throws SQLException {
+            for (int i = 0; i < queries.length; i++) {
+                final String query = queries[i];
+                readers[i] = new Thread("ParallelRangeReader-" + i) {
+
+                    @Override
+                    public void run() {
+                        read(query);
+                    }
+                };
+                readers[i].setDaemon(true);
+                readers[i].start();
+            }
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new SQLException(e);
+            }
+            if (metaData == null) {
+                close();
+                throw error != null ? error : new SQLException("No range could be read");
+            }
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                    this);
+        }
+
+        private void read(String query) {
+            Connection conn = null;
+            try {
+                conn = DriverManager.getConnection(url, user, password);
+                Statement statement = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                JDBCUtil.setMysqlFetchMode(statement, true, query);
+                ResultSet rs = statement.executeQuery(query);
+                int columnCount = rs.getMetaData().getColumnCount();
+                if (metaData == null) {
+                    metaData = rs.getMetaData();
+                }
+                started.countDown();
+                while (!closed && rs.next()) {
+                    Object[] values = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        try {
+                            values[i] = rs.getObject(i + 1);
+                        } catch (SQLException e) {
+                            // zero date, read by the row as getString would
+                            values[i] = new ZeroDate(rs.getString(i + 1));
+                        }
+                    }
+                    queue.put(values);
+                }
+                if (!closed) {
+                    // closing a streamed result set reads its remaining rows, closing the connection does not
+                    rs.close();
+                    statement.close();
+                }
+            } catch (SQLException e) {
+                if (error == null) {
+                    error = e;
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } finally {
+                started.countDown();
+                if (conn != null) {
+                    try {
+                        conn.close();
+                    } catch (SQLException e) {
+                        // already failed or read
+                    }
+                }
+                if (!closed) {
+                    try {
+                        queue.put(END);
+                    } catch (InterruptedException e) {
+                        // closed
+                    }
+                }
+            }
+        }
+
+        private boolean next() throws SQLException {
+            while (running > 0) {
+                if (error != null) {
+                    throw error;
+                }
+                try {
+                    row = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+                if (row == END) {
+                    running--;
+                } else {
+                    return true;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            row = null;
+            return false;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Thread reader : readers) {
+                if (reader != null) {
+                    reader.interrupt();
+                }
+            }
+            queue.clear();
+        }
+
+        private int findColumn(String label) throws SQLException {
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (metaData.getColumnLabel(i).equalsIgnoreCase(label)) {
+                    return i;
+                }
+            }
+            throw new SQLException("Column '" + label + "' not found.");
+        }
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                return next();
+            } else if (name.equals("close")) {
+                close();
+                return null;
+            } else if (name.equals("isClosed")) {
+                return closed;
+            } else if (name.equals("wasNull")) {
+                return wasNull;
+            } else if (name.equals("getMetaData")) {
+                return metaData;
+            } else if (name.equals("findColumn")) {
+                return findColumn((String) args[0]);
+            } else if (name.equals("getWarnings") || name.equals("getStatement")) {
+                return null;
+            } else if (name.equals("clearWarnings") || name.equals("setFetchSize")) {
+                return null;
+            } else if (name.equals("getType")) {
+                return ResultSet.TYPE_FORWARD_ONLY;
+            } else if (name.equals("getConcurrency")) {
+                return ResultSet.CONCUR_READ_ONLY;
+            } else if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            } else if (name.equals("equals")) {
+                return proxy == args[0];
+            } else if (name.equals("toString")) {
+                return "ParallelRangeReader" + java.util.Arrays.asList(queries);
+            } else if (name.startsWith("get") && args != null && args.length >= 1) {
+                if (row == null) {
+                    throw new SQLException("No current row");
+                }
+                int index = args[0] instanceof String ? findColumn((String) args[0]) : (Integer) args[0];
+                Object value = row[index - 1];
+                wasNull = value == null;
+                return convert(value, method.getReturnType());
+            }
+            throw new SQLFeatureNotSupportedException(name);
+        }
+    }
+
+    /**
+     * Value of a zero date column, the driver fails to read it as a date.
+     */
+    private static class ZeroDate {
+
+        private final String text;
+
+        ZeroDate(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Value read with getObject, converted to the type of the getter as the driver would.
+     */
+    static Object convert(Object value, Class<?> type) throws SQLException {
+        if (value instanceof ZeroDate) {
+            if (type == String.class || type == Object.class) {
+                return ((ZeroDate) value).text;
+            }
+            throw new SQLException("Value '" + ((ZeroDate) value).text + "' can not be represented as " + type.getName());
+        }
+        if (type == Object.class) {
+            return value;
+        }
+        if (value == null) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type.isPrimitive()) {
+                return convert(0, type);
+            }
+            return null;
+        }
+        if (type == String.class) {
+            if (value instanceof byte[]) {
+                return new String((byte[]) value);
+            } else if (value instanceof java.sql.Timestamp) {
+                String text = value.toString();
+                // no fraction when there is none, as the driver prints a DATETIME
+                return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+            } else if (value instanceof Boolean) {
+                return ((Boolean) value) ? "1" : "0";
+            }
+            return value.toString();
+        } else if (type == boolean.class) {
+            if (value instanceof Boolean) {
+                return value;
+            } else if (value instanceof Number) {
+                return ((Number) value).doubleValue() != 0;
+            }
+            String text = value.toString().trim();
+            return text.equalsIgnoreCase("true") || text.equalsIgnoreCase("y") || (isNumber(text) && Double.parseDouble(text) != 0);
+        } else if (type == BigDecimal.class) {
+            if (value instanceof BigDecimal) {
+                return value;
+            }
+            return new BigDecimal(number(value).toString());
+        } else if (type == java.sql.Timestamp.class) {
+            return new java.sql.Timestamp(date(value).getTime());
+        } else if (type == java.sql.Date.class) {
+            return new java.sql.Date(date(value).getTime());
+        } else if (type == java.sql.Time.class) {
+            return new java.sql.Time(date(value).getTime());
+        } else if (type == byte[].class) {
+            return value instanceof byte[] ? value : value.toString().getBytes();
+        } else if (type.isPrimitive()) {
+            Object number = number(value);
+            Number n = number instanceof Number ? (Number) number : new BigDecimal(number.toString());
+            if (type == int.class) {
+                return n.intValue();
+            } else if (type == long.class) {
+                return n.longValue();
+            } else if (type == double.class) {
+                return n.doubleValue();
+            } else if (type == float.class) {
+                return n.floatValue();
+            } else if (type == short.class) {
+                return n.shortValue();
+            } else if (type == byte.class) {
+                return n.byteValue();
+            }
+        } else if (type.isInstance(value)) {
+            return value;
+        }
+        throw new SQLFeatureNotSupportedException("Conversion to " + type.getName());
+    }
+
+    private static Object number(Object value) throws SQLException {
+        if (value instanceof Number) {
+            return value;
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1 : 0;
+        } else if (value instanceof java.util.Date) {
+            return ((java.util.Date) value).getTime();
+        }
+        String text = value instanceof byte[] ? new String((byte[]) value) : value.toString();
+        if (!isNumber(text.trim())) {
+            throw new SQLException("Value '" + text + "' is not a number");
+        }
+        return new BigDecimal(text.trim());
+    }
+
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?");
+
+    private static boolean isNumber(String text) {
+        Matcher matcher = NUMBER.matcher(text);
+        return matcher.matches();
+    }
+
+    private static java.util.Date date(Object value) throws SQLException {
+        if (value instanceof java.util.Date) {
+            return (java.util.Date) value;
+        }
+        try {
+            return java.sql.Timestamp.valueOf(value.toString().length() == 10 ? value + " 00:00:00" : value.toString());
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Value '" + value + "' is not a date");
+        }
+    }
+}
@@ -0,0 +1,621 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writers of the files of a tFileOutputDelimited, the split files being written at the same time.
+ *
+ * The text written is cut into blocks, encoded and compressed by a pool of worker threads while the next rows are
+ * formatted. Each file has its own I/O thread which writes its blocks in order through a {@link FileChannel} and a
+ * large direct buffer. Closing a file only ends its blocks, it is flushed in the background while the next split file is
+ * written; {@link #close()} waits for all of them.
+ *
+ * A gzip file is a sequence of gzip members, one per block, read as a single stream by gzip and
+ * {@link java.util.zip.GZIPInputStream}. A zip file has a single entry made of the deflated blocks, up to 4 GB, named
+ * after the file without its <code>.zip</code> extension.
+ */
+public class ParallelSplitWriter {
+
+    public static final String NONE = "NONE";
+
+    public static final String GZIP = "GZIP";
+
+    public static final String ZIP = "ZIP";
+
+    private static final int BLOCK_CHARS = 256 * 1024;
+
+    private static final int IO_BUFFER = 4 * 1024 * 1024;
+
+    private static final Future<Block> END = new FutureTask<Block>(new Callable<Block>() {
+
+        public Block call() {
+            return null;
+        }
+    });
+
+    private final String compression;
+
+    private final int queueBlocks;
+
+    private final ExecutorService workers;
+
+    private final ExecutorService io;
+
+    // files flushed at the same time
+    private final Semaphore openFiles;
+
+    private final List<FileWriter> files = new ArrayList<FileWriter>();
+
+    private volatile IOException error;
+
+    private boolean closed;
+
+    /**
+     * @param threads the worker threads, the number of processors if 0 or less.
+     * @param compression {@link #NONE}, {@link #GZIP} or {@link #ZIP}.
+     */
+    public ParallelSplitWriter(int threads, String compression) {
+        int workerCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.compression = compression == null || "".equals(compression) ? NONE : compression.toUpperCase();
+        if (!NONE.equals(this.compression) && !GZIP.equals(this.compression) && !ZIP.equals(this.compression)) {
+            throw new IllegalArgumentException("Unknown compression " + compression);
+        }
+        this.queueBlocks = 2 * workerCount;
+        this.workers = Executors.newFixedThreadPool(workerCount, daemon("ParallelSplitWriter-worker"));
+        this.io = Executors.newCachedThreadPool(daemon("ParallelSplitWriter-io"));
+        this.openFiles = new Semaphore(Math.max(2, workerCount));
+    }
+
+    /**
+     * Opens a file, created or truncated before returning unless appended to.
+     */
+    public Writer open(String fileName, boolean append, String encoding) throws IOException {
+        checkError();
+        if (append && ZIP.equals(compression)) {
+            throw new IllegalArgumentException("A zip file can not be appended to");
+        }
+        try {
+            openFiles.acquire();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+        FileChannel channel;
+        try {
+            channel = new FileOutputStream(fileName, append).getChannel();
+        } catch (IOException e) {
+            openFiles.release();
+            throw e;
+        }
+        String entryName = new File(fileName).getName();
+        if (entryName.toLowerCase().endsWith(".zip")) {
+            entryName = entryName.substring(0, entryName.length() - 4);
+        }
+        FileWriter writer = new FileWriter(Charset.forName(encoding), entryName, channel);
+        writer.flushed = io.submit(writer.flusher());
+        files.add(writer);
+        return writer;
+    }
+
+    /**
+     * Ends the files still open and waits for all the files to be written.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (FileWriter file : files) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            }
+            for (FileWriter file : files) {
+                try {
+                    file.flushed.get();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                }
+            }
+            checkError();
+        } finally {
+            workers.shutdownNow();
+            io.shutdownNow();
+        }
+    }
+
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void fail(Throwable cause) {
+        if (error == null) {
+            error = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    private class FileWriter extends Writer {
+
+        private final Charset charset;
+
+        // the byte order mark is written once
+        private final Charset nextCharset;
+
+        private final String entryName;
+
+        private final FileChannel channel;
+
+        private final BlockingQueue<Future<Block>> blocks = new ArrayBlockingQueue<Future<Block>>(queueBlocks);
+
+        private Future<?> flushed;
+
+        private char[] chars = new char[BLOCK_CHARS];
+
+        private int count;
+
+        private boolean first = true;
+
+        private boolean ended;
+
+        FileWriter(Charset charset, String entryName, FileChannel channel) {
+            this.charset = charset;
+            this.nextCharset = "UTF-16".equals(charset.name()) ? Charset.forName("UTF-16BE") : charset;
+            this.entryName = entryName;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, chars.length - count);
+                System.arraycopy(cbuf, off, chars, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == chars.length) {
+                    submit(false);
+                }
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, chars.length - count);
+                str.getChars(off, off + n, chars, count);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == chars.length) {
+                    submit(false);
+                }
+            }
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            chars[count++] = (char) c;
+            if (count == chars.length) {
+                submit(false);
+            }
+        }
+
+        /**
+         * Nothing to do, the blocks are written as soon as they are full.
+         */
+        @Override
+        public void flush() throws IOException {
+            checkError();
+        }
+
+        /**
+         * Ends the file, it is written in the background.
+         */
+        @Override
+        public void close() throws IOException {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            try {
+                submit(true);
+            } finally {
+                put(END);
+            }
+            checkError();
+        }
+
+        private void submit(final boolean last) throws IOException {
+            checkError();
+            final char[] block = chars;
+            int length = count;
+            char carry = 0;
+            // a surrogate pair is encoded in a single block
+            if (!last && length > 0 && Character.isHighSurrogate(block[length - 1])) {
+                carry = block[--length];
+            }
+            final int blockLength = length;
+            final Charset blockCharset = first ? charset : nextCharset;
+            first = false;
+            chars = new char[BLOCK_CHARS];
+            count = 0;
+            if (carry != 0) {
+                chars[count++] = carry;
+            }
+            if (blockLength == 0 && !(last && ZIP.equals(compression))) {
+                return;
+            }
+            put(workers.submit(new Callable<Block>() {
+
+                public Block call() {
+                    ByteBuffer encoded = blockCharset.encode(CharBuffer.wrap(block, 0, blockLength));
+                    return compress(encoded.array(), encoded.arrayOffset() + encoded.position(), encoded.remaining(), last);
+                }
+            }));
+        }
+
+        private void put(Future<Block> block) throws IOException {
+            try {
+                blocks.put(block);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+
+        private Block compress(byte[] data, int offset, int length, boolean last) {
+            if (NONE.equals(compression)) {
+                return new Block(data, offset, length, 0, length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data, offset, length);
+            if (GZIP.equals(compression)) {
+                // a gzip member: header, deflated data, crc and size
+                Output out = new Output(length / 3 + 64);
+                out.write(new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff });
+                deflate(data, offset, length, true, out);
+                out.writeInt(crc.getValue());
+                out.writeInt(length);
+                return new Block(out.buffer, 0, out.length, crc.getValue(), length);
+            }
+            Output out = new Output(length / 3 + 64);
+            deflate(data, offset, length, last, out);
+            return new Block(out.buffer, 0, out.length, crc.getValue(), length);
+        }
+
+        Runnable flusher() {
+            return new Runnable() {
+
+                public void run() {
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+                    long written = 0;
+                    long crc = 0;
+                    long rawLength = 0;
+                    long compressedLength = 0;
+                    boolean failed = false;
+                    byte[] name = null;
+                    int[] dosTime = null;
+                    try {
+                        if (ZIP.equals(compression)) {
+                            name = entryName.getBytes("UTF-8");
+                            dosTime = dosTime();
+                            Output header = new Output(30 + name.length);
+                            header.writeInt(0x04034b50L);
+                            header.writeShort(20);
+                            header.writeShort(0x0808);
+                            header.writeShort(8);
+                            header.writeShort(dosTime[0]);
+                            header.writeShort(dosTime[1]);
+                            header.writeInt(0);
+                            header.writeInt(0);
+                            header.writeInt(0);
+                            header.writeShort(name.length);
+                            header.writeShort(0);
+                            header.write(name);
+                            written += write(buffer, header.buffer, 0, header.length);
+                        }
+                        while (true) {
+                            Future<Block> next = blocks.take();
+                            if (next == END) {
+                                break;
+                            }
+                            Block block;
+                            try {
+                                block = next.get();
+                            } catch (ExecutionException e) {
+                                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e
+                                        .getCause());
+                            }
+                            crc = crc32Combine(crc, block.crc, block.rawLength);
+                            rawLength += block.rawLength;
+                            compressedLength += block.length;
+                            written += write(buffer, block.data, block.offset, block.length);
+                        }
+                        if (ZIP.equals(compression)) {
+                            if (rawLength > 0xFFFFFFFFL || written > 0xFFFFFFFFL) {
+                                throw new IOException("The zip entry " + entryName + " is larger than 4 GB, use GZIP");
+                            }
+                            Output trailer = new Output(16 + 46 + name.length + 22);
+                            trailer.writeInt(0x08074b50L);
+                            trailer.writeInt(crc);
+                            trailer.writeInt(compressedLength);
+                            trailer.writeInt(rawLength);
+                            long directoryOffset = written + 16;
+                            trailer.writeInt(0x02014b50L);
+                            trailer.writeShort(20);
+                            trailer.writeShort(20);
+                            trailer.writeShort(0x0808);
+                            trailer.writeShort(8);
+                            trailer.writeShort(dosTime[0]);
+                            trailer.writeShort(dosTime[1]);
+                            trailer.writeInt(crc);
+                            trailer.writeInt(compressedLength);
+                            trailer.writeInt(rawLength);
+                            trailer.writeShort(name.length);
+                            trailer.writeShort(0);
+                            trailer.writeShort(0);
+                            trailer.writeShort(0);
+                            trailer.writeShort(0);
+                            trailer.writeInt(0);
+                            trailer.writeInt(0);
+                            trailer.write(name);
+                            trailer.writeInt(0x06054b50L);
+                            trailer.writeShort(0);
+                            trailer.writeShort(0);
+                            trailer.writeShort(1);
+                            trailer.writeShort(1);
+                            trailer.writeInt(46 + name.length);
+                            trailer.writeInt(directoryOffset);
+                            trailer.writeShort(0);
+                            write(buffer, trailer.buffer, 0, trailer.length);
+                        }
+                        drain(buffer);
+                    } catch (Throwable e) {
+                        failed = true;
+                        fail(e);
+                    } finally {
+                        try {
+                            channel.close();
+                        } catch (IOException e) {
+                            fail(e);
+                        }
+                        if (failed) {
+                            // the writer is not blocked on a full queue
+                            discard();
+                        }
+                        openFiles.release();
+                    }
+                }
+            };
+        }
+
+        private void discard() {
+            while (true) {
+                Future<Block> next;
+                try {
+                    next = blocks.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (next == END) {
+                    return;
+                }
+                next.cancel(false);
+            }
+        }
+
+        private int write(ByteBuffer buffer, byte[] data, int offset, int length) throws IOException {
+            int remaining = length;
+            while (remaining > 0) {
+                int n = Math.min(remaining, buffer.remaining());
+                buffer.put(data, offset, n);
+                offset += n;
+                remaining -= n;
+                if (!buffer.hasRemaining()) {
+                    drain(buffer);
+                }
+            }
+            return length;
+        }
+
+        private void drain(ByteBuffer buffer) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private static void deflate(byte[] data, int offset, int length, boolean finish, Output out) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data, offset, length);
+            if (finish) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.ensure(8192);
+                    out.length += deflater.deflate(out.buffer, out.length, out.buffer.length - out.length);
+                }
+            } else {
+                // ends on a byte boundary, the next block follows
+                int n;
+                do {
+                    out.ensure(8192);
+                    n = deflater.deflate(out.buffer, out.length, out.buffer.length - out.length, Deflater.SYNC_FLUSH);
+                    out.length += n;
+                } while (out.length == out.buffer.length);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // the crc of two consecutive sequences from their crcs, as crc32_combine of zlib
+    private static long crc32Combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    private static int[] dosTime() {
+        Calendar now = Calendar.getInstance();
+        int time = (now.get(Calendar.HOUR_OF_DAY) << 11) | (now.get(Calendar.MINUTE) << 5) | (now.get(Calendar.SECOND) >> 1);
+        int date = ((now.get(Calendar.YEAR) - 1980) << 9) | ((now.get(Calendar.MONTH) + 1) << 5) | now.get(Calendar.DAY_OF_MONTH);
+        return new int[] { time, date };
+    }
+
+    private static ThreadFactory daemon(final String name) {
+        return new ThreadFactory() {
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private static class Block {
+
+        final byte[] data;
+
+        final int offset;
+
+        final int length;
+
+        final long crc;
+
+        final long rawLength;
+
+        Block(byte[] data, int offset, int length, long crc, long rawLength) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+            this.rawLength = rawLength;
+        }
+    }
+
+    // little endian bytes
+    private static class Output {
+
+        byte[] buffer;
+
+        int length;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void ensure(int more) {
+            if (buffer.length - length < more) {
+                byte[] larger = new byte[Math.max(buffer.length * 2, length + more)];
+                System.arraycopy(buffer, 0, larger, 0, length);
+                buffer = larger;
+            }
+        }
+
+        void write(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buffer, length, b.length);
+            length += b.length;
+        }
+
+        void writeShort(int v) {
+            ensure(2);
+            buffer[length++] = (byte) v;
+            buffer[length++] = (byte) (v >>> 8);
+        }
+
+        void writeInt(long v) {
+            ensure(4);
+            buffer[length++] = (byte) v;
+            buffer[length++] = (byte) (v >>> 8);
+            buffer[length++] = (byte) (v >>> 16);
+            buffer[length++] = (byte) (v >>> 24);
+        }
+    }
+}
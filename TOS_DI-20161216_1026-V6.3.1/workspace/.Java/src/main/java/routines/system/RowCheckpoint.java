@@ -0,0 +1,202 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Row level checkpoint of a subjob, shared by its input and its output component.
+ *
+ * The input gives the position of each row it reads ({@link #setPosition(long, long, long)}, plain field writes) and
+ * the output calls {@link #commit(long)} just after each successful JDBC commit, which saves the last position read
+ * together with the number of committed rows in <code>&lt;directory&gt;/&lt;jobName&gt;_&lt;subjob&gt;.checkpoint</code>.
+ * If the job fails, the next run finds that file: the output keeps its table as it is and the input skips every row up
+ * to the saved position ({@link #isCommitted(long)}), so the load resumes from the last commit. The file is removed by
+ * {@link #complete()} when the subjob ends normally.
+ *
+ * This is only exact for flows where each row goes from the input to the output before the next one is read (tMap with
+ * loaded lookups, filters...), not when a component buffers rows between them (tSortRow, tAggregateRow...). A crash
+ * between the JDBC commit and the write of the file replays the rows of that last commit. The output must have executed
+ * every row read before its commit: an extended insert, which keeps rows pending across commits, is refused.
+ */
+public class RowCheckpoint {
+
+    private static final Map<String, RowCheckpoint> checkpoints = new HashMap<String, RowCheckpoint>();
+
+    private final String key;
+
+    private final File file;
+
+    private final boolean resuming;
+
+    private final long committedPosition;
+
+    private final long committedRows;
+
+    private long part = 0;
+
+    private long offset = -1;
+
+    private long position = -1;
+
+    /**
+     * Opens the checkpoint of a subjob, called by the output component which owns the commits.
+     *
+     * @param directory directory of the checkpoint files, created if needed.
+     */
+    public static RowCheckpoint open(String directory, String jobName, String subjobName) throws IOException {
+        String key = jobName + "_" + subjobName;
+        File dir = new File(directory);
+        if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Can't create the checkpoint directory " + directory);
+        }
+        // a new instance for each run of the subjob, the previous one may come from a failed run in the same JVM
+        RowCheckpoint checkpoint = new RowCheckpoint(key, new File(dir, key + ".checkpoint"));
+        synchronized (checkpoints) {
+            checkpoints.put(key, checkpoint);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Called instead of {@link #open(String, String, String)} when the settings of the output don't allow a checkpoint.
+     *
+     * @throws IllegalStateException always.
+     */
+    public static void unsupported(String component, String setting) {
+        throw new IllegalStateException("The row checkpoint of " + component + " can't be used with " + setting
+                + ": its pending rows would be saved as committed");
+    }
+
+    /**
+     * Returns the checkpoint opened by the output of the subjob, or null if there is none.
+     */
+    public static RowCheckpoint get(String jobName, String subjobName) {
+        synchronized (checkpoints) {
+            return checkpoints.get(jobName + "_" + subjobName);
+        }
+    }
+
+    private RowCheckpoint(String key, File file) throws IOException {
+        this.key = key;
+        this.file = file;
+        this.resuming = file.exists();
+        if (resuming) {
+            Properties saved = new Properties();
+            InputStream in = new FileInputStream(file);
+            try {
+                saved.load(in);
+            } finally {
+                in.close();
+            }
+            try {
+                this.committedPosition = Long.parseLong(saved.getProperty("position", "-1"));
+                this.committedRows = Long.parseLong(saved.getProperty("committedRows", "0"));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid checkpoint file " + file + ": " + e.getMessage());
+            }
+        } else {
+            this.committedPosition = -1;
+            this.committedRows = 0;
+        }
+    }
+
+    /**
+     * @return true if a previous run of the subjob failed after at least one commit.
+     */
+    public boolean isResuming() {
+        return resuming;
+    }
+
+    /**
+     * @return true if the row at this position was committed by the previous run, so it must be skipped.
+     */
+    public boolean isCommitted(long position) {
+        return position <= committedPosition;
+    }
+
+    public long getCommittedPosition() {
+        return committedPosition;
+    }
+
+    /**
+     * @return the number of rows committed by the previous runs.
+     */
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    /**
+     * Position of the row being read.
+     *
+     * @param part sheet index, file index...
+     * @param offset row or byte offset inside the part.
+     * @param position absolute position, increasing along the whole input.
+     */
+    public void setPosition(long part, long offset, long position) {
+        this.part = part;
+        this.offset = offset;
+        this.position = position;
+    }
+
+    /**
+     * Saves the current input position, must be called after the commit of the rows read until now.
+     *
+     * @param rows number of rows committed by this run.
+     */
+    public void commit(long rows) throws IOException {
+        if (position < 0) {
+            return;
+        }
+        Properties saved = new Properties();
+        saved.setProperty("part", String.valueOf(part));
+        saved.setProperty("offset", String.valueOf(offset));
+        saved.setProperty("position", String.valueOf(Math.max(position, committedPosition)));
+        saved.setProperty("committedRows", String.valueOf(committedRows + rows));
+        File temp = new File(file.getPath() + ".tmp");
+        OutputStream out = new FileOutputStream(temp);
+        try {
+            saved.store(out, key);
+        } finally {
+            out.close();
+        }
+        // the previous checkpoint stays in place until the new one replaces it
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the subjob has ended normally.
+     */
+    public void complete() {
+        file.delete();
+        synchronized (checkpoints) {
+            checkpoints.remove(key);
+        }
+    }
+}
@@ -157,6 +157,9 @@ public class RunStat implements Runnable {
 
     private java.io.PrintWriter pred;
 
+    // lines written to the socket by a background thread, the job threads do not wait for it
+    private EventPipeline<String> lines;
+
     private boolean jobIsFinished = false;
 
     private String str = ""; //$NON-NLS-1$
@@ -185,7 +188,7 @@ public class RunStat implements Runnable {
             if (debug) {
                 output = System.out;
             }
-            pred = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.OutputStreamWriter(output)), true);
+            startLines(output);
             Thread t = new Thread(this);
             t.start();
 
@@ -212,11 +215,28 @@ public class RunStat implements Runnable {
         if (debug) {
             output = System.out;
         }
-        pred = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.OutputStreamWriter(output)), true);
+        startLines(output);
         Thread t = new Thread(this);
         t.start();
     }
 
+    private void startLines(final OutputStream output) {
+        pred = new java.io.PrintWriter(new java.io.BufferedWriter(new java.io.OutputStreamWriter(output)), false);
+        lines = new EventPipeline<String>();
+        lines.start(new EventPipeline.Sink<String>() {
+
+            public void publish(List<String> batch) {
+                // the socket may be shared with the child jobs, a batch is written at once
+                synchronized (output) {
+                    for (String line : batch) {
+                        pred.println(line);
+                    }
+                    pred.flush();
+                }
+            }
+        }, 0);
+    }
+
     public void run() {
         if (!debug) {
             synchronized (this) {
@@ -236,6 +256,9 @@ public class RunStat implements Runnable {
         jobIsFinished = true;
         try {
             sendMessages();
+            if (lines != null) {
+                lines.close();
+            }
             if (!openSocket) {
                 return;
             }
@@ -296,7 +319,7 @@ public class RunStat implements Runnable {
                 str = TYPE0_JOB + "|" + rootPid + "|" + fatherPid + "|" + pid + "|" + jobStatStr;
             }
             // System.out.println(str);
-            pred.println(str); // envoi d'un message
+            lines.offer(str); // envoi d'un message
         }
         keysList.clear();
 
@@ -0,0 +1,403 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set based mode of tMysqlSCD: the incoming rows are classified in memory, staged by batch into a temporary table and
+ * merged into the dimension with a few statements per batch (UPDATE ... JOIN for the type 1 changes and the closed type
+ * 2 versions, INSERT ... SELECT for the new rows and versions), instead of a lookup and one or two statements per row.
+ *
+ * The current rows of the dimension are loaded once as a checksum of their type 1 and type 2 attributes, the unchanged
+ * rows are then dropped without being staged. The staged row has the columns of the staging table, the last one, the
+ * action, is set here: {@link #NEW}, {@link #TYPE1} and/or {@link #TYPE2}.
+ *
+ * The keys are matched in memory as MySQL compares them in the dimension: trailing spaces are ignored in the character
+ * columns, and case and accents in those of a case insensitive collation. This follows the _general_ci and _unicode_ci
+ * collations, a key column with language specific rules (as utf8_german2_ci) must use a _bin collation or the row by
+ * row mode.
+ */
+public class SCDMerge {
+
+    public static final int NEW = 1;
+
+    public static final int TYPE1 = 2;
+
+    public static final int TYPE2 = 4;
+
+    /**
+     * Actions inserting a row in the dimension.
+     */
+    public static final int INSERTED = NEW | TYPE2;
+
+    /**
+     * Actions updating rows of the dimension.
+     */
+    public static final int UPDATED = TYPE1 | TYPE2;
+
+    private final Connection connection;
+
+    private final String stagingTable;
+
+    private final int columnCount;
+
+    private final int batchSize;
+
+    private int[] keys = new int[0];
+
+    // by key column, how its values are compared by MySQL
+    private int[] keyCollations = new int[0];
+
+    private static final int EXACT = 0;
+
+    private static final int PAD_SPACE = 1;
+
+    private static final int CASE_INSENSITIVE = 2;
+
+    private int[] type1 = new int[0];
+
+    private int[] type2 = new int[0];
+
+    private int version = -1;
+
+    private int surrogateKey = -1;
+
+    private long nextSurrogateKey = 1;
+
+    private final List<String> mergeStatements = new ArrayList<String>();
+
+    // key of the current rows -> checksums of their type 1 and type 2 attributes and version
+    private final Map<String, long[]> current = new HashMap<String, long[]>();
+
+    // keys of the staged rows, a key seen twice in a batch flushes it so that the rows are applied in order
+    private final Set<String> batchKeys = new HashSet<String>();
+
+    private PreparedStatement stagingStatement;
+
+    private int batchCount;
+
+    public SCDMerge(Connection connection, String stagingTable, int columnCount, int batchSize) {
+        this.connection = connection;
+        this.stagingTable = stagingTable;
+        this.columnCount = columnCount;
+        this.batchSize = batchSize > 0 ? batchSize : 10000;
+    }
+
+    public void setKeys(int[] positions) {
+        this.keys = positions;
+    }
+
+    public void setType1(int[] positions) {
+        this.type1 = positions;
+    }
+
+    public void setType2(int[] positions) {
+        this.type2 = positions;
+    }
+
+    /**
+     * The version of the new rows is 1, the version of a new type 2 version the one of the current row + 1.
+     */
+    public void setVersion(int position) {
+        this.version = position;
+    }
+
+    /**
+     * Surrogate key computed from the max of the table, as the TABLE_MAX creation of tMysqlSCD.
+     */
+    public void setSurrogateKey(int position, String maxQuery) throws SQLException {
+        this.surrogateKey = position;
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery(maxQuery);
+            if (resultSet.next() && resultSet.getObject(1) != null) {
+                nextSurrogateKey = resultSet.getLong(1) + 1;
+            }
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Loads the current rows of the dimension.
+     *
+     * @param selectionQuery selects the keys, the type 1 attributes, the type 2 attributes and the version of the
+     * current rows, in the order of the positions.
+     */
+    public void load(String selectionQuery) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery(selectionQuery);
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            keyCollations = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                int type = metaData.getColumnType(i + 1);
+                if (type == Types.CHAR || type == Types.VARCHAR || type == Types.LONGVARCHAR || type == Types.NCHAR
+                        || type == Types.NVARCHAR || type == Types.LONGNVARCHAR) {
+                    keyCollations[i] = metaData.isCaseSensitive(i + 1) ? PAD_SPACE : CASE_INSENSITIVE;
+                }
+            }
+            Object[] values = new Object[keys.length + type1.length + type2.length];
+            while (resultSet.next()) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = resultSet.getObject(i + 1);
+                }
+                long currentVersion = version >= 0 ? resultSet.getLong(values.length + 1) : 0;
+                current.put(key(values, 0, keys.length),
+                        new long[] { checksum(values, keys.length, type1.length),
+                                checksum(values, keys.length + type1.length, type2.length), currentVersion });
+            }
+            resultSet.close();
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Creates the staging table, with the staged columns and then the action.
+     */
+    public void open(String createStagingQuery) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute("DROP TEMPORARY TABLE IF EXISTS " + stagingTable);
+            statement.execute(createStagingQuery);
+        } finally {
+            statement.close();
+        }
+        StringBuilder insert = new StringBuilder("INSERT INTO " + stagingTable + " VALUES (");
+        for (int i = 0; i <= columnCount; i++) {
+            insert.append(i == 0 ? "?" : ", ?");
+        }
+        stagingStatement = connection.prepareStatement(insert.append(")").toString());
+    }
+
+    /**
+     * Statement applying the staged rows to the dimension, run after each batch in the order they are added.
+     */
+    public void addMergeStatement(String query) {
+        mergeStatements.add(query);
+    }
+
+    /**
+     * Classifies the row and stages it if it changes the dimension.
+     *
+     * @return the action of the row, 0 if it is unchanged.
+     */
+    public int add(Object[] row) throws SQLException {
+        String key = key(row, keys);
+        long checksum1 = checksum(row, type1);
+        long checksum2 = checksum(row, type2);
+        long[] state = current.get(key);
+        int action;
+        long rowVersion = 1;
+        if (state == null) {
+            action = NEW;
+            state = new long[] { checksum1, checksum2, 1 };
+            current.put(key, state);
+        } else {
+            action = 0;
+            if (type1.length > 0 && state[0] != checksum1) {
+                action |= TYPE1;
+            }
+            if (type2.length > 0 && state[1] != checksum2) {
+                action |= TYPE2;
+                rowVersion = state[2] + 1;
+                state[2] = rowVersion;
+            }
+            state[0] = checksum1;
+            state[1] = checksum2;
+        }
+        if (action == 0) {
+            return 0;
+        }
+        if (!batchKeys.add(key)) {
+            flush();
+            batchKeys.add(key);
+        }
+        if ((action & INSERTED) != 0) {
+            if (surrogateKey >= 0) {
+                row[surrogateKey] = nextSurrogateKey++;
+            }
+            if (version >= 0) {
+                row[version] = rowVersion;
+            }
+        } else {
+            // not used by the type 1 update, only set for the NOT NULL columns of the staging table
+            if (surrogateKey >= 0) {
+                row[surrogateKey] = 0L;
+            }
+            if (version >= 0) {
+                row[version] = 0L;
+            }
+        }
+        for (int i = 0; i < columnCount; i++) {
+            Object value = row[i];
+            if (value instanceof java.util.Date && !(value instanceof java.sql.Timestamp)) {
+                value = new java.sql.Timestamp(((java.util.Date) value).getTime());
+            }
+            stagingStatement.setObject(i + 1, value);
+        }
+        stagingStatement.setInt(columnCount + 1, action);
+        stagingStatement.addBatch();
+        if (++batchCount >= batchSize) {
+            flush();
+        }
+        return action;
+    }
+
+    /**
+     * Stages the pending rows and merges them into the dimension.
+     */
+    public void flush() throws SQLException {
+        if (batchCount == 0) {
+            return;
+        }
+        stagingStatement.executeBatch();
+        Statement statement = connection.createStatement();
+        try {
+            for (String query : mergeStatements) {
+                statement.executeUpdate(query);
+            }
+            statement.executeUpdate("DELETE FROM " + stagingTable);
+        } finally {
+            statement.close();
+        }
+        batchCount = 0;
+        batchKeys.clear();
+    }
+
+    /**
+     * Flushes the pending rows and drops the staging table.
+     */
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            if (stagingStatement != null) {
+                stagingStatement.close();
+            }
+            Statement statement = connection.createStatement();
+            try {
+                statement.execute("DROP TEMPORARY TABLE IF EXISTS " + stagingTable);
+            } finally {
+                statement.close();
+            }
+        }
+    }
+
+    private String key(Object[] row, int[] positions) {
+        Object[] values = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            values[i] = row[positions[i]];
+        }
+        return key(values, 0, values.length);
+    }
+
+    private String key(Object[] values, int from, int count) {
+        StringBuilder key = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            Object value = values[i];
+            int collation = i - from < keyCollations.length ? keyCollations[i - from] : EXACT;
+            // \u0001 for null, \u0000 between the values
+            if (value == null) {
+                key.append('\u0001');
+            } else if (collation != EXACT && (value instanceof String || value instanceof Character)) {
+                key.append(collate(value.toString(), collation));
+            } else {
+                key.append(normalize(value));
+            }
+            key.append('\u0000');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Same form for the strings equal in the collation of the column.
+     */
+    private static String collate(String value, int collation) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        String padded = value.substring(0, end);
+        if (collation != CASE_INSENSITIVE) {
+            return padded;
+        }
+        String unaccented = Normalizer.normalize(padded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return unaccented.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    private static long checksum(Object[] row, int[] positions) {
+        Object[] values = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            values[i] = row[positions[i]];
+        }
+        return checksum(values, 0, values.length);
+    }
+
+    /**
+     * FNV-1a of the normalized values.
+     */
+    private static long checksum(Object[] values, int from, int count) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = from; i < from + count; i++) {
+            String value = values[i] == null ? "\u0001" : normalize(values[i]);
+            for (int j = 0; j < value.length(); j++) {
+                h = (h ^ value.charAt(j)) * 0x100000001b3L;
+            }
+            h = (h ^ 0xFFFF) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Same form for a value read from the table and the value of the flow: numbers whatever their type, dates to the
+     * second as tMysqlSCD compares them.
+     */
+    private static String normalize(Object value) {
+        if (value instanceof java.util.Date) {
+            return Long.toString(Math.round(((java.util.Date) value).getTime() / 1000.0));
+        } else if (value instanceof Number) {
+            try {
+                BigDecimal number = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+                return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+                // NaN and infinities
+                return value.toString();
+            }
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value) ? "1" : "0";
+        } else if (value instanceof byte[]) {
+            return Arrays.toString((byte[]) value);
+        }
+        return value.toString();
+    }
+}
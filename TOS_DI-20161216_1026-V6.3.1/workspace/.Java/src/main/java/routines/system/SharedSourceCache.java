@@ -0,0 +1,150 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Typed rows of a source file, parsed once and shared by the jobs reading the same file with the same schema and
+ * options: the first reader writes the rows into a {@link ColumnarFile}, the next ones, in the same run or in later
+ * runs, read them back instead of parsing the file again.
+ *
+ * The cache file is named after the path of the source, the signature of the schema and options, the size and the
+ * last modification time of the source, so a modified source is parsed again. The file is written under a temporary
+ * name and renamed once complete, a reader never sees a partial cache.
+ */
+public class SharedSourceCache {
+
+    private static final String DEFAULT_DIRECTORY = "talend_shared_source";
+
+    private final File cacheFile;
+
+    private final boolean temporary;
+
+    private File partialFile;
+
+    private ColumnarFile.Writer writer;
+
+    private ColumnarFile.Reader reader;
+
+    private SharedSourceCache(File cacheFile, boolean temporary) {
+        this.cacheFile = cacheFile;
+        this.temporary = temporary;
+    }
+
+    /**
+     * @param source the file name. The components do not use the cache for the expressions giving a stream, a stream
+     * found at runtime is still cached in a temporary file, deleted once read.
+     * @param directory the directory of the cache files, the temporary directory if null or empty.
+     * @param signature the schema and options of the reader, the rows of another signature are cached apart.
+     */
+    public static SharedSourceCache get(Object source, String directory, String signature) throws IOException {
+        File dir = new File(directory == null || "".equals(directory) ? System.getProperty("java.io.tmpdir") + File.separator
+                + DEFAULT_DIRECTORY : directory);
+        if (!(source instanceof String)) {
+            dir.mkdirs();
+            return new SharedSourceCache(File.createTempFile("source_", ".tcol", dir), true);
+        }
+        File file = new File((String) source);
+        if (!file.isFile()) {
+            throw new IOException(file + " (No such file)");
+        }
+        String key = digest(file.getCanonicalPath() + '\u0000' + signature);
+        final String prefix = key + "_";
+        File cacheFile = new File(dir, prefix + file.length() + "_" + file.lastModified() + ".tcol");
+        if (!cacheFile.isFile()) {
+            // the caches of the previous versions of the file
+            File[] stale = dir.listFiles(new java.io.FilenameFilter() {
+
+                public boolean accept(File d, String name) {
+                    return name.startsWith(prefix) && name.endsWith(".tcol");
+                }
+            });
+            if (stale != null) {
+                for (File old : stale) {
+                    old.delete();
+                }
+            }
+        }
+        return new SharedSourceCache(cacheFile, false);
+    }
+
+    public boolean isCached() {
+        return !temporary && cacheFile.isFile();
+    }
+
+    /**
+     * @return the writer of the rows parsed, {@link #commit(boolean)} once they are all written.
+     */
+    public ColumnarFile.Writer create(String[] names, int[] types) throws IOException {
+        partialFile = temporary ? cacheFile : new File(cacheFile.getPath() + "." + System.nanoTime() + ".partial");
+        writer = new ColumnarFile.Writer(partialFile.getPath(), names, types);
+        return writer;
+    }
+
+    /**
+     * @param complete false if the parsing failed, the rows written are then dropped.
+     */
+    public void commit(boolean complete) throws IOException {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } finally {
+            writer = null;
+            if (!complete) {
+                partialFile.delete();
+            } else if (!temporary && !partialFile.renameTo(cacheFile)) {
+                // written meanwhile by another job
+                partialFile.delete();
+                if (!cacheFile.isFile()) {
+                    throw new IOException("Can not create the cache " + cacheFile);
+                }
+            }
+        }
+    }
+
+    public ColumnarFile.Reader open(String[] columns) throws IOException {
+        reader = new ColumnarFile.Reader(cacheFile.getPath(), columns);
+        return reader;
+    }
+
+    public void close() throws IOException {
+        try {
+            if (reader != null) {
+                reader.close();
+            }
+        } finally {
+            if (temporary) {
+                cacheFile.delete();
+            }
+        }
+    }
+
+    private static String digest(String value) throws IOException {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(value.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                hex.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Point in polygon lookup on the polygons of an ESRI shapefile, used by tSpatialLookup.
+ *
+ * The polygons (shape types Polygon, PolygonZ and PolygonM) are read once with one attribute of the .dbf file, for
+ * example "beat_num" of the police beats, and their bounding boxes are packed in an R-tree with the Sort-Tile-Recursive
+ * algorithm. {@link #lookup(double, double)} walks the boxes containing the point and returns the attribute of the
+ * first polygon which really contains it (even-odd rule, so holes and multi-part polygons are handled), or null.
+ *
+ * The index is immutable, it can be shared by parallel subjobs and iterations and by the threads of a flow run with
+ * parallel execution, which look up their rows at the same time; {@link #get(String, String)} loads each
+ * shapefile/attribute pair only once per JVM. The results of the last coordinates are cached, crime records often
+ * share the same block coordinates.
+ */
+public class SpatialIndex {
+
+    private static final int NODE_CAPACITY = 16;
+
+    private static final Charset DBF_CHARSET = Charset.forName("ISO-8859-1");
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final ConcurrentMap<String, SpatialIndex> indexes = new ConcurrentHashMap<String, SpatialIndex>();
+
+    private final Polygon[] polygons;
+
+    private final Node root;
+
+    private final int cacheSize;
+
+    // the results of the recent coordinates, then of the ones before them: a full cache is only halved
+    private volatile ConcurrentMap<Point, Object> cache = new ConcurrentHashMap<Point, Object>();
+
+    private volatile ConcurrentMap<Point, Object> previousCache = new ConcurrentHashMap<Point, Object>();
+
+    /**
+     * Returns the index of a shapefile, loaded on first call.
+     *
+     * @param shapefile path of the .shp file, the .dbf file must be next to it.
+     * @param attribute name of the .dbf field returned by the lookups.
+     */
+    public static SpatialIndex get(String shapefile, String attribute) throws IOException {
+        String key = new File(shapefile).getCanonicalPath() + "#" + attribute;
+        SpatialIndex index = indexes.get(key);
+        if (index == null) {
+            synchronized (indexes) {
+                index = indexes.get(key);
+                if (index == null) {
+                    index = new SpatialIndex(readPolygons(shapefile, attribute), 100000);
+                    indexes.put(key, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param cacheSize number of coordinates kept in the result cache, no cache when lower than 1.
+     */
+    public SpatialIndex(List<Polygon> polygons, int cacheSize) {
+        this.polygons = polygons.toArray(new Polygon[polygons.size()]);
+        this.cacheSize = cacheSize;
+        Node[] level = new Node[this.polygons.length];
+        for (int i = 0; i < level.length; i++) {
+            level[i] = new Node(this.polygons[i]);
+        }
+        while (level.length > 1) {
+            level = pack(level);
+        }
+        this.root = level.length == 0 ? null : level[0];
+    }
+
+    public int size() {
+        return polygons.length;
+    }
+
+    /**
+     * @return the attribute of the polygon containing the point, null if there is none.
+     */
+    public String lookup(double x, double y) {
+        if (cacheSize < 1) {
+            return find(x, y);
+        }
+        // the exact coordinates, two points a float rounding apart can be on both sides of a boundary
+        Point key = new Point(x, y);
+        ConcurrentMap<Point, Object> recent = cache;
+        Object value = recent.get(key);
+        if (value == null) {
+            value = previousCache.get(key);
+            if (value == null) {
+                String found = find(x, y);
+                value = found == null ? NOT_FOUND : found;
+            }
+            if (recent.size() >= (cacheSize + 1) / 2) {
+                synchronized (this) {
+                    if (recent == cache) {
+                        previousCache = recent;
+                        cache = new ConcurrentHashMap<Point, Object>();
+                    }
+                }
+            }
+            cache.put(key, value);
+        }
+        return value == NOT_FOUND ? null : (String) value;
+    }
+
+    private String find(double x, double y) {
+        if (root == null || !root.contains(x, y)) {
+            return null;
+        }
+        Node[] stack = new Node[64];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            if (node.polygon != null) {
+                if (node.polygon.contains(x, y)) {
+                    return node.polygon.attribute;
+                }
+                continue;
+            }
+            for (Node child : node.children) {
+                if (child.contains(x, y)) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One level of the Sort-Tile-Recursive packing: the nodes are sorted on x, cut in vertical slices, each slice is
+     * sorted on y and cut in parents of NODE_CAPACITY nodes.
+     */
+    private static Node[] pack(Node[] nodes) {
+        int parentCount = (nodes.length + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        int sliceCount = (int) Math.ceil(Math.sqrt(parentCount));
+        int sliceSize = sliceCount * NODE_CAPACITY;
+        Arrays.sort(nodes, new Comparator<Node>() {
+
+            public int compare(Node o1, Node o2) {
+                return Double.compare(o1.minX + o1.maxX, o2.minX + o2.maxX);
+            }
+        });
+        List<Node> parents = new ArrayList<Node>(parentCount);
+        for (int sliceStart = 0; sliceStart < nodes.length; sliceStart += sliceSize) {
+            int sliceEnd = Math.min(sliceStart + sliceSize, nodes.length);
+            Arrays.sort(nodes, sliceStart, sliceEnd, new Comparator<Node>() {
+
+                public int compare(Node o1, Node o2) {
+                    return Double.compare(o1.minY + o1.maxY, o2.minY + o2.maxY);
+                }
+            });
+            for (int start = sliceStart; start < sliceEnd; start += NODE_CAPACITY) {
+                parents.add(new Node(Arrays.copyOfRange(nodes, start, Math.min(start + NODE_CAPACITY, sliceEnd))));
+            }
+        }
+        return parents.toArray(new Node[parents.size()]);
+    }
+
+    /**
+     * Reads the polygons of a .shp file and the given attribute from the .dbf file with the same base name.
+     */
+    public static List<Polygon> readPolygons(String shapefile, String attribute) throws IOException {
+        String base = shapefile.toLowerCase().endsWith(".shp") ? shapefile.substring(0, shapefile.length() - 4) : shapefile;
+        String[] attributes = readAttribute(base + ".dbf", attribute);
+        ByteBuffer shp = ByteBuffer.wrap(readFile(new File(base + ".shp")));
+        List<Polygon> polygons = new ArrayList<Polygon>();
+        int position = 100;
+        int record = 0;
+        while (position + 8 <= shp.limit()) {
+            shp.order(ByteOrder.BIG_ENDIAN);
+            int contentLength = shp.getInt(position + 4) * 2;
+            int content = position + 8;
+            shp.order(ByteOrder.LITTLE_ENDIAN);
+            int shapeType = shp.getInt(content);
+            if (shapeType == 5 || shapeType == 15 || shapeType == 25) {
+                int partCount = shp.getInt(content + 36);
+                int pointCount = shp.getInt(content + 40);
+                int[] parts = new int[partCount + 1];
+                for (int i = 0; i < partCount; i++) {
+                    parts[i] = shp.getInt(content + 44 + i * 4);
+                }
+                parts[partCount] = pointCount;
+                double[] xs = new double[pointCount];
+                double[] ys = new double[pointCount];
+                int points = content + 44 + partCount * 4;
+                for (int i = 0; i < pointCount; i++) {
+                    xs[i] = shp.getDouble(points + i * 16);
+                    ys[i] = shp.getDouble(points + i * 16 + 8);
+                }
+                polygons.add(new Polygon(record < attributes.length ? attributes[record] : null, parts, xs, ys));
+            } else if (shapeType != 0) {
+                throw new IOException("Unsupported shape type " + shapeType + " in " + shapefile + ", polygons expected");
+            }
+            position = content + contentLength;
+            record++;
+        }
+        return polygons;
+    }
+
+    private static String[] readAttribute(String dbfFile, String attribute) throws IOException {
+        ByteBuffer dbf = ByteBuffer.wrap(readFile(new File(dbfFile))).order(ByteOrder.LITTLE_ENDIAN);
+        int recordCount = dbf.getInt(4);
+        int headerLength = dbf.getShort(8) & 0xFFFF;
+        int recordLength = dbf.getShort(10) & 0xFFFF;
+        int fieldOffset = 1; // deletion flag
+        int fieldLength = -1;
+        for (int descriptor = 32; dbf.get(descriptor) != 0x0D; descriptor += 32) {
+            byte[] name = new byte[11];
+            dbf.position(descriptor);
+            dbf.get(name);
+            int end = 0;
+            while (end < name.length && name[end] != 0) {
+                end++;
+            }
+            int length = dbf.get(descriptor + 16) & 0xFF;
+            if (new String(name, 0, end, DBF_CHARSET).equalsIgnoreCase(attribute)) {
+                fieldLength = length;
+                break;
+            }
+            fieldOffset += length;
+        }
+        if (fieldLength < 0) {
+            throw new IOException("Field " + attribute + " not found in " + dbfFile);
+        }
+        String[] values = new String[recordCount];
+        byte[] value = new byte[fieldLength];
+        for (int i = 0; i < recordCount; i++) {
+            dbf.position(headerLength + i * recordLength + fieldOffset);
+            dbf.get(value);
+            String trimmed = new String(value, DBF_CHARSET).trim();
+            values[i] = trimmed.length() == 0 ? null : trimmed;
+        }
+        return values;
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] data = new byte[(int) file.length()];
+        InputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                read += n;
+            }
+        } finally {
+            in.close();
+        }
+        return data;
+    }
+
+    /**
+     * Rings of one shapefile record with its attribute.
+     */
+    public static class Polygon {
+
+        final String attribute;
+
+        final int[] parts;
+
+        final double[] xs;
+
+        final double[] ys;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        /**
+         * @param parts index of the first point of each ring, followed by the number of points.
+         */
+        public Polygon(String attribute, int[] parts, double[] xs, double[] ys) {
+            this.attribute = attribute;
+            this.parts = parts;
+            this.xs = xs;
+            this.ys = ys;
+            for (int i = 0; i < xs.length; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        boolean contains(double x, double y) {
+            boolean inside = false;
+            for (int part = 0; part < parts.length - 1; part++) {
+                int start = parts[part];
+                int end = parts[part + 1];
+                for (int i = start, j = end - 1; i < end; j = i++) {
+                    if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                        inside = !inside;
+                    }
+                }
+            }
+            return inside;
+        }
+    }
+
+    private static final class Node {
+
+        final double minX, minY, maxX, maxY;
+
+        final Node[] children;
+
+        final Polygon polygon;
+
+        Node(Polygon polygon) {
+            this.polygon = polygon;
+            this.children = null;
+            this.minX = polygon.minX;
+            this.minY = polygon.minY;
+            this.maxX = polygon.maxX;
+            this.maxY = polygon.maxY;
+        }
+
+        Node(Node[] children) {
+            this.polygon = null;
+            this.children = children;
+            double x1 = Double.POSITIVE_INFINITY, y1 = Double.POSITIVE_INFINITY;
+            double x2 = Double.NEGATIVE_INFINITY, y2 = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                x1 = Math.min(x1, child.minX);
+                y1 = Math.min(y1, child.minY);
+                x2 = Math.max(x2, child.maxX);
+                y2 = Math.max(y2, child.maxY);
+            }
+            this.minX = x1;
+            this.minY = y1;
+            this.maxX = x2;
+            this.maxY = y2;
+        }
+
+        boolean contains(double x, double y) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+    }
+
+    private static final class Point {
+
+        final double x;
+
+        final double y;
+
+        Point(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Point)) {
+                return false;
+            }
+            Point other = (Point) obj;
+            return Double.doubleToLongBits(x) == Double.doubleToLongBits(other.x)
+                    && Double.doubleToLongBits(y) == Double.doubleToLongBits(other.y);
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(x) * 31 + Double.doubleToLongBits(y);
+            return (int) (bits ^ (bits >>> 32));
+        }
+    }
+}
@@ -0,0 +1,329 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set of unique keys used by tUniqRow when the number of distinct keys may not fit in the heap.
+ *
+ * Keys are kept in a plain HashSet until <code>maxKeysInMemory</code> is reached, then the whole set is written to a
+ * spill file as a "run" and only the key hash codes and file offsets of that run stay in memory. A lookup checks the
+ * in-memory keys first, then the optional Bloom filter, and only reads candidate keys back from disk when a run holds a
+ * key with the same hash code. Candidates are compared on their canonical bytes (see {@link IPersistableKey}), so the
+ * answer stays exact.
+ *
+ * It is not a java.util.Set: the spilled keys are kept as bytes which can be compared but not read back as keys, so
+ * the set can't be iterated. tUniqRow only needs contains/add.
+ */
+public class SpillableKeySet<K extends IPersistableKey> {
+
+    private final int maxKeysInMemory;
+
+    private final File tempDirectory;
+
+    private Set<K> memoryKeys;
+
+    private BloomFilter bloomFilter;
+
+    private List<SpillRun> runs = new ArrayList<SpillRun>();
+
+    private File spillFile;
+
+    private RandomAccessFile spillReader;
+
+    private long spillFileLength = 0;
+
+    private int size = 0;
+
+    public SpillableKeySet(int maxKeysInMemory, String tempDirectory) {
+        this(maxKeysInMemory, tempDirectory, 0, 0);
+    }
+
+    /**
+     * @param maxKeysInMemory number of keys kept as objects before spilling, at least 1.
+     * @param tempDirectory directory for the spill file, the system temporary directory when null or empty.
+     * @param expectedKeys expected number of distinct keys for the Bloom filter, no Bloom filter when lower than 1.
+     * @param falsePositiveRate wanted false positive probability of the Bloom filter, 0.01 when not in ]0, 1[.
+     */
+    public SpillableKeySet(int maxKeysInMemory, String tempDirectory, long expectedKeys, double falsePositiveRate) {
+        this.maxKeysInMemory = Math.max(1, maxKeysInMemory);
+        this.tempDirectory = (tempDirectory == null || tempDirectory.length() == 0) ? null : new File(tempDirectory);
+        this.memoryKeys = new HashSet<K>();
+        if (expectedKeys > 0) {
+            this.bloomFilter = new BloomFilter(expectedKeys, falsePositiveRate);
+        }
+    }
+
+    public boolean contains(K key) {
+        if (memoryKeys.contains(key)) {
+            return true;
+        }
+        if (runs.isEmpty()) {
+            return false;
+        }
+        int hash = hash(key);
+        if (bloomFilter != null && !bloomFilter.mightContain(hash)) {
+            return false;
+        }
+        try {
+            byte[] keyData = null;
+            for (SpillRun run : runs) {
+                int index = run.firstIndexOf(hash);
+                if (index < 0) {
+                    continue;
+                }
+                if (keyData == null) {
+                    keyData = toBytes(key, new ByteArrayOutputStream(256));
+                }
+                if (run.contains(keyData, hash, index)) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the key was not in the set.
+     */
+    public boolean add(K key) {
+        if (contains(key)) {
+            return false;
+        }
+        memoryKeys.add(key);
+        if (bloomFilter != null) {
+            bloomFilter.put(hash(key));
+        }
+        size++;
+        if (memoryKeys.size() >= maxKeysInMemory) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        close();
+        memoryKeys = new HashSet<K>();
+        runs = new ArrayList<SpillRun>();
+        if (bloomFilter != null) {
+            bloomFilter.clear();
+        }
+        size = 0;
+    }
+
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Releases the spill file. Must be called at the end of the subjob.
+     */
+    public void close() {
+        try {
+            if (spillReader != null) {
+                spillReader.close();
+            }
+        } catch (IOException e) {
+            // nothing to do, the file is removed just after
+        }
+        spillReader = null;
+        if (spillFile != null) {
+            spillFile.delete();
+            spillFile = null;
+        }
+        spillFileLength = 0;
+    }
+
+    private void spill() throws IOException {
+        if (spillFile == null) {
+            spillFile = File.createTempFile("tUniqRow_", ".keys", tempDirectory);
+            spillFile.deleteOnExit();
+        }
+        int count = memoryKeys.size();
+        int[] hashes = new int[count];
+        long[] offsets = new long[count];
+        long position = spillFileLength;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile, true), 65536));
+        try {
+            int i = 0;
+            for (K key : memoryKeys) {
+                byte[] data = toBytes(key, buffer);
+                hashes[i] = hash(key);
+                offsets[i] = position;
+                out.writeInt(data.length);
+                out.write(data);
+                position += 4 + data.length;
+                i++;
+            }
+        } finally {
+            out.close();
+        }
+        spillFileLength = position;
+        runs.add(new SpillRun(hashes, offsets));
+        memoryKeys = new HashSet<K>();
+    }
+
+    private RandomAccessFile getSpillReader() throws IOException {
+        if (spillReader == null) {
+            spillReader = new RandomAccessFile(spillFile, "r");
+        }
+        return spillReader;
+    }
+
+    private static byte[] toBytes(IPersistableKey key, ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        ObjectOutputStream oos = new ObjectOutputStream(buffer);
+        key.writeKeyData(oos);
+        oos.close();
+        return buffer.toByteArray();
+    }
+
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Keys of one spill, sorted by hash code so that candidates are found with a binary search.
+     */
+    private class SpillRun {
+
+        private final int[] hashes;
+
+        private final long[] offsets;
+
+        SpillRun(int[] hashes, long[] offsets) {
+            sortByHash(hashes, offsets);
+            this.hashes = hashes;
+            this.offsets = offsets;
+        }
+
+        int firstIndexOf(int hash) {
+            int index = Arrays.binarySearch(hashes, hash);
+            while (index > 0 && hashes[index - 1] == hash) {
+                index--;
+            }
+            return index;
+        }
+
+        boolean contains(byte[] keyData, int hash, int index) throws IOException {
+            RandomAccessFile reader = getSpillReader();
+            for (; index < hashes.length && hashes[index] == hash; index++) {
+                reader.seek(offsets[index]);
+                int length = reader.readInt();
+                if (length != keyData.length) {
+                    continue;
+                }
+                byte[] stored = new byte[length];
+                reader.readFully(stored);
+                if (Arrays.equals(stored, keyData)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void sortByHash(int[] hashes, long[] offsets) {
+        // indices sort on the primitive arrays, avoid boxing every key of the run
+        long[] packed = new long[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            packed[i] = ((long) hashes[i] << 32) | (i & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        long[] sortedOffsets = new long[offsets.length];
+        for (int i = 0; i < packed.length; i++) {
+            hashes[i] = (int) (packed[i] >> 32);
+            sortedOffsets[i] = offsets[(int) packed[i]];
+        }
+        System.arraycopy(sortedOffsets, 0, offsets, 0, offsets.length);
+    }
+
+    /**
+     * Bloom filter on the key hash codes, the k probes are derived from two hashes (Kirsch-Mitzenmacher).
+     */
+    static class BloomFilter {
+
+        private final long[] bits;
+
+        private final long bitCount;
+
+        private final int hashFunctions;
+
+        BloomFilter(long expectedKeys, double falsePositiveRate) {
+            if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+                falsePositiveRate = 0.01;
+            }
+            long m = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            m = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * 64));
+            this.bits = new long[(int) ((m + 63) >>> 6)];
+            this.bitCount = (long) bits.length * 64;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) m / expectedKeys * Math.log(2)));
+        }
+
+        void put(int hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(int hash) {
+            long h1 = mix(hash);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void clear() {
+            Arrays.fill(bits, 0L);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
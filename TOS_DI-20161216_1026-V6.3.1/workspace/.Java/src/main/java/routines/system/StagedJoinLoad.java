@@ -0,0 +1,173 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Pushdown mode of tMap: the rows of the main flow are loaded into a temporary staging table of the target connection
+ * and the lookups are joined in the database by a single <code>INSERT INTO target SELECT ... FROM staging JOIN ...</code>
+ * run by {@link #finish(String)}, instead of loading the lookups in memory and writing the joined rows one by one.
+ *
+ * The rows are inserted with multi rows INSERT statements of up to batchSize rows. Nothing is committed here, the
+ * target component commits as usual.
+ */
+public class StagedJoinLoad {
+
+    // placeholders of a statement, a limit of the server
+    private static final int MAX_PARAMETERS = 65535;
+
+    private final Connection connection;
+
+    private final String stagingTable;
+
+    private final int columnCount;
+
+    private final int rowsPerStatement;
+
+    private PreparedStatement batchStatement;
+
+    private Object[][] rows;
+
+    private int rowCount;
+
+    private long stagedCount;
+
+    public StagedJoinLoad(Connection connection, String stagingTable, int columnCount, int batchSize) {
+        this.connection = connection;
+        this.stagingTable = stagingTable;
+        this.columnCount = columnCount;
+        this.rowsPerStatement = Math.max(1, Math.min(batchSize > 0 ? batchSize : 1000, MAX_PARAMETERS / columnCount));
+    }
+
+    /**
+     * Creates the staging table.
+     *
+     * @param createStagingQuery <code>CREATE TEMPORARY TABLE</code> of the staging table, with the columns of the main
+     * flow.
+     */
+    public void open(String createStagingQuery) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute("DROP TEMPORARY TABLE IF EXISTS " + stagingTable);
+            statement.execute(createStagingQuery);
+        } finally {
+            statement.close();
+        }
+        rows = new Object[rowsPerStatement][];
+        batchStatement = connection.prepareStatement(insertStatement(rowsPerStatement));
+    }
+
+    /**
+     * Stages a row of the main flow, the values in the order of the staging table columns.
+     */
+    public void add(Object[] row) throws SQLException {
+        rows[rowCount++] = row;
+        if (rowCount == rowsPerStatement) {
+            bind(batchStatement, rowCount);
+            batchStatement.executeUpdate();
+            stagedCount += rowCount;
+            rowCount = 0;
+        }
+    }
+
+    /**
+     * @return the number of rows staged so far.
+     */
+    public long getStagedCount() {
+        return stagedCount + rowCount;
+    }
+
+    /**
+     * Stages the pending rows, joins the staging table into the target and drops it.
+     *
+     * @return the number of rows inserted into the target.
+     */
+    public int finish(String insertSelectQuery) throws SQLException {
+        try {
+            if (rowCount > 0) {
+                PreparedStatement last = connection.prepareStatement(insertStatement(rowCount));
+                try {
+                    bind(last, rowCount);
+                    last.executeUpdate();
+                } finally {
+                    last.close();
+                }
+                stagedCount += rowCount;
+                rowCount = 0;
+            }
+            Statement statement = connection.createStatement();
+            try {
+                return statement.executeUpdate(insertSelectQuery);
+            } finally {
+                statement.close();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Drops the staging table, also done by {@link #finish(String)}.
+     */
+    public void close() throws SQLException {
+        if (batchStatement == null) {
+            return;
+        }
+        batchStatement.close();
+        batchStatement = null;
+        rows = null;
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute("DROP TEMPORARY TABLE IF EXISTS " + stagingTable);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private String insertStatement(int rowsInStatement) {
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < columnCount; i++) {
+            row.append(i == 0 ? "?" : ",?");
+        }
+        row.append(")");
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(stagingTable).append(" VALUES ");
+        for (int i = 0; i < rowsInStatement; i++) {
+            if (i > 0) {
+                insert.append(",");
+            }
+            insert.append(row);
+        }
+        return insert.toString();
+    }
+
+    private void bind(PreparedStatement statement, int count) throws SQLException {
+        int index = 1;
+        for (int i = 0; i < count; i++) {
+            Object[] row = rows[i];
+            for (int j = 0; j < columnCount; j++) {
+                Object value = row[j];
+                if (value instanceof java.util.Date && !(value instanceof java.sql.Timestamp)) {
+                    value = new java.sql.Timestamp(((java.util.Date) value).getTime());
+                } else if (value instanceof Character) {
+                    value = value.toString();
+                }
+                statement.setObject(index++, value);
+            }
+            rows[i] = null;
+        }
+    }
+}
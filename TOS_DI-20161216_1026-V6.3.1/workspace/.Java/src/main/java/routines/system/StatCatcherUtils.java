@@ -50,11 +50,11 @@ public class StatCatcherUtils {
             this.origin = origin;
             this.message = message;
             this.duration = duration;
-            this.moment = java.util.Calendar.getInstance().getTime();
+            this.moment = new Date();
             this.messageType = messageType;
             this.jobVersion = jobVersion;
             this.jobId = jobId;
-            this.systemPid = StatCatcherUtils.getPid();
+            this.systemPid = PID;
         }
 
         public String getMessage() {
@@ -122,16 +122,26 @@ public class StatCatcherUtils {
         }
     }
 
-    java.util.List<StatCatcherMessage> messages = java.util.Collections
-            .synchronizedList(new java.util.ArrayList<StatCatcherMessage>());
+    private static final Long PID = getPid();
+
+    EventPipeline<StatCatcherMessage> messages;
 
     String jobId = ""; //$NON-NLS-1$
 
     String jobVersion = ""; //$NON-NLS-1$
 
     public StatCatcherUtils(String jobId, String jobVersion) {
+        this(jobId, jobVersion, EventPipeline.DEFAULT_CAPACITY, EventPipeline.BLOCK);
+    }
+
+    /**
+     * @param capacity the messages waiting for an asynchronous delivery.
+     * @param policy {@link EventPipeline#BLOCK} or {@link EventPipeline#DROP} when they are too many.
+     */
+    public StatCatcherUtils(String jobId, String jobVersion, int capacity, String policy) {
         this.jobId = jobId;
         this.jobVersion = jobVersion;
+        this.messages = new EventPipeline<StatCatcherMessage>(capacity, policy);
     }
 
     public void addMessage(String message, String origin, Long duration) {
@@ -146,7 +156,7 @@ public class StatCatcherUtils {
             messageType = "end"; //$NON-NLS-1$
         }
         StatCatcherMessage scm = new StatCatcherMessage(message, messageType, origin, duration, this.jobVersion, this.jobId);
-        messages.add(scm);
+        messages.offer(scm);
     }
 
     public void addMessage(String message, String origin) {
@@ -162,14 +172,36 @@ public class StatCatcherUtils {
     }
 
     public java.util.List<StatCatcherMessage> getMessages() {
-        java.util.List<StatCatcherMessage> messagesToSend = new java.util.ArrayList<StatCatcherMessage>();
-        synchronized (messages) {
-            for (StatCatcherMessage scm : messages) {
-                messagesToSend.add(scm);
-            }
-            messages.clear();
-        }
-        return messagesToSend;
+        return messages.drain();
+    }
+
+    /**
+     * Delivers the messages from a background thread: <code>catcherSubjob</code> runs the subjob of the tStatCatcher
+     * there, and {@link #isDeferred()} tells the other threads not to run it.
+     */
+    public void startDelivery(Runnable catcherSubjob) {
+        messages.start(catcherSubjob);
+    }
+
+    /**
+     * @return true if the subjob of the tStatCatcher is run by the delivery thread, not by the current one.
+     */
+    public boolean isDeferred() {
+        return messages.isStarted() && !messages.isDrainerThread();
+    }
+
+    /**
+     * Waits for the messages to be delivered and stops the delivery thread.
+     */
+    public void stopDelivery() {
+        messages.close();
+    }
+
+    /**
+     * @return the messages dropped because too many were waiting for the delivery.
+     */
+    public long getDroppedMessages() {
+        return messages.getDropped();
     }
 
     public static long getPid() {
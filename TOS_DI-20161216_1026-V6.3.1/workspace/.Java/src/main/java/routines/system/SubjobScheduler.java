@@ -0,0 +1,288 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import routines.system.api.TalendJob;
+
+/**
+ * Runs subjobs or child jobs according to their dependencies.
+ *
+ * Each node starts as soon as all the nodes it depends on have ended successfully, with at most
+ * <code>maxConcurrency</code> nodes running at the same time. When more nodes are ready than there are free slots, the
+ * ones heading the longest chain of dependents start first, so the total duration stays close to the critical path. A
+ * failed node does not stop the running ones, but none of its dependents is started.
+ *
+ * A job builds it with its tRunJobs: a tRunJob with "Scheduled" checked adds its child job instead of running it, after
+ * the tRunJobs listed in "Schedule after", and the tRunJob with "Run the scheduled jobs" checked adds its own child job
+ * then runs them all with at most "Max jobs" at the same time. The warehouse refresh is one tRunJob per dimension job
+ * and, in the last subjob, the tRunJob of Fact scheduled after the five of them. Written by hand:
+ *
+ * <pre>
+ * SubjobScheduler scheduler = new SubjobScheduler();
+ * scheduler.addJob(&quot;Location&quot;, new Location(), args);
+ * scheduler.addJob(&quot;Police&quot;, new Police(), args);
+ * ...
+ * scheduler.addJob(&quot;Fact&quot;, new Fact(), args, &quot;Location&quot;, &quot;Police&quot;, &quot;Time&quot;, &quot;Junk&quot;, &quot;Crime_Description&quot;);
+ * scheduler.run(Runtime.getRuntime().availableProcessors());
+ * int returnCode = scheduler.getTalendThreadResult().getErrorCode() == null ? 0 : scheduler.getTalendThreadResult().getErrorCode();
+ * </pre>
+ */
+public class SubjobScheduler {
+
+    private final Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+
+    private final TalendThreadResult threadResult = new TalendThreadResult();
+
+    private final List<String> failedNodes = Collections.synchronizedList(new ArrayList<String>());
+
+    private final List<String> skippedNodes = Collections.synchronizedList(new ArrayList<String>());
+
+    private PriorityQueue<Node> readyNodes;
+
+    private ExecutorService executor;
+
+    private CountDownLatch endedNodes;
+
+    private int maxConcurrency;
+
+    private int runningNodes;
+
+    public void addNode(String name, Runnable task, String... dependsOn) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate node: " + name);
+        }
+        nodes.put(name, new Node(name, task, dependsOn));
+    }
+
+    /**
+     * Adds a child job, the node fails when {@link TalendJob#runJobInTOS(String[])} doesn't return 0.
+     */
+    public void addJob(final String name, final TalendJob job, final String[] args, String... dependsOn) {
+        addNode(name, new Runnable() {
+
+            public void run() {
+                int returnCode = job.runJobInTOS(args);
+                if (returnCode != 0) {
+                    threadResult.setErrorCode(returnCode);
+                    throw new RuntimeException("Job " + name + " ended with return code " + returnCode);
+                }
+            }
+        }, dependsOn);
+    }
+
+    /**
+     * Runs all the nodes and returns when every node has ended or has been skipped. An interruption of the calling
+     * thread doesn't stop the wait, the interrupted status is restored on return.
+     */
+    public void run(int maxConcurrency) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        List<Node> order = sortNodes();
+        for (int i = order.size() - 1; i >= 0; i--) {
+            Node node = order.get(i);
+            for (Node dependent : node.dependents) {
+                node.height = Math.max(node.height, dependent.height + 1);
+            }
+        }
+        this.maxConcurrency = Math.max(1, Math.min(maxConcurrency, nodes.size()));
+        this.readyNodes = new PriorityQueue<Node>(nodes.size(), new Comparator<Node>() {
+
+            public int compare(Node o1, Node o2) {
+                return o2.height != o1.height ? o2.height - o1.height : o1.index - o2.index;
+            }
+        });
+        this.endedNodes = new CountDownLatch(nodes.size());
+        this.executor = Executors.newFixedThreadPool(this.maxConcurrency);
+        try {
+            synchronized (this) {
+                for (Node node : nodes.values()) {
+                    if (node.remainingDependencies == 0) {
+                        readyNodes.add(node);
+                    }
+                }
+                dispatch();
+            }
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    endedNodes.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public TalendThreadResult getTalendThreadResult() {
+        return threadResult;
+    }
+
+    public List<String> getFailedNodes() {
+        return new ArrayList<String>(failedNodes);
+    }
+
+    public List<String> getSkippedNodes() {
+        return new ArrayList<String>(skippedNodes);
+    }
+
+    /**
+     * Topological order of the nodes, fails on an unknown dependency or a cycle.
+     */
+    private List<Node> sortNodes() {
+        int index = 0;
+        for (Node node : nodes.values()) {
+            node.index = index++;
+            node.dependents.clear();
+            node.height = 0;
+            node.remainingDependencies = node.dependsOn.length;
+        }
+        for (Node node : nodes.values()) {
+            for (String dependency : node.dependsOn) {
+                Node parent = nodes.get(dependency);
+                if (parent == null) {
+                    throw new IllegalArgumentException("Node " + node.name + " depends on unknown node " + dependency);
+                }
+                parent.dependents.add(node);
+            }
+        }
+        List<Node> order = new ArrayList<Node>(nodes.size());
+        Map<Node, Integer> remaining = new LinkedHashMap<Node, Integer>();
+        Deque<Node> roots = new ArrayDeque<Node>();
+        for (Node node : nodes.values()) {
+            remaining.put(node, node.dependsOn.length);
+            if (node.dependsOn.length == 0) {
+                roots.add(node);
+            }
+        }
+        while (!roots.isEmpty()) {
+            Node node = roots.poll();
+            order.add(node);
+            for (Node dependent : node.dependents) {
+                int left = remaining.get(dependent) - 1;
+                remaining.put(dependent, left);
+                if (left == 0) {
+                    roots.add(dependent);
+                }
+            }
+        }
+        if (order.size() != nodes.size()) {
+            throw new IllegalArgumentException("Cycle in the dependencies of the subjobs");
+        }
+        return order;
+    }
+
+    // must hold the lock
+    private void dispatch() {
+        while (runningNodes < maxConcurrency && !readyNodes.isEmpty()) {
+            final Node node = readyNodes.poll();
+            runningNodes++;
+            executor.execute(new Runnable() {
+
+                public void run() {
+                    boolean success = false;
+                    try {
+                        node.task.run();
+                        success = true;
+                    } catch (Exception e) {
+                        fail(node, e);
+                    } catch (Error error) {
+                        fail(node, null);
+                        throw error;
+                    } finally {
+                        ended(node, success);
+                    }
+                }
+            });
+        }
+    }
+
+    private void fail(Node node, Exception e) {
+        failedNodes.add(node.name);
+        threadResult.setStatus("failure");
+        if (e != null && threadResult.getException() == null) {
+            threadResult.setException(e);
+        }
+    }
+
+    private synchronized void ended(Node node, boolean success) {
+        runningNodes--;
+        endedNodes.countDown();
+        if (success) {
+            for (Node dependent : node.dependents) {
+                if (--dependent.remainingDependencies == 0 && !dependent.skipped) {
+                    readyNodes.add(dependent);
+                }
+            }
+        } else {
+            skipDependents(node);
+        }
+        dispatch();
+    }
+
+    // must hold the lock
+    private void skipDependents(Node node) {
+        for (Node dependent : node.dependents) {
+            if (!dependent.skipped) {
+                dependent.skipped = true;
+                skippedNodes.add(dependent.name);
+                endedNodes.countDown();
+                skipDependents(dependent);
+            }
+        }
+    }
+
+    private static class Node {
+
+        final String name;
+
+        final Runnable task;
+
+        final String[] dependsOn;
+
+        final List<Node> dependents = new ArrayList<Node>();
+
+        int index;
+
+        int height;
+
+        int remainingDependencies;
+
+        boolean skipped;
+
+        Node(String name, Runnable task, String[] dependsOn) {
+            this.name = name;
+            this.task = task;
+            this.dependsOn = dependsOn == null ? new String[0] : dependsOn;
+        }
+    }
+}
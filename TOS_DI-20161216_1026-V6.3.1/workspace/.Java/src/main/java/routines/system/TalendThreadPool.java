@@ -8,10 +8,35 @@
 // You should have received a copy of the agreement
 // along with this program; if not, write to Talend SA
 // 9 rue Pages 92150 Suresnes, France
-//   
+//
 // ============================================================================
 package routines.system;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool running the iterations of a parallel iterate link (and other TalendThread targets).
+ *
+ * The targets run on a work-stealing ForkJoinPool, or on virtual threads when they are requested and the JVM provides
+ * them (Java 21+, otherwise the ForkJoinPool is used). At most <code>2 * numberOfThreads</code> targets are queued or
+ * running at the same time, so {@link #execute(TalendThread)} still blocks the iterating thread when the pool is
+ * saturated, but a worker never waits for the next iteration to be handed over. {@link #waitForEndOfQueue()} waits on
+ * the completion futures of the targets instead of polling.
+ */
 public class TalendThreadPool {
 
     private volatile boolean stopAllWorkers = false;
@@ -20,59 +45,81 @@ public class TalendThreadPool {
 
     private TalendThreadResult threadResult = null;
 
-    private ThreadQueue idleWorkers;
+    private final ExecutorService executor;
+
+    private final Semaphore permits;
 
-    private ThreadPoolWorker[] workerList;
+    private final Set<Future<?>> pendingTasks = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
 
     public TalendThreadPool(int numberOfThreads) {
+        this(numberOfThreads, false);
+    }
+
+    /**
+     * @param numberOfThreads number of targets running at the same time.
+     * @param useVirtualThreads run each target on its own virtual thread, for I/O bound iterations.
+     */
+    public TalendThreadPool(int numberOfThreads, boolean useVirtualThreads) {
         threadResult = new TalendThreadResult();
         numberOfThreads = Math.max(1, numberOfThreads);
-        idleWorkers = new ThreadQueue(numberOfThreads);
-        workerList = new ThreadPoolWorker[numberOfThreads];
-        for (int i = 0; i < workerList.length; i++) {
-            workerList[i] = new ThreadPoolWorker(idleWorkers);
+        ExecutorService virtualExecutor = useVirtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            executor = virtualExecutor;
+            permits = new Semaphore(numberOfThreads);
+        } else {
+            executor = new ForkJoinPool(numberOfThreads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+            permits = new Semaphore(numberOfThreads * 2);
         }
     }
 
     public void execute(TalendThread target) throws InterruptedException {
-        if (!stopAllWorkers) {
-            ThreadPoolWorker worker = (ThreadPoolWorker) idleWorkers.remove();
-            target.talendThreadPool = this;
-            if (worker != null) {
-                worker.process(target);
+        if (stopAllWorkers) {
+            return;
+        }
+        target.talendThreadPool = this;
+        permits.acquire();
+        if (stopAllWorkers) {
+            permits.release();
+            return;
+        }
+        FutureTask<Void> task = new FutureTask<Void>(target, null) {
+
+            @Override
+            protected void done() {
+                pendingTasks.remove(this);
+                permits.release();
             }
+        };
+        pendingTasks.add(task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // stopAllWorkers has been called meanwhile
+            task.cancel(false);
         }
     }
 
     public void waitForEndOfQueue() {
         try {
-            while (!stopAllWorkers && idleWorkers.getSize() != workerList.length) {
-                Thread.sleep(100);
-            }
-            for (int i = 0; i < workerList.length; i++) {
-                workerList[i].stopRequest();
-                while (workerList[i].isAlive()) {
-                    Thread.sleep(100);
+            while (!stopAllWorkers && !pendingTasks.isEmpty()) {
+                Iterator<Future<?>> it = pendingTasks.iterator();
+                if (it.hasNext()) {
+                    waitFor(it.next());
                 }
             }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
         } catch (InterruptedException x) {
         }
     }
 
     public void stopAllWorkers() {
         if (!stopAllWorkers) {
-            try {
-                stopAllWorkers = true;
-                idleWorkers.destory();
-                for (int i = 0; i < workerList.length; i++) {
-                    workerList[i].stopRequest();
-                    while (workerList[i].isAlive()) {
-                        Thread.sleep(100);
-                    }
-                }
-            } catch (InterruptedException x) {
+            stopAllWorkers = true;
+            for (Future<?> task : pendingTasks) {
+                task.cancel(true);
             }
-
+            executor.shutdownNow();
         }
     }
 
@@ -81,7 +128,7 @@ public class TalendThreadPool {
     }
 
     // only keep the first ErrorThread
-    public void setErrorThread(TalendThread errorThread) {
+    public synchronized void setErrorThread(TalendThread errorThread) {
         if (this.errorThread == null) {
             this.errorThread = errorThread;
         }
@@ -90,196 +137,24 @@ public class TalendThreadPool {
     public TalendThreadResult getTalendThreadResult() {
         return threadResult;
     }
-}
-
-class ThreadPoolWorker extends Object {
-
-    private static int nextWorkerID = 0;
-
-    private ThreadQueue idleWorkers;
-
-    private int workerID;
-
-    private ThreadQueue handoffBox;
-
-    private Thread internalThread;
-
-    private volatile boolean noStopRequested;
-
-    public ThreadPoolWorker(ThreadQueue idleWorkers) {
-        this.idleWorkers = idleWorkers;
 
-        workerID = getNextWorkerID();
-        handoffBox = new ThreadQueue(1); // only one slot
-
-        // just before returning, the thread should be created and started.
-        noStopRequested = true;
-
-        Runnable r = new Runnable() {
-
-            public void run() {
-                try {
-                    runWork();
-                } catch (Exception x) {
-                    // in case ANY exception slips through
-                    x.printStackTrace();
-                }
-            }
-        };
-
-        internalThread = new Thread(r);
-        internalThread.start();
-    }
-
-    public static synchronized int getNextWorkerID() {
-        // notice: synchronized at the class level to ensure uniqueness
-        int id = nextWorkerID;
-        nextWorkerID++;
-        return id;
-    }
-
-    public void process(Runnable target) throws InterruptedException {
-        handoffBox.add(target);
-    }
-
-    private void runWork() {
-        while (noStopRequested) {
-            try {
-                idleWorkers.add(this);
-                Runnable r = (Runnable) handoffBox.remove();
-                runIt(r);
-            } catch (InterruptedException x) {
-                Thread.currentThread().interrupt(); // re-assert
-            }
-        }
-    }
-
-    private void runIt(Runnable r) {
+    private void waitFor(Future<?> task) throws InterruptedException {
         try {
-            r.run();
-        } catch (Exception runex) {
-            runex.printStackTrace();
-        } finally {
-            Thread.interrupted();
-        }
-    }
-
-    public void stopRequest() {
-        noStopRequested = false;
-        internalThread.interrupt();
-    }
-
-    public boolean isAlive() {
-        return internalThread.isAlive();
-    }
-}
-
-class ThreadQueue {
-
-    private Object[] queue;
-
-    private int maxSize;
-
-    private int size;
-
-    private int head;
-
-    private int tail;
-
-    private volatile boolean isDestory = false;
-
-    public ThreadQueue(int cap) {
-        maxSize = (cap > 0) ? cap : 1; // at least 1
-        queue = new Object[maxSize];
-        head = 0;
-        tail = 0;
-        size = 0;
-    }
-
-    public synchronized int getSize() {
-        return size;
-    }
-
-    public synchronized boolean isEmpty() {
-        return (size == 0);
-    }
-
-    public synchronized boolean isFull() {
-        return (size == maxSize);
-    }
-
-    public synchronized void add(Object obj) throws InterruptedException {
-        waitWhileFull();
-        queue[head] = obj;
-        head = (head + 1) % maxSize;
-        size++;
-
-        notifyAll();
-    }
-
-    public synchronized Object remove() throws InterruptedException {
-        waitWhileEmpty();
-        Object obj = queue[tail];
-        queue[tail] = null;
-        tail = (tail + 1) % maxSize;
-        size--;
-        notifyAll();
-        return obj;
-    }
-
-    public synchronized Object[] removeAll() throws InterruptedException {
-        Object[] list = new Object[size];
-        for (int i = 0; i < list.length; i++) {
-            list[i] = remove();
-        }
-        return list;
-    }
-
-    public synchronized boolean waitUntilEmpty(long msTimeout) throws InterruptedException {
-        if (msTimeout == 0L) {
-            waitUntilEmpty();
-            return true;
-        }
-
-        long endTime = System.currentTimeMillis() + msTimeout;
-        long msRemaining = msTimeout;
-
-        while (!isEmpty() && (msRemaining > 0L)) {
-            wait(msRemaining);
-            msRemaining = endTime - System.currentTimeMillis();
-        }
-        return isEmpty();
-    }
-
-    public synchronized void waitUntilEmpty() throws InterruptedException {
-        while (!isEmpty()) {
-            wait();
+            task.get();
+        } catch (ExecutionException e) {
+            // the targets report their own errors, this is what escaped from run()
+            threadResult.setFailure(e.getCause());
+        } catch (CancellationException e) {
+            // stopped by stopAllWorkers
         }
     }
 
-    // "remove" work with sign "isDestory"
-    public synchronized void waitWhileEmpty() throws InterruptedException {
-        while (!isDestory && isEmpty()) {
-            wait();
-        }
-    }
-
-    public synchronized void waitUntilFull() throws InterruptedException {
-        while (!isFull()) {
-            wait();
-        }
-    }
-
-    // "add" work with sign "isDestory"
-    public synchronized void waitWhileFull() throws InterruptedException {
-        while (!isDestory && isFull()) {
-            wait();
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (Exception e) {
+            return null;
         }
     }
-
-    public synchronized void destory() throws InterruptedException {
-        isDestory = true;
-        this.notify();
-    }
-
 }
@@ -14,11 +14,11 @@ package routines.system;
 
 public class TalendThreadResult {
 
-    private Integer errorCode = null;
+    private volatile Integer errorCode = null;
 
-    private String status = ""; //$NON-NLS-1$
+    private volatile String status = ""; //$NON-NLS-1$
 
-    private Exception exception = null;
+    private volatile Exception exception = null;
 
     public Exception getException() {
         return this.exception;
@@ -32,8 +32,8 @@ public class TalendThreadResult {
         return errorCode;
     }
 
-    // only keep the max error code
-    public void setErrorCode(Integer errorCode) {
+    // only keep the max error code, called concurrently by the pool workers
+    public synchronized void setErrorCode(Integer errorCode) {
         if (errorCode != null) {
             if (this.errorCode == null || errorCode.compareTo(this.errorCode) > 0) {
                 this.errorCode = errorCode;
@@ -41,6 +41,14 @@ public class TalendThreadResult {
         }
     }
 
+    // only keep the first exception, for a target which failed without reporting its error
+    public synchronized void setFailure(Throwable cause) {
+        this.status = "failure"; //$NON-NLS-1$
+        if (this.exception == null) {
+            this.exception = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,202 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Converter of a column of a tConvertType, or of a date pattern of the auto-conversion of a tMap, built once for the
+ * component with the state its conversion needs, instead of looking it up for each value as the methods of
+ * {@link TypeConvert} do.
+ *
+ * Only the conversions between dates and strings keep a state, their own {@link DateFormat}: they no longer go
+ * through the synchronized methods of {@link routines.TalendDate} and the cache of {@link FastDateParser}. The other
+ * conversions are already straight calls of {@link TypeConvert}. The results and the errors are the ones of
+ * {@link TypeConvert}.
+ *
+ * A converter is not thread safe, each component keeps its own.
+ */
+public abstract class TypeConverter {
+
+    /**
+     * @return the converter of a column, null if the conversion keeps no state.
+     * @param inType the type of the input column, as in the names of the methods of {@link TypeConvert}.
+     * @param outType the type of the output column.
+     * @param pattern the date pattern of the string side of the conversion, null to convert as {@link TypeConvert}
+     * does without pattern.
+     */
+    public static TypeConverter get(String inType, String outType, String pattern) {
+        if ("Date".equals(outType)) {
+            if ("String".equals(inType)) {
+                return new StringToDate(pattern);
+            } else if ("Object".equals(inType)) {
+                return new ObjectToDate(pattern);
+            }
+        } else if ("String".equals(outType) && "Date".equals(inType)) {
+            return new DateToString(pattern);
+        }
+        return null;
+    }
+
+    public abstract Object convert(Object value);
+
+    // null if the pattern is null or invalid, the conversion is then left to TypeConvert and fails as it does
+    private static DateFormat newFormat(String pattern) {
+        if (pattern == null) {
+            return null;
+        }
+        try {
+            return FastDateParser.newInstance(pattern, null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * As {@link TypeConvert#String2Date(String, String)}.
+     */
+    static class StringToDate extends TypeConverter {
+
+        private final String pattern;
+
+        private final DateFormat format;
+
+        private final boolean hasZone;
+
+        StringToDate(String pattern) {
+            this.pattern = pattern;
+            this.format = newFormat(pattern);
+            if (format != null) {
+                format.setLenient(true);
+            }
+            this.hasZone = format != null && hasZone(pattern);
+        }
+
+        @Override
+        public Object convert(Object value) {
+            return parse((String) value);
+        }
+
+        Date parse(String value) {
+            if (format == null) {
+                return TypeConvert.String2Date(value, pattern);
+            }
+            if (value == null || "".equals(value.trim())) {
+                return null;
+            }
+            try {
+                Date date = format.parse(value);
+                if (hasZone) {
+                    return withZone(date, format.getCalendar().get(Calendar.ZONE_OFFSET));
+                }
+                return date;
+            } catch (ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        // as TalendDate.parseDate, a time zone of the pattern is kept by the date
+        private static Date withZone(Date date, int offset) {
+            char sign = offset >= 0 ? '+' : '-';
+            int hour = Math.abs(offset) / 1000 / 60 / 60;
+            int min = Math.abs(offset) / 1000 / 60 % 60;
+            String minStr = min < 10 ? "0" + min : min + "";
+            return new TalendTimestampWithTZ(new java.sql.Timestamp(date.getTime()),
+                    TimeZone.getTimeZone("GMT" + sign + hour + ":" + minStr));
+        }
+
+        private static boolean hasZone(String pattern) {
+            boolean inQuote = false;
+            for (int i = 0; i < pattern.length(); i++) {
+                char p = pattern.charAt(i);
+                if (p == '\'') {
+                    inQuote = !inQuote;
+                } else if (!inQuote && (p == 'Z' || p == 'z')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * As {@link TypeConvert#Object2Date(Object, String)}.
+     */
+    static class ObjectToDate extends TypeConverter {
+
+        private final StringToDate withPattern;
+
+        private DateFormat withoutPattern;
+
+        ObjectToDate(String pattern) {
+            this.withPattern = pattern == null ? null : new StringToDate(pattern);
+        }
+
+        @Override
+        public Object convert(Object value) {
+            if (value == null) {
+                return null;
+            } else if (value instanceof Date) {
+                return value;
+            } else if (value instanceof String) {
+                if (withPattern != null) {
+                    return withPattern.parse((String) value);
+                }
+                // as TypeConvert.String2Date(String)
+                if (withoutPattern == null) {
+                    withoutPattern = DateFormat.getDateInstance();
+                }
+                try {
+                    return withoutPattern.parse((String) value);
+                } catch (ParseException e) {
+                    throw TypeConvert.ConvertTypeIllegalArgumentException.forInputArgument(value, "Date");
+                }
+            } else {
+                throw TypeConvert.ConvertTypeIllegalArgumentException.forInputArgument(value, "Date");
+            }
+        }
+    }
+
+    /**
+     * As {@link TypeConvert#Date2String(Date, String)}.
+     */
+    static class DateToString extends TypeConverter {
+
+        private final String pattern;
+
+        private final DateFormat format;
+
+        DateToString(String pattern) {
+            this.pattern = pattern;
+            this.format = newFormat(pattern);
+        }
+
+        @Override
+        public Object convert(Object value) {
+            if (value == null || format == null) {
+                return TypeConvert.Date2String((Date) value, pattern);
+            }
+            Date date = (Date) value;
+            if (date instanceof TalendTimestampWithTZ) {
+                format.setTimeZone(((TalendTimestampWithTZ) date).getTimeZone());
+            } else {
+                format.setTimeZone(TimeZone.getDefault());
+            }
+            return format.format(date);
+        }
+    }
+}
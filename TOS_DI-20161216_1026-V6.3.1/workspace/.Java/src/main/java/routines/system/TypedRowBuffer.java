@@ -0,0 +1,587 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The rows of the tBufferOutputs of a job, kept by column in chunks of {@link #CHUNK_SIZE} rows: the int, long,
+ * double, float and boolean columns in primitive arrays, the other columns as strings coded by a dictionary of the
+ * chunk. The rows are read by a {@link Cursor} without boxing, or as the <code>String[]</code> rows of a
+ * <code>List</code>, the same strings as the ones the tBufferOutputs added before.
+ *
+ * Each thread appends to its own chunk through its {@link Writer} and publishes each row by a volatile row count, the
+ * writers never lock but to add a chunk. The rows of a thread are read in their order, the rows of several threads in
+ * the order of their chunks.
+ */
+public class TypedRowBuffer extends AbstractList<String[]> {
+
+    public static final int CHUNK_SIZE = 4096;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final byte INT = 1;
+
+    private static final byte LONG = 2;
+
+    private static final byte DOUBLE = 3;
+
+    private static final byte FLOAT = 4;
+
+    private static final byte BOOLEAN = 5;
+
+    private static final byte STRING = 6;
+
+    private final Object lock = new Object();
+
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    // the leading chunks already full, the rows of the chunks after them move while a writer fills an earlier chunk
+    private volatile int fullChunks;
+
+    private final ThreadLocal<Writer> writers = new ThreadLocal<Writer>() {
+
+        @Override
+        protected Writer initialValue() {
+            return new Writer();
+        }
+    };
+
+    /**
+     * @return the writer of the current thread.
+     */
+    public Writer writer() {
+        return writers.get();
+    }
+
+    /**
+     * @return a cursor on the rows added so far, and on the rows added while it reads.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public boolean add(String[] row) {
+        Writer writer = writer();
+        for (int i = 0; i < row.length; i++) {
+            writer.put(i, row[i]);
+        }
+        writer.endRow(row.length);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Chunk chunk : chunks) {
+            size += chunk.count;
+        }
+        return size;
+    }
+
+    @Override
+    public String[] get(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        Chunk[] all = chunks;
+        int full = fullChunks;
+        if (index < full * CHUNK_SIZE) {
+            return all[index / CHUNK_SIZE].row(index % CHUNK_SIZE);
+        }
+        int base = full * CHUNK_SIZE;
+        for (int c = full; c < all.length; c++) {
+            int count = all[c].count;
+            if (count == CHUNK_SIZE && c == full) {
+                full++;
+            }
+            if (index < base + count) {
+                if (full > fullChunks) {
+                    fullChunks = full;
+                }
+                return all[c].row(index - base);
+            }
+            base += count;
+        }
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + base);
+    }
+
+    @Override
+    public Iterator<String[]> iterator() {
+        final Cursor cursor = cursor();
+        return new Iterator<String[]>() {
+
+            private boolean ready;
+
+            private boolean hasNext;
+
+            public boolean hasNext() {
+                if (!ready) {
+                    hasNext = cursor.next();
+                    ready = true;
+                }
+                return hasNext;
+            }
+
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return cursor.chunk.row(cursor.row);
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private Chunk newChunk() {
+        Chunk chunk = new Chunk();
+        synchronized (lock) {
+            Chunk[] all = Arrays.copyOf(chunks, chunks.length + 1);
+            all[all.length - 1] = chunk;
+            chunks = all;
+        }
+        return chunk;
+    }
+
+    /**
+     * Appends the rows of a thread: the values of a row are put by column index, then the row is ended. A column not
+     * put is null.
+     */
+    public class Writer {
+
+        private Chunk chunk;
+
+        private int width;
+
+        public void put(int column, int value) {
+            Column col = column(column, INT);
+            if (col.kind == INT) {
+                col.setInt(chunk.count, value);
+            } else {
+                col.setString(chunk.count, String.valueOf(value));
+            }
+        }
+
+        public void put(int column, long value) {
+            Column col = column(column, LONG);
+            if (col.kind == LONG) {
+                col.setLong(chunk.count, value);
+            } else {
+                col.setString(chunk.count, String.valueOf(value));
+            }
+        }
+
+        public void put(int column, double value) {
+            Column col = column(column, DOUBLE);
+            if (col.kind == DOUBLE) {
+                col.setLong(chunk.count, Double.doubleToRawLongBits(value));
+            } else {
+                col.setString(chunk.count, String.valueOf(value));
+            }
+        }
+
+        public void put(int column, float value) {
+            Column col = column(column, FLOAT);
+            if (col.kind == FLOAT) {
+                col.setInt(chunk.count, Float.floatToRawIntBits(value));
+            } else {
+                col.setString(chunk.count, String.valueOf(value));
+            }
+        }
+
+        public void put(int column, boolean value) {
+            Column col = column(column, BOOLEAN);
+            if (col.kind == BOOLEAN) {
+                col.setInt(chunk.count, value ? 1 : 0);
+            } else {
+                col.setString(chunk.count, String.valueOf(value));
+            }
+        }
+
+        public void put(int column, char value) {
+            put(column, String.valueOf(value));
+        }
+
+        public void put(int column, Integer value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.intValue());
+            }
+        }
+
+        public void put(int column, Short value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.intValue());
+            }
+        }
+
+        public void put(int column, Byte value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.intValue());
+            }
+        }
+
+        public void put(int column, Long value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.longValue());
+            }
+        }
+
+        public void put(int column, Double value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.doubleValue());
+            }
+        }
+
+        public void put(int column, Float value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.floatValue());
+            }
+        }
+
+        public void put(int column, Boolean value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                put(column, value.booleanValue());
+            }
+        }
+
+        public void put(int column, String value) {
+            if (value == null) {
+                putNull(column);
+            } else {
+                column(column, STRING).setString(chunk.count, value);
+            }
+        }
+
+        /**
+         * Puts <code>String.valueOf(value)</code>, or null.
+         */
+        public void put(int column, Object value) {
+            put(column, value == null ? null : String.valueOf(value));
+        }
+
+        public void putNull(int column) {
+            chunk();
+            width = Math.max(width, column + 1);
+        }
+
+        /**
+         * Publishes the row.
+         *
+         * @param columns the length of the row, at least the last column put.
+         */
+        public void endRow(int columns) {
+            Chunk current = chunk();
+            current.end(Math.max(width, columns));
+            width = 0;
+            if (current.count == CHUNK_SIZE) {
+                current.seal();
+                chunk = null;
+            }
+        }
+
+        private Chunk chunk() {
+            if (chunk == null) {
+                chunk = newChunk();
+            }
+            return chunk;
+        }
+
+        private Column column(int column, byte kind) {
+            Chunk current = chunk();
+            width = Math.max(width, column + 1);
+            return current.column(column, kind);
+        }
+    }
+
+    /**
+     * Reads the rows in order, the getters of a typed column do not box, the other values are parsed like tBufferInput
+     * parses its strings.
+     */
+    public class Cursor {
+
+        private int chunkIndex = -1;
+
+        private Chunk chunk;
+
+        private int row = -1;
+
+        public boolean next() {
+            if (chunk != null && row + 1 < chunk.count) {
+                row++;
+                return true;
+            }
+            Chunk[] all = chunks;
+            while (chunkIndex + 1 < all.length) {
+                chunk = all[++chunkIndex];
+                row = 0;
+                if (chunk.count > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the number of columns of the row.
+         */
+        public int length() {
+            return chunk.widths[row];
+        }
+
+        public boolean isNull(int column) {
+            Column col = chunk.column(column);
+            return col == null || !col.isPresent(row);
+        }
+
+        public int getInt(int column) {
+            Column col = chunk.column(column);
+            if (col != null && col.kind == INT && col.isPresent(row)) {
+                return col.ints[row];
+            }
+            return ParserUtils.parseTo_int(getString(column));
+        }
+
+        public long getLong(int column) {
+            Column col = chunk.column(column);
+            if (col != null && col.isPresent(row)) {
+                if (col.kind == LONG) {
+                    return col.longs[row];
+                } else if (col.kind == INT) {
+                    return col.ints[row];
+                }
+            }
+            return ParserUtils.parseTo_long(getString(column));
+        }
+
+        public double getDouble(int column) {
+            Column col = chunk.column(column);
+            if (col != null && col.isPresent(row)) {
+                if (col.kind == DOUBLE) {
+                    return Double.longBitsToDouble(col.longs[row]);
+                } else if (col.kind == INT) {
+                    return col.ints[row];
+                } else if (col.kind == LONG) {
+                    return col.longs[row];
+                }
+            }
+            return ParserUtils.parseTo_double(getString(column));
+        }
+
+        public float getFloat(int column) {
+            Column col = chunk.column(column);
+            if (col != null && col.kind == FLOAT && col.isPresent(row)) {
+                return Float.intBitsToFloat(col.ints[row]);
+            }
+            return ParserUtils.parseTo_float(getString(column));
+        }
+
+        public boolean getBoolean(int column) {
+            Column col = chunk.column(column);
+            if (col != null && col.kind == BOOLEAN && col.isPresent(row)) {
+                return col.ints[row] != 0;
+            }
+            return ParserUtils.parseTo_boolean(getString(column));
+        }
+
+        /**
+         * @return the value as the string added by tBufferOutput, null if null.
+         */
+        public String getString(int column) {
+            Column col = chunk.column(column);
+            return col == null ? null : col.getString(row);
+        }
+    }
+
+    private static class Chunk {
+
+        // read after count, replaced by the writer only
+        private Column[] columns = new Column[8];
+
+        private int[] widths = new int[INITIAL_CAPACITY];
+
+        private volatile int count;
+
+        Column column(int column) {
+            Column[] all = columns;
+            return column < all.length ? all[column] : null;
+        }
+
+        Column column(int column, byte kind) {
+            if (column >= columns.length) {
+                columns = Arrays.copyOf(columns, Math.max(columns.length * 2, column + 1));
+            }
+            Column col = columns[column];
+            if (col == null) {
+                col = new Column(kind);
+                columns[column] = col;
+            } else if (col.kind != kind && col.kind != STRING) {
+                // several types in the column, kept as strings
+                col = col.toStrings(count);
+                columns[column] = col;
+            }
+            return col;
+        }
+
+        void end(int width) {
+            int row = count;
+            if (row == widths.length) {
+                widths = Arrays.copyOf(widths, Math.min(CHUNK_SIZE, row * 2));
+            }
+            widths[row] = width;
+            count = row + 1;
+        }
+
+        void seal() {
+            for (Column col : columns) {
+                if (col != null) {
+                    col.index = null;
+                }
+            }
+        }
+
+        String[] row(int row) {
+            String[] values = new String[widths[row]];
+            for (int i = 0; i < values.length; i++) {
+                Column col = column(i);
+                values[i] = col == null ? null : col.getString(row);
+            }
+            return values;
+        }
+    }
+
+    private static class Column {
+
+        private final byte kind;
+
+        private final long[] present = new long[CHUNK_SIZE / 64];
+
+        // the ints, floats, booleans or dictionary codes
+        private int[] ints;
+
+        // the longs or doubles
+        private long[] longs;
+
+        private String[] dictionary;
+
+        private int dictionarySize;
+
+        // the codes of the strings, while the chunk is written
+        private Map<String, Integer> index;
+
+        Column(byte kind) {
+            this.kind = kind;
+            if (kind == LONG || kind == DOUBLE) {
+                longs = new long[INITIAL_CAPACITY];
+            } else {
+                ints = new int[INITIAL_CAPACITY];
+            }
+            if (kind == STRING) {
+                dictionary = new String[16];
+                index = new HashMap<String, Integer>();
+            }
+        }
+
+        boolean isPresent(int row) {
+            return (present[row >>> 6] & (1L << row)) != 0;
+        }
+
+        void setInt(int row, int value) {
+            if (row >= ints.length) {
+                ints = Arrays.copyOf(ints, capacity(row, ints.length));
+            }
+            ints[row] = value;
+            present[row >>> 6] |= 1L << row;
+        }
+
+        void setLong(int row, long value) {
+            if (row >= longs.length) {
+                longs = Arrays.copyOf(longs, capacity(row, longs.length));
+            }
+            longs[row] = value;
+            present[row >>> 6] |= 1L << row;
+        }
+
+        // the first value of a column, or its first value after a change of type, can come late in the chunk
+        private static int capacity(int row, int length) {
+            return Math.min(CHUNK_SIZE, Math.max(row + 1, length * 2));
+        }
+
+        void setString(int row, String value) {
+            Integer code = index.get(value);
+            if (code == null) {
+                if (dictionarySize == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+                }
+                code = dictionarySize;
+                dictionary[dictionarySize++] = value;
+                index.put(value, code);
+            }
+            setInt(row, code.intValue());
+        }
+
+        String getString(int row) {
+            if (!isPresent(row)) {
+                return null;
+            }
+            switch (kind) {
+            case INT:
+                return String.valueOf(ints[row]);
+            case LONG:
+                return String.valueOf(longs[row]);
+            case DOUBLE:
+                return String.valueOf(Double.longBitsToDouble(longs[row]));
+            case FLOAT:
+                return String.valueOf(Float.intBitsToFloat(ints[row]));
+            case BOOLEAN:
+                return String.valueOf(ints[row] != 0);
+            default:
+                return dictionary[ints[row]];
+            }
+        }
+
+        Column toStrings(int rows) {
+            Column strings = new Column(STRING);
+            for (int row = 0; row < rows; row++) {
+                String value = getString(row);
+                if (value != null) {
+                    strings.setString(row, value);
+                }
+            }
+            return strings;
+        }
+    }
+}
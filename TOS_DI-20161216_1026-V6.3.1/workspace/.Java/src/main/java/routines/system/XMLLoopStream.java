@@ -0,0 +1,389 @@
+// ============================================================================
+//
+// Copyright (C) 2006-2016 Talend Inc. - www.talend.com
+//
+// This source code is available under agreement available at
+// %InstallDIR%\features\org.talend.rcp.branding.%PRODUCTNAME%\%PRODUCTNAME%license.txt
+//
+// You should have received a copy of the agreement
+// along with this program; if not, write to Talend SA
+// 9 rue Pages 92150 Suresnes, France
+//
+// ============================================================================
+package routines.system;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+import org.dom4j.tree.AbstractNode;
+
+/**
+ * Reads the loop elements of a tExtractXMLField one by one with StAX, instead of loading the whole document with dom4j
+ * and selecting them with the loop query.
+ *
+ * Each loop element is built alone in a small dom4j document, under copies of its ancestors which keep their
+ * attributes and namespaces but not their other children. The XPath queries of the fields are then evaluated on it as
+ * on the whole document, and only one loop element is in memory at a time.
+ *
+ * The loop query is compiled to an absolute path of element names or *, without predicate. The queries of the fields
+ * must stay in the loop element and the attributes of its ancestors: absolute paths, anywhere in the query, the
+ * ancestor, parent, following and preceding axes, id() and the steps from .. to anything but an attribute or another
+ * .. are refused.
+ */
+public class XMLLoopStream {
+
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    // .. not followed by an attribute or another .., the copies of the ancestors have no text and no other child
+    private static final Pattern FROM_ANCESTOR = Pattern.compile("\\.\\.(?!\\s*/\\s*(@|\\.\\.))");
+
+    private static final Pattern OUTER_AXIS = Pattern
+            .compile("\\b(following|preceding|following-sibling|preceding-sibling|ancestor|ancestor-or-self|parent)\\s*::");
+
+    private static final Pattern ID_FUNCTION = Pattern.compile("(^|[^\\w.:-])id\\s*\\(");
+
+    // operators after which a / starts an absolute path
+    private static final Pattern OPERATOR = Pattern.compile("(^|\\s)(and|or|div|mod)$");
+
+    // by step of the loop query, null for *
+    private final String[] prefixes;
+
+    private final String[] names;
+
+    private XMLStreamReader reader;
+
+    // copies of the elements above the current position, without children
+    private final List<Element> ancestors = new ArrayList<Element>();
+
+    private final StringBuilder text = new StringBuilder();
+
+    private Element current;
+
+    private Element rootElement;
+
+    private boolean finished;
+
+    // the document is malformed after the previous loop element
+    private XMLStreamException error;
+
+    /**
+     * @throws IllegalArgumentException if a query cannot be evaluated on a single loop element.
+     */
+    public XMLLoopStream(String loopQuery, String[] fieldQueries) {
+        String loop = loopQuery == null ? "" : loopQuery.trim();
+        if (!loop.startsWith("/") || loop.startsWith("//") || loop.endsWith("/") || loop.length() < 2) {
+            throw unsupported(loopQuery);
+        }
+        String[] steps = loop.substring(1).split("/");
+        prefixes = new String[steps.length];
+        names = new String[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            String step = steps[i].trim();
+            if ("*".equals(step)) {
+                continue;
+            }
+            int colon = step.indexOf(':');
+            String name = colon < 0 ? step : step.substring(colon + 1);
+            String prefix = colon < 0 ? "" : step.substring(0, colon);
+            if (!isName(name) || (prefix.length() > 0 && !isName(prefix))) {
+                throw unsupported(loopQuery);
+            }
+            prefixes[i] = prefix;
+            names[i] = name;
+        }
+        for (String fieldQuery : fieldQueries) {
+            String field = fieldQuery == null ? "" : fieldQuery.trim();
+            String path = withoutLiterals(field);
+            if (hasAbsolutePath(path) || FROM_ANCESTOR.matcher(path).find() || OUTER_AXIS.matcher(path).find()
+                    || ID_FUNCTION.matcher(path).find()) {
+                throw unsupported(fieldQuery);
+            }
+        }
+    }
+
+    // the string literals of the query replaced by spaces
+    private static String withoutLiterals(String query) {
+        StringBuilder path = new StringBuilder(query);
+        char quote = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                path.setCharAt(i, ' ');
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                path.setCharAt(i, ' ');
+            }
+        }
+        return path.toString();
+    }
+
+    // a / which does not follow a step, as at the start of the query or in count(//b)
+    private static boolean hasAbsolutePath(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) != '/') {
+                continue;
+            }
+            String before = path.substring(0, i).trim();
+            if (before.length() == 0 || "([,|=<>!+-".indexOf(before.charAt(before.length() - 1)) >= 0
+                    || OPERATOR.matcher(before).find()) {
+                return true;
+            }
+            if (i + 1 < path.length() && path.charAt(i + 1) == '/') {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    private static IllegalArgumentException unsupported(String query) {
+        return new IllegalArgumentException("The XPath query " + query + " is not supported by the streaming reader");
+    }
+
+    private static boolean isName(String name) {
+        if (name.length() == 0 || !(Character.isLetter(name.charAt(0)) || name.charAt(0) == '_')) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts reading a document, up to its first loop element.
+     *
+     * @throws XMLStreamException if the document is malformed before its first loop element.
+     */
+    public void open(Reader in) throws XMLStreamException {
+        close();
+        reader = FACTORY.createXMLStreamReader(in);
+        ancestors.clear();
+        rootElement = null;
+        finished = false;
+        current = null;
+        error = null;
+        try {
+            readLoopElement();
+        } catch (XMLStreamException e) {
+            // the document has no row
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the root element of the document of the first loop element, to look for the namespaces of the document,
+     * null if the document has no loop element.
+     */
+    public Element getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * @return true as well if the document is malformed after the current loop element, the error then takes the place
+     * of the next element.
+     */
+    public boolean hasNext() {
+        if (current == null && !finished) {
+            try {
+                readLoopElement();
+            } catch (XMLStreamException e) {
+                close();
+                error = e;
+            }
+        }
+        return current != null || error != null;
+    }
+
+    /**
+     * @return the next loop element, its document holds its ancestors, or null if the document is malformed after the
+     * previous one: {@link #checkError()} then throws the error.
+     */
+    public AbstractNode next() {
+        if (!hasNext()) {
+            throw new java.util.NoSuchElementException();
+        }
+        AbstractNode loopElement = (AbstractNode) current;
+        current = null;
+        return loopElement;
+    }
+
+    /**
+     * @throws XMLStreamException if the document is malformed after the previous loop element, once.
+     */
+    public void checkError() throws XMLStreamException {
+        XMLStreamException e = error;
+        error = null;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    public void close() {
+        finished = true;
+        current = null;
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing was written
+            }
+            reader = null;
+        }
+    }
+
+    private void readLoopElement() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                int depth = ancestors.size();
+                if (!matches(depth)) {
+                    skipElement();
+                } else if (depth + 1 < names.length) {
+                    ancestors.add(element());
+                } else {
+                    current = readElement();
+                    if (rootElement == null) {
+                        rootElement = current.getDocument().getRootElement();
+                    }
+                    return;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                ancestors.remove(ancestors.size() - 1);
+            }
+        }
+        finished = true;
+        reader.close();
+        reader = null;
+    }
+
+    private boolean matches(int depth) {
+        if (names[depth] == null) {
+            return true;
+        }
+        String prefix = reader.getPrefix();
+        return names[depth].equals(reader.getLocalName()) && prefixes[depth].equals(prefix == null ? "" : prefix);
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    // the loop element under copies of its ancestors, as SAXReader builds it
+    private Element readElement() throws XMLStreamException {
+        Document document = DocumentHelper.createDocument();
+        Element parent = null;
+        for (Element ancestor : ancestors) {
+            Element copy = ancestor.createCopy();
+            if (parent == null) {
+                document.setRootElement(copy);
+            } else {
+                parent.add(copy);
+            }
+            parent = copy;
+        }
+        Element loopElement = element();
+        if (parent == null) {
+            document.setRootElement(loopElement);
+        } else {
+            parent.add(loopElement);
+        }
+
+        Element element = loopElement;
+        text.setLength(0);
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+            case XMLStreamConstants.START_ELEMENT:
+                addText(element);
+                Element child = element();
+                element.add(child);
+                element = child;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                addText(element);
+                if (element == loopElement) {
+                    return loopElement;
+                }
+                element = element.getParent();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                text.append(reader.getText());
+                break;
+            case XMLStreamConstants.CDATA:
+                addText(element);
+                element.addCDATA(reader.getText());
+                break;
+            case XMLStreamConstants.COMMENT:
+                addText(element);
+                element.addComment(reader.getText());
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                addText(element);
+                element.addProcessingInstruction(reader.getPITarget(), reader.getPIData());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    // the text between two nodes is one node, even if StAX splits it
+    private void addText(Element element) {
+        if (text.length() > 0) {
+            element.addText(text.toString());
+            text.setLength(0);
+        }
+    }
+
+    private Element element() {
+        Element element = DocumentHelper.createElement(qName(reader.getLocalName(), reader.getPrefix(),
+                reader.getNamespaceURI()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String nsPrefix = reader.getNamespacePrefix(i);
+            String nsUri = reader.getNamespaceURI(i);
+            element.add(Namespace.get(nsPrefix == null ? "" : nsPrefix, nsUri == null ? "" : nsUri));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.addAttribute(qName(reader.getAttributeLocalName(i), reader.getAttributePrefix(i),
+                    reader.getAttributeNamespace(i)), reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    // dom4j compares the names without namespace to Namespace.NO_NAMESPACE by identity
+    private static QName qName(String localName, String prefix, String uri) {
+        if (uri == null || uri.length() == 0) {
+            return QName.get(localName);
+        }
+        return QName.get(localName, prefix == null ? "" : prefix, uri);
+    }
+}